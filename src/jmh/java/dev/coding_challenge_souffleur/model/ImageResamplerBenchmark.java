@@ -0,0 +1,123 @@
+package dev.coding_challenge_souffleur.model;
+
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.image.WritablePixelFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of scaling a captured window down to the image token budget. Compares the resampler, which
+ * reads and writes the raw pixels on the calling thread, with a snapshot of a scaled ImageView,
+ * which has to run on the JavaFX application thread.
+ *
+ * <p>The image imitates a code editor: a flat background with lines of text-like noise.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageResamplerBenchmark {
+
+  private static final WritablePixelFormat<IntBuffer> ARGB_FORMAT =
+      PixelFormat.getIntArgbInstance();
+  private static final int LINE_HEIGHT = 18;
+
+  @Param({"1280x720", "1920x1080", "2560x1440", "3840x2160"})
+  private String windowSize;
+
+  private Image capture;
+  private ImageTokenBudget.Size targetSize;
+  private ImageResampler lanczos;
+  private ImageResampler areaAverage;
+
+  private static void startFxToolkit() {
+    try {
+      Platform.startup(() -> {});
+    } catch (final IllegalStateException e) {
+      // Toolkit already running
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    startFxToolkit();
+
+    var dimensions = windowSize.split("x");
+    var width = Integer.parseInt(dimensions[0]);
+    var height = Integer.parseInt(dimensions[1]);
+    var random = new Random(42);
+    var image = new WritableImage(width, height);
+    var pixelWriter = image.getPixelWriter();
+    for (var y = 0; y < height; y++) {
+      var lineLength = random.nextInt(width);
+      for (var x = 0; x < width; x++) {
+        var isGlyph = y % LINE_HEIGHT < 12 && x < lineLength && random.nextInt(3) == 0;
+        pixelWriter.setArgb(x, y, isGlyph ? 0xFFD4D4D4 : 0xFF1E1E1E);
+      }
+    }
+    capture = image;
+    targetSize = new ImageTokenBudget(ImageTokenBudget.MAX_TOKENS).fit(width, height);
+    lanczos = new ImageResampler(ImageResampler.Kernel.LANCZOS3);
+    areaAverage = new ImageResampler(ImageResampler.Kernel.AREA_AVERAGE);
+  }
+
+  private Image resample(final ImageResampler resampler) {
+    var sourceWidth = (int) capture.getWidth();
+    var sourceHeight = (int) capture.getHeight();
+    var source = new int[sourceWidth * sourceHeight];
+    capture
+        .getPixelReader()
+        .getPixels(0, 0, sourceWidth, sourceHeight, ARGB_FORMAT, source, 0, sourceWidth);
+
+    var width = targetSize.width();
+    var height = targetSize.height();
+    var target = resampler.resample(source, sourceWidth, sourceHeight, width, height);
+
+    var resized = new WritableImage(width, height);
+    resized.getPixelWriter().setPixels(0, 0, width, height, ARGB_FORMAT, target, 0, width);
+    return resized;
+  }
+
+  @Benchmark
+  public Image lanczos3() {
+    return resample(lanczos);
+  }
+
+  @Benchmark
+  public Image areaAverage() {
+    return resample(areaAverage);
+  }
+
+  @Benchmark
+  public Image imageViewSnapshot() {
+    var snapshot = new CompletableFuture<Image>();
+    Platform.runLater(
+        () -> {
+          var imageView = new ImageView(capture);
+          imageView.setFitWidth(targetSize.width());
+          imageView.setFitHeight(targetSize.height());
+          imageView.setSmooth(true);
+          snapshot.complete(imageView.snapshot(null, null));
+        });
+    return snapshot.join();
+  }
+}
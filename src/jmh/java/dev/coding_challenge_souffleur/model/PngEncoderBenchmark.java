@@ -0,0 +1,81 @@
+package dev.coding_challenge_souffleur.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of encoding a 1600x900 screenshot as PNG, the size screenshots are scaled down to before
+ * they are sent. Compares the parallel band encoder with converting the image to a {@code
+ * BufferedImage} and writing it with ImageIO, and with color reduction, which writes the gray
+ * text as 8-bit grayscale.
+ *
+ * <p>The image imitates a code editor: a flat background with lines of text-like noise.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PngEncoderBenchmark {
+
+  private static final int WIDTH = 1600;
+  private static final int HEIGHT = 900;
+  private static final int LINE_HEIGHT = 18;
+
+  private Image screenshot;
+  private PngEncoder encoder;
+  private PngEncoder colorReducingEncoder;
+
+  @Setup
+  public void setUp() {
+    var random = new Random(42);
+    var image = new WritableImage(WIDTH, HEIGHT);
+    var pixelWriter = image.getPixelWriter();
+    for (var y = 0; y < HEIGHT; y++) {
+      var lineLength = random.nextInt(WIDTH);
+      for (var x = 0; x < WIDTH; x++) {
+        var isGlyph = y % LINE_HEIGHT < 12 && x < lineLength && random.nextInt(3) == 0;
+        pixelWriter.setArgb(x, y, isGlyph ? 0xFFD4D4D4 : 0xFF1E1E1E);
+      }
+    }
+    screenshot = image;
+    encoder = new PngEncoder(4, false);
+    colorReducingEncoder = new PngEncoder(4, true);
+  }
+
+  @Benchmark
+  public byte[] parallelBands() {
+    return encoder.encode(screenshot);
+  }
+
+  @Benchmark
+  public byte[] reducedColors() {
+    return colorReducingEncoder.encode(screenshot);
+  }
+
+  @Benchmark
+  public byte[] imageIo() throws IOException {
+    var bufferedImage = SwingFXUtils.fromFXImage(screenshot, null);
+    try (var outputStream = new ByteArrayOutputStream()) {
+      ImageIO.write(bufferedImage, "png", outputStream);
+      return outputStream.toByteArray();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package dev.coding_challenge_souffleur.view.components;
+
+import java.util.concurrent.TimeUnit;
+import javafx.application.Platform;
+import org.fxmisc.richtext.CodeArea;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of one streamed update of a growing code section. Each operation appends a delta and
+ * removes it again, so the section keeps its size. The patch path should cost about the same for
+ * every section length, while replacing the whole text grows with the section.
+ *
+ * <p>The displays are not part of a scene, so they may be updated from the benchmark thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualizedTextDisplayBenchmark {
+
+  private static final String DELTA = "    result.put(key, value); // streamed delta\n";
+
+  @Param({"1000", "10000", "100000"})
+  private int sectionLength;
+
+  private String content;
+  private String grownContent;
+  private VirtualizedTextDisplay display;
+  private CodeArea fullReplaceArea;
+
+  private static void startFxToolkit() {
+    try {
+      Platform.startup(() -> {});
+    } catch (final IllegalStateException e) {
+      // Toolkit already running
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    startFxToolkit();
+
+    content = DELTA.repeat(sectionLength / DELTA.length() + 1).substring(0, sectionLength);
+    grownContent = content + DELTA;
+
+    display = new VirtualizedTextDisplay();
+    display.setFormattedCodeContent(content);
+    fullReplaceArea = new CodeArea(content);
+  }
+
+  @Benchmark
+  public void appendStreamedDelta() {
+    display.appendFormattedCodeContent(content.length(), DELTA);
+    display.appendFormattedCodeContent(content.length(), "");
+  }
+
+  @Benchmark
+  public void patchChangedTail() {
+    display.setFormattedCodeContent(grownContent);
+    display.setFormattedCodeContent(content);
+  }
+
+  @Benchmark
+  public void replaceWholeText() {
+    fullReplaceArea.replaceText(grownContent);
+    fullReplaceArea.replaceText(content);
+  }
+}
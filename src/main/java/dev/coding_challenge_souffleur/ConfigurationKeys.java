@@ -6,6 +6,18 @@ public final class ConfigurationKeys {
   public static final String ANTHROPIC_API_KEY = "anthropic.api.key";
   public static final String ANTHROPIC_MODEL = "anthropic.model";
 
+  // Retry Configuration
+  public static final String APP_RETRY_MAX_ATTEMPTS = "app.retry.max_attempts";
+  public static final String APP_RETRY_BASE_DELAY_MILLIS = "app.retry.base_delay_millis";
+  public static final String APP_RETRY_MAX_DELAY_MILLIS = "app.retry.max_delay_millis";
+  public static final String APP_RETRY_CIRCUIT_FAILURE_THRESHOLD =
+      "app.retry.circuit.failure_threshold";
+  public static final String APP_RETRY_CIRCUIT_OPEN_MILLIS = "app.retry.circuit.open_millis";
+
+  // Prompt Configuration
+  public static final String APP_PROMPTS_WATCH_ENABLED = "app.prompts.watch.enabled";
+  public static final String APP_PROMPTS_WATCH_DIRECTORY = "app.prompts.watch.directory";
+
   // Application Configuration
   public static final String APP_EXIT_PLATFORM_ON_CLOSE = "app.exit.platform.on.close";
   public static final String APP_STAGE_CREATION_ASYNC = "app.stage.creation.async";
@@ -26,6 +38,8 @@ public final class ConfigurationKeys {
   public static final String APP_KEYBOARD_KEY_RUN_ANALYSIS = "app.keyboard.key.run_analysis";
   public static final String APP_KEYBOARD_KEY_RUN_MOCK_ANALYSIS =
       "app.keyboard.key.run_mock_analysis";
+  public static final String APP_KEYBOARD_KEY_RUN_FRESH_ANALYSIS =
+      "app.keyboard.key.run_fresh_analysis";
   public static final String APP_KEYBOARD_KEY_SCROLL_DOWN = "app.keyboard.key.scroll_down";
   public static final String APP_KEYBOARD_KEY_SCROLL_UP = "app.keyboard.key.scroll_up";
   public static final String APP_KEYBOARD_KEY_SWITCH_TO_TAB1 = "app.keyboard.key.switch_to_tab1";
@@ -40,6 +54,42 @@ public final class ConfigurationKeys {
 
   // Screenshot Configuration
   public static final String SAVE_SCREENSHOT_TO_FILE = "save.screenshot.to.file";
+  public static final String SAVE_SCREENSHOT_QUEUE_CAPACITY = "save.screenshot.queue_capacity";
+  public static final String SAVE_SCREENSHOT_MAX_FILES = "save.screenshot.max_files";
+  public static final String SAVE_SCREENSHOT_MAX_MEGABYTES = "save.screenshot.max_megabytes";
+  public static final String APP_IMAGE_TOKEN_BUDGET = "app.image.token_budget";
+  public static final String APP_IMAGE_CROP_ENABLED = "app.image.crop.enabled";
+  public static final String APP_IMAGE_CROP_MIN_KEEP_AREA = "app.image.crop.min_keep_area";
+
+  // Watch Mode Configuration
+  public static final String APP_WATCH_MODE = "app.watch.mode";
+  public static final String APP_WATCH_INTERVAL_MILLIS = "app.watch.interval_millis";
+  public static final String APP_WATCH_MIN_CHANGED_TILES = "app.watch.min_changed_tiles";
+
+  // Image Encoding Configuration
+  public static final String APP_IMAGE_CODEC = "app.image.codec";
+  public static final String APP_IMAGE_JPEG_QUALITY = "app.image.jpeg_quality";
+  public static final String APP_IMAGE_MAX_BYTES = "app.image.max_bytes";
+  public static final String APP_IMAGE_PNG_REDUCE_COLORS = "app.image.png.reduce_colors";
+
+  // Analysis Cache Configuration
+  public static final String APP_ANALYSIS_CACHE_SIZE = "app.analysis.cache.size";
+  public static final String APP_ANALYSIS_CACHE_MAX_DISTANCE = "app.analysis.cache.max_distance";
+  public static final String APP_ANALYSIS_STORE_ENABLED = "app.analysis.store.enabled";
+  public static final String APP_ANALYSIS_STORE_DIRECTORY = "app.analysis.store.directory";
+  public static final String APP_ANALYSIS_STORE_MAX_ENTRIES = "app.analysis.store.max_entries";
+  public static final String APP_ANALYSIS_STORE_MAX_MEGABYTES = "app.analysis.store.max_megabytes";
+
+  // Analysis Executor Configuration
+  public static final String APP_ANALYSIS_EXECUTOR_VIRTUAL_THREADS =
+      "app.analysis.executor.virtual_threads";
+  public static final String APP_ANALYSIS_EXECUTOR_MAX_CONCURRENCY =
+      "app.analysis.executor.max_concurrency";
+
+  // Analysis Stream Configuration
+  public static final String APP_ANALYSIS_STREAM_ASYNC = "app.analysis.stream.async";
+  public static final String APP_ANALYSIS_STREAM_QUEUE_CAPACITY =
+      "app.analysis.stream.queue_capacity";
 
   // Coding Language Configuration
   public static final String APP_DEFAULT_CODING_LANGUAGE = "app.default.coding_language";
@@ -0,0 +1,188 @@
+package dev.coding_challenge_souffleur.model;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs one analysis at a time. An analysis of another screenshot or language supersedes the active
+ * one, which is cancelled: its stream is closed, releasing the connection, and its listener
+ * receives no further events. A repeated request for the active screenshot and language attaches
+ * to the active analysis instead of starting a second stream.
+ */
+@ApplicationScoped
+class AnalysisCoordinator {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AnalysisCoordinator.class);
+
+  // Guarded by this
+  private Analysis active;
+
+  private record Analysis(
+      Object key,
+      Cancellation cancellation,
+      CompletableFuture<MultiSolutionResult> result) {}
+
+  /**
+   * Tells a running analysis whether it was superseded, and closes its stream when it is. The
+   * analysis checks {@link #isCancelled()} between steps, closing the stream also ends a stream
+   * waiting for the next event.
+   */
+  static final class Cancellation {
+
+    private volatile boolean cancelled;
+    // Guarded by this
+    private AutoCloseable stream;
+
+    boolean isCancelled() {
+      return cancelled;
+    }
+
+    /**
+     * Throws if the analysis was cancelled.
+     *
+     * @throws CancellationException if the analysis was cancelled
+     */
+    void throwIfCancelled() {
+      if (cancelled) {
+        throw supersededException();
+      }
+    }
+
+    private static CancellationException supersededException() {
+      return new CancellationException("Analysis superseded by a newer one");
+    }
+
+    /**
+     * Registers the stream to close on cancellation, closing it at once if already cancelled.
+     *
+     * @param stream the stream of the running request
+     */
+    void register(final AutoCloseable stream) {
+      synchronized (this) {
+        if (!cancelled) {
+          this.stream = stream;
+          return;
+        }
+      }
+      close(stream);
+    }
+
+    /**
+     * Unregisters the stream once the request completed.
+     *
+     * @param stream the stream of the completed request
+     */
+    synchronized void unregister(final AutoCloseable stream) {
+      if (this.stream == stream) {
+        this.stream = null;
+      }
+    }
+
+    /**
+     * Returns a listener passing events on until the analysis is cancelled.
+     *
+     * @param listener the listener to guard, may be null
+     * @return the guarded listener, or null if the listener is null
+     */
+    SectionEventListener guard(final SectionEventListener listener) {
+      if (listener == null) {
+        return null;
+      }
+      return new SectionEventListener() {
+        @Override
+        public void onSectionEvents(
+            final List<SectionEvent> events, final MultiSolutionResult result) {
+          if (!cancelled) {
+            listener.onSectionEvents(events, result);
+          }
+        }
+
+        @Override
+        public void onRestart() {
+          if (!cancelled) {
+            listener.onRestart();
+          }
+        }
+      };
+    }
+
+    void cancel() {
+      AutoCloseable registeredStream;
+      synchronized (this) {
+        cancelled = true;
+        registeredStream = stream;
+        stream = null;
+      }
+      if (registeredStream != null) {
+        close(registeredStream);
+      }
+    }
+
+    private static void close(final AutoCloseable stream) {
+      try {
+        stream.close();
+      } catch (final Exception e) {
+        LOGGER.debug("Failed to close cancelled stream", e);
+      }
+    }
+  }
+
+  /**
+   * Runs an analysis, cancelling the active one unless it has the same key, in which case its
+   * result is returned. The events of an attached request are passed to the listener of the active
+   * analysis only.
+   *
+   * @param key the key of the screenshot and language to analyse, e.g. an {@link
+   *     AnalysisResultCache.Key}
+   * @param analysis starts the analysis, checking the given cancellation
+   * @return the result, completed exceptionally with a {@link CancellationException} once the
+   *     analysis is superseded
+   */
+  CompletableFuture<MultiSolutionResult> run(
+      final Object key,
+      final Function<Cancellation, CompletableFuture<MultiSolutionResult>> analysis) {
+    Analysis superseded;
+    Analysis started;
+    synchronized (this) {
+      if (active != null && active.key().equals(key)) {
+        LOGGER.debug("Attaching to the running analysis of the same screenshot");
+        return active.result();
+      }
+      superseded = active;
+      started = new Analysis(key, new Cancellation(), new CompletableFuture<>());
+      active = started;
+    }
+
+    if (superseded != null) {
+      LOGGER.debug("Cancelling the analysis superseded by a new screenshot");
+      superseded.cancellation().cancel();
+      superseded.result().completeExceptionally(Cancellation.supersededException());
+    }
+
+    CompletableFuture<MultiSolutionResult> analysisResult;
+    try {
+      analysisResult = analysis.apply(started.cancellation());
+    } catch (final RuntimeException e) {
+      analysisResult = CompletableFuture.failedFuture(e);
+    }
+    analysisResult.whenComplete(
+        (result, error) -> {
+          synchronized (this) {
+            if (active == started) {
+              active = null;
+            }
+          }
+          if (error == null) {
+            started.result().complete(result);
+          } else {
+            started.result().completeExceptionally(error);
+          }
+        });
+    return started.result();
+  }
+}
@@ -0,0 +1,159 @@
+package dev.coding_challenge_souffleur.model;
+
+import dev.coding_challenge_souffleur.ConfigurationKeys;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the blocking parts of an analysis, i.e. consuming the response stream of the API and
+ * replaying the mock. These tasks wait on the network most of the time, so by default each runs on
+ * its own virtual thread. They must not run on the common pool, which they would starve of workers
+ * for parallel streams and other CPU bound work.
+ *
+ * <p>At most the configured number of tasks run at once, further tasks wait for a permit. Every
+ * task completes its future, also when the executor shuts down before the task runs. While a task
+ * runs, its thread is named after its stage, e.g. {@code analysis-3:api-stream}, so thread dumps
+ * show which part of the pipeline a thread is in.
+ */
+@ApplicationScoped
+class AnalysisExecutor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AnalysisExecutor.class);
+  private static final long SHUTDOWN_TIMEOUT_MILLIS = 1000;
+
+  private final boolean virtualThreads;
+  private final int maxConcurrency;
+  private final Semaphore permits;
+
+  private ExecutorService workers;
+
+  @Inject
+  AnalysisExecutor(
+      @ConfigProperty(name = ConfigurationKeys.APP_ANALYSIS_EXECUTOR_VIRTUAL_THREADS)
+          final boolean virtualThreads,
+      @ConfigProperty(name = ConfigurationKeys.APP_ANALYSIS_EXECUTOR_MAX_CONCURRENCY)
+          final int maxConcurrency) {
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("Max concurrency must be positive: " + maxConcurrency);
+    }
+    this.virtualThreads = virtualThreads;
+    this.maxConcurrency = maxConcurrency;
+    this.permits = new Semaphore(maxConcurrency, true);
+  }
+
+  /** A task of a stage, completing its future however it ends. */
+  private final class StageTask<T> implements Runnable {
+
+    private final String stage;
+    private final Supplier<T> task;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    private StageTask(final String stage, final Supplier<T> task) {
+      this.stage = stage;
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      try {
+        permits.acquire();
+      } catch (final InterruptedException e) {
+        // Shutting down, the task is not run but fails
+        Thread.currentThread().interrupt();
+        future.completeExceptionally(e);
+        return;
+      }
+      var thread = Thread.currentThread();
+      var name = thread.getName();
+      thread.setName(name + ":" + stage);
+      try {
+        future.complete(task.get());
+      } catch (final RuntimeException | Error e) {
+        future.completeExceptionally(e);
+      } finally {
+        thread.setName(name);
+        permits.release();
+      }
+    }
+  }
+
+  @PostConstruct
+  void start() {
+    workers =
+        virtualThreads
+            ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("analysis-", 1).factory())
+            : Executors.newFixedThreadPool(
+                maxConcurrency, Thread.ofPlatform().name("analysis-", 1).daemon().factory());
+    LOGGER.debug(
+        "Started analysis executor on {} threads, running at most {} tasks",
+        virtualThreads ? "virtual" : "platform",
+        maxConcurrency);
+  }
+
+  /**
+   * Runs the task on this executor, its thread named after the stage.
+   *
+   * @param stage the name of the pipeline stage, e.g. {@code mock-stream}
+   * @param task the task
+   * @param <T> the type of the result
+   * @return the result of the task, completed exceptionally with an {@link InterruptedException}
+   *     if the executor shuts down while the task waits for a permit, or with a {@link
+   *     RejectedExecutionException} if it shuts down before the task started
+   */
+  <T> CompletableFuture<T> supplyAsync(final String stage, final Supplier<T> task) {
+    var stageTask = new StageTask<>(stage, task);
+    try {
+      workers.execute(stageTask);
+    } catch (final RejectedExecutionException e) {
+      stageTask.future.completeExceptionally(e);
+    }
+    return stageTask.future;
+  }
+
+  /**
+   * Runs the task on this executor, its thread named after the stage.
+   *
+   * @param stage the name of the pipeline stage, e.g. {@code stream-parse}
+   * @param task the task
+   * @return the completion of the task, failing like {@link #supplyAsync(String, Supplier)}
+   */
+  CompletableFuture<Void> runAsync(final String stage, final Runnable task) {
+    return supplyAsync(
+        stage,
+        () -> {
+          task.run();
+          return null;
+        });
+  }
+
+  @PreDestroy
+  void shutdown() {
+    LOGGER.debug("Shutting down analysis executor");
+    // Tasks queued for a platform thread are never started
+    for (final var unstarted : workers.shutdownNow()) {
+      if (unstarted instanceof StageTask<?> stageTask) {
+        stageTask.future.completeExceptionally(
+            new RejectedExecutionException("Analysis executor shut down"));
+      }
+    }
+    try {
+      if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+        LOGGER.warn("Analysis tasks still running after {} ms", SHUTDOWN_TIMEOUT_MILLIS);
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package dev.coding_challenge_souffleur.model;
+
+import dev.coding_challenge_souffleur.ConfigurationKeys;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Least recently used cache of complete analysis results. A lookup returns the result of the most
+ * similar cached screenshot within the configured Hamming distance of the {@link PerceptualHash},
+ * for the same coding language and prompt version. Analysing the same problem again, also after a
+ * small scroll, therefore needs no API call.
+ *
+ * <p>The cache holds a few entries only, so a lookup compares with all of them. Results are also
+ * written to the {@link AnalysisStore}, which is looked up on a miss, so they survive restarts.
+ */
+@ApplicationScoped
+class AnalysisResultCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AnalysisResultCache.class);
+
+  private final int maxEntries;
+  private final int maxDistance;
+  private final AnalysisStore store;
+  private final Map<Key, MultiSolutionResult> results;
+
+  /**
+   * What a cached result depends on.
+   *
+   * @param screenshotHash the perceptual hash of the analysed screenshot
+   * @param codingLanguage the language of the solutions
+   * @param promptVersion the version of the prompts and the model
+   */
+  record Key(PerceptualHash screenshotHash, CodingLanguage codingLanguage, int promptVersion) {}
+
+  @Inject
+  AnalysisResultCache(
+      @ConfigProperty(name = ConfigurationKeys.APP_ANALYSIS_CACHE_SIZE) final int maxEntries,
+      @ConfigProperty(name = ConfigurationKeys.APP_ANALYSIS_CACHE_MAX_DISTANCE)
+          final int maxDistance,
+      final AnalysisStore store) {
+    this.maxEntries = maxEntries;
+    this.maxDistance = maxDistance;
+    this.store = store;
+    // Access order makes the first entry the least recently used
+    this.results =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(final Map.Entry<Key, MultiSolutionResult> eldest) {
+            return size() > AnalysisResultCache.this.maxEntries;
+          }
+        };
+  }
+
+  /**
+   * Returns the result of the most similar cached screenshot, if any is similar enough. On a miss
+   * the store is looked up, and a stored result is cached.
+   *
+   * @param key the key of the screenshot to analyse
+   * @return the cached or stored result, or empty on a miss
+   */
+  Optional<MultiSolutionResult> get(final Key key) {
+    var cached = getCached(key);
+    if (cached.isPresent()) {
+      return cached;
+    }
+
+    var stored = store.find(key, maxDistance);
+    stored.ifPresent(result -> putCached(key, result));
+    return stored;
+  }
+
+  /**
+   * Caches and stores a complete result, evicting the least recently used one if the cache is full.
+   * Incomplete results, e.g. of a cut off response, are neither cached nor stored.
+   *
+   * @param key the key of the analysed screenshot
+   * @param result the result of the analysis
+   * @param model the model that analysed the screenshot
+   * @param responseText the raw response text
+   */
+  void put(
+      final Key key,
+      final MultiSolutionResult result,
+      final String model,
+      final String responseText) {
+    if (!result.isComplete()) {
+      return;
+    }
+    putCached(key, result);
+    store.append(key, model, responseText, result);
+  }
+
+  private synchronized Optional<MultiSolutionResult> getCached(final Key key) {
+    Key nearest = null;
+    var nearestDistance = maxDistance + 1;
+    for (final var cachedKey : results.keySet()) {
+      if (cachedKey.codingLanguage() == key.codingLanguage()
+          && cachedKey.promptVersion() == key.promptVersion()) {
+        var distance = cachedKey.screenshotHash().distanceTo(key.screenshotHash());
+        if (distance < nearestDistance) {
+          nearest = cachedKey;
+          nearestDistance = distance;
+        }
+      }
+    }
+
+    if (nearest == null) {
+      LOGGER.debug("No cached result for {} screenshot", key.codingLanguage());
+      return Optional.empty();
+    }
+    LOGGER.debug("Cached result found at distance {}", nearestDistance);
+    return Optional.of(results.get(nearest));
+  }
+
+  private synchronized void putCached(final Key key, final MultiSolutionResult result) {
+    if (maxEntries > 0) {
+      results.put(key, result);
+    }
+  }
+}
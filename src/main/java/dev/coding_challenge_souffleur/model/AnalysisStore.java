@@ -0,0 +1,572 @@
+package dev.coding_challenge_souffleur.model;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import dev.coding_challenge_souffleur.ConfigurationKeys;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only store of analyses on disk, the second level behind the {@link AnalysisResultCache},
+ * so results survive restarts. A record holds the key of the analysed screenshot, the model, the
+ * raw response text and the parsed sections.
+ *
+ * <p>The records are appended to a log file. A memory-mapped index holds one fixed-size entry per
+ * record in append order, i.e. by time, with the key and the position of the record. A lookup by
+ * hash compares the keys in the index and reads a single record, a lookup by time finds the first
+ * entry by a binary search of the index. Opening the store reads no record.
+ * The index is derived from the log: if it does not match the log, e.g. after a crash, it is
+ * rebuilt by scanning the log.
+ *
+ * <p>When the index is full or the log would exceed its size cap, the log is compacted: the newest
+ * records up to half the capacity and size are kept, older records of the same key are dropped.
+ */
+@ApplicationScoped
+class AnalysisStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AnalysisStore.class);
+  private static final String LOG_FILE = "analyses.log";
+  private static final String INDEX_FILE = "analyses.idx";
+  private static final int MAGIC = 0x534F5546;
+  private static final int FORMAT_VERSION = 1;
+  // Magic, format version, capacity, entry count, log size
+  private static final int CAPACITY_POSITION = 8;
+  private static final int COUNT_POSITION = 12;
+  private static final int LOG_SIZE_POSITION = 16;
+  private static final int HEADER_BYTES = 24;
+  // Stored at, screenshot hash, language, prompt version, record offset, record length
+  private static final int HASH_OFFSET = 8;
+  private static final int LANGUAGE_OFFSET = HASH_OFFSET + PerceptualHash.WORDS * Long.BYTES;
+  private static final int PROMPT_VERSION_OFFSET = LANGUAGE_OFFSET + Integer.BYTES;
+  private static final int RECORD_OFFSET_OFFSET = PROMPT_VERSION_OFFSET + Integer.BYTES;
+  private static final int RECORD_LENGTH_OFFSET = RECORD_OFFSET_OFFSET + Long.BYTES;
+  private static final int ENTRY_BYTES = RECORD_LENGTH_OFFSET + Integer.BYTES;
+
+  // Null if the store is disabled
+  private final Path directory;
+  private final int capacity;
+  private final long maxLogBytes;
+  private FileChannel log;
+  // Null if the store is disabled or failed to open
+  private MappedByteBuffer index;
+  private int count;
+  private long logSize;
+
+  /** Position and key of a record in the log. */
+  private record Entry(
+      long storedAt,
+      PerceptualHash screenshotHash,
+      int languageHash,
+      int promptVersion,
+      long offset,
+      int length) {
+
+    Entry movedTo(final long newOffset) {
+      return new Entry(storedAt, screenshotHash, languageHash, promptVersion, newOffset, length);
+    }
+  }
+
+  @Inject
+  AnalysisStore(
+      @ConfigProperty(name = ConfigurationKeys.APP_ANALYSIS_STORE_ENABLED) final boolean enabled,
+      @ConfigProperty(name = ConfigurationKeys.APP_ANALYSIS_STORE_DIRECTORY)
+          final String directory,
+      @ConfigProperty(name = ConfigurationKeys.APP_ANALYSIS_STORE_MAX_ENTRIES) final int capacity,
+      @ConfigProperty(name = ConfigurationKeys.APP_ANALYSIS_STORE_MAX_MEGABYTES)
+          final int maxMegabytes) {
+    this(enabled ? Path.of(directory) : null, capacity, maxMegabytes * 1024L * 1024L);
+  }
+
+  /**
+   * Creates a store, which must be opened before use.
+   *
+   * @param directory the directory of the log and index files, or null to disable the store
+   * @param capacity the maximum number of records
+   * @param maxLogBytes the maximum size of the log
+   */
+  AnalysisStore(final Path directory, final int capacity, final long maxLogBytes) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("Capacity must be at least 2: " + capacity);
+    }
+    this.directory = directory;
+    this.capacity = capacity;
+    this.maxLogBytes = maxLogBytes;
+  }
+
+  @PostConstruct
+  synchronized void open() {
+    if (directory == null) {
+      LOGGER.debug("Analysis store disabled");
+      return;
+    }
+
+    try {
+      Files.createDirectories(directory);
+      log = FileChannel.open(directory.resolve(LOG_FILE), CREATE, READ, WRITE);
+      // The mapping stays valid after the channel is closed
+      var indexPath = directory.resolve(INDEX_FILE);
+      try (var indexChannel = FileChannel.open(indexPath, CREATE, READ, WRITE)) {
+        index =
+            indexChannel.map(
+                FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * ENTRY_BYTES);
+      }
+
+      if (isIndexValid()) {
+        count = index.getInt(COUNT_POSITION);
+        logSize = index.getLong(LOG_SIZE_POSITION);
+      } else {
+        LOGGER.info("Analysis index missing or out of date, rebuilding it from the log");
+        rebuildIndex();
+      }
+      LOGGER.debug("Opened analysis store with {} records, {} bytes", count, logSize);
+    } catch (final IOException e) {
+      LOGGER.warn("Failed to open analysis store, analyses are not stored", e);
+      index = null;
+      closeLog();
+    }
+  }
+
+  /**
+   * Returns the stored result of the most similar screenshot, if any is similar enough.
+   *
+   * @param key the key of the screenshot to analyse
+   * @param maxDistance the maximum Hamming distance of the screenshot hashes
+   * @return the stored result, or empty if there is none
+   */
+  synchronized Optional<MultiSolutionResult> find(
+      final AnalysisResultCache.Key key, final int maxDistance) {
+    if (index == null) {
+      return Optional.empty();
+    }
+
+    // Compares the hashes in the mapped index, newest first, without creating entries
+    var words = key.screenshotHash().toWords();
+    var languageHash = key.codingLanguage().name().hashCode();
+    var nearest = -1;
+    var nearestDistance = maxDistance + 1;
+    for (var slot = count - 1; slot >= 0; slot--) {
+      var position = HEADER_BYTES + slot * ENTRY_BYTES;
+      if (index.getInt(position + LANGUAGE_OFFSET) != languageHash
+          || index.getInt(position + PROMPT_VERSION_OFFSET) != key.promptVersion()) {
+        continue;
+      }
+      var distance = 0;
+      for (var i = 0; i < words.length; i++) {
+        var word = index.getLong(position + HASH_OFFSET + i * Long.BYTES);
+        distance += Long.bitCount(word ^ words[i]);
+      }
+      if (distance < nearestDistance) {
+        nearest = slot;
+        nearestDistance = distance;
+      }
+    }
+    if (nearest < 0) {
+      return Optional.empty();
+    }
+
+    var entry = readEntry(nearest);
+    try {
+      LOGGER.debug("Stored result found at distance {}", nearestDistance);
+      return Optional.of(readResult(entry));
+    } catch (final IOException e) {
+      LOGGER.warn("Failed to read stored analysis at {}", entry.offset(), e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Returns the results stored in the given period, oldest first. Only the records of the period
+   * are read.
+   *
+   * @param from the start of the period, inclusive
+   * @param to the end of the period, exclusive
+   * @return the stored results, empty if there are none
+   */
+  synchronized List<MultiSolutionResult> findStoredBetween(final Instant from, final Instant to) {
+    if (index == null) {
+      return List.of();
+    }
+
+    var results = new ArrayList<MultiSolutionResult>();
+    for (var slot = firstSlotStoredAt(from.toEpochMilli()); slot < count; slot++) {
+      var entry = readEntry(slot);
+      if (entry.storedAt() >= to.toEpochMilli()) {
+        break;
+      }
+      try {
+        results.add(readResult(entry));
+      } catch (final IOException e) {
+        LOGGER.warn("Failed to read stored analysis at {}", entry.offset(), e);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Appends an analysis, compacting the log first if it is full.
+   *
+   * @param key the key of the analysed screenshot
+   * @param model the model that analysed the screenshot
+   * @param responseText the raw response text
+   * @param result the result parsed from the response
+   */
+  synchronized void append(
+      final AnalysisResultCache.Key key,
+      final String model,
+      final String responseText,
+      final MultiSolutionResult result) {
+    if (index == null) {
+      return;
+    }
+
+    try {
+      // The index stays ordered by time, even if the clock is set back
+      var storedAt = Math.max(System.currentTimeMillis(), storedAt(count - 1));
+      var record = encodeRecord(storedAt, key, model, responseText, result);
+      if (record.length > maxLogBytes / 2) {
+        LOGGER.warn("Analysis of {} bytes too large to store", record.length);
+        return;
+      }
+      if (count == capacity || logSize + record.length > maxLogBytes) {
+        compact(readEntries());
+      }
+
+      writeFully(ByteBuffer.wrap(record), logSize);
+      var entry =
+          new Entry(
+              storedAt,
+              key.screenshotHash(),
+              key.codingLanguage().name().hashCode(),
+              key.promptVersion(),
+              logSize,
+              record.length);
+      writeEntry(count, entry);
+      count++;
+      logSize += record.length;
+      writeHeader();
+    } catch (final IOException e) {
+      LOGGER.warn("Failed to store analysis", e);
+    }
+  }
+
+  @PreDestroy
+  synchronized void close() {
+    if (index != null) {
+      index.force();
+      index = null;
+    }
+    closeLog();
+  }
+
+  private boolean isIndexValid() throws IOException {
+    return index.getInt(0) == MAGIC
+        && index.getInt(4) == FORMAT_VERSION
+        && index.getInt(CAPACITY_POSITION) == capacity
+        && index.getInt(COUNT_POSITION) >= 0
+        && index.getInt(COUNT_POSITION) <= capacity
+        && index.getLong(LOG_SIZE_POSITION) == log.size();
+  }
+
+  private void rebuildIndex() throws IOException {
+    var entries = new ArrayList<Entry>();
+    var size = log.size();
+    var offset = 0L;
+    while (offset + Integer.BYTES <= size) {
+      var lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+      readFully(lengthBuffer, offset);
+      var length = lengthBuffer.getInt(0);
+      if (length <= Integer.BYTES || offset + length > size) {
+        // A record cut off by a crash while appending
+        break;
+      }
+      try {
+        entries.add(readRecordEntry(offset, length));
+      } catch (final IOException | IllegalArgumentException e) {
+        LOGGER.warn("Dropping corrupt analysis records from {}", offset, e);
+        break;
+      }
+      offset += length;
+    }
+    log.truncate(offset);
+
+    if (entries.size() > capacity || offset > maxLogBytes) {
+      compact(entries);
+    } else {
+      writeIndex(entries, offset);
+    }
+  }
+
+  private void compact(final List<Entry> entries) throws IOException {
+    // Keeps the newest record of each key, up to half the capacity and size
+    var kept = new ArrayDeque<Entry>();
+    var keys = new HashSet<List<Object>>();
+    var keptBytes = 0L;
+    for (var i = entries.size() - 1; i >= 0; i--) {
+      var entry = entries.get(i);
+      if (kept.size() >= capacity / 2 || keptBytes + entry.length() > maxLogBytes / 2) {
+        break;
+      }
+      if (keys.add(List.of(entry.screenshotHash(), entry.languageHash(), entry.promptVersion()))) {
+        kept.addFirst(entry);
+        keptBytes += entry.length();
+      }
+    }
+
+    var logPath = directory.resolve(LOG_FILE);
+    var compactedPath = directory.resolve(LOG_FILE + ".tmp");
+    var compacted = new ArrayList<Entry>(kept.size());
+    var offset = 0L;
+    try (var compactedLog = FileChannel.open(compactedPath, CREATE, TRUNCATE_EXISTING, WRITE)) {
+      for (final var entry : kept) {
+        var transferred = 0L;
+        while (transferred < entry.length()) {
+          transferred +=
+              log.transferTo(
+                  entry.offset() + transferred, entry.length() - transferred, compactedLog);
+        }
+        compacted.add(entry.movedTo(offset));
+        offset += entry.length();
+      }
+      compactedLog.force(true);
+    }
+
+    // Until the index is written, it does not match the log size and would be rebuilt
+    closeLog();
+    try {
+      Files.move(
+          compactedPath,
+          logPath,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      log = FileChannel.open(logPath, READ, WRITE);
+    }
+    writeIndex(compacted, offset);
+    LOGGER.info("Compacted analysis store from {} to {} records", entries.size(), kept.size());
+  }
+
+  // Binary search of the first slot stored at or after the time, as the slots are ordered by time
+  private int firstSlotStoredAt(final long millis) {
+    var low = 0;
+    var high = count;
+    while (low < high) {
+      var middle = (low + high) >>> 1;
+      if (storedAt(middle) < millis) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private long storedAt(final int slot) {
+    return slot < 0 ? 0 : index.getLong(HEADER_BYTES + slot * ENTRY_BYTES);
+  }
+
+  private List<Entry> readEntries() {
+    var entries = new ArrayList<Entry>(count);
+    for (var slot = 0; slot < count; slot++) {
+      entries.add(readEntry(slot));
+    }
+    return entries;
+  }
+
+  private Entry readEntry(final int slot) {
+    var position = HEADER_BYTES + slot * ENTRY_BYTES;
+    var words = new long[PerceptualHash.WORDS];
+    for (var i = 0; i < words.length; i++) {
+      words[i] = index.getLong(position + HASH_OFFSET + i * Long.BYTES);
+    }
+    return new Entry(
+        index.getLong(position),
+        PerceptualHash.ofWords(words),
+        index.getInt(position + LANGUAGE_OFFSET),
+        index.getInt(position + PROMPT_VERSION_OFFSET),
+        index.getLong(position + RECORD_OFFSET_OFFSET),
+        index.getInt(position + RECORD_LENGTH_OFFSET));
+  }
+
+  private void writeEntry(final int slot, final Entry entry) {
+    var position = HEADER_BYTES + slot * ENTRY_BYTES;
+    index.putLong(position, entry.storedAt());
+    var words = entry.screenshotHash().toWords();
+    for (var i = 0; i < words.length; i++) {
+      index.putLong(position + HASH_OFFSET + i * Long.BYTES, words[i]);
+    }
+    index.putInt(position + LANGUAGE_OFFSET, entry.languageHash());
+    index.putInt(position + PROMPT_VERSION_OFFSET, entry.promptVersion());
+    index.putLong(position + RECORD_OFFSET_OFFSET, entry.offset());
+    index.putInt(position + RECORD_LENGTH_OFFSET, entry.length());
+  }
+
+  private void writeIndex(final List<Entry> entries, final long newLogSize) {
+    for (var slot = 0; slot < entries.size(); slot++) {
+      writeEntry(slot, entries.get(slot));
+    }
+    count = entries.size();
+    logSize = newLogSize;
+    writeHeader();
+  }
+
+  private void writeHeader() {
+    index.putInt(0, MAGIC);
+    index.putInt(4, FORMAT_VERSION);
+    index.putInt(CAPACITY_POSITION, capacity);
+    index.putInt(COUNT_POSITION, count);
+    index.putLong(LOG_SIZE_POSITION, logSize);
+  }
+
+  // Record: length, stored at, screenshot hash, language, prompt version, model, response text,
+  // then the number of sections and the solution index, section and content of each
+  private static byte[] encodeRecord(
+      final long storedAt,
+      final AnalysisResultCache.Key key,
+      final String model,
+      final String responseText,
+      final MultiSolutionResult result)
+      throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new DataOutputStream(bytes)) {
+      out.writeInt(0);
+      out.writeLong(storedAt);
+      for (final var word : key.screenshotHash().toWords()) {
+        out.writeLong(word);
+      }
+      out.writeUTF(key.codingLanguage().name());
+      out.writeInt(key.promptVersion());
+      out.writeUTF(model);
+      writeString(out, responseText);
+
+      var sections = new ArrayList<SectionEvent.SectionAppended>();
+      for (final var event : result.toSectionEvents()) {
+        if (event instanceof SectionEvent.SectionAppended appended) {
+          sections.add(appended);
+        }
+      }
+      out.writeInt(sections.size());
+      for (final var section : sections) {
+        out.writeInt(section.solutionIndex());
+        out.writeUTF(section.section().name());
+        writeString(out, section.text());
+      }
+    }
+
+    var record = bytes.toByteArray();
+    ByteBuffer.wrap(record).putInt(0, record.length);
+    return record;
+  }
+
+  private Entry readRecordEntry(final long offset, final int length) throws IOException {
+    try (var in = readRecord(offset, length)) {
+      var storedAt = in.readLong();
+      var words = new long[PerceptualHash.WORDS];
+      for (var i = 0; i < words.length; i++) {
+        words[i] = in.readLong();
+      }
+      var languageHash = in.readUTF().hashCode();
+      var promptVersion = in.readInt();
+      return new Entry(
+          storedAt, PerceptualHash.ofWords(words), languageHash, promptVersion, offset, length);
+    }
+  }
+
+  private MultiSolutionResult readResult(final Entry entry) throws IOException {
+    try (var in = readRecord(entry.offset(), entry.length())) {
+      if (in.readLong() != entry.storedAt()) {
+        throw new IOException("Index entry does not match the record");
+      }
+      // Skips the key, the model and the response text
+      in.skipNBytes((long) PerceptualHash.WORDS * Long.BYTES);
+      in.readUTF();
+      in.readInt();
+      in.readUTF();
+      in.skipNBytes(in.readInt());
+
+      var result = new MultiSolutionResult();
+      var sectionCount = in.readInt();
+      for (var i = 0; i < sectionCount; i++) {
+        var solutionIndex = in.readInt();
+        var section = SolutionSection.valueOf(in.readUTF());
+        result =
+            result.withEvent(
+                new SectionEvent.SectionAppended(solutionIndex, section, 0, readString(in)));
+      }
+      return result;
+    }
+  }
+
+  private DataInputStream readRecord(final long offset, final int length) throws IOException {
+    var buffer = ByteBuffer.allocate(length);
+    readFully(buffer, offset);
+    if (buffer.getInt(0) != length) {
+      throw new IOException("Record length does not match at " + offset);
+    }
+    return new DataInputStream(
+        new ByteArrayInputStream(buffer.array(), Integer.BYTES, length - Integer.BYTES));
+  }
+
+  private static void writeString(final DataOutputStream out, final String value)
+      throws IOException {
+    // Unlike writeUTF, not limited to 64 KB
+    var bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(final DataInputStream in) throws IOException {
+    return new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+  }
+
+  private void readFully(final ByteBuffer buffer, final long offset) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (log.read(buffer, offset + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of analysis log at " + offset);
+      }
+    }
+  }
+
+  private void writeFully(final ByteBuffer buffer, final long offset) throws IOException {
+    while (buffer.hasRemaining()) {
+      log.write(buffer, offset + buffer.position());
+    }
+  }
+
+  private void closeLog() {
+    if (log == null) {
+      return;
+    }
+    try {
+      log.close();
+    } catch (final IOException e) {
+      LOGGER.warn("Failed to close analysis log", e);
+    }
+    log = null;
+  }
+}
@@ -1,6 +1,7 @@
 package dev.coding_challenge_souffleur.model;
 
 import com.anthropic.client.AnthropicClient;
+import com.anthropic.client.AnthropicClientAsync;
 import com.anthropic.client.okhttp.AnthropicOkHttpClient;
 import dev.coding_challenge_souffleur.ConfigurationKeys;
 import jakarta.annotation.PostConstruct;
@@ -15,6 +16,7 @@ class AnthropicClientProducer {
   private final String apiKey;
 
   @Produces private AnthropicClient anthropicClient;
+  @Produces private AnthropicClientAsync anthropicClientAsync;
 
   @Inject
   AnthropicClientProducer(
@@ -24,6 +26,9 @@ class AnthropicClientProducer {
 
   @PostConstruct
   private void init() {
-    anthropicClient = AnthropicOkHttpClient.builder().apiKey(apiKey).build();
+    // Failed calls are retried by the RetryPolicy only
+    anthropicClient = AnthropicOkHttpClient.builder().apiKey(apiKey).maxRetries(0).build();
+    // Shares the connection pool and options of the synchronous client
+    anthropicClientAsync = anthropicClient.async();
   }
 }
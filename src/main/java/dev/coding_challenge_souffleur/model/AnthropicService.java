@@ -1,27 +1,35 @@
 package dev.coding_challenge_souffleur.model;
 
 import com.anthropic.client.AnthropicClient;
+import com.anthropic.client.AnthropicClientAsync;
+import com.anthropic.core.http.AsyncStreamResponse;
 import com.anthropic.helpers.MessageAccumulator;
 import com.anthropic.models.messages.Base64ImageSource;
-import com.anthropic.models.messages.Base64ImageSource.MediaType;
 import com.anthropic.models.messages.ContentBlockParam;
 import com.anthropic.models.messages.ImageBlockParam;
 import com.anthropic.models.messages.MessageCreateParams;
 import com.anthropic.models.messages.Model;
+import com.anthropic.models.messages.RawMessageStreamEvent;
 import dev.coding_challenge_souffleur.ConfigurationKeys;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Consumer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Supplier;
-import javafx.scene.image.Image;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,76 +38,85 @@ import org.slf4j.LoggerFactory;
 public class AnthropicService {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(AnthropicService.class);
-
-  private static final long DEFAULT_RETRY_BASE_DELAY_MS = 200;
-  private static final int DEFAULT_RETRY_MAX_ATTEMPTS = 3;
+  // The coordinator key of the mock, which has no screenshot
+  private static final Object MOCK_ANALYSIS_KEY = new Object();
 
   private final AnthropicClient anthropicClient;
+  private final AnthropicClientAsync anthropicClientAsync;
   private final ImageService imageService;
   private final MultiSolutionStreamProcessor multiSolutionProcessor;
   private final FileService fileService;
+  private final PromptRegistry promptRegistry;
+  private final ImageProcessingExecutor imageProcessingExecutor;
+  private final AnalysisResultCache resultCache;
+  private final AnalysisCoordinator analysisCoordinator;
+  private final RetryPolicy retryPolicy;
+  private final AnalysisExecutor analysisExecutor;
   private final Model claudeModel;
+  private final boolean asyncStreaming;
+  private final int streamQueueCapacity;
 
   private CodingLanguage currentLanguage = CodingLanguage.JAVA;
 
-  private String baseSystemMessage;
-  private String responseFormat;
-  private String userMessage;
   private String multiSolutionMockText;
+  private volatile ResponseUsage lastUsage;
 
   @Inject
   AnthropicService(
       final AnthropicClient anthropicClient,
+      final AnthropicClientAsync anthropicClientAsync,
       final ImageService imageService,
       final MultiSolutionStreamProcessor multiSolutionStreamProcessor,
       final FileService fileService,
-      @ConfigProperty(name = ConfigurationKeys.ANTHROPIC_MODEL) final Model claudeModel) {
+      final PromptRegistry promptRegistry,
+      final ImageProcessingExecutor imageProcessingExecutor,
+      final AnalysisResultCache resultCache,
+      final AnalysisCoordinator analysisCoordinator,
+      final RetryPolicy retryPolicy,
+      final AnalysisExecutor analysisExecutor,
+      @ConfigProperty(name = ConfigurationKeys.ANTHROPIC_MODEL) final Model claudeModel,
+      @ConfigProperty(name = ConfigurationKeys.APP_ANALYSIS_STREAM_ASYNC)
+          final boolean asyncStreaming,
+      @ConfigProperty(name = ConfigurationKeys.APP_ANALYSIS_STREAM_QUEUE_CAPACITY)
+          final int streamQueueCapacity) {
     this.anthropicClient = anthropicClient;
+    this.anthropicClientAsync = anthropicClientAsync;
     this.imageService = imageService;
     this.multiSolutionProcessor = multiSolutionStreamProcessor;
     this.fileService = fileService;
+    this.promptRegistry = promptRegistry;
+    this.imageProcessingExecutor = imageProcessingExecutor;
+    this.resultCache = resultCache;
+    this.analysisCoordinator = analysisCoordinator;
+    this.retryPolicy = retryPolicy;
+    this.analysisExecutor = analysisExecutor;
     this.claudeModel = claudeModel;
+    this.asyncStreaming = asyncStreaming;
+    this.streamQueueCapacity = streamQueueCapacity;
   }
 
-  private static <T> CompletableFuture<T> retryAsync(final Supplier<T> task, final int attempt) {
-    if (attempt > 1) {
-      LOGGER.debug("Retrying {}/{}", attempt, DEFAULT_RETRY_MAX_ATTEMPTS);
-    }
-
-    return CompletableFuture.supplyAsync(task)
-        .handle(
-            (res, ex) -> {
-              if (ex == null) {
-                return CompletableFuture.completedFuture(res);
-              }
-
-              var cause = (ex instanceof CompletionException) ? ex.getCause() : ex;
-              if (attempt >= DEFAULT_RETRY_MAX_ATTEMPTS) {
-                return CompletableFuture.<T>failedFuture(cause);
-              }
-
-              var delay = DEFAULT_RETRY_BASE_DELAY_MS * attempt; // linear backoff
-              return CompletableFuture.supplyAsync(
-                      () -> null, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
-                  .thenCompose(v -> retryAsync(task, attempt + 1));
-            })
-        .thenCompose(Function.identity());
-  }
-
-  private static ContentBlockParam createImageBlock(final byte[] imageBytes) {
-    var pngSizeMB = imageBytes.length / (1024.0 * 1024.0);
-    var estimatedBase64SizeMB = pngSizeMB * 1.33; // Base64 inflation
+  private static ContentBlockParam createImageBlock(final EncodedImage encodedImage) {
+    var imageSizeMB = encodedImage.size() / (1024.0 * 1024.0);
+    var estimatedBase64SizeMB = imageSizeMB * 1.33; // Base64 inflation
     LOGGER.debug(
-        "Image size - PNG: {} MB, Estimated Base64: {} MB",
-        String.format("%.2f", pngSizeMB),
+        "Image size - {}: {} MB, Estimated Base64: {} MB",
+        encodedImage.format(),
+        String.format("%.2f", imageSizeMB),
         String.format("%.2f", estimatedBase64SizeMB));
 
-    var base64Image = Base64.getEncoder().encodeToString(imageBytes);
+    var base64Image = Base64.getEncoder().encodeToString(encodedImage.data());
     var imageSource =
-        Base64ImageSource.builder().data(base64Image).mediaType(MediaType.IMAGE_PNG).build();
+        Base64ImageSource.builder()
+            .data(base64Image)
+            .mediaType(encodedImage.format().getMediaType())
+            .build();
     return ContentBlockParam.ofImage(ImageBlockParam.builder().source(imageSource).build());
   }
 
+  public CodingLanguage getCodingLanguage() {
+    return currentLanguage;
+  }
+
   public void setCodingLanguage(final CodingLanguage codingLanguage) {
     LOGGER.trace("Updated current coding language to: {}", codingLanguage);
     this.currentLanguage = codingLanguage;
@@ -108,104 +125,225 @@ public class AnthropicService {
   @PostConstruct
   void loadPrompts() {
     try {
-      this.baseSystemMessage = fileService.loadResourceFile("/prompts/system_prompt.txt");
-      this.responseFormat = fileService.loadResourceFile("/prompts/response_format.txt");
-      this.userMessage = fileService.loadResourceFile("/prompts/user_message.txt");
       this.multiSolutionMockText = fileService.loadResourceFile("/prompts/multi_solution_mock.txt");
     } catch (final IOException e) {
       throw new RuntimeException("Failed to load prompt files", e);
     }
   }
 
+  /**
+   * Analyses the screenshot, returning the cached result of a near-identical screenshot if there
+   * is one.
+   *
+   * @see #analyseMultiSolution(CapturedScreenshot, SectionEventListener, boolean)
+   */
   public CompletableFuture<MultiSolutionResult> analyseMultiSolution(
-      final Image image, final Consumer<MultiSolutionResult> updateCallback) {
+      final CapturedScreenshot screenshot, final SectionEventListener listener) {
+    return analyseMultiSolution(screenshot, listener, true);
+  }
+
+  /**
+   * Analyses the screenshot. The screenshot is hashed and encoded, unless it already was, and the
+   * request is built on the image processing executor, so this method returns immediately on any
+   * thread. A cached result is passed to the listener as one batch of events.
+   *
+   * <p>A running analysis of another screenshot or language is cancelled, its listener receives no
+   * further events. A request for the screenshot and language being analysed returns the running
+   * analysis.
+   *
+   * @param screenshot the screenshot to analyse
+   * @param listener the listener receiving the section events
+   * @param useCachedResult whether the cached result of a near-identical screenshot may be
+   *     returned, otherwise the screenshot is analysed again
+   * @return the result of the analysis, completed exceptionally with a {@link
+   *     CancellationException} if the analysis is superseded
+   */
+  public CompletableFuture<MultiSolutionResult> analyseMultiSolution(
+      final CapturedScreenshot screenshot,
+      final SectionEventListener listener,
+      final boolean useCachedResult) {
+    var language = currentLanguage;
+    var prompt = promptRegistry.get(language);
+    return CompletableFuture.supplyAsync(
+            () ->
+                new AnalysisResultCache.Key(
+                    screenshot.getPerceptualHash(), language, promptVersion(prompt)),
+            imageProcessingExecutor)
+        .thenCompose(
+            key ->
+                analysisCoordinator.run(
+                    key,
+                    cancellation ->
+                        analyseMultiSolution(
+                            screenshot, key, prompt, useCachedResult, listener, cancellation)));
+  }
+
+  private CompletableFuture<MultiSolutionResult> analyseMultiSolution(
+      final CapturedScreenshot screenshot,
+      final AnalysisResultCache.Key key,
+      final PromptRegistry.SystemPrompt prompt,
+      final boolean useCachedResult,
+      final SectionEventListener listener,
+      final AnalysisCoordinator.Cancellation cancellation) {
+    var guardedListener = cancellation.guard(listener);
+    if (useCachedResult) {
+      var cachedResult = resultCache.get(key);
+      if (cachedResult.isPresent()) {
+        LOGGER.debug("Returning cached result of a near-identical screenshot");
+        return CompletableFuture.completedFuture(replay(cachedResult.get(), guardedListener));
+      }
+    }
+
+    LOGGER.debug(
+        "Analysing {}x{} screenshot, estimated {} input tokens",
+        screenshot.getWidth(),
+        screenshot.getHeight(),
+        screenshot.getEstimatedTokens());
+    return streamMultiSolution(encodeImage(screenshot), prompt, guardedListener, cancellation)
+        .thenApply(
+            stream -> {
+              var result = stream.result();
+              var model = claudeModel.toString();
+              resultCache.put(key, result, model, stream.text().toString());
+              return result;
+            });
+  }
+
+  private static MultiSolutionResult replay(
+      final MultiSolutionResult result, final SectionEventListener listener) {
+    var events = result.toSectionEvents();
+    if (listener != null && !events.isEmpty()) {
+      listener.onSectionEvents(events, result);
+    }
+    return result;
+  }
+
+  private EncodedImage encodeImage(final CapturedScreenshot screenshot) {
     try {
-      var imageBytes = imageService.convertToByteArray(image);
-      return analyseMultiSolution(imageBytes, updateCallback);
+      return screenshot.encode(imageService);
     } catch (final IOException e) {
-      LOGGER.warn("Failed to convert image to byte array", e);
-      return CompletableFuture.failedFuture(e);
+      LOGGER.warn("Failed to encode image", e);
+      throw new UncheckedIOException(e);
     }
   }
 
+  /**
+   * Streams the bundled mock response, as if received from the API. Like an analysis of a
+   * screenshot, the mock supersedes the running analysis, and a repeated request attaches to the
+   * running mock.
+   *
+   * @param listener the listener receiving the section events
+   * @return the result of the mock, completed exceptionally with a {@link CancellationException}
+   *     if it is superseded
+   */
   public CompletableFuture<MultiSolutionResult> analyseMultiSolutionMock(
-      final Consumer<MultiSolutionResult> updateCallback) {
-    return CompletableFuture.supplyAsync(
-        () -> {
-          var result = new MultiSolutionResult();
-          var accumulatedText = new StringBuilder();
-
-          var lines = multiSolutionMockText.lines().toList();
-          var delayPerLine = Math.max(1, 2000 / lines.size());
-
-          for (final var line : lines) {
-            multiSolutionProcessor.processStreamEvents(
-                result, accumulatedText, updateCallback, line + "\n");
-
-            try {
-              TimeUnit.MILLISECONDS.sleep(delayPerLine);
-            } catch (final InterruptedException e) {
-              Thread.currentThread().interrupt();
-              break;
-            }
-          }
+      final SectionEventListener listener) {
+    return analysisCoordinator.run(
+        MOCK_ANALYSIS_KEY,
+        cancellation ->
+            analysisExecutor.supplyAsync(
+                "mock-stream",
+                () -> streamMultiSolutionMock(cancellation.guard(listener), cancellation)));
+  }
 
-          // Process the complete text one final time to ensure completion
-          LOGGER.debug(
-              "Final processing of complete mock text: {} characters", accumulatedText.length());
-          multiSolutionProcessor.processStreamEvents(result, accumulatedText, updateCallback, "");
+  private MultiSolutionResult streamMultiSolutionMock(
+      final SectionEventListener listener, final AnalysisCoordinator.Cancellation cancellation) {
+    var stream = new MultiSolutionStream();
 
-          if (updateCallback != null) {
-            updateCallback.accept(result);
-          }
+    var lines = multiSolutionMockText.lines().toList();
+    var delayPerLine = Math.max(1, 2000 / lines.size());
 
-          return result;
-        });
+    for (final var line : lines) {
+      cancellation.throwIfCancelled();
+      multiSolutionProcessor.processStreamEvents(stream, listener, line + "\n");
+
+      try {
+        TimeUnit.MILLISECONDS.sleep(delayPerLine);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    // Apply the text held back by the parser to ensure completion
+    LOGGER.debug("Final processing of complete mock text: {} characters", stream.text().length());
+    multiSolutionProcessor.completeStream(stream, listener);
+
+    return stream.result();
   }
 
   CompletableFuture<MultiSolutionResult> analyseMultiSolution(
-      final byte[] imageBytes, final Consumer<MultiSolutionResult> updateCallback) {
-    return retryAsync(
-        () -> processMultiSolutionRequest(imageBytes, new MultiSolutionResult(), updateCallback),
-        1);
+      final EncodedImage encodedImage, final SectionEventListener listener) {
+    var prompt = promptRegistry.get(currentLanguage);
+    var cancellation = new AnalysisCoordinator.Cancellation();
+    return streamMultiSolution(encodedImage, prompt, listener, cancellation)
+        .thenApply(MultiSolutionStream::result);
+  }
+
+  private CompletableFuture<MultiSolutionStream> streamMultiSolution(
+      final EncodedImage encodedImage,
+      final PromptRegistry.SystemPrompt prompt,
+      final SectionEventListener listener,
+      final AnalysisCoordinator.Cancellation cancellation) {
+    // The request is built once, retries only repeat the streaming call
+    return CompletableFuture.supplyAsync(
+            () -> createMessageParams(encodedImage, prompt), imageProcessingExecutor)
+        .thenCompose(
+            params -> {
+              var attempts = new AtomicInteger();
+              Supplier<CompletableFuture<MultiSolutionStream>> attempt =
+                  () -> {
+                    // A retry streams the response again, the listener discards the failed one
+                    if (attempts.getAndIncrement() > 0 && listener != null) {
+                      listener.onRestart();
+                    }
+                    return asyncStreaming
+                        ? processMultiSolutionRequestAsync(params, listener, cancellation)
+                        : analysisExecutor.supplyAsync(
+                            "api-stream",
+                            () -> processMultiSolutionRequest(params, listener, cancellation));
+                  };
+              return retryPolicy.executeAsync(attempt);
+            });
+  }
+
+  /** Cached results of other prompts or models are not reused. */
+  private int promptVersion(final PromptRegistry.SystemPrompt prompt) {
+    return Objects.hash(claudeModel.toString(), prompt.contentHash());
   }
 
   /**
-   * Builds the complete system message by combining base prompts with language-specific prompt.
+   * Returns the token usage of the last response.
    *
-   * @return the complete system message
+   * @return the usage, or empty if no response was received yet
    */
-  String buildSystemMessage() {
-    try {
-      var languagePrompt = fileService.loadResourceFile(currentLanguage.getPromptResourcePath());
-      return baseSystemMessage + "\n\n" + languagePrompt + "\n\n" + responseFormat;
-    } catch (final IOException e) {
-      LOGGER.warn(
-          "Failed to load language-specific prompt for {}, falling back to Java", currentLanguage);
-      try {
-        var javaPrompt = fileService.loadResourceFile(CodingLanguage.JAVA.getPromptResourcePath());
-        return baseSystemMessage + "\n\n" + javaPrompt + "\n\n" + responseFormat;
-      } catch (final IOException fallbackException) {
-        throw new RuntimeException("Failed to load fallback Java prompt", fallbackException);
-      }
-    }
+  Optional<ResponseUsage> getLastUsage() {
+    return Optional.ofNullable(lastUsage);
   }
 
-  private MultiSolutionResult processMultiSolutionRequest(
-      final byte[] imageBytes,
-      final MultiSolutionResult result,
-      final Consumer<MultiSolutionResult> updateCallback) {
+  private MultiSolutionStream processMultiSolutionRequest(
+      final MessageCreateParams params,
+      final SectionEventListener listener,
+      final AnalysisCoordinator.Cancellation cancellation) {
+    cancellation.throwIfCancelled();
 
-    var params = createMessageParams(imageBytes);
-    var accumulatedText = new StringBuilder();
+    var stream = new MultiSolutionStream();
     var messageAccumulator = MessageAccumulator.create();
+    var requestStart = System.nanoTime();
+    var firstTokenTime = new AtomicLong();
 
     LOGGER.trace("Calling Anthropic API for multi-solution analysis...");
     try (var streamResponse = anthropicClient.messages().createStreaming(params)) {
+      // Cancelling closes the response, which also ends a read waiting for the next event
+      cancellation.register(streamResponse);
       streamResponse.stream()
           .forEach(
               event -> {
+                cancellation.throwIfCancelled();
                 messageAccumulator.accumulate(event);
+                if (event.isContentBlockDelta() && firstTokenTime.get() == 0) {
+                  firstTokenTime.set(System.nanoTime());
+                }
                 event
                     .contentBlockDelta()
                     .flatMap(delta -> delta.delta().text())
@@ -213,27 +351,128 @@ public class AnthropicService {
                         textDelta -> {
                           var text = textDelta.text();
                           LOGGER.trace("Received text delta for multi-solution: {}", text);
-                          multiSolutionProcessor.processStreamEvents(
-                              result, accumulatedText, updateCallback, text);
+                          multiSolutionProcessor.processStreamEvents(stream, listener, text);
                         });
               });
 
-      multiSolutionProcessor.handleFinalResponse(result, updateCallback, messageAccumulator);
+      multiSolutionProcessor.handleFinalResponse(stream, listener, messageAccumulator);
+      // A response without content has no first token, its whole duration is taken instead
+      var firstToken = firstTokenTime.get() != 0 ? firstTokenTime.get() : System.nanoTime();
+      var timeToFirstToken = Duration.ofNanos(firstToken - requestStart);
+      recordUsage(ResponseUsage.of(messageAccumulator.message().usage(), timeToFirstToken));
+      cancellation.unregister(streamResponse);
     } catch (final Exception e) {
+      // Closing the stream of a cancelled analysis fails the read, which is no error
+      cancellation.throwIfCancelled();
       LOGGER.warn("Error in multi-solution streaming analysis", e);
       throw new RuntimeException(e);
     }
 
-    return result;
+    return stream;
+  }
+
+  /**
+   * Streams the response on the async client. The thread delivering the events only accumulates
+   * them and hands the text deltas off, the text is parsed and passed to the listener on the
+   * stream parse executor. So a slow listener never delays reading the response, its text deltas
+   * are merged into larger chunks instead.
+   */
+  private CompletableFuture<MultiSolutionStream> processMultiSolutionRequestAsync(
+      final MessageCreateParams params,
+      final SectionEventListener listener,
+      final AnalysisCoordinator.Cancellation cancellation) {
+    cancellation.throwIfCancelled();
+
+    var stream = new MultiSolutionStream();
+    var messageAccumulator = MessageAccumulator.create();
+    var requestStart = System.nanoTime();
+    var firstTokenTime = new AtomicLong();
+    // Cleared once the response failed, a retry then streams into the same listener
+    var attemptAlive = new AtomicBoolean(true);
+    var handOff =
+        new TextDeltaHandOff(
+            streamQueueCapacity,
+            task -> analysisExecutor.runAsync("stream-parse", task),
+            text -> {
+              if (attemptAlive.get() && !cancellation.isCancelled()) {
+                multiSolutionProcessor.processStreamEvents(stream, listener, text);
+              }
+            });
+
+    LOGGER.trace("Calling Anthropic API asynchronously for multi-solution analysis...");
+    var streamResponse = anthropicClientAsync.messages().createStreaming(params);
+    streamResponse.subscribe(
+        new AsyncStreamResponse.Handler<RawMessageStreamEvent>() {
+          @Override
+          public void onNext(final RawMessageStreamEvent event) {
+            messageAccumulator.accumulate(event);
+            if (event.isContentBlockDelta() && firstTokenTime.get() == 0) {
+              firstTokenTime.set(System.nanoTime());
+            }
+            event
+                .contentBlockDelta()
+                .flatMap(delta -> delta.delta().text())
+                .ifPresent(textDelta -> handOff.offer(textDelta.text()));
+          }
+
+          @Override
+          public void onComplete(final Optional<Throwable> error) {
+            // The outcome is taken from the completion future
+          }
+        });
+    AutoCloseable closeable = streamResponse::close;
+    // Cancelling closes the response, which completes it without further events
+    cancellation.register(closeable);
+
+    // The hand-off is closed on every path, so no chunk is parsed once the attempt completed
+    return streamResponse
+        .onCompleteFuture()
+        .handle(
+            (ignored, streamError) -> {
+              if (streamError != null) {
+                attemptAlive.set(false);
+              }
+              return handOff
+                  .close()
+                  .handle((drained, parseError) -> streamError != null ? streamError : parseError);
+            })
+        .thenCompose(Function.identity())
+        .thenApply(
+            error -> {
+              cancellation.throwIfCancelled();
+              if (error != null) {
+                var cause = error instanceof CompletionException ? error.getCause() : error;
+                LOGGER.warn("Error in asynchronous multi-solution streaming analysis", cause);
+                throw new CompletionException(cause);
+              }
+              multiSolutionProcessor.handleFinalResponse(stream, listener, messageAccumulator);
+              var firstToken = firstTokenTime.get() != 0 ? firstTokenTime.get() : System.nanoTime();
+              var timeToFirstToken = Duration.ofNanos(firstToken - requestStart);
+              recordUsage(ResponseUsage.of(messageAccumulator.message().usage(), timeToFirstToken));
+              cancellation.unregister(closeable);
+              return stream;
+            });
+  }
+
+  private void recordUsage(final ResponseUsage usage) {
+    lastUsage = usage;
+    LOGGER.debug(
+        "Used {} input tokens, {} read from and {} written to the prompt cache, {} output tokens,"
+            + " first token after {} ms",
+        usage.totalInputTokens(),
+        usage.cacheReadInputTokens(),
+        usage.cacheCreationInputTokens(),
+        usage.outputTokens(),
+        usage.timeToFirstToken().toMillis());
   }
 
-  private MessageCreateParams createMessageParams(final byte[] imageBytes) {
-    var systemMessage = buildSystemMessage();
+  private MessageCreateParams createMessageParams(
+      final EncodedImage encodedImage, final PromptRegistry.SystemPrompt prompt) {
     return MessageCreateParams.builder()
         .maxTokens(10000)
-        .system(systemMessage)
-        .addUserMessageOfBlockParams(List.of(createImageBlock(imageBytes)))
-        .addUserMessage(userMessage)
+        .systemOfTextBlockParams(prompt.blocks())
+        .addUserMessageOfBlockParams(List.of(createImageBlock(encodedImage)))
+        .addUserMessage(prompt.userMessage())
         .enabledThinking(5000)
         .model(claudeModel)
         .build();
@@ -0,0 +1,130 @@
+package dev.coding_challenge_souffleur.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritablePixelFormat;
+
+/**
+ * A processed screenshot shared by the preview, the file save and the analysis. The encodings are
+ * memoized per codec, so a capture is encoded at most once per codec however often it is saved or
+ * analysed. Concurrent requests for the same codec wait for the first encoding instead of encoding
+ * again.
+ */
+public final class CapturedScreenshot {
+
+  private static final WritablePixelFormat<IntBuffer> ARGB_FORMAT =
+      PixelFormat.getIntArgbInstance();
+
+  private final Image image;
+  private final Instant capturedAt;
+  private final Map<ImageCodec, EncodedImage> encodings = new ConcurrentHashMap<>();
+  private volatile String contentHash;
+  private volatile PerceptualHash perceptualHash;
+
+  CapturedScreenshot(final Image image, final Instant capturedAt) {
+    this.image = image;
+    this.capturedAt = capturedAt;
+  }
+
+  public Image getImage() {
+    return image;
+  }
+
+  public Instant getCapturedAt() {
+    return capturedAt;
+  }
+
+  public int getWidth() {
+    return (int) image.getWidth();
+  }
+
+  public int getHeight() {
+    return (int) image.getHeight();
+  }
+
+  int getEstimatedTokens() {
+    return ImageTokenBudget.estimateTokens(getWidth(), getHeight());
+  }
+
+  /**
+   * Returns the encoding of the image service's codec, encoding the screenshot on first use.
+   *
+   * @param imageService the image service to encode with
+   * @return the encoded screenshot
+   * @throws IOException if an error occurs during encoding
+   */
+  EncodedImage encode(final ImageService imageService) throws IOException {
+    try {
+      return encodings.computeIfAbsent(
+          imageService.getCodec(),
+          codec -> {
+            try {
+              return imageService.encode(image);
+            } catch (final IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Returns the SHA-256 hash of the pixels as hex string, computed on first use. Screenshots with
+   * equal pixels have equal hashes, whatever their encoding.
+   *
+   * @return the content hash
+   */
+  String getContentHash() {
+    var hash = contentHash;
+    if (hash == null) {
+      // Computing the hash twice on a race gives the same value
+      hash = hashPixels();
+      contentHash = hash;
+    }
+    return hash;
+  }
+
+  /**
+   * Returns the perceptual hash of the image, computed on first use. Near-identical screenshots
+   * have hashes with a small distance.
+   *
+   * @return the perceptual hash
+   */
+  PerceptualHash getPerceptualHash() {
+    var hash = perceptualHash;
+    if (hash == null) {
+      hash = PerceptualHash.of(image);
+      perceptualHash = hash;
+    }
+    return hash;
+  }
+
+  private String hashPixels() {
+    var width = getWidth();
+    var height = getHeight();
+    var pixels = ByteBuffer.allocate(4 * width * height);
+    var pixelReader = image.getPixelReader();
+    pixelReader.getPixels(0, 0, width, height, ARGB_FORMAT, pixels.asIntBuffer(), width);
+
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      digest.update(ByteBuffer.allocate(8).putInt(width).putInt(height).flip());
+      digest.update(pixels);
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (final NoSuchAlgorithmException e) {
+      // Every Java platform supports SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+}
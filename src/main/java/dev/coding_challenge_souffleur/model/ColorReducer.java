@@ -0,0 +1,208 @@
+package dev.coding_challenge_souffleur.model;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Reduces the colors of opaque screenshots of text, which consist of a few flat colors and the
+ * anti-aliased shades between them. Such images are written as 8-bit grayscale or indexed PNG,
+ * which needs a third of the bytes of RGB before compression.
+ *
+ * <p>The colors are counted in a histogram of 5 bits per channel. Grayscale is chosen for mostly
+ * gray images unless a color holds a noticeable share of the pixels: the solid cores of syntax
+ * highlighted glyphs share one color, while the colored fringes of subpixel rendering scatter
+ * over many. Otherwise images of at most 256 colors get an exact palette, and images whose 256
+ * most frequent colors cover nearly all pixels get a palette of these colors. Photos and
+ * gradients keep all colors.
+ */
+final class ColorReducer {
+
+  private static final int MAX_PALETTE_SIZE = 256;
+  private static final int BIN_BITS = 5;
+  private static final int BIN_COUNT = 1 << (3 * BIN_BITS);
+  // Channel spread up to which a color counts as gray
+  private static final int GRAY_TOLERANCE = 16;
+  // Share of the pixels from which a color is a syntax color rather than anti-aliasing
+  private static final double MIN_COLOR_SHARE = 0.001;
+  // Share of colored pixels up to which an image without syntax colors is written as grayscale
+  private static final double MAX_FRINGE_SHARE = 0.1;
+  // Share of the pixels the palette must cover, the others get the nearest palette color
+  private static final double MIN_PALETTE_COVERAGE = 0.98;
+  // Open addressing table for the exact colors, twice the palette size keeps probing short
+  private static final int HASH_BITS = 9;
+
+  /**
+   * Pixels as 8-bit samples: gray levels, or indices into the palette.
+   *
+   * @param samples one sample per pixel, row by row
+   * @param palette the RGB colors of the indices, empty for gray levels
+   */
+  record ReducedColors(byte[] samples, int[] palette) {
+
+    boolean isGrayscale() {
+      return palette.length == 0;
+    }
+  }
+
+  /**
+   * Reduces the colors of opaque pixels.
+   *
+   * @param pixels the opaque ARGB pixels, row by row
+   * @param length the number of pixels
+   * @return the reduced colors, or empty if the image has too many colors
+   */
+  Optional<ReducedColors> reduce(final int[] pixels, final int length) {
+    var counts = new int[BIN_COUNT];
+    var redSums = new long[BIN_COUNT];
+    var greenSums = new long[BIN_COUNT];
+    var blueSums = new long[BIN_COUNT];
+    for (var i = 0; i < length; i++) {
+      var argb = pixels[i];
+      var bin = bin(argb);
+      counts[bin]++;
+      redSums[bin] += (argb >> 16) & 0xFF;
+      greenSums[bin] += (argb >> 8) & 0xFF;
+      blueSums[bin] += argb & 0xFF;
+    }
+
+    var usedBins = 0;
+    var coloredPixels = 0;
+    var hasSyntaxColors = false;
+    var minColorCount = Math.max(1, (int) (length * MIN_COLOR_SHARE));
+    var averages = new int[BIN_COUNT];
+    for (var bin = 0; bin < BIN_COUNT; bin++) {
+      if (counts[bin] > 0) {
+        usedBins++;
+        averages[bin] =
+            rgb(
+                (int) (redSums[bin] / counts[bin]),
+                (int) (greenSums[bin] / counts[bin]),
+                (int) (blueSums[bin] / counts[bin]));
+        if (!isGray(averages[bin])) {
+          coloredPixels += counts[bin];
+          hasSyntaxColors |= counts[bin] >= minColorCount;
+        }
+      }
+    }
+
+    if (!hasSyntaxColors && coloredPixels <= length * MAX_FRINGE_SHARE) {
+      return Optional.of(toGrayscale(pixels, length));
+    }
+    var exact = toExactPalette(pixels, length);
+    if (exact.isPresent()) {
+      return exact;
+    }
+    return toFrequentPalette(pixels, length, counts, averages, usedBins);
+  }
+
+  private static ReducedColors toGrayscale(final int[] pixels, final int length) {
+    var samples = new byte[length];
+    for (var i = 0; i < length; i++) {
+      samples[i] = (byte) luminance(pixels[i]);
+    }
+    return new ReducedColors(samples, new int[0]);
+  }
+
+  private static Optional<ReducedColors> toExactPalette(final int[] pixels, final int length) {
+    // Opaque pixels are never zero, which marks free slots
+    var keys = new int[1 << HASH_BITS];
+    var indices = new byte[1 << HASH_BITS];
+    var palette = new int[MAX_PALETTE_SIZE];
+    var paletteSize = 0;
+    var samples = new byte[length];
+    for (var i = 0; i < length; i++) {
+      var argb = pixels[i];
+      var slot = (argb * 0x9E3779B9) >>> (Integer.SIZE - HASH_BITS);
+      while (keys[slot] != argb && keys[slot] != 0) {
+        slot = (slot + 1) & ((1 << HASH_BITS) - 1);
+      }
+      if (keys[slot] == 0) {
+        if (paletteSize == MAX_PALETTE_SIZE) {
+          return Optional.empty();
+        }
+        keys[slot] = argb;
+        indices[slot] = (byte) paletteSize;
+        palette[paletteSize++] = argb & 0xFFFFFF;
+      }
+      samples[i] = indices[slot];
+    }
+    return Optional.of(new ReducedColors(samples, Arrays.copyOf(palette, paletteSize)));
+  }
+
+  private static Optional<ReducedColors> toFrequentPalette(
+      final int[] pixels,
+      final int length,
+      final int[] counts,
+      final int[] averages,
+      final int usedBins) {
+    // Sorts the bins by count, the count in the upper and the bin in the lower bits
+    var sortedBins = new long[usedBins];
+    var position = 0;
+    for (var bin = 0; bin < BIN_COUNT; bin++) {
+      if (counts[bin] > 0) {
+        sortedBins[position++] = (long) counts[bin] << Integer.SIZE | bin;
+      }
+    }
+    Arrays.sort(sortedBins);
+
+    var palette = new int[Math.min(usedBins, MAX_PALETTE_SIZE)];
+    var indices = new byte[BIN_COUNT];
+    long covered = 0;
+    for (var i = 0; i < palette.length; i++) {
+      var bin = (int) sortedBins[usedBins - 1 - i];
+      palette[i] = averages[bin];
+      indices[bin] = (byte) i;
+      covered += counts[bin];
+    }
+    if (covered < length * MIN_PALETTE_COVERAGE) {
+      return Optional.empty();
+    }
+
+    for (var i = 0; i < usedBins - palette.length; i++) {
+      var bin = (int) sortedBins[i];
+      indices[bin] = (byte) nearest(palette, averages[bin]);
+    }
+    var samples = new byte[length];
+    for (var i = 0; i < length; i++) {
+      samples[i] = indices[bin(pixels[i])];
+    }
+    return Optional.of(new ReducedColors(samples, palette));
+  }
+
+  private static int nearest(final int[] palette, final int rgb) {
+    var nearest = 0;
+    var nearestDistance = Integer.MAX_VALUE;
+    for (var i = 0; i < palette.length; i++) {
+      var red = ((palette[i] >> 16) & 0xFF) - ((rgb >> 16) & 0xFF);
+      var green = ((palette[i] >> 8) & 0xFF) - ((rgb >> 8) & 0xFF);
+      var blue = (palette[i] & 0xFF) - (rgb & 0xFF);
+      var distance = red * red + green * green + blue * blue;
+      if (distance < nearestDistance) {
+        nearestDistance = distance;
+        nearest = i;
+      }
+    }
+    return nearest;
+  }
+
+  // Rec. 601 weights summing to 256, so gray pixels keep their level
+  private static int luminance(final int argb) {
+    return (((argb >> 16) & 0xFF) * 77 + ((argb >> 8) & 0xFF) * 150 + (argb & 0xFF) * 29) >> 8;
+  }
+
+  private static int bin(final int argb) {
+    return (argb >> 9) & 0x7C00 | (argb >> 6) & 0x03E0 | (argb >> 3) & 0x001F;
+  }
+
+  private static boolean isGray(final int rgb) {
+    var red = (rgb >> 16) & 0xFF;
+    var green = (rgb >> 8) & 0xFF;
+    var blue = rgb & 0xFF;
+    return Math.max(red, Math.max(green, blue)) - Math.min(red, Math.min(green, blue))
+        <= GRAY_TOLERANCE;
+  }
+
+  private static int rgb(final int red, final int green, final int blue) {
+    return red << 16 | green << 8 | blue;
+  }
+}
@@ -0,0 +1,222 @@
+package dev.coding_challenge_souffleur.model;
+
+import dev.coding_challenge_souffleur.ConfigurationKeys;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.nio.IntBuffer;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.image.WritablePixelFormat;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Crops captured windows to their content before they are encoded, which saves upload bytes and
+ * image tokens. Text and code have a high luminance variance per row and column, while blank
+ * margins, backgrounds and sparse side panels have little. The crop first trims uniform borders
+ * and then sparse areas at the edges, whose variance around a line is far below the mean. Columns
+ * are only measured within the kept rows, so toolbars do not widen the crop.
+ *
+ * <p>The crop never keeps less than the configured fraction of the capture, so a wrong guess cannot
+ * cut away most of a problem statement.
+ */
+@ApplicationScoped
+class ContentCropper {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ContentCropper.class);
+  private static final WritablePixelFormat<IntBuffer> ARGB_FORMAT =
+      PixelFormat.getIntArgbInstance();
+  // Luminance variance of a line without content, allows for gradients and compression noise
+  private static final double UNIFORM_VARIANCE = 4.0;
+  // Areas with less variance than this fraction of the mean are sparse
+  private static final double SPARSE_FRACTION = 0.1;
+  // Lines around a line that count for its density, so short lines of code are not sparse
+  private static final int DENSITY_RADIUS = 12;
+  // Space around the content, so that glyphs at the edge are not cut
+  private static final int PADDING_PIXELS = 8;
+
+  private final boolean enabled;
+  private final double minKeepArea;
+
+  @Inject
+  ContentCropper(
+      @ConfigProperty(name = ConfigurationKeys.APP_IMAGE_CROP_ENABLED) final boolean enabled,
+      @ConfigProperty(name = ConfigurationKeys.APP_IMAGE_CROP_MIN_KEEP_AREA)
+          final double minKeepArea) {
+    if (minKeepArea <= 0.0 || minKeepArea > 1.0) {
+      throw new IllegalArgumentException("Minimum keep area must be in (0, 1]: " + minKeepArea);
+    }
+    this.enabled = enabled;
+    this.minKeepArea = minKeepArea;
+  }
+
+  /**
+   * A rectangular region of an image in pixels.
+   *
+   * @param x the left edge
+   * @param y the top edge
+   * @param width the width
+   * @param height the height
+   */
+  record Region(int x, int y, int width, int height) {}
+
+  /**
+   * Crops the image to its content, if cropping is enabled.
+   *
+   * @param image the captured image
+   * @return the cropped image, or the image itself if nothing is cropped
+   */
+  Image crop(final Image image) {
+    if (!enabled) {
+      return image;
+    }
+
+    var start = System.nanoTime();
+    var width = (int) image.getWidth();
+    var height = (int) image.getHeight();
+    var pixels = new int[width * height];
+    image.getPixelReader().getPixels(0, 0, width, height, ARGB_FORMAT, pixels, 0, width);
+    var region = findContent(pixels, width, height);
+    if (region.width() == width && region.height() == height) {
+      LOGGER.debug("No uniform borders or sparse areas to crop from {}x{} image", width, height);
+      return image;
+    }
+
+    var cropped =
+        new WritableImage(
+            image.getPixelReader(), region.x(), region.y(), region.width(), region.height());
+    LOGGER.debug(
+        "Cropped {}x{} image to {}x{} at ({}, {}) in {} µs, {}% fewer pixels",
+        width,
+        height,
+        region.width(),
+        region.height(),
+        region.x(),
+        region.y(),
+        (System.nanoTime() - start) / 1000,
+        100 - 100L * region.width() * region.height() / ((long) width * height));
+    return cropped;
+  }
+
+  /**
+   * Finds the region of the content.
+   *
+   * @param pixels the ARGB pixels, row by row
+   * @param width the image width
+   * @param height the image height
+   * @return the region to keep
+   */
+  Region findContent(final int[] pixels, final int width, final int height) {
+    // Both passes run row by row, which reads the pixels sequentially
+    var luminance = new int[width * height];
+    var rowVariances = new double[height];
+    for (var y = 0; y < height; y++) {
+      long sum = 0;
+      long sumOfSquares = 0;
+      for (var i = y * width; i < (y + 1) * width; i++) {
+        var argb = pixels[i];
+        var red = (argb >> 16) & 0xFF;
+        var green = (argb >> 8) & 0xFF;
+        var blue = argb & 0xFF;
+        var value = (red * 77 + green * 150 + blue * 29) >> 8;
+        luminance[i] = value;
+        sum += value;
+        sumOfSquares += value * value;
+      }
+      rowVariances[y] = variance(sum, sumOfSquares, width);
+    }
+
+    // Both axes keep at least the square root of the area, so the area is kept in any case
+    var minKeepFraction = Math.sqrt(minKeepArea);
+    var rows = findSpan(rowVariances, minKeepFraction);
+
+    var columnSums = new long[width];
+    var columnSumsOfSquares = new long[width];
+    for (var y = rows[0]; y < rows[1]; y++) {
+      for (var x = 0; x < width; x++) {
+        var value = luminance[y * width + x];
+        columnSums[x] += value;
+        columnSumsOfSquares[x] += value * value;
+      }
+    }
+    var columnVariances = new double[width];
+    for (var x = 0; x < width; x++) {
+      columnVariances[x] = variance(columnSums[x], columnSumsOfSquares[x], rows[1] - rows[0]);
+    }
+    var columns = findSpan(columnVariances, minKeepFraction);
+
+    return new Region(columns[0], rows[0], columns[1] - columns[0], rows[1] - rows[0]);
+  }
+
+  private static double variance(final long sum, final long sumOfSquares, final int count) {
+    var mean = (double) sum / count;
+    return (double) sumOfSquares / count - mean * mean;
+  }
+
+  // Returns the kept span of lines as {from, to}
+  private static int[] findSpan(final double[] variances, final double minKeepFraction) {
+    var length = variances.length;
+
+    // Trim uniform borders
+    var first = 0;
+    while (first < length && variances[first] <= UNIFORM_VARIANCE) {
+      first++;
+    }
+    var end = length;
+    while (end > first && variances[end - 1] <= UNIFORM_VARIANCE) {
+      end--;
+    }
+    if (first == end) {
+      // Uniform image, nothing to find
+      return new int[] {0, length};
+    }
+
+    // Trim sparse areas, measured by the variance around each line compared to the mean
+    var prefixSums = new double[length + 1];
+    for (var i = 0; i < length; i++) {
+      prefixSums[i + 1] = prefixSums[i] + variances[i];
+    }
+    var threshold = SPARSE_FRACTION * (prefixSums[end] - prefixSums[first]) / (end - first);
+    var from = first;
+    while (from < end && localVariance(prefixSums, from) < threshold) {
+      from++;
+    }
+    var to = end;
+    while (to > from && localVariance(prefixSums, to - 1) < threshold) {
+      to--;
+    }
+    if (from == to) {
+      // Content spread thinly, keep all of it
+      from = first;
+      to = end;
+    }
+    // The density of the content reaches into the blank lines next to it
+    while (from < to - 1 && variances[from] <= UNIFORM_VARIANCE) {
+      from++;
+    }
+    while (to > from + 1 && variances[to - 1] <= UNIFORM_VARIANCE) {
+      to--;
+    }
+
+    from = Math.max(0, from - PADDING_PIXELS);
+    to = Math.min(length, to + PADDING_PIXELS);
+
+    // Grow around the center to the minimum length
+    var minLength = Math.min(length, (int) Math.ceil(length * minKeepFraction));
+    if (to - from < minLength) {
+      var missing = minLength - (to - from);
+      from = Math.max(0, from - missing / 2);
+      to = Math.min(length, from + minLength);
+      from = to - minLength;
+    }
+    return new int[] {from, to};
+  }
+
+  private static double localVariance(final double[] prefixSums, final int line) {
+    var from = Math.max(0, line - DENSITY_RADIUS);
+    var to = Math.min(prefixSums.length - 1, line + DENSITY_RADIUS + 1);
+    return (prefixSums[to] - prefixSums[from]) / (to - from);
+  }
+}
@@ -0,0 +1,14 @@
+package dev.coding_challenge_souffleur.model;
+
+/**
+ * An image encoded in a file format.
+ *
+ * @param data the encoded bytes
+ * @param format the format of the bytes
+ */
+record EncodedImage(byte[] data, ImageFormat format) {
+
+  int size() {
+    return data.length;
+  }
+}
@@ -0,0 +1,11 @@
+package dev.coding_challenge_souffleur.model;
+
+/** Selects how screenshots are encoded before they are sent for analysis. */
+public enum ImageCodec {
+  /** Lossless, keeps small text sharp. */
+  PNG,
+  /** Lossy with the configured quality, usually much smaller for photos and gradients. */
+  JPEG,
+  /** Encodes both and keeps the smaller encoding. */
+  AUTO
+}
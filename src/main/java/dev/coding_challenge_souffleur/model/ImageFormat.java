@@ -0,0 +1,25 @@
+package dev.coding_challenge_souffleur.model;
+
+import com.anthropic.models.messages.Base64ImageSource.MediaType;
+
+/** Formats a screenshot can be encoded in, with the matching media type of the Anthropic API. */
+enum ImageFormat {
+  PNG("png", MediaType.IMAGE_PNG),
+  JPEG("jpg", MediaType.IMAGE_JPEG);
+
+  private final String fileExtension;
+  private final MediaType mediaType;
+
+  ImageFormat(final String fileExtension, final MediaType mediaType) {
+    this.fileExtension = fileExtension;
+    this.mediaType = mediaType;
+  }
+
+  String getFileExtension() {
+    return fileExtension;
+  }
+
+  MediaType getMediaType() {
+    return mediaType;
+  }
+}
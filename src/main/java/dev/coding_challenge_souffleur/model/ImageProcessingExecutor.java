@@ -0,0 +1,43 @@
+package dev.coding_challenge_souffleur.model;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Worker pool for CPU bound screenshot processing, i.e. resizing, encoding and building the
+ * request. This work must not run on the JavaFX application thread, which would freeze the
+ * overlay, nor on the {@link AnalysisExecutor}, whose threads block on the API calls.
+ */
+@ApplicationScoped
+class ImageProcessingExecutor implements Executor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ImageProcessingExecutor.class);
+  private static final int WORKER_COUNT =
+      Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+  private ExecutorService workers;
+
+  @PostConstruct
+  void start() {
+    workers =
+        Executors.newFixedThreadPool(
+            WORKER_COUNT, Thread.ofPlatform().name("image-processing-", 1).daemon().factory());
+  }
+
+  @Override
+  public void execute(final Runnable command) {
+    workers.execute(command);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    LOGGER.debug("Shutting down image processing workers");
+    workers.shutdownNow();
+  }
+}
@@ -0,0 +1,209 @@
+package dev.coding_challenge_souffleur.model;
+
+import java.util.Arrays;
+
+/**
+ * Resamples ARGB pixels with a separable filter: rows are filtered horizontally first, then the
+ * columns of the result vertically. Both passes process horizontal bands with {@link
+ * ParallelBands}, so resampling runs on any thread without the JavaFX scene graph.
+ *
+ * <p>When scaling down, the filter is widened by the scale factor, so every source pixel
+ * contributes to the result. The channels are filtered independently, which suits opaque screen
+ * captures.
+ */
+final class ImageResampler {
+
+  // Bands below this height are not worth processing separately
+  private static final int MIN_ROWS_PER_BAND = 32;
+  // Weights are fixed-point numbers, integer arithmetic is much faster than converting to float
+  private static final int WEIGHT_BITS = 14;
+  private static final int ROUNDING = 1 << (WEIGHT_BITS - 1);
+
+  /** Filters of the resampler. */
+  enum Kernel {
+    /** Averages the covered pixels, smooth but blurs small text. */
+    AREA_AVERAGE(0.5) {
+      @Override
+      double weight(final double distance) {
+        return Math.abs(distance) <= 0.5 ? 1.0 : 0.0;
+      }
+    },
+    /** Windowed sinc with three lobes, keeps small text sharp. */
+    LANCZOS3(3.0) {
+      @Override
+      double weight(final double distance) {
+        if (distance == 0.0) {
+          return 1.0;
+        }
+        if (Math.abs(distance) >= 3.0) {
+          return 0.0;
+        }
+        var x = Math.PI * distance;
+        return 3.0 * Math.sin(x) * Math.sin(x / 3.0) / (x * x);
+      }
+    };
+
+    private final double radius;
+
+    Kernel(final double radius) {
+      this.radius = radius;
+    }
+
+    abstract double weight(double distance);
+  }
+
+  /**
+   * Normalized fixed-point filter weights of each target pixel along one axis.
+   *
+   * @param starts the first source pixel of each target pixel
+   * @param counts the number of source pixels of each target pixel
+   * @param weights the weights of the source pixels, {@code stride} per target pixel
+   * @param stride the maximum number of source pixels of a target pixel
+   */
+  private record Weights(int[] starts, int[] counts, int[] weights, int stride) {}
+
+  private final Kernel kernel;
+
+  ImageResampler(final Kernel kernel) {
+    this.kernel = kernel;
+  }
+
+  /**
+   * Resamples the pixels to the given size.
+   *
+   * @param source the ARGB pixels, row by row
+   * @param sourceWidth the width of the source
+   * @param sourceHeight the height of the source
+   * @param width the target width
+   * @param height the target height
+   * @return the resampled ARGB pixels, row by row
+   */
+  int[] resample(
+      final int[] source,
+      final int sourceWidth,
+      final int sourceHeight,
+      final int width,
+      final int height) {
+    var horizontal = source;
+    if (width != sourceWidth) {
+      horizontal = new int[width * sourceHeight];
+      var rowWeights = weights(sourceWidth, width);
+      resampleRows(source, sourceWidth, horizontal, width, sourceHeight, rowWeights);
+    }
+    if (height == sourceHeight) {
+      return horizontal == source ? source.clone() : horizontal;
+    }
+
+    var target = new int[width * height];
+    resampleColumns(horizontal, target, width, height, weights(sourceHeight, height));
+    return target;
+  }
+
+  private Weights weights(final int sourceLength, final int targetLength) {
+    var scale = (double) sourceLength / targetLength;
+    var filterScale = Math.max(1.0, scale);
+    var support = kernel.radius * filterScale;
+    var stride = (int) Math.ceil(2 * support) + 2;
+
+    var starts = new int[targetLength];
+    var counts = new int[targetLength];
+    var weights = new int[targetLength * stride];
+    var kernelWeights = new double[stride];
+    for (var target = 0; target < targetLength; target++) {
+      // Pixel i covers [i, i + 1), so its center is at i + 0.5
+      var center = (target + 0.5) * scale;
+      var from = Math.max(0, (int) Math.floor(center - support));
+      var to = Math.min(sourceLength, (int) Math.ceil(center + support));
+
+      var sum = 0.0;
+      for (var i = from; i < to; i++) {
+        kernelWeights[i - from] = kernel.weight((i + 0.5 - center) / filterScale);
+        sum += kernelWeights[i - from];
+      }
+      for (var i = 0; i < to - from; i++) {
+        var weight = kernelWeights[i] / sum;
+        weights[target * stride + i] = (int) Math.round(weight * (1 << WEIGHT_BITS));
+      }
+      starts[target] = from;
+      counts[target] = to - from;
+    }
+    return new Weights(starts, counts, weights, stride);
+  }
+
+  private static void resampleRows(
+      final int[] source,
+      final int sourceWidth,
+      final int[] target,
+      final int width,
+      final int rows,
+      final Weights weights) {
+    ParallelBands.forEach(
+        rows,
+        MIN_ROWS_PER_BAND,
+        (fromRow, toRow) -> {
+          for (var y = fromRow; y < toRow; y++) {
+            var sourceRow = y * sourceWidth;
+            for (var x = 0; x < width; x++) {
+              var start = sourceRow + weights.starts()[x];
+              var offset = x * weights.stride();
+              var alpha = ROUNDING;
+              var red = ROUNDING;
+              var green = ROUNDING;
+              var blue = ROUNDING;
+              for (var i = 0; i < weights.counts()[x]; i++) {
+                var weight = weights.weights()[offset + i];
+                var argb = source[start + i];
+                alpha += weight * (argb >>> 24);
+                red += weight * ((argb >> 16) & 0xFF);
+                green += weight * ((argb >> 8) & 0xFF);
+                blue += weight * (argb & 0xFF);
+              }
+              target[y * width + x] = toArgb(alpha, red, green, blue);
+            }
+          }
+        });
+  }
+
+  private static void resampleColumns(
+      final int[] source,
+      final int[] target,
+      final int width,
+      final int height,
+      final Weights weights) {
+    ParallelBands.forEach(
+        height,
+        MIN_ROWS_PER_BAND,
+        (fromRow, toRow) -> {
+          // Accumulates whole source rows, which reads the source sequentially
+          var sums = new int[4 * width];
+          for (var y = fromRow; y < toRow; y++) {
+            Arrays.fill(sums, ROUNDING);
+            var offset = y * weights.stride();
+            for (var i = 0; i < weights.counts()[y]; i++) {
+              var weight = weights.weights()[offset + i];
+              var sourceRow = (weights.starts()[y] + i) * width;
+              for (var x = 0; x < width; x++) {
+                var argb = source[sourceRow + x];
+                sums[4 * x] += weight * (argb >>> 24);
+                sums[4 * x + 1] += weight * ((argb >> 16) & 0xFF);
+                sums[4 * x + 2] += weight * ((argb >> 8) & 0xFF);
+                sums[4 * x + 3] += weight * (argb & 0xFF);
+              }
+            }
+            for (var x = 0; x < width; x++) {
+              target[y * width + x] =
+                  toArgb(sums[4 * x], sums[4 * x + 1], sums[4 * x + 2], sums[4 * x + 3]);
+            }
+          }
+        });
+  }
+
+  private static int toArgb(final int alpha, final int red, final int green, final int blue) {
+    return clamp(alpha) << 24 | clamp(red) << 16 | clamp(green) << 8 | clamp(blue);
+  }
+
+  // The negative lobes of Lanczos may overshoot the channel range
+  private static int clamp(final int weightedChannel) {
+    return Math.min(255, Math.max(0, weightedChannel >> WEIGHT_BITS));
+  }
+}
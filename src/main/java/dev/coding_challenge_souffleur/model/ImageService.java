@@ -1,33 +1,171 @@
 package dev.coding_challenge_souffleur.model;
 
+import dev.coding_challenge_souffleur.ConfigurationKeys;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import javafx.embed.swing.SwingFXUtils;
+import java.nio.IntBuffer;
+import java.util.concurrent.TimeUnit;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.image.WritablePixelFormat;
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /** Service for image conversion operations. */
 @ApplicationScoped
 class ImageService {
 
-  /** The image format used for conversions. */
-  static final String IMAGE_FORMAT = "png";
+  private static final Logger LOGGER = LoggerFactory.getLogger(ImageService.class);
+  private static final WritablePixelFormat<IntBuffer> ARGB_FORMAT =
+      PixelFormat.getIntArgbInstance();
+  // Same trade-off between speed and size as the default of the ImageIO PNG writer
+  private static final int PNG_COMPRESSION_LEVEL = 4;
+  // Quality steps when an encoding exceeds the size cap, below the minimum text gets unreadable
+  private static final float JPEG_QUALITY_STEP = 0.15f;
+  private static final float MIN_JPEG_QUALITY = 0.3f;
+
+  private final ImageCodec codec;
+  private final float jpegQuality;
+  private final int maxEncodedBytes;
+  private final PngEncoder pngEncoder;
+  private final ImageResampler resampler = new ImageResampler(ImageResampler.Kernel.LANCZOS3);
+
+  @Inject
+  ImageService(
+      @ConfigProperty(name = ConfigurationKeys.APP_IMAGE_CODEC) final ImageCodec codec,
+      @ConfigProperty(name = ConfigurationKeys.APP_IMAGE_JPEG_QUALITY) final float jpegQuality,
+      @ConfigProperty(name = ConfigurationKeys.APP_IMAGE_MAX_BYTES) final int maxEncodedBytes,
+      @ConfigProperty(name = ConfigurationKeys.APP_IMAGE_PNG_REDUCE_COLORS)
+          final boolean reducePngColors) {
+    this.codec = codec;
+    this.jpegQuality = jpegQuality;
+    this.maxEncodedBytes = maxEncodedBytes;
+    this.pngEncoder = new PngEncoder(PNG_COMPRESSION_LEVEL, reducePngColors);
+  }
+
+  ImageCodec getCodec() {
+    return codec;
+  }
 
   /**
-   * Converts a JavaFX Image to a byte array.
+   * Encodes a JavaFX Image with the configured codec. An encoding larger than the size cap is
+   * replaced by JPEG encodings of decreasing quality until one fits.
    *
-   * @param fxImage the JavaFX Image to convert
-   * @return the image as a byte array
-   * @throws IOException if an error occurs during conversion
+   * @param fxImage the JavaFX Image to encode
+   * @return the encoded image
+   * @throws IOException if an error occurs during encoding
    */
-  byte[] convertToByteArray(final Image fxImage) throws IOException {
-    var bufferedImage = SwingFXUtils.fromFXImage(fxImage, null);
-    try (var outputStream = new ByteArrayOutputStream()) {
-      ImageIO.write(bufferedImage, IMAGE_FORMAT, outputStream);
-      return outputStream.toByteArray();
+  EncodedImage encode(final Image fxImage) throws IOException {
+    var encodedImage =
+        switch (codec) {
+          case PNG -> encodePng(fxImage);
+          case JPEG -> encodeJpeg(fxImage, jpegQuality);
+          case AUTO -> smallerOf(encodePng(fxImage), encodeJpeg(fxImage, jpegQuality));
+        };
+
+    // The configured quality was already tried if the codec chose JPEG
+    var quality =
+        encodedImage.format() == ImageFormat.JPEG ? jpegQuality - JPEG_QUALITY_STEP : jpegQuality;
+    while (encodedImage.size() > maxEncodedBytes && quality >= MIN_JPEG_QUALITY) {
+      encodedImage = encodeJpeg(fxImage, quality);
+      quality -= JPEG_QUALITY_STEP;
+    }
+    if (encodedImage.size() > maxEncodedBytes) {
+      LOGGER.warn(
+          "Encoded image of {} bytes exceeds the cap of {} bytes",
+          encodedImage.size(),
+          maxEncodedBytes);
+    }
+    return encodedImage;
+  }
+
+  private static EncodedImage smallerOf(final EncodedImage first, final EncodedImage second) {
+    var smaller = first.size() <= second.size() ? first : second;
+    LOGGER.debug("Keeping the smaller {} encoding", smaller.format());
+    return smaller;
+  }
+
+  private EncodedImage encodePng(final Image fxImage) {
+    var start = System.nanoTime();
+    var encodedImage = new EncodedImage(pngEncoder.encode(fxImage), ImageFormat.PNG);
+    logEncoding(fxImage, encodedImage, "", start);
+    return encodedImage;
+  }
+
+  private static EncodedImage encodeJpeg(final Image fxImage, final float quality)
+      throws IOException {
+    var start = System.nanoTime();
+    var width = (int) fxImage.getWidth();
+    var height = (int) fxImage.getHeight();
+
+    // JPEG has no alpha channel, which the RGB image ignores
+    var bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    var pixels = ((DataBufferInt) bufferedImage.getRaster().getDataBuffer()).getData();
+    fxImage.getPixelReader().getPixels(0, 0, width, height, ARGB_FORMAT, pixels, 0, width);
+
+    var writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+    var writeParam = writer.getDefaultWriteParam();
+    writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+    writeParam.setCompressionQuality(quality);
+    var outputStream = new ByteArrayOutputStream();
+    try (var imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+      writer.setOutput(imageOutputStream);
+      writer.write(null, new IIOImage(bufferedImage, null, null), writeParam);
+    } finally {
+      writer.dispose();
     }
+
+    var encodedImage = new EncodedImage(outputStream.toByteArray(), ImageFormat.JPEG);
+    logEncoding(fxImage, encodedImage, " with quality " + quality, start);
+    return encodedImage;
+  }
+
+  private static void logEncoding(
+      final Image fxImage,
+      final EncodedImage encodedImage,
+      final String details,
+      final long start) {
+    LOGGER.debug(
+        "Encoded {}x{} image as {}{} in {} ms: {} bytes",
+        (int) fxImage.getWidth(),
+        (int) fxImage.getHeight(),
+        encodedImage.format(),
+        details,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+        encodedImage.size());
+  }
+
+  /**
+   * Scales an image with a Lanczos filter, which keeps small text readable. Works on the raw
+   * pixels, so unlike scaling a snapshot of an ImageView it can run on any thread.
+   *
+   * @param fxImage the JavaFX Image to scale
+   * @param width the target width
+   * @param height the target height
+   * @return the scaled image
+   */
+  Image resize(final Image fxImage, final int width, final int height) {
+    var sourceWidth = (int) fxImage.getWidth();
+    var sourceHeight = (int) fxImage.getHeight();
+    var source = new int[sourceWidth * sourceHeight];
+    var pixelReader = fxImage.getPixelReader();
+    pixelReader.getPixels(0, 0, sourceWidth, sourceHeight, ARGB_FORMAT, source, 0, sourceWidth);
+
+    var target = resampler.resample(source, sourceWidth, sourceHeight, width, height);
+
+    var resizedImage = new WritableImage(width, height);
+    resizedImage.getPixelWriter().setPixels(0, 0, width, height, ARGB_FORMAT, target, 0, width);
+    return resizedImage;
   }
 
   /**
@@ -0,0 +1,76 @@
+package dev.coding_challenge_souffleur.model;
+
+/**
+ * Sizes screenshots for the image input of the model. An image costs about one input token per
+ * {@value #PIXELS_PER_TOKEN} pixels. The API scales images down itself if their long edge exceeds
+ * {@value #MAX_LONG_EDGE_PIXELS} pixels or they would cost more than {@value #MAX_TOKENS} tokens,
+ * which only adds upload bytes and latency. Images fitted to a budget stay within both limits.
+ */
+final class ImageTokenBudget {
+
+  static final int PIXELS_PER_TOKEN = 750;
+  static final int MAX_LONG_EDGE_PIXELS = 1568;
+  static final int MAX_TOKENS = 1600;
+
+  private static final double ROUNDING_EPSILON = 1e-6;
+
+  private final int tokenBudget;
+
+  /**
+   * Creates a budget for the input tokens of one image.
+   *
+   * @param tokenBudget the maximum input tokens of an image, limited to {@value #MAX_TOKENS}
+   */
+  ImageTokenBudget(final int tokenBudget) {
+    if (tokenBudget < 1) {
+      throw new IllegalArgumentException("Image token budget must be positive: " + tokenBudget);
+    }
+    this.tokenBudget = Math.min(tokenBudget, MAX_TOKENS);
+  }
+
+  /** Dimensions of an image in pixels. */
+  record Size(int width, int height) {}
+
+  /**
+   * Estimates the input tokens of an image.
+   *
+   * @param width the image width in pixels
+   * @param height the image height in pixels
+   * @return the estimated input tokens
+   */
+  static int estimateTokens(final int width, final int height) {
+    return (int) Math.ceil((double) width * height / PIXELS_PER_TOKEN);
+  }
+
+  /**
+   * Gets the largest size with the aspect ratio of the image that fits the budget. Images are never
+   * scaled up.
+   *
+   * @param width the image width in pixels
+   * @param height the image height in pixels
+   * @return the size to scale the image to, equal to the image size if it fits already
+   */
+  Size fit(final int width, final int height) {
+    var maxPixels = (double) tokenBudget * PIXELS_PER_TOKEN;
+    var scale =
+        Math.min(
+            1.0,
+            Math.min(
+                (double) MAX_LONG_EDGE_PIXELS / Math.max(width, height),
+                Math.sqrt(maxPixels / ((double) width * height))));
+    if (scale >= 1.0) {
+      return new Size(width, height);
+    }
+    // Rounding down keeps both limits
+    return new Size(scaleDown(width, scale), scaleDown(height, scale));
+  }
+
+  private static int scaleDown(final int length, final double scale) {
+    // The epsilon keeps exact results from rounding down one pixel too far
+    return Math.max(1, (int) (length * scale + ROUNDING_EPSILON));
+  }
+
+  int getTokenBudget() {
+    return tokenBudget;
+  }
+}
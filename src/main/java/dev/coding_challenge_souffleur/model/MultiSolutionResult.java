@@ -1,36 +1,65 @@
 package dev.coding_challenge_souffleur.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Container for multiple streaming analysis results representing different solution approaches.
- * Each solution can be in progress or complete independently.
+ * Immutable snapshot of multiple streaming analysis results representing different solution
+ * approaches. Each solution can be in progress or complete independently.
+ *
+ * <p>Every update returns a new snapshot with a higher {@link #getVersion() version} that shares
+ * all unchanged solutions and sections with its predecessor. Snapshots can therefore be published
+ * to other threads through a single volatile reference, see {@link MultiSolutionStream}.
  */
-public class MultiSolutionResult {
+public final class MultiSolutionResult {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MultiSolutionResult.class);
+  private static final AtomicLong VERSIONS = new AtomicLong();
+  private static final StreamingAnalysisResult[] NO_SOLUTIONS = {};
 
-  private final List<StreamingAnalysisResult> solutions = new ArrayList<>();
-  private String sharedProblemStatement;
+  // Never modified after construction, shared between snapshots
+  private final StreamingAnalysisResult[] solutions;
+  private final String sharedProblemStatement;
+  private final long version;
+
+  public MultiSolutionResult() {
+    this(NO_SOLUTIONS, null);
+  }
+
+  private MultiSolutionResult(
+      final StreamingAnalysisResult[] solutions, final String sharedProblemStatement) {
+    this.solutions = solutions;
+    this.sharedProblemStatement = sharedProblemStatement;
+    this.version = VERSIONS.incrementAndGet();
+  }
 
   public int getSolutionCount() {
-    return solutions.size();
+    return solutions.length;
+  }
+
+  /**
+   * Returns the version of this snapshot. Versions are unique across all snapshots and increase
+   * with every update, so an unchanged version means unchanged content.
+   */
+  public long getVersion() {
+    return version;
   }
 
   /** Returns true if all added solutions are complete. */
   public boolean isComplete() {
-    if (solutions.isEmpty()) {
+    if (solutions.length == 0) {
       return false;
     }
 
     // If we have a shared problem statement, treat solutions as complete when all
     // per-solution sections (except problem statement) are present.
     if (sharedProblemStatement != null) {
-      return solutions.stream()
+      return Arrays.stream(solutions)
           .allMatch(
               s ->
                   s.getSolutionDescription() != null
@@ -41,7 +70,7 @@ public class MultiSolutionResult {
     }
 
     // Fallback: require each solution to be fully complete on its own
-    return solutions.stream().allMatch(StreamingAnalysisResult::isComplete);
+    return Arrays.stream(solutions).allMatch(StreamingAnalysisResult::isComplete);
   }
 
   /** Returns the shared problem statement that applies to all solutions. */
@@ -49,26 +78,98 @@ public class MultiSolutionResult {
     return Optional.ofNullable(sharedProblemStatement);
   }
 
-  void setSharedProblemStatement(final String problemStatement) {
+  MultiSolutionResult withSharedProblemStatement(final String problemStatement) {
     LOGGER.trace("Setting shared problem statement to {}", problemStatement);
-    this.sharedProblemStatement = problemStatement;
+    return new MultiSolutionResult(solutions, problemStatement);
   }
 
   /** Gets a specific solution by index, or empty if index is out of bounds. */
   public Optional<StreamingAnalysisResult> getSolution(final int index) {
-    if (index >= 0 && index < solutions.size()) {
-      return Optional.of(solutions.get(index));
+    if (index >= 0 && index < solutions.length) {
+      return Optional.of(solutions[index]);
     }
 
     return Optional.empty();
   }
 
-  void addSolution(final StreamingAnalysisResult solution) {
-    solutions.add(solution);
-    LOGGER.trace("Added solution, total count: {}", solutions.size());
+  MultiSolutionResult withSolution(final StreamingAnalysisResult solution) {
+    var updatedSolutions = Arrays.copyOf(solutions, solutions.length + 1);
+    updatedSolutions[solutions.length] = solution;
+    LOGGER.trace("Added solution, total count: {}", updatedSolutions.length);
+    return new MultiSolutionResult(updatedSolutions, sharedProblemStatement);
+  }
+
+  MultiSolutionResult withSolution(final int index, final StreamingAnalysisResult solution) {
+    if (solutions[index] == solution) {
+      return this;
+    }
+
+    var updatedSolutions = solutions.clone();
+    updatedSolutions[index] = solution;
+    return new MultiSolutionResult(updatedSolutions, sharedProblemStatement);
+  }
+
+  /**
+   * Returns the snapshot after applying a streamed section event, or this snapshot if the event
+   * changes nothing. A started section creates missing solutions but keeps the previous content
+   * until new text is appended.
+   */
+  MultiSolutionResult withEvent(final SectionEvent event) {
+    if (event.isShared()) {
+      if (event instanceof SectionEvent.SectionAppended appended) {
+        return withSharedProblemStatement(appended.applyTo(sharedProblemStatement));
+      }
+      return this;
+    }
+
+    var updated = this;
+    while (updated.solutions.length <= event.solutionIndex()) {
+      updated = updated.withSolution(new StreamingAnalysisResult());
+    }
+    if (event instanceof SectionEvent.SectionAppended appended) {
+      var index = event.solutionIndex();
+      var solution = updated.solutions[index];
+      var content = appended.applyTo(solution.getValueForSection(event.section()));
+      updated = updated.withSolution(index, solution.withSection(event.section(), content));
+    }
+    return updated;
+  }
+
+  /**
+   * Returns the events that rebuild this snapshot from an empty result, e.g. to show a cached
+   * result: each section is started, appended as a whole and completed.
+   */
+  List<SectionEvent> toSectionEvents() {
+    var events = new ArrayList<SectionEvent>();
+    if (sharedProblemStatement != null) {
+      addSectionEvents(
+          events,
+          SectionEvent.SHARED_SOLUTION_INDEX,
+          SolutionSection.PROBLEM_STATEMENT,
+          sharedProblemStatement);
+    }
+    for (var index = 0; index < solutions.length; index++) {
+      for (final var section : SolutionSection.values()) {
+        var content = solutions[index].getValueForSection(section);
+        if (content != null) {
+          addSectionEvents(events, index, section, content);
+        }
+      }
+    }
+    return events;
+  }
+
+  private static void addSectionEvents(
+      final List<SectionEvent> events,
+      final int solutionIndex,
+      final SolutionSection section,
+      final String content) {
+    events.add(new SectionEvent.SectionStarted(solutionIndex, section));
+    events.add(new SectionEvent.SectionAppended(solutionIndex, section, 0, content));
+    events.add(new SectionEvent.SectionCompleted(solutionIndex, section));
   }
 
   boolean hasAnySolutions() {
-    return !solutions.isEmpty();
+    return solutions.length > 0;
   }
 }
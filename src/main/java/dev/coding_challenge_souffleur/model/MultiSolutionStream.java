@@ -0,0 +1,53 @@
+package dev.coding_challenge_souffleur.model;
+
+import java.util.List;
+
+/**
+ * State of one streamed multi-solution response: the {@link SectionStreamParser} and the latest
+ * immutable {@link MultiSolutionResult} snapshot. The snapshot is published through a single
+ * volatile reference, so any thread can read the latest version without locking.
+ *
+ * <p>Text must only be appended by the thread receiving the stream.
+ */
+final class MultiSolutionStream {
+
+  private final SectionStreamParser parser = new SectionStreamParser();
+  private volatile MultiSolutionResult result = new MultiSolutionResult();
+
+  /**
+   * Parses a text delta and publishes the updated snapshot.
+   *
+   * @return the section events caused by the delta, possibly empty
+   */
+  List<SectionEvent> append(final CharSequence delta) {
+    return publish(parser.append(delta));
+  }
+
+  /**
+   * Marks the end of the stream and publishes the snapshot including the held back text.
+   *
+   * @return the section events caused by the held back text, possibly empty
+   */
+  List<SectionEvent> finish() {
+    return publish(parser.finish());
+  }
+
+  /** Returns the latest published snapshot. */
+  MultiSolutionResult result() {
+    return result;
+  }
+
+  /** Returns the text received so far. */
+  CharSequence text() {
+    return parser.text();
+  }
+
+  private List<SectionEvent> publish(final List<SectionEvent> events) {
+    var updated = result;
+    for (final var event : events) {
+      updated = updated.withEvent(event);
+    }
+    result = updated;
+    return events;
+  }
+}
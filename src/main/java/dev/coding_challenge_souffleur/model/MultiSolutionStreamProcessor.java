@@ -7,8 +7,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Optional;
-import java.util.function.Consumer;
+import java.util.List;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,58 +17,6 @@ class MultiSolutionStreamProcessor {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MultiSolutionStreamProcessor.class);
 
-  /**
-   * Returns the content of the given section from the provided text. Prefers complete section
-   * content; if not present, falls back to the latest partial content. Returns empty if not found.
-   */
-  private static Optional<String> extractSectionContent(
-      final String text, final SolutionSection solutionSection) {
-    if (text == null || text.isEmpty() || solutionSection == null) {
-      return Optional.empty();
-    }
-
-    var completeMatcher = solutionSection.completePattern().matcher(text);
-    if (completeMatcher.find()) {
-      return Optional.of(completeMatcher.group(1).trim());
-    }
-
-    var partialMatcher = solutionSection.partialPattern().matcher(text);
-    if (partialMatcher.find()) {
-      var partial = partialMatcher.group(1).trim();
-      if (!partial.isEmpty()) {
-        return Optional.of(partial);
-      }
-    }
-
-    return Optional.empty();
-  }
-
-  /**
-   * Attempts to extract the content for the provided section from text and update the result.
-   * Returns true if the result was updated (complete or partial content changed), otherwise false.
-   */
-  private static boolean extractAndUpdate(
-      final StreamingAnalysisResult result,
-      final SolutionSection solutionSection,
-      final String text) {
-    if (text == null || text.isEmpty() || solutionSection == null || result == null) {
-      return false;
-    }
-
-    var contentOpt = extractSectionContent(text, solutionSection);
-    if (contentOpt.isPresent()) {
-      var newValue = contentOpt.get();
-      var currentValue = Optional.ofNullable(result.getValueForSection(solutionSection)).orElse("");
-      if (!newValue.equals(currentValue)) {
-        LOGGER.trace("Updated {} from parsed content", solutionSection.name());
-        result.setSection(solutionSection, newValue);
-        return true;
-      }
-    }
-
-    return false;
-  }
-
   private static void dumpTextContent(final String textContent) {
     if (textContent == null || textContent.trim().isEmpty()) {
       LOGGER.debug("No text content to dump");
@@ -96,135 +43,61 @@ class MultiSolutionStreamProcessor {
         .collect(Collectors.joining());
   }
 
-  private static void notifyCallback(
-      final Consumer<MultiSolutionResult> callback, final MultiSolutionResult result) {
-    if (callback != null) {
-      callback.accept(result);
+  private static void notifyListener(
+      final List<SectionEvent> events,
+      final MultiSolutionStream stream,
+      final SectionEventListener listener) {
+    if (listener != null && !events.isEmpty()) {
+      listener.onSectionEvents(events, stream.result());
     }
   }
 
-  private static String[] splitIntoSolutionBlocks(final String text) {
-    // If text is empty or whitespace-only, return no solution blocks
-    if (text == null || text.trim().isEmpty()) {
-      return new String[0];
-    }
-
-    // If no solution titles found, check if it contains solution content
-    var matcher = SolutionSection.SOLUTION_BOUNDARY_PATTERN_INSTANCE.matcher(text);
-    if (!matcher.find()) {
-      // If text contains solution-related sections, treat as single solution
-      if (SolutionSection.containsSolutionContent(text)) {
-        return new String[] {text};
-      }
-      // Otherwise (only problem statement, etc.), return no solution blocks
-      return new String[0];
-    }
-
-    // Split by solution titles, keeping the SOLUTION_TITLE: part
-    var parts = SolutionSection.SOLUTION_BOUNDARY_PATTERN_INSTANCE.split(text);
-    if (parts.length <= 1) {
-      return new String[] {text};
-    }
-
-    // Reconstruct solution blocks, adding back the SOLUTION_TITLE: prefix
-    var result = new String[parts.length - 1]; // Skip first part (before first SOLUTION_TITLE)
-    for (var i = 1; i < parts.length; i++) {
-      result[i - 1] = SolutionSection.SOLUTION_TITLE.headerPrefix() + parts[i];
-    }
-
-    return result;
-  }
-
-  private boolean updateSharedProblemStatement(
-      final MultiSolutionResult result, final String text) {
-    return extractSectionContent(text, SolutionSection.PROBLEM_STATEMENT)
-        .map(String::trim)
-        .filter(ps -> !ps.equals(result.getSharedProblemStatement().orElse("")))
-        .map(
-            ps -> {
-              result.setSharedProblemStatement(ps);
-              return true;
-            })
-        .orElse(false);
-  }
-
-  private boolean updateSingleSolution(
-      final StreamingAnalysisResult solution, final String solutionText) {
-    var updated = false;
-
-    for (final var section : SolutionSection.values()) {
-      // Skip PROBLEM_STATEMENT for individual solutions since it's shared
-      if (section == SolutionSection.PROBLEM_STATEMENT) {
-        continue;
-      }
-
-      if (extractAndUpdate(solution, section, solutionText)) {
-        updated = true;
-      }
-    }
-
-    return updated;
-  }
-
   void processStreamEvents(
-      final MultiSolutionResult result,
-      final StringBuilder accumulatedText,
-      final Consumer<MultiSolutionResult> updateCallback,
+      final MultiSolutionStream stream,
+      final SectionEventListener listener,
       final String textDelta) {
 
     try {
-      accumulatedText.append(textDelta);
-      if (updateMultiSolutionResult(accumulatedText.toString(), result)) {
-        notifyCallback(updateCallback, result);
-      }
+      notifyListener(stream.append(textDelta), stream, listener);
     } catch (final Exception e) {
       LOGGER.warn("Error processing stream event", e);
     }
   }
 
+  /** Applies the text held back by the parser once no further deltas will arrive. */
+  void completeStream(final MultiSolutionStream stream, final SectionEventListener listener) {
+    try {
+      notifyListener(stream.finish(), stream, listener);
+    } catch (final Exception e) {
+      LOGGER.warn("Error completing stream", e);
+    }
+  }
+
   void handleFinalResponse(
-      final MultiSolutionResult result,
-      final Consumer<MultiSolutionResult> updateCallback,
+      final MultiSolutionStream stream,
+      final SectionEventListener listener,
       final MessageAccumulator messageAccumulator) {
 
+    String completeResponse = null;
     try {
-      var completeResponse = extractCompleteResponse(messageAccumulator);
-      if (updateMultiSolutionResult(completeResponse, result)) {
-        notifyCallback(updateCallback, result);
-      }
+      completeResponse = extractCompleteResponse(messageAccumulator);
 
-      if (!result.isComplete()) {
-        LOGGER.debug("Multi-solution result is incomplete, dumping response for debugging");
-        dumpTextContent(completeResponse);
+      // The accumulated message normally equals the streamed text, so only a missing tail is parsed
+      var parsedLength = stream.text().length();
+      if (completeResponse.length() > parsedLength
+          && completeResponse.startsWith(stream.text().toString())) {
+        notifyListener(stream.append(completeResponse.substring(parsedLength)), stream, listener);
       }
     } catch (final Exception e) {
       LOGGER.warn("Error handling final response", e);
-      notifyCallback(updateCallback, result);
-    }
-  }
-
-  private boolean updateMultiSolutionResult(final String text, final MultiSolutionResult result) {
-    var updated = updateSharedProblemStatement(result, text);
-
-    // Split text into solution blocks
-    var solutionBlocks = splitIntoSolutionBlocks(text);
-
-    // Ensure we have enough StreamingAnalysisResult objects
-    while (result.getSolutionCount() < solutionBlocks.length) {
-      result.addSolution(new StreamingAnalysisResult());
+    } finally {
+      // The held back text completes the sections even if the response could not be read
+      completeStream(stream, listener);
     }
 
-    for (var i = 0; i < solutionBlocks.length; i++) {
-      var solutionBlock = solutionBlocks[i];
-      var optionalSolution = result.getSolution(i);
-      if (optionalSolution.isPresent()) {
-        var solutionResult = optionalSolution.get();
-        if (updateSingleSolution(solutionResult, solutionBlock)) {
-          updated = true;
-        }
-      }
+    if (completeResponse != null && !stream.result().isComplete()) {
+      LOGGER.debug("Multi-solution result is incomplete, dumping response for debugging");
+      dumpTextContent(completeResponse);
     }
-
-    return updated;
   }
 }
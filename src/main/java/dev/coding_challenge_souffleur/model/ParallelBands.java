@@ -0,0 +1,80 @@
+package dev.coding_challenge_souffleur.model;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Processes horizontal bands of an image in parallel. The bands run on a dedicated fork/join pool,
+ * because the common pool is shared with the blocking API calls. The calling thread helps with the
+ * work, so a band task never waits for a free worker.
+ */
+final class ParallelBands {
+
+  private static final ForkJoinPool BAND_POOL =
+      new ForkJoinPool(
+          Runtime.getRuntime().availableProcessors(),
+          pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("image-band-" + thread.getPoolIndex());
+            return thread;
+          },
+          null,
+          false);
+
+  /** Work on the rows {@code [fromRow, toRow)} of an image. */
+  @FunctionalInterface
+  interface BandTask {
+    void process(int fromRow, int toRow);
+  }
+
+  private ParallelBands() {
+    // Utility class
+  }
+
+  /**
+   * Gets the number of bands that can be processed at the same time.
+   *
+   * @return the parallelism of the band pool
+   */
+  static int parallelism() {
+    return BAND_POOL.getParallelism();
+  }
+
+  /**
+   * Computes a result per band in parallel.
+   *
+   * @param bandCount the number of bands
+   * @param mapper computes the result of a band from its index
+   * @return the results in band order
+   */
+  static <T> List<T> map(final int bandCount, final IntFunction<T> mapper) {
+    if (bandCount == 1) {
+      return List.of(mapper.apply(0));
+    }
+    // A parallel stream started within a pool task runs on that pool
+    return BAND_POOL
+        .submit(() -> IntStream.range(0, bandCount).parallel().mapToObj(mapper).toList())
+        .join();
+  }
+
+  /**
+   * Splits rows into bands of at least the minimum height and processes them in parallel.
+   *
+   * @param rows the number of rows
+   * @param minRowsPerBand the minimum height of a band, so that small images are not split
+   * @param task the work on a band
+   */
+  static void forEach(final int rows, final int minRowsPerBand, final BandTask task) {
+    var maxBands = Math.max(1, Math.min(parallelism(), rows / minRowsPerBand));
+    var rowsPerBand = Math.max(1, (rows + maxBands - 1) / maxBands);
+    map(
+        (rows + rowsPerBand - 1) / rowsPerBand,
+        band -> {
+          var fromRow = band * rowsPerBand;
+          task.process(fromRow, Math.min(rows, fromRow + rowsPerBand));
+          return band;
+        });
+  }
+}
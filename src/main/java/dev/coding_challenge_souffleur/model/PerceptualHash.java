@@ -0,0 +1,131 @@
+package dev.coding_challenge_souffleur.model;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritablePixelFormat;
+
+/**
+ * Difference hash (dHash) of an image: the luminance of a 17x16 grid of cells, and one bit per
+ * pair of horizontally adjacent cells telling whether the brightness increases. Near-identical
+ * images, e.g. a page scrolled by a few lines or re-rendered with other anti-aliasing, differ in
+ * few bits.
+ *
+ * <p>The usual 64-bit hash of 9x8 cells averages the text of a whole screenshot into a handful of
+ * cells, so different problems on the same page layout would hash alike. The 256 bits of the finer
+ * grid tell them apart.
+ */
+final class PerceptualHash {
+
+  private static final WritablePixelFormat<IntBuffer> ARGB_FORMAT =
+      PixelFormat.getIntArgbInstance();
+  private static final int ROWS = 16;
+  private static final int COLUMNS = ROWS + 1;
+
+  /** Number of 64-bit words of a hash. */
+  static final int WORDS = ROWS * (COLUMNS - 1) / Long.SIZE;
+
+  // ROWS * (COLUMNS - 1) bits, row by row
+  private final long[] bits;
+
+  private PerceptualHash(final long[] bits) {
+    this.bits = bits;
+  }
+
+  /**
+   * Computes the hash of an image.
+   *
+   * @param image the image to hash
+   * @return the hash
+   */
+  static PerceptualHash of(final Image image) {
+    var width = (int) image.getWidth();
+    var height = (int) image.getHeight();
+    var sums = new long[ROWS * COLUMNS];
+    var counts = new int[ROWS * COLUMNS];
+
+    // Reads one row at a time, so large screenshots need no full pixel copy
+    var row = new int[width];
+    var pixelReader = image.getPixelReader();
+    for (var y = 0; y < height; y++) {
+      pixelReader.getPixels(0, y, width, 1, ARGB_FORMAT, row, 0, width);
+      var firstCell = (int) ((long) y * ROWS / height) * COLUMNS;
+      for (var x = 0; x < width; x++) {
+        var cell = firstCell + (int) ((long) x * COLUMNS / width);
+        sums[cell] += luminance(row[x]);
+        counts[cell]++;
+      }
+    }
+
+    var bits = new long[WORDS];
+    var bit = 0;
+    for (var cellRow = 0; cellRow < ROWS; cellRow++) {
+      for (var column = 0; column < COLUMNS - 1; column++, bit++) {
+        var cell = cellRow * COLUMNS + column;
+        // Cross-multiplied averages, cells of tiny images may be empty
+        var left = sums[cell] * Math.max(1, counts[cell + 1]);
+        var right = sums[cell + 1] * Math.max(1, counts[cell]);
+        if (left < right) {
+          bits[bit / Long.SIZE] |= 1L << (bit % Long.SIZE);
+        }
+      }
+    }
+    return new PerceptualHash(bits);
+  }
+
+  /**
+   * Restores a hash from its words.
+   *
+   * @param words the words returned by {@link #toWords()}
+   * @return the hash
+   */
+  static PerceptualHash ofWords(final long[] words) {
+    if (words.length != WORDS) {
+      throw new IllegalArgumentException("Expected " + WORDS + " words: " + words.length);
+    }
+    return new PerceptualHash(words.clone());
+  }
+
+  /** Returns the bits as 64-bit words, e.g. to store the hash. */
+  long[] toWords() {
+    return bits.clone();
+  }
+
+  /**
+   * Returns the number of differing bits, 0 for equal hashes and at most 256.
+   *
+   * @param other the hash to compare with
+   * @return the Hamming distance
+   */
+  int distanceTo(final PerceptualHash other) {
+    var distance = 0;
+    for (var i = 0; i < bits.length; i++) {
+      distance += Long.bitCount(bits[i] ^ other.bits[i]);
+    }
+    return distance;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    return other instanceof PerceptualHash hash && Arrays.equals(bits, hash.bits);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(bits);
+  }
+
+  @Override
+  public String toString() {
+    var hex = new StringBuilder();
+    for (final var word : bits) {
+      hex.append(String.format("%016x", word));
+    }
+    return hex.toString();
+  }
+
+  private static int luminance(final int argb) {
+    return ((argb >> 16) & 0xFF) * 77 + ((argb >> 8) & 0xFF) * 150 + (argb & 0xFF) * 29;
+  }
+}
@@ -0,0 +1,389 @@
+package dev.coding_challenge_souffleur.model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritablePixelFormat;
+
+/**
+ * PNG encoder that compresses horizontal bands of an image in parallel, similar to pigz. Pixels are
+ * read from the {@link javafx.scene.image.PixelReader} into a reused buffer without converting the
+ * image to a {@code BufferedImage}. Each band is filtered per row and deflated independently. All
+ * bands but the last end with a sync flush, so their raw deflate data concatenates to a single
+ * zlib stream, which is written as one IDAT chunk.
+ *
+ * <p>The bands are compressed with {@link ParallelBands}. Opaque images are written as 8-bit RGB,
+ * all others as 8-bit RGBA. With color reduction, opaque images with few colors are written as
+ * 8-bit grayscale or indexed instead, see {@link ColorReducer}.
+ */
+final class PngEncoder {
+
+  private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+  private static final WritablePixelFormat<IntBuffer> ARGB_FORMAT =
+      PixelFormat.getIntArgbInstance();
+  // Bands below this size are not worth deflating separately
+  private static final int MIN_BAND_BYTES = 128 * 1024;
+  private static final int ADLER_BASE = 65521;
+
+  private final int compressionLevel;
+  private final boolean reduceColors;
+  private final ColorReducer colorReducer = new ColorReducer();
+  // Pixel buffer reused by consecutive encodings, taken while in use
+  private final AtomicReference<int[]> sparePixelBuffer = new AtomicReference<>();
+
+  PngEncoder(final int compressionLevel, final boolean reduceColors) {
+    this.compressionLevel = compressionLevel;
+    this.reduceColors = reduceColors;
+  }
+
+  /** Color types of the PNG specification, all with 8-bit samples. */
+  private enum ColorType {
+    GRAYSCALE(0, 1),
+    RGB(2, 3),
+    INDEXED(3, 1),
+    RGBA(6, 4);
+
+    private final int code;
+    private final int bytesPerPixel;
+
+    ColorType(final int code, final int bytesPerPixel) {
+      this.code = code;
+      this.bytesPerPixel = bytesPerPixel;
+    }
+  }
+
+  /** Reads the samples of a row of the image. */
+  @FunctionalInterface
+  private interface RowReader {
+
+    void read(int row, byte[] target);
+  }
+
+  /** A band of rows, filtered and deflated. */
+  private record DeflatedBand(byte[] data, long adler32, int uncompressedLength) {}
+
+  /**
+   * Encodes the image as PNG.
+   *
+   * @param image the image to encode
+   * @return the PNG file content
+   */
+  byte[] encode(final Image image) {
+    var width = (int) image.getWidth();
+    var height = (int) image.getHeight();
+    var pixels = takePixelBuffer(width * height);
+    try {
+      image.getPixelReader().getPixels(0, 0, width, height, ARGB_FORMAT, pixels, 0, width);
+      if (!isOpaque(pixels, width * height)) {
+        return encode(width, height, ColorType.RGBA, new int[0], argbRows(pixels, width, 4));
+      }
+
+      var reducedColors =
+          reduceColors
+              ? colorReducer.reduce(pixels, width * height)
+              : Optional.<ColorReducer.ReducedColors>empty();
+      if (reducedColors.isEmpty()) {
+        return encode(width, height, ColorType.RGB, new int[0], argbRows(pixels, width, 3));
+      }
+      var colors = reducedColors.get();
+      var colorType = colors.isGrayscale() ? ColorType.GRAYSCALE : ColorType.INDEXED;
+      var rowReader = sampleRows(colors.samples(), width);
+      return encode(width, height, colorType, colors.palette(), rowReader);
+    } finally {
+      sparePixelBuffer.set(pixels);
+    }
+  }
+
+  private byte[] encode(
+      final int width,
+      final int height,
+      final ColorType colorType,
+      final int[] palette,
+      final RowReader rowReader) {
+    var bands = deflateBands(rowReader, width, height, colorType);
+    return writePng(width, height, colorType, palette, bands);
+  }
+
+  private static RowReader argbRows(final int[] pixels, final int width, final int bytesPerPixel) {
+    return (row, target) -> {
+      var offset = row * width;
+      var position = 0;
+      for (var x = 0; x < width; x++) {
+        var argb = pixels[offset + x];
+        target[position++] = (byte) (argb >> 16);
+        target[position++] = (byte) (argb >> 8);
+        target[position++] = (byte) argb;
+        if (bytesPerPixel == 4) {
+          target[position++] = (byte) (argb >>> 24);
+        }
+      }
+    };
+  }
+
+  private static RowReader sampleRows(final byte[] samples, final int width) {
+    return (row, target) -> System.arraycopy(samples, row * width, target, 0, width);
+  }
+
+  private int[] takePixelBuffer(final int size) {
+    var pixels = sparePixelBuffer.getAndSet(null);
+    return pixels != null && pixels.length >= size ? pixels : new int[size];
+  }
+
+  private static boolean isOpaque(final int[] pixels, final int length) {
+    for (var i = 0; i < length; i++) {
+      if (pixels[i] >>> 24 != 0xFF) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private List<DeflatedBand> deflateBands(
+      final RowReader rowReader, final int width, final int height, final ColorType colorType) {
+    var rowLength = 1 + width * colorType.bytesPerPixel;
+    var maxBandsBySize = Math.max(1, (int) ((long) rowLength * height / MIN_BAND_BYTES));
+    var maxBands = Math.min(ParallelBands.parallelism(), maxBandsBySize);
+    var rowsPerBand = (height + maxBands - 1) / maxBands;
+
+    // Rounding up the band height may leave fewer bands, but never an empty one
+    return ParallelBands.map(
+        (height + rowsPerBand - 1) / rowsPerBand,
+        band -> {
+          var firstRow = band * rowsPerBand;
+          var endRow = Math.min(height, firstRow + rowsPerBand);
+          return deflateBand(rowReader, width, colorType, firstRow, endRow, endRow == height);
+        });
+  }
+
+  private DeflatedBand deflateBand(
+      final RowReader rowReader,
+      final int width,
+      final ColorType colorType,
+      final int firstRow,
+      final int endRow,
+      final boolean isLastBand) {
+    var rowBytes = width * colorType.bytesPerPixel;
+    var filtered = ByteBuffer.allocate((endRow - firstRow) * (1 + rowBytes));
+    // Palette indices are no magnitudes, so the specification recommends not to filter them
+    var filter =
+        new RowFilter(
+            rowReader, rowBytes, colorType.bytesPerPixel, colorType != ColorType.INDEXED);
+    if (firstRow > 0) {
+      filter.setPreviousRow(firstRow - 1);
+    }
+    for (var row = firstRow; row < endRow; row++) {
+      filter.filterRow(row, filtered);
+    }
+
+    var adler32 = new Adler32();
+    adler32.update(filtered.array());
+
+    var deflater = new Deflater(compressionLevel, true);
+    try {
+      deflater.setStrategy(Deflater.FILTERED);
+      deflater.setInput(filtered.array());
+      var output = new ByteArrayOutputStream(filtered.capacity() / 4);
+      var buffer = new byte[64 * 1024];
+      if (isLastBand) {
+        deflater.finish();
+        while (!deflater.finished()) {
+          output.write(buffer, 0, deflater.deflate(buffer));
+        }
+      } else {
+        // A sync flush ends on a byte boundary without marking the final block. The first call
+        // may only apply the strategy and return no data, so the input must be consumed as well.
+        int length;
+        do {
+          length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+          output.write(buffer, 0, length);
+        } while (length == buffer.length || !deflater.needsInput());
+      }
+      return new DeflatedBand(output.toByteArray(), adler32.getValue(), filtered.capacity());
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] writePng(
+      final int width,
+      final int height,
+      final ColorType colorType,
+      final int[] palette,
+      final List<DeflatedBand> bands) {
+    var deflatedLength = bands.stream().mapToInt(band -> band.data().length).sum();
+    var adler32 = 1L;
+    for (final var band : bands) {
+      adler32 = combineAdler32(adler32, band.adler32(), band.uncompressedLength());
+    }
+
+    var idatLength = 2 + deflatedLength + 4;
+    var paletteLength = palette.length == 0 ? 0 : 12 + 3 * palette.length;
+    var png =
+        ByteBuffer.allocate(
+            SIGNATURE.length + (12 + 13) + paletteLength + (12 + idatLength) + 12);
+    png.put(SIGNATURE);
+
+    var headerStart = startChunk(png, "IHDR", 13);
+    png.putInt(width).putInt(height);
+    png.put((byte) 8).put((byte) colorType.code);
+    png.put((byte) 0).put((byte) 0).put((byte) 0);
+    endChunk(png, headerStart);
+
+    if (palette.length > 0) {
+      var paletteStart = startChunk(png, "PLTE", 3 * palette.length);
+      for (final var rgb : palette) {
+        png.put((byte) (rgb >> 16)).put((byte) (rgb >> 8)).put((byte) rgb);
+      }
+      endChunk(png, paletteStart);
+    }
+
+    var dataStart = startChunk(png, "IDAT", idatLength);
+    png.put((byte) 0x78).put((byte) 0x5E); // zlib header: deflate, 32K window, default level
+    for (final var band : bands) {
+      png.put(band.data());
+    }
+    png.putInt((int) adler32);
+    endChunk(png, dataStart);
+
+    endChunk(png, startChunk(png, "IEND", 0));
+    return png.array();
+  }
+
+  private static int startChunk(final ByteBuffer png, final String type, final int length) {
+    png.putInt(length);
+    var typeStart = png.position();
+    png.put(type.getBytes(StandardCharsets.US_ASCII));
+    return typeStart;
+  }
+
+  private static void endChunk(final ByteBuffer png, final int typeStart) {
+    var crc = new CRC32();
+    crc.update(png.array(), typeStart, png.position() - typeStart);
+    png.putInt((int) crc.getValue());
+  }
+
+  // Adler-32 of two concatenated byte sequences, as adler32_combine of zlib
+  static long combineAdler32(final long first, final long second, final long secondLength) {
+    var remainder = secondLength % ADLER_BASE;
+    var sum1 = first & 0xFFFF;
+    var sum2 = (remainder * sum1) % ADLER_BASE;
+    sum1 += (second & 0xFFFF) + ADLER_BASE - 1;
+    sum2 += ((first >> 16) & 0xFFFF) + ((second >> 16) & 0xFFFF) + ADLER_BASE - remainder;
+    if (sum1 >= ADLER_BASE) {
+      sum1 -= ADLER_BASE;
+    }
+    if (sum1 >= ADLER_BASE) {
+      sum1 -= ADLER_BASE;
+    }
+    if (sum2 >= (ADLER_BASE << 1)) {
+      sum2 -= ADLER_BASE << 1;
+    }
+    if (sum2 >= ADLER_BASE) {
+      sum2 -= ADLER_BASE;
+    }
+    return sum1 | (sum2 << 16);
+  }
+
+  /**
+   * Filters rows with the adaptive heuristic recommended by the PNG specification: of the five
+   * filter types the one with the minimum sum of absolute differences is chosen per row. Without
+   * adaptive filtering the rows are not filtered.
+   */
+  private static final class RowFilter {
+
+    private static final int FILTER_TYPES = 5;
+
+    private final RowReader rowReader;
+    private final int bytesPerPixel;
+    private final int filterTypes;
+    private byte[] previous;
+    private byte[] current;
+    private final byte[][] candidates;
+
+    RowFilter(
+        final RowReader rowReader,
+        final int rowBytes,
+        final int bytesPerPixel,
+        final boolean adaptive) {
+      this.rowReader = rowReader;
+      this.bytesPerPixel = bytesPerPixel;
+      this.filterTypes = adaptive ? FILTER_TYPES : 1;
+      this.previous = new byte[rowBytes];
+      this.current = new byte[rowBytes];
+      this.candidates = new byte[filterTypes][rowBytes];
+    }
+
+    void setPreviousRow(final int row) {
+      rowReader.read(row, previous);
+    }
+
+    void filterRow(final int row, final ByteBuffer out) {
+      rowReader.read(row, current);
+
+      var bestType = 0;
+      var bestSum = Long.MAX_VALUE;
+      for (var type = 0; type < filterTypes; type++) {
+        var sum = applyFilter(type, candidates[type], bestSum);
+        if (sum < bestSum) {
+          bestSum = sum;
+          bestType = type;
+        }
+      }
+      out.put((byte) bestType).put(candidates[bestType]);
+
+      var swap = previous;
+      previous = current;
+      current = swap;
+    }
+
+    // Stops early and returns a sum of at least the limit once the filter cannot be the best
+    private long applyFilter(final int type, final byte[] target, final long limit) {
+      var length = current.length;
+      long sum = 0;
+      for (var i = 0; i < length && sum < limit; i++) {
+        var raw = current[i] & 0xFF;
+        var predicted =
+            switch (type) {
+              case 0 -> 0;
+              case 1 -> i >= bytesPerPixel ? current[i - bytesPerPixel] & 0xFF : 0;
+              case 2 -> previous[i] & 0xFF;
+              case 3 ->
+                  ((i >= bytesPerPixel ? current[i - bytesPerPixel] & 0xFF : 0)
+                          + (previous[i] & 0xFF))
+                      >>> 1;
+              default ->
+                  i >= bytesPerPixel
+                      ? paeth(
+                          current[i - bytesPerPixel] & 0xFF,
+                          previous[i] & 0xFF,
+                          previous[i - bytesPerPixel] & 0xFF)
+                      : previous[i] & 0xFF;
+            };
+        var value = (byte) (raw - predicted);
+        target[i] = value;
+        sum += Math.abs(value);
+      }
+      return sum;
+    }
+
+    private static int paeth(final int left, final int up, final int upLeft) {
+      var estimate = left + up - upLeft;
+      var distanceLeft = Math.abs(estimate - left);
+      var distanceUp = Math.abs(estimate - up);
+      var distanceUpLeft = Math.abs(estimate - upLeft);
+      if (distanceLeft <= distanceUp && distanceLeft <= distanceUpLeft) {
+        return left;
+      }
+      return distanceUp <= distanceUpLeft ? up : upLeft;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package dev.coding_challenge_souffleur.model;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import com.anthropic.models.messages.CacheControlEphemeral;
+import com.anthropic.models.messages.TextBlockParam;
+import dev.coding_challenge_souffleur.ConfigurationKeys;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The prompts of all coding languages, loaded and assembled once at startup, so building a request
+ * reads no resources. The prompts are replaced as a whole, so a request never mixes two versions.
+ *
+ * <p>In the dev mode the prompts are read from a directory, e.g. the prompt sources, instead of the
+ * classpath, and reloaded whenever a file of the directory changes.
+ */
+@ApplicationScoped
+class PromptRegistry {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PromptRegistry.class);
+  private static final String SYSTEM_PROMPT_FILE = "system_prompt.txt";
+  private static final String RESPONSE_FORMAT_FILE = "response_format.txt";
+  private static final String USER_MESSAGE_FILE = "user_message.txt";
+  // Editors save a file in several steps, which are reloaded once
+  private static final long RELOAD_DELAY_MILLIS = 200;
+
+  private final FileService fileService;
+  private final Path watchedDirectory;
+
+  private volatile Map<CodingLanguage, SystemPrompt> prompts;
+  private WatchService watchService;
+
+  /**
+   * The prompts of one coding language.
+   *
+   * @param blocks the system prompt blocks, each ending at a prompt cache breakpoint
+   * @param userMessage the user message sent with the screenshot
+   * @param contentHash a hash of all prompt texts, equal for equal prompts on any platform
+   */
+  record SystemPrompt(List<TextBlockParam> blocks, String userMessage, int contentHash) {}
+
+  @Inject
+  PromptRegistry(
+      final FileService fileService,
+      @ConfigProperty(name = ConfigurationKeys.APP_PROMPTS_WATCH_ENABLED) final boolean watch,
+      @ConfigProperty(name = ConfigurationKeys.APP_PROMPTS_WATCH_DIRECTORY)
+          final String watchedDirectory) {
+    this(fileService, watch ? Path.of(watchedDirectory) : null);
+  }
+
+  /**
+   * Creates a registry, which must be loaded before use.
+   *
+   * @param fileService the service loading the prompts from the classpath
+   * @param watchedDirectory the directory to load and reload the prompts from, or null to load them
+   *     once from the classpath
+   */
+  PromptRegistry(final FileService fileService, final Path watchedDirectory) {
+    this.fileService = fileService;
+    this.watchedDirectory = watchedDirectory;
+  }
+
+  @PostConstruct
+  void load() {
+    try {
+      prompts = assemble();
+    } catch (final IOException e) {
+      throw new RuntimeException("Failed to load prompt files", e);
+    }
+
+    if (watchedDirectory != null) {
+      startWatching();
+    }
+  }
+
+  /**
+   * Returns the prompts of a coding language.
+   *
+   * @param codingLanguage the language of the solutions
+   * @return the prompts
+   */
+  SystemPrompt get(final CodingLanguage codingLanguage) {
+    return prompts.get(codingLanguage);
+  }
+
+  @PreDestroy
+  void close() {
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (final IOException e) {
+        LOGGER.debug("Failed to close prompt watch service", e);
+      }
+    }
+  }
+
+  private Map<CodingLanguage, SystemPrompt> assemble() throws IOException {
+    var baseSystemMessage = read(SYSTEM_PROMPT_FILE);
+    var responseFormat = read(RESPONSE_FORMAT_FILE);
+    var userMessage = read(USER_MESSAGE_FILE);
+    var javaPrompt = read(CodingLanguage.JAVA.getPromptFileName());
+    // The block shared by all languages is one instance
+    var sharedBlock = createCachedTextBlock(baseSystemMessage + "\n\n" + responseFormat);
+
+    var assembled = new EnumMap<CodingLanguage, SystemPrompt>(CodingLanguage.class);
+    for (final var codingLanguage : CodingLanguage.values()) {
+      var languagePrompt = javaPrompt;
+      try {
+        languagePrompt = read(codingLanguage.getPromptFileName());
+      } catch (final IOException e) {
+        LOGGER.warn(
+            "Failed to load language-specific prompt for {}, falling back to Java", codingLanguage);
+      }
+      var contentHash = hash(baseSystemMessage, responseFormat, languagePrompt, userMessage);
+      var blocks = List.of(sharedBlock, createCachedTextBlock(languagePrompt));
+      assembled.put(codingLanguage, new SystemPrompt(blocks, userMessage, contentHash));
+    }
+    LOGGER.debug("Assembled prompts of {} coding languages", assembled.size());
+    return Collections.unmodifiableMap(assembled);
+  }
+
+  private static TextBlockParam createCachedTextBlock(final String text) {
+    return TextBlockParam.builder()
+        .text(text)
+        .cacheControl(CacheControlEphemeral.builder().build())
+        .build();
+  }
+
+  /** Reads a prompt file, with line feeds as line separators on any platform. */
+  private String read(final String fileName) throws IOException {
+    var text =
+        watchedDirectory != null
+            ? Files.readString(watchedDirectory.resolve(fileName), StandardCharsets.UTF_8)
+            : fileService.loadResourceFile("/prompts/" + fileName);
+    return text.lines().collect(Collectors.joining("\n"));
+  }
+
+  private static int hash(final String... texts) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      for (final var text : texts) {
+        var bytes = text.getBytes(StandardCharsets.UTF_8);
+        // The length separates the texts, so moving text between prompts changes the hash
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+      }
+      return ByteBuffer.wrap(digest.digest()).getInt();
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported", e);
+    }
+  }
+
+  private void startWatching() {
+    try {
+      watchService = watchedDirectory.getFileSystem().newWatchService();
+      watchedDirectory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+    } catch (final IOException e) {
+      LOGGER.warn("Failed to watch prompt directory {}", watchedDirectory, e);
+      return;
+    }
+    LOGGER.info("Reloading prompts on changes in {}", watchedDirectory.toAbsolutePath());
+    Thread.ofPlatform().name("prompt-watcher").daemon().start(this::watch);
+  }
+
+  private void watch() {
+    try {
+      while (true) {
+        var key = watchService.take();
+        // Collects the further events of the same save
+        do {
+          key.pollEvents();
+          key.reset();
+        } while ((key = watchService.poll(RELOAD_DELAY_MILLIS, TimeUnit.MILLISECONDS)) != null);
+        reload();
+      }
+    } catch (final ClosedWatchServiceException e) {
+      LOGGER.debug("Stopped watching prompt directory");
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void reload() {
+    try {
+      prompts = assemble();
+      LOGGER.info("Reloaded prompts from {}", watchedDirectory);
+    } catch (final IOException e) {
+      LOGGER.warn("Failed to reload prompts, keeping the previous ones", e);
+    }
+  }
+}
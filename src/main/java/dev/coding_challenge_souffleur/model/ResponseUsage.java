@@ -0,0 +1,44 @@
+package dev.coding_challenge_souffleur.model;
+
+import com.anthropic.models.messages.Usage;
+import java.time.Duration;
+
+/**
+ * Token usage and latency of one streamed response. Cached input tokens are billed at a fraction of
+ * the input price and skip most of the prompt processing, so the cache read tokens together with
+ * the time to the first token show what prompt caching saves.
+ *
+ * @param inputTokens the input tokens after the last cache breakpoint, billed at the full price
+ * @param cacheCreationInputTokens the input tokens written to the prompt cache
+ * @param cacheReadInputTokens the input tokens read from the prompt cache
+ * @param outputTokens the output tokens, including the thinking tokens
+ * @param timeToFirstToken the time from sending the request to the first content delta
+ */
+record ResponseUsage(
+    long inputTokens,
+    long cacheCreationInputTokens,
+    long cacheReadInputTokens,
+    long outputTokens,
+    Duration timeToFirstToken) {
+
+  /**
+   * Creates the usage of a response.
+   *
+   * @param usage the usage reported with the response
+   * @param timeToFirstToken the time from sending the request to the first content delta
+   * @return the usage
+   */
+  static ResponseUsage of(final Usage usage, final Duration timeToFirstToken) {
+    return new ResponseUsage(
+        usage.inputTokens(),
+        usage.cacheCreationInputTokens().orElse(0L),
+        usage.cacheReadInputTokens().orElse(0L),
+        usage.outputTokens(),
+        timeToFirstToken);
+  }
+
+  /** Returns all input tokens of the request, whether cached or not. */
+  long totalInputTokens() {
+    return inputTokens + cacheCreationInputTokens + cacheReadInputTokens;
+  }
+}
@@ -0,0 +1,414 @@
+package dev.coding_challenge_souffleur.model;
+
+import com.anthropic.core.JsonValue;
+import com.anthropic.errors.AnthropicIoException;
+import com.anthropic.errors.AnthropicServiceException;
+import com.anthropic.errors.SseException;
+import dev.coding_challenge_souffleur.ConfigurationKeys;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Retries failed API calls. Failures are classified by their status code, or by the error type of
+ * an error event within a stream: overload responses and server, network and stream errors are
+ * retried, other client errors, e.g. an invalid API key, fail at once. The delay between attempts
+ * grows exponentially with decorrelated jitter, so clients failing together do not retry together,
+ * and a longer {@code retry-after} of the response is honoured.
+ *
+ * <p>A circuit breaker opens after repeated overload responses. While it is open calls fail at
+ * once, afterwards a single call probes whether the API recovered, closing the breaker on success.
+ * A probe not completed within the open interval is given up on, so that the next call probes
+ * again instead of the breaker staying half open.
+ */
+@ApplicationScoped
+class RetryPolicy {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RetryPolicy.class);
+  // Longer waits than this fail instead, the user would rather retry by hand
+  private static final Duration MAX_RETRY_AFTER = Duration.ofSeconds(60);
+
+  private final int maxAttempts;
+  private final long baseDelayMillis;
+  private final long maxDelayMillis;
+  private final int circuitFailureThreshold;
+  private final long circuitOpenMillis;
+  private final Clock clock;
+  private final Random random;
+
+  private final LongAdder attempts = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder rejections = new LongAdder();
+  private final LongAdder backoffMillis = new LongAdder();
+
+  // Guarded by this
+  private CircuitState circuitState = CircuitState.CLOSED;
+  private int consecutiveOverloads;
+  private long openedAtMillis;
+  private boolean probing;
+  private long probeStartedAtMillis;
+
+  /** How a failed call is handled. */
+  enum FailureKind {
+    /** The API is overloaded or rate limited, retried and counted by the circuit breaker. */
+    OVERLOADED,
+    /** A server, network or stream error, retried. */
+    RETRYABLE,
+    /** A client error or cancellation, which a retry would repeat. */
+    FATAL
+  }
+
+  enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  /**
+   * Counters since startup.
+   *
+   * @param attempts the calls made, including retries
+   * @param retries the retried calls
+   * @param failures the calls failing after their last attempt
+   * @param rejections the calls failed at once by the open circuit breaker
+   * @param backoffMillis the total delay before retries
+   * @param circuitState the current state of the circuit breaker
+   */
+  record Metrics(
+      long attempts,
+      long retries,
+      long failures,
+      long rejections,
+      long backoffMillis,
+      CircuitState circuitState) {}
+
+  @Inject
+  RetryPolicy(
+      @ConfigProperty(name = ConfigurationKeys.APP_RETRY_MAX_ATTEMPTS) final int maxAttempts,
+      @ConfigProperty(name = ConfigurationKeys.APP_RETRY_BASE_DELAY_MILLIS)
+          final long baseDelayMillis,
+      @ConfigProperty(name = ConfigurationKeys.APP_RETRY_MAX_DELAY_MILLIS)
+          final long maxDelayMillis,
+      @ConfigProperty(name = ConfigurationKeys.APP_RETRY_CIRCUIT_FAILURE_THRESHOLD)
+          final int circuitFailureThreshold,
+      @ConfigProperty(name = ConfigurationKeys.APP_RETRY_CIRCUIT_OPEN_MILLIS)
+          final long circuitOpenMillis) {
+    this(
+        maxAttempts,
+        baseDelayMillis,
+        maxDelayMillis,
+        circuitFailureThreshold,
+        circuitOpenMillis,
+        Clock.systemUTC(),
+        new Random());
+  }
+
+  RetryPolicy(
+      final int maxAttempts,
+      final long baseDelayMillis,
+      final long maxDelayMillis,
+      final int circuitFailureThreshold,
+      final long circuitOpenMillis,
+      final Clock clock,
+      final Random random) {
+    if (maxAttempts < 1 || baseDelayMillis < 1 || maxDelayMillis < baseDelayMillis) {
+      throw new IllegalArgumentException(
+          "Invalid retry settings: %d attempts, %d to %d ms"
+              .formatted(maxAttempts, baseDelayMillis, maxDelayMillis));
+    }
+    if (circuitFailureThreshold < 1) {
+      throw new IllegalArgumentException(
+          "Circuit failure threshold must be positive: " + circuitFailureThreshold);
+    }
+    this.maxAttempts = maxAttempts;
+    this.baseDelayMillis = baseDelayMillis;
+    this.maxDelayMillis = maxDelayMillis;
+    this.circuitFailureThreshold = circuitFailureThreshold;
+    this.circuitOpenMillis = circuitOpenMillis;
+    this.clock = clock;
+    this.random = random;
+  }
+
+  /**
+   * Runs the task on the executor, retrying it on retryable failures.
+   *
+   * @param task the call to run
+   * @param executor the executor running the attempts
+   * @param <T> the type of the result
+   * @return the result of the first successful attempt, or the failure of the last one
+   */
+  <T> CompletableFuture<T> execute(final Supplier<T> task, final Executor executor) {
+    return executeAsync(() -> CompletableFuture.supplyAsync(task, executor));
+  }
+
+  /**
+   * Starts the asynchronous task, starting it again on retryable failures. A retry is started on
+   * the thread ending the backoff, so starting the task must not block.
+   *
+   * @param task the call to start, returning its result as a future
+   * @param <T> the type of the result
+   * @return the result of the first successful attempt, or the failure of the last one
+   */
+  <T> CompletableFuture<T> executeAsync(final Supplier<CompletableFuture<T>> task) {
+    return attempt(task, 1, baseDelayMillis);
+  }
+
+  /**
+   * Classifies a failure, looking through the exceptions wrapping it.
+   *
+   * @param failure the failure of a call
+   * @return how the failure is handled
+   */
+  static FailureKind classify(final Throwable failure) {
+    for (var cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof CancellationException) {
+        return FailureKind.FATAL;
+      }
+      if (cause instanceof SseException sseException) {
+        // An error event of a stream, which started with status 200
+        return classifyStatus(statusOfErrorType(errorType(sseException.body())));
+      }
+      if (cause instanceof AnthropicServiceException serviceException) {
+        return classifyStatus(serviceException.statusCode());
+      }
+      if (cause instanceof AnthropicIoException || cause instanceof IOException) {
+        return FailureKind.RETRYABLE;
+      }
+    }
+    return FailureKind.FATAL;
+  }
+
+  private static FailureKind classifyStatus(final int statusCode) {
+    return switch (statusCode) {
+      case 429, 503, 529 -> FailureKind.OVERLOADED;
+      case 408, 409 -> FailureKind.RETRYABLE;
+      default -> statusCode >= 400 && statusCode < 500 ? FailureKind.FATAL : FailureKind.RETRYABLE;
+    };
+  }
+
+  /** Returns the status code the API documents for an error type. */
+  private static int statusOfErrorType(final String errorType) {
+    return switch (errorType) {
+      case "invalid_request_error" -> 400;
+      case "authentication_error" -> 401;
+      case "permission_error" -> 403;
+      case "not_found_error" -> 404;
+      case "request_too_large" -> 413;
+      case "rate_limit_error" -> 429;
+      case "overloaded_error" -> 529;
+      // An api_error, or an unknown type, is a server error
+      default -> 500;
+    };
+  }
+
+  /** Returns the type of an error body {@code {"type":"error","error":{"type":...}}}. */
+  private static String errorType(final JsonValue body) {
+    return body.asObject()
+        .map(fields -> fields.get("error"))
+        .flatMap(JsonValue::asObject)
+        .map(error -> error.get("type"))
+        .flatMap(JsonValue::asString)
+        .orElse("");
+  }
+
+  /**
+   * Returns the delay the response of a failure asks for, from its {@code retry-after-ms} or
+   * {@code retry-after} header.
+   *
+   * @param failure the failure of a call
+   * @param clock the clock to resolve a date of the header against
+   * @return the delay, or empty if there is none
+   */
+  static Optional<Duration> retryAfter(final Throwable failure, final Clock clock) {
+    for (var cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof AnthropicServiceException serviceException) {
+        var headers = serviceException.headers();
+        try {
+          var millis = headers.values("retry-after-ms");
+          if (!millis.isEmpty()) {
+            return Optional.of(Duration.ofMillis((long) Double.parseDouble(millis.getFirst())));
+          }
+          var values = headers.values("retry-after");
+          if (!values.isEmpty()) {
+            return Optional.of(parseRetryAfter(values.getFirst().trim(), clock));
+          }
+        } catch (final NumberFormatException | DateTimeParseException e) {
+          LOGGER.debug("Ignoring invalid retry-after header", e);
+        }
+        return Optional.empty();
+      }
+    }
+    return Optional.empty();
+  }
+
+  private static Duration parseRetryAfter(final String value, final Clock clock) {
+    if (!value.isEmpty() && Character.isDigit(value.charAt(0))) {
+      return Duration.ofMillis((long) (Double.parseDouble(value) * 1000));
+    }
+    var date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+    var delay = Duration.between(clock.instant(), date.toInstant());
+    return delay.isNegative() ? Duration.ZERO : delay;
+  }
+
+  /**
+   * Returns the next delay of decorrelated jitter: random between the base delay and three times
+   * the previous delay, at most the maximum delay.
+   *
+   * @param previousDelayMillis the previous delay, the base delay before the first retry
+   * @return the delay before the next retry
+   */
+  long nextDelayMillis(final long previousDelayMillis) {
+    var upperBound = Math.min(maxDelayMillis, Math.max(baseDelayMillis, previousDelayMillis * 3));
+    if (upperBound <= baseDelayMillis) {
+      return baseDelayMillis;
+    }
+    synchronized (random) {
+      return baseDelayMillis + random.nextLong(upperBound - baseDelayMillis + 1);
+    }
+  }
+
+  /** Returns the counters since startup. */
+  Metrics getMetrics() {
+    CircuitState state;
+    synchronized (this) {
+      state = circuitState;
+    }
+    return new Metrics(
+        attempts.sum(),
+        retries.sum(),
+        failures.sum(),
+        rejections.sum(),
+        backoffMillis.sum(),
+        state);
+  }
+
+  private <T> CompletableFuture<T> attempt(
+      final Supplier<CompletableFuture<T>> task,
+      final int attempt,
+      final long delayMillis) {
+    if (!tryAcquire()) {
+      rejections.increment();
+      return CompletableFuture.failedFuture(
+          new IllegalStateException(
+              "Anthropic API overloaded, requests paused for " + circuitOpenMillis + " ms"));
+    }
+
+    attempts.increment();
+    return start(task)
+        .handle(
+            (result, error) -> {
+              if (error == null) {
+                recordSuccess();
+                return CompletableFuture.completedFuture(result);
+              }
+
+              var cause = error instanceof CompletionException ? error.getCause() : error;
+              var kind = classify(cause);
+              recordFailure(kind);
+              if (kind == FailureKind.FATAL || attempt >= maxAttempts) {
+                failures.increment();
+                return CompletableFuture.<T>failedFuture(cause);
+              }
+
+              var nextDelay = nextDelayMillis(delayMillis);
+              var retryAfter = retryAfter(cause, clock);
+              if (retryAfter.isPresent() && retryAfter.get().compareTo(MAX_RETRY_AFTER) > 0) {
+                LOGGER.warn("Not retrying, the API asks to wait {}", retryAfter.get());
+                failures.increment();
+                return CompletableFuture.<T>failedFuture(cause);
+              }
+              var wait = Math.max(nextDelay, retryAfter.map(Duration::toMillis).orElse(0L));
+              LOGGER.debug(
+                  "Retrying {} failure {}/{} in {} ms", kind, attempt + 1, maxAttempts, wait);
+              retries.increment();
+              backoffMillis.add(wait);
+              // The backoff takes no thread, the retry starts once it times out
+              return new CompletableFuture<Void>()
+                  .completeOnTimeout(null, wait, TimeUnit.MILLISECONDS)
+                  .thenCompose(ignored -> attempt(task, attempt + 1, nextDelay));
+            })
+        .thenCompose(future -> future);
+  }
+
+  private static <T> CompletableFuture<T> start(final Supplier<CompletableFuture<T>> task) {
+    try {
+      return task.get();
+    } catch (final RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  private synchronized boolean tryAcquire() {
+    return switch (circuitState) {
+      case CLOSED -> true;
+      case OPEN -> {
+        if (clock.millis() - openedAtMillis < circuitOpenMillis) {
+          yield false;
+        }
+        LOGGER.info("Probing whether the Anthropic API recovered");
+        circuitState = CircuitState.HALF_OPEN;
+        probing = true;
+        probeStartedAtMillis = clock.millis();
+        yield true;
+      }
+      case HALF_OPEN -> {
+        // Only one call probes, the others fail until it completes or times out
+        if (probing && clock.millis() - probeStartedAtMillis < circuitOpenMillis) {
+          yield false;
+        }
+        if (probing) {
+          LOGGER.warn("Probe of the Anthropic API not completed, probing again");
+        }
+        probing = true;
+        probeStartedAtMillis = clock.millis();
+        yield true;
+      }
+    };
+  }
+
+  private synchronized void recordSuccess() {
+    consecutiveOverloads = 0;
+    probing = false;
+    if (circuitState != CircuitState.CLOSED) {
+      LOGGER.info("Anthropic API recovered, closing the circuit breaker");
+      circuitState = CircuitState.CLOSED;
+    }
+  }
+
+  private synchronized void recordFailure(final FailureKind kind) {
+    probing = false;
+    if (kind != FailureKind.OVERLOADED) {
+      // Other failures say nothing about the load, a failed probe leaves the breaker half open
+      return;
+    }
+    consecutiveOverloads++;
+    if (circuitState == CircuitState.HALF_OPEN || consecutiveOverloads >= circuitFailureThreshold) {
+      if (circuitState != CircuitState.OPEN) {
+        LOGGER.warn(
+            "Anthropic API overloaded {} times, pausing requests for {} ms",
+            consecutiveOverloads,
+            circuitOpenMillis);
+      }
+      circuitState = CircuitState.OPEN;
+      openedAtMillis = clock.millis();
+    }
+  }
+}
@@ -5,19 +5,18 @@ import com.sun.jna.platform.win32.User32;
 import com.sun.jna.platform.win32.WinDef.RECT;
 import com.sun.jna.win32.W32APIOptions;
 import dev.coding_challenge_souffleur.ConfigurationKeys;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Instant;
 import java.util.Optional;
-import java.util.function.Supplier;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javafx.application.Platform;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.image.WritableImage;
 import javafx.scene.robot.Robot;
 import javafx.stage.Screen;
@@ -25,27 +24,85 @@ import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Service responsible for capturing screenshots and making them available as byte arrays. */
+/**
+ * Service responsible for capturing screenshots and making them available as {@link
+ * CapturedScreenshot}, which the preview, the file save and the analysis share.
+ *
+ * <p>Captures run as a staged pipeline: only the pixel grab runs on the JavaFX application thread,
+ * cropping and resizing run on the {@link ImageProcessingExecutor} and saving on the {@link
+ * ScreenshotWriter}. The overlay therefore stays responsive while a screenshot is processed.
+ *
+ * <p>In watch mode the foreground window is captured at an interval. A frame is only processed
+ * and published when enough of its tiles changed, see {@link TileChangeDetector}, so an unchanged
+ * window costs the capture and the hashing only.
+ */
 @ApplicationScoped
 public class ScreenshotService {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ScreenshotService.class);
-  private static final String DEFAULT_SCREENSHOT_FILE_NAME_PREFIX =
-      "screenshot." + ImageService.IMAGE_FORMAT;
-  private static final int CAPTURED_IMAGE_MAX_WIDTH_PIXELS = 1600;
-  private static final int CAPTURED_IMAGE_MAX_HEIGHT_PIXELS = 900;
+  private static final long CAPTURE_DELAY_MILLIS = 100;
 
   private final ImageService imageService;
+  private final ContentCropper contentCropper;
+  private final ScreenshotWriter screenshotWriter;
   private final boolean saveScreenshotToFile;
-  private Image screenshot;
+  private final ImageTokenBudget imageTokenBudget;
+  private final Executor imageProcessingExecutor;
+  private final Executor fxThreadExecutor;
+  private final WatchMode watchMode;
+  private final long watchIntervalMillis;
+  private final double watchMinChangedTiles;
+  private volatile CapturedScreenshot screenshot;
+  private volatile Watch watch;
 
   @Inject
-  public ScreenshotService(
+  ScreenshotService(
       @ConfigProperty(name = ConfigurationKeys.SAVE_SCREENSHOT_TO_FILE)
           final boolean saveScreenshotToFile,
-      final ImageService imageService) {
+      @ConfigProperty(name = ConfigurationKeys.APP_IMAGE_TOKEN_BUDGET) final int imageTokenBudget,
+      @ConfigProperty(name = ConfigurationKeys.APP_WATCH_MODE) final WatchMode watchMode,
+      @ConfigProperty(name = ConfigurationKeys.APP_WATCH_INTERVAL_MILLIS)
+          final long watchIntervalMillis,
+      @ConfigProperty(name = ConfigurationKeys.APP_WATCH_MIN_CHANGED_TILES)
+          final double watchMinChangedTiles,
+      final ImageService imageService,
+      final ContentCropper contentCropper,
+      final ScreenshotWriter screenshotWriter,
+      final ImageProcessingExecutor imageProcessingExecutor) {
+    this(
+        saveScreenshotToFile,
+        imageTokenBudget,
+        watchMode,
+        watchIntervalMillis,
+        watchMinChangedTiles,
+        imageService,
+        contentCropper,
+        screenshotWriter,
+        imageProcessingExecutor,
+        Platform::runLater);
+  }
+
+  ScreenshotService(
+      final boolean saveScreenshotToFile,
+      final int imageTokenBudget,
+      final WatchMode watchMode,
+      final long watchIntervalMillis,
+      final double watchMinChangedTiles,
+      final ImageService imageService,
+      final ContentCropper contentCropper,
+      final ScreenshotWriter screenshotWriter,
+      final Executor imageProcessingExecutor,
+      final Executor fxThreadExecutor) {
     this.saveScreenshotToFile = saveScreenshotToFile;
+    this.imageTokenBudget = new ImageTokenBudget(imageTokenBudget);
+    this.watchMode = watchMode;
+    this.watchIntervalMillis = watchIntervalMillis;
+    this.watchMinChangedTiles = watchMinChangedTiles;
     this.imageService = imageService;
+    this.contentCropper = contentCropper;
+    this.screenshotWriter = screenshotWriter;
+    this.imageProcessingExecutor = imageProcessingExecutor;
+    this.fxThreadExecutor = fxThreadExecutor;
   }
 
   private static Rectangle2D captureDesktopBounds() {
@@ -106,18 +163,22 @@ public class ScreenshotService {
     return Optional.of(new Rectangle2D(x, y, width, height));
   }
 
-  private Image captureAndProcessScreenshot(final Supplier<Rectangle2D> boundsSupplier) {
-    var bounds = boundsSupplier.get();
-    var fxImage = captureScreenImage(bounds);
+  private CompletableFuture<CapturedScreenshot> captureScreenshot(final Rectangle2D bounds) {
+    // Give the screen time to get ready for the capture without blocking the JavaFX thread
+    var delayedFxThread =
+        CompletableFuture.delayedExecutor(
+            CAPTURE_DELAY_MILLIS, TimeUnit.MILLISECONDS, fxThreadExecutor);
 
-    saveScreenshotToFile(fxImage);
-    screenshot = fxImage;
+    return CompletableFuture.supplyAsync(() -> grabScreenPixels(bounds), delayedFxThread)
+        .thenApplyAsync(this::processCapturedImage, imageProcessingExecutor);
+  }
 
-    return fxImage;
+  private static Image grabScreenPixels(final Rectangle2D bounds) {
+    return grabScreenPixels(new Robot(), null, bounds);
   }
 
-  private static Image captureScreenImage(final Rectangle2D bounds) {
-    var robot = new Robot();
+  private static WritableImage grabScreenPixels(
+      final Robot robot, final WritableImage reusedImage, final Rectangle2D bounds) {
     LOGGER.debug(
         "Capturing screenshot: boundsMinX={}, boundMinY={}, boundsWidth={}, boundsHeight={}",
         bounds.getMinX(),
@@ -131,85 +192,78 @@ public class ScreenshotService {
     var boundsWidth = (int) Math.ceil(bounds.getWidth());
     var boundsHeight = (int) Math.ceil(bounds.getHeight());
 
-    try {
-      // Add a small delay to ensure the screen is ready for capture
-      Thread.sleep(100);
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-    }
+    // The robot fills the reused image if it has the same size
+    return robot.getScreenCapture(reusedImage, boundsMinX, boundMinY, boundsWidth, boundsHeight);
+  }
 
-    var capturedImage =
-        robot.getScreenCapture(null, boundsMinX, boundMinY, boundsWidth, boundsHeight);
-    if (boundsWidth <= CAPTURED_IMAGE_MAX_WIDTH_PIXELS
-        && boundsHeight <= CAPTURED_IMAGE_MAX_HEIGHT_PIXELS) {
+  private CapturedScreenshot processCapturedImage(final Image capturedImage) {
+    var capturedAt = Instant.now();
+    // Cropping first leaves more of the token budget to the content
+    var image = resizeToTokenBudget(contentCropper.crop(capturedImage));
+    var capturedScreenshot = new CapturedScreenshot(image, capturedAt);
+
+    saveScreenshotToFile(capturedScreenshot);
+    screenshot = capturedScreenshot;
+
+    return capturedScreenshot;
+  }
+
+  /**
+   * Scales the image down to the token budget, so that the API does not have to scale it again.
+   */
+  Image resizeToTokenBudget(final Image capturedImage) {
+    var width = (int) capturedImage.getWidth();
+    var height = (int) capturedImage.getHeight();
+    var size = imageTokenBudget.fit(width, height);
+    if (size.width() == width && size.height() == height) {
       LOGGER.debug(
-          "Image already within limits ({}x{}), no resize needed", boundsWidth, boundsHeight);
+          "Image within token budget ({}x{}, ~{} tokens), no resize needed",
+          width,
+          height,
+          ImageTokenBudget.estimateTokens(width, height));
       return capturedImage;
     }
 
-    int newWidth;
-    int newHeight;
-    if (boundsWidth > boundsHeight) {
-      // Width is the limiting dimension
-      newWidth = CAPTURED_IMAGE_MAX_WIDTH_PIXELS;
-      newHeight = (int) ((double) boundsHeight * CAPTURED_IMAGE_MAX_WIDTH_PIXELS / boundsWidth);
-    } else {
-      // Height is the limiting dimension
-      newHeight = CAPTURED_IMAGE_MAX_HEIGHT_PIXELS;
-      newWidth = (int) ((double) boundsWidth * CAPTURED_IMAGE_MAX_HEIGHT_PIXELS / boundsHeight);
-    }
     LOGGER.debug(
-        "Resizing image from {}x{} to {}x{}", boundsWidth, boundsHeight, newWidth, newHeight);
-    var resizedImage = new WritableImage(newWidth, newHeight);
-
-    var capturedImageView = new ImageView(capturedImage);
-    capturedImageView.setSmooth(true);
-    capturedImageView.setPreserveRatio(true);
-    capturedImageView.setFitWidth(newWidth);
-    capturedImageView.setFitHeight(newHeight);
-    return capturedImageView.snapshot(null, resizedImage);
+        "Resizing image from {}x{} (~{} tokens) to {}x{} (~{} tokens, budget {})",
+        width,
+        height,
+        ImageTokenBudget.estimateTokens(width, height),
+        size.width(),
+        size.height(),
+        ImageTokenBudget.estimateTokens(size.width(), size.height()),
+        imageTokenBudget.getTokenBudget());
+    return imageService.resize(capturedImage, size.width(), size.height());
   }
 
-  private void saveScreenshotToFile(final Image image) {
+  private void saveScreenshotToFile(final CapturedScreenshot capturedScreenshot) {
     if (!this.saveScreenshotToFile) {
       LOGGER.debug("Screenshot saving disabled, skipping save to file");
       return;
     }
 
-    var timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-    var outputPath =
-        Path.of(
-            DEFAULT_SCREENSHOT_FILE_NAME_PREFIX
-                + "_"
-                + timestamp
-                + "."
-                + ImageService.IMAGE_FORMAT);
-
-    try {
-      var imageBytes = imageService.convertToByteArray(image);
-      Files.write(
-          outputPath, imageBytes, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-      LOGGER.debug("Screenshot saved successfully at: {}", outputPath.toAbsolutePath());
-    } catch (final IOException e) {
-      LOGGER.warn("Failed to save screenshot to file", e);
-    }
+    // Saving runs in the background, the capture is not delayed
+    screenshotWriter.save(capturedScreenshot);
   }
 
   /**
    * Takes a screenshot of the entire desktop (all screens) and stores it internally. Also saves the
    * screenshot to the default file location.
+   *
+   * @return future completed with the processed screenshot on an image processing thread
    */
-  public Optional<Image> takeScreenshotOfDesktop() {
-    var capturedScreenshot = captureAndProcessScreenshot(ScreenshotService::captureDesktopBounds);
-    return Optional.ofNullable(capturedScreenshot);
+  public CompletableFuture<CapturedScreenshot> takeScreenshotOfDesktop() {
+    return captureScreenshot(captureDesktopBounds());
   }
 
   /**
    * Takes a screenshot of the currently focused window and stores it internally. Also saves the
    * screenshot to the default file location. Falls back to capturing the entire primary screen if
    * unable to determine the focused window.
+   *
+   * @return future completed with the processed screenshot on an image processing thread
    */
-  public Optional<Image> takeScreenshotOfForegroundWindow() {
+  public CompletableFuture<CapturedScreenshot> takeScreenshotOfForegroundWindow() {
     var focusedWindowBounds =
         getFocusedWindowBounds()
             .orElseGet(
@@ -217,20 +271,107 @@ public class ScreenshotService {
                   LOGGER.debug("Falling back to full screen capture");
                   return Screen.getPrimary().getBounds();
                 });
-    var capturedScreenshot = captureAndProcessScreenshot(() -> focusedWindowBounds);
+    return captureScreenshot(focusedWindowBounds);
+  }
 
-    return Optional.ofNullable(capturedScreenshot);
+  public WatchMode getWatchMode() {
+    return watchMode;
+  }
+
+  /**
+   * Starts watching the foreground window, unless the watch mode is off or a watch is running. The
+   * listener is called with every changed screenshot, which also becomes the present screenshot.
+   *
+   * @param listener called with the changed screenshots on an image processing thread
+   */
+  public synchronized void startWatching(final Consumer<CapturedScreenshot> listener) {
+    if (watchMode == WatchMode.OFF || watch != null) {
+      LOGGER.debug("Not starting watch, mode {}, running {}", watchMode, watch != null);
+      return;
+    }
+
+    LOGGER.debug("Watching foreground window every {} ms", watchIntervalMillis);
+    var newWatch = new Watch(listener, new TileChangeDetector(watchMinChangedTiles));
+    watch = newWatch;
+    scheduleWatchFrame(newWatch);
+  }
+
+  /** Stops watching the foreground window, a frame being processed is still published. */
+  @PreDestroy
+  public synchronized void stopWatching() {
+    if (watch != null) {
+      LOGGER.debug("Stopped watching foreground window");
+      watch = null;
+    }
+  }
+
+  private void scheduleWatchFrame(final Watch currentWatch) {
+    var delayedFxThread =
+        CompletableFuture.delayedExecutor(
+            watchIntervalMillis, TimeUnit.MILLISECONDS, fxThreadExecutor);
+
+    // The next frame is scheduled after this one, so frames never overlap
+    CompletableFuture.supplyAsync(currentWatch::grabFrame, delayedFxThread)
+        .thenAcceptAsync(currentWatch::processFrame, imageProcessingExecutor)
+        .whenComplete(
+            (ignored, error) -> {
+              if (error != null) {
+                LOGGER.warn("Failed to watch foreground window", error);
+              }
+              if (watch == currentWatch) {
+                scheduleWatchFrame(currentWatch);
+              }
+            });
   }
 
   /**
    * Returns the last captured screenshot, if available.
    *
-   * @return Optional containing the screenshot data, or empty if no screenshot available
+   * @return Optional containing the screenshot, or empty if no screenshot available
    */
-  public Optional<Image> getScreenshot() {
+  public Optional<CapturedScreenshot> getScreenshot() {
     return Optional.ofNullable(screenshot);
   }
 
+  /** A running watch of the foreground window, accessed by one frame at a time. */
+  private final class Watch {
+
+    private final Consumer<CapturedScreenshot> listener;
+    private final TileChangeDetector changeDetector;
+    private Robot robot;
+    private WritableImage frame;
+
+    Watch(final Consumer<CapturedScreenshot> listener, final TileChangeDetector changeDetector) {
+      this.listener = listener;
+      this.changeDetector = changeDetector;
+    }
+
+    // Runs on the JavaFX thread
+    WritableImage grabFrame() {
+      if (robot == null) {
+        robot = new Robot();
+      }
+      var bounds = getFocusedWindowBounds().orElseGet(() -> Screen.getPrimary().getBounds());
+      frame = grabScreenPixels(robot, frame, bounds);
+      return frame;
+    }
+
+    // Runs on an image processing thread
+    void processFrame(final WritableImage capturedFrame) {
+      if (!changeDetector.hasChanged(capturedFrame)) {
+        LOGGER.trace("Foreground window unchanged");
+        return;
+      }
+
+      // The next frame reuses the captured image, so the screenshot gets a copy
+      var width = (int) capturedFrame.getWidth();
+      var height = (int) capturedFrame.getHeight();
+      var copy = new WritableImage(capturedFrame.getPixelReader(), width, height);
+      LOGGER.debug("Foreground window changed, publishing {}x{} screenshot", width, height);
+      listener.accept(processCapturedImage(copy));
+    }
+  }
+
   /**
    * Interface for required Windows User32 DLL functions. This interface provides access to Windows
    * API functions through JNA.
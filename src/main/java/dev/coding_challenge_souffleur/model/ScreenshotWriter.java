@@ -0,0 +1,216 @@
+package dev.coding_challenge_souffleur.model;
+
+import dev.coding_challenge_souffleur.ConfigurationKeys;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.regex.Pattern;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Saves screenshots to files on a background thread, so that saving does not delay captures. The
+ * screenshots wait in a bounded queue; when it is full the oldest waiting screenshot is dropped,
+ * since the latest screenshot matters most. A screenshot with the same pixels as the previously
+ * saved one is not saved again.
+ *
+ * <p>File names have millisecond resolution and a counter on collision, so no file is
+ * overwritten. After each save the oldest screenshot files are deleted beyond the configured
+ * number of files or total size. Only files named by the writer are deleted, other files in the
+ * directory are left alone.
+ */
+@ApplicationScoped
+class ScreenshotWriter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ScreenshotWriter.class);
+  private static final String FILE_NAME_PREFIX = "screenshot_";
+  private static final DateTimeFormatter FILE_NAME_TIMESTAMP_FORMAT =
+      DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneId.systemDefault());
+  // The names written by createFile, other files starting with the prefix are never deleted
+  private static final Pattern FILE_NAME_PATTERN =
+      Pattern.compile("screenshot_\\d{8}-\\d{6}-\\d{3}(_\\d+)?\\.(png|jpg)");
+  private static final long SHUTDOWN_TIMEOUT_MILLIS = 2000;
+
+  private final Path directory;
+  private final ImageService imageService;
+  private final int maxFiles;
+  private final long maxTotalBytes;
+  private final LinkedBlockingDeque<CapturedScreenshot> queue;
+  private volatile boolean closed;
+  private Thread worker;
+  // Only accessed by the worker
+  private String lastContentHash;
+
+  @Inject
+  ScreenshotWriter(
+      final ImageService imageService,
+      @ConfigProperty(name = ConfigurationKeys.SAVE_SCREENSHOT_QUEUE_CAPACITY)
+          final int queueCapacity,
+      @ConfigProperty(name = ConfigurationKeys.SAVE_SCREENSHOT_MAX_FILES) final int maxFiles,
+      @ConfigProperty(name = ConfigurationKeys.SAVE_SCREENSHOT_MAX_MEGABYTES)
+          final int maxMegabytes) {
+    this(Path.of("."), imageService, queueCapacity, maxFiles, maxMegabytes * 1024L * 1024L);
+  }
+
+  ScreenshotWriter(
+      final Path directory,
+      final ImageService imageService,
+      final int queueCapacity,
+      final int maxFiles,
+      final long maxTotalBytes) {
+    this.directory = directory;
+    this.imageService = imageService;
+    this.maxFiles = maxFiles;
+    this.maxTotalBytes = maxTotalBytes;
+    this.queue = new LinkedBlockingDeque<>(queueCapacity);
+  }
+
+  @PostConstruct
+  void start() {
+    worker = Thread.ofPlatform().name("screenshot-writer").daemon().start(this::writePending);
+  }
+
+  /**
+   * Queues the screenshot to be saved, dropping the oldest waiting screenshot if the queue is full.
+   *
+   * @param screenshot the screenshot to save
+   */
+  void save(final CapturedScreenshot screenshot) {
+    if (closed) {
+      LOGGER.debug("Writer closed, not saving screenshot of {}", screenshot.getCapturedAt());
+      return;
+    }
+    while (!queue.offerLast(screenshot)) {
+      var dropped = queue.pollFirst();
+      if (dropped != null) {
+        LOGGER.warn("Screenshot queue full, dropped screenshot of {}", dropped.getCapturedAt());
+      }
+    }
+  }
+
+  private void writePending() {
+    while (true) {
+      CapturedScreenshot screenshot;
+      try {
+        // Screenshots queued before the shutdown are still saved
+        screenshot = closed ? queue.pollFirst() : queue.takeFirst();
+      } catch (final InterruptedException e) {
+        LOGGER.trace("Screenshot writer woken up by shutdown");
+        continue;
+      }
+      if (screenshot == null) {
+        return;
+      }
+      try {
+        write(screenshot);
+      } catch (final ClosedByInterruptException e) {
+        // Interrupted by the shutdown while writing, the screenshot is saved again
+        LOGGER.debug("Screenshot save interrupted by shutdown, retrying");
+        Thread.interrupted();
+        if (!queue.offerFirst(screenshot)) {
+          LOGGER.warn("Screenshot of {} not saved before shutdown", screenshot.getCapturedAt());
+        }
+      } catch (final IOException | RuntimeException e) {
+        LOGGER.warn("Failed to save screenshot to file", e);
+      }
+    }
+  }
+
+  private void write(final CapturedScreenshot screenshot) throws IOException {
+    var contentHash = screenshot.getContentHash();
+    if (contentHash.equals(lastContentHash)) {
+      LOGGER.debug("Screenshot unchanged since the last save, skipping save to file");
+      return;
+    }
+
+    // The encoding is kept for the analysis of the screenshot
+    var encodedImage = screenshot.encode(imageService);
+    var path = createFile(screenshot, encodedImage.format());
+    try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      var buffer = ByteBuffer.wrap(encodedImage.data());
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (final ClosedByInterruptException e) {
+      Files.deleteIfExists(path);
+      throw e;
+    }
+    lastContentHash = contentHash;
+    LOGGER.debug("Screenshot saved successfully at: {}", path.toAbsolutePath());
+
+    deleteOldScreenshots(path);
+  }
+
+  private Path createFile(final CapturedScreenshot screenshot, final ImageFormat format)
+      throws IOException {
+    var baseName = FILE_NAME_PREFIX + FILE_NAME_TIMESTAMP_FORMAT.format(screenshot.getCapturedAt());
+    for (var counter = 0; ; counter++) {
+      var suffix = counter == 0 ? "" : "_" + counter;
+      var path = directory.resolve(baseName + suffix + "." + format.getFileExtension());
+      try {
+        return Files.createFile(path);
+      } catch (final FileAlreadyExistsException e) {
+        LOGGER.trace("Screenshot file {} exists, trying next name", path);
+      }
+    }
+  }
+
+  private void deleteOldScreenshots(final Path savedPath) throws IOException {
+    var oldScreenshots = new ArrayList<Path>();
+    try (var paths =
+        Files.newDirectoryStream(
+            directory,
+            path -> FILE_NAME_PATTERN.matcher(path.getFileName().toString()).matches())) {
+      paths.forEach(oldScreenshots::add);
+    }
+    // The saved screenshot is always kept
+    oldScreenshots.remove(savedPath);
+    // The names start with the capture time, so the oldest screenshots come first
+    oldScreenshots.sort(Comparator.comparing(path -> path.getFileName().toString()));
+
+    var fileCount = oldScreenshots.size() + 1;
+    var totalBytes = Files.size(savedPath);
+    for (final var screenshot : oldScreenshots) {
+      totalBytes += Files.size(screenshot);
+    }
+    for (final var oldest : oldScreenshots) {
+      if (fileCount <= maxFiles && totalBytes <= maxTotalBytes) {
+        break;
+      }
+      totalBytes -= Files.size(oldest);
+      fileCount--;
+      Files.delete(oldest);
+      LOGGER.debug("Deleted old screenshot {}", oldest);
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    LOGGER.debug("Shutting down screenshot writer");
+    closed = true;
+    worker.interrupt();
+    try {
+      worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (!queue.isEmpty()) {
+      LOGGER.warn("{} screenshots not saved before shutdown", queue.size());
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package dev.coding_challenge_souffleur.model;
+
+/**
+ * Incremental change of a single section while a response streams in. Consumers only receive the
+ * text that arrived instead of the whole result.
+ *
+ * <p>The shared problem statement uses {@link #SHARED_SOLUTION_INDEX} as solution index.
+ */
+public sealed interface SectionEvent {
+
+  /** Solution index of sections shared by all solutions, i.e. the problem statement. */
+  int SHARED_SOLUTION_INDEX = -1;
+
+  int solutionIndex();
+
+  SolutionSection section();
+
+  /** Returns true if the section is shared by all solutions. */
+  default boolean isShared() {
+    return solutionIndex() == SHARED_SOLUTION_INDEX;
+  }
+
+  /** The header of a section was received; its content follows with {@link SectionAppended}. */
+  record SectionStarted(int solutionIndex, SolutionSection section) implements SectionEvent {}
+
+  /**
+   * Text was added to the (trimmed) content of a section. The text belongs at the given offset;
+   * content previously shown at or after this offset is replaced.
+   */
+  record SectionAppended(int solutionIndex, SolutionSection section, int offset, String text)
+      implements SectionEvent {
+
+    /** Returns the given section content with this text placed at the offset. */
+    public String applyTo(final String content) {
+      if (content == null || offset == 0) {
+        return text;
+      }
+      return content.substring(0, Math.min(offset, content.length())) + text;
+    }
+  }
+
+  /** The section was terminated by a marker; its content will not change anymore. */
+  record SectionCompleted(int solutionIndex, SolutionSection section) implements SectionEvent {}
+}
@@ -0,0 +1,37 @@
+package dev.coding_challenge_souffleur.model;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/** Receives the section events caused by each streamed text delta. */
+@FunctionalInterface
+public interface SectionEventListener {
+
+  /**
+   * Adapts a callback that expects the whole result on every change.
+   *
+   * @param snapshotCallback the callback receiving the result, may be null
+   * @return a listener forwarding the result after each batch of events
+   */
+  static SectionEventListener ofSnapshots(final Consumer<MultiSolutionResult> snapshotCallback) {
+    return (events, result) -> {
+      if (snapshotCallback != null) {
+        snapshotCallback.accept(result);
+      }
+    };
+  }
+
+  /**
+   * Called once per batch of events, in stream order.
+   *
+   * @param events the non-empty section events caused by one text delta
+   * @param result the result with these events already applied
+   */
+  void onSectionEvents(List<SectionEvent> events, MultiSolutionResult result);
+
+  /**
+   * Called before a failed request is retried. The response is streamed again from its start, so
+   * the events received so far are void.
+   */
+  default void onRestart() {}
+}
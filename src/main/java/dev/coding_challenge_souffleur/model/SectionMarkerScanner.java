@@ -0,0 +1,227 @@
+package dev.coding_challenge_souffleur.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Aho-Corasick automaton over all section markers, i.e. every {@link SolutionSection} header prefix
+ * plus {@link SolutionSection#SECTION_END}. It reports all marker positions in a single pass over a
+ * {@link CharSequence} without copying it.
+ *
+ * <p>The automaton is immutable and built once; scanning state lives in a {@link Cursor}, which
+ * can resume on a growing text, e.g. a streamed response or a dumped response read from file:
+ *
+ * <pre>{@code
+ * var cursor = SectionMarkerScanner.instance().cursor();
+ * while (cursor.find(text)) {
+ *   LOGGER.debug("{} at {}..{}", cursor.section(), cursor.start(), cursor.end());
+ * }
+ * }</pre>
+ */
+public final class SectionMarkerScanner {
+
+  private static final SectionMarkerScanner INSTANCE = new SectionMarkerScanner();
+
+  private static final int ROOT = 0;
+  private static final int NONE = -1;
+  private static final int ASCII_LIMIT = 128;
+
+  private final List<Optional<SolutionSection>> markerSections = new ArrayList<>();
+  private final int[] markerLengths;
+  private final int[] columnByChar = new int[ASCII_LIMIT];
+  private final int[][] transitions;
+  private final int[] depths;
+  private final int[] outputs;
+  private final int[] outputLinks;
+
+  private SectionMarkerScanner() {
+    var markers = new ArrayList<String>();
+    for (final var section : SolutionSection.values()) {
+      markers.add(section.headerPrefix());
+      markerSections.add(Optional.of(section));
+    }
+    markers.add(SolutionSection.SECTION_END);
+    markerSections.add(Optional.empty());
+
+    // Column 0 stands for every character not used by any marker
+    var columnCount = 1;
+    for (final var marker : markers) {
+      for (final var c : marker.toCharArray()) {
+        if (columnByChar[c] == 0) {
+          columnByChar[c] = columnCount++;
+        }
+      }
+    }
+
+    markerLengths = markers.stream().mapToInt(String::length).toArray();
+
+    var gotoRows = new ArrayList<int[]>();
+    var depthList = new ArrayList<Integer>();
+    var outputList = new ArrayList<Integer>();
+    gotoRows.add(newRow(columnCount));
+    depthList.add(0);
+    outputList.add(NONE);
+
+    for (var markerIndex = 0; markerIndex < markers.size(); markerIndex++) {
+      var state = ROOT;
+      for (final var c : markers.get(markerIndex).toCharArray()) {
+        var column = columnByChar[c];
+        if (gotoRows.get(state)[column] == NONE) {
+          gotoRows.get(state)[column] = gotoRows.size();
+          gotoRows.add(newRow(columnCount));
+          depthList.add(depthList.get(state) + 1);
+          outputList.add(NONE);
+        }
+        state = gotoRows.get(state)[column];
+      }
+      outputList.set(state, markerIndex);
+    }
+
+    var stateCount = gotoRows.size();
+    transitions = gotoRows.toArray(new int[0][]);
+    depths = depthList.stream().mapToInt(Integer::intValue).toArray();
+    outputs = outputList.stream().mapToInt(Integer::intValue).toArray();
+    outputLinks = new int[stateCount];
+    Arrays.fill(outputLinks, NONE);
+
+    // Breadth-first: turn the trie into a complete transition table using failure links
+    var failureLinks = new int[stateCount];
+    var queue = new ArrayDeque<Integer>();
+    for (var column = 0; column < columnCount; column++) {
+      var child = transitions[ROOT][column];
+      if (child == NONE) {
+        transitions[ROOT][column] = ROOT;
+      } else {
+        failureLinks[child] = ROOT;
+        queue.add(child);
+      }
+    }
+
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      for (var column = 0; column < columnCount; column++) {
+        var child = transitions[state][column];
+        var fallback = transitions[failureLinks[state]][column];
+        if (child == NONE) {
+          transitions[state][column] = fallback;
+          continue;
+        }
+
+        failureLinks[child] = fallback;
+        outputLinks[child] = outputs[fallback] != NONE ? fallback : outputLinks[fallback];
+        queue.add(child);
+      }
+    }
+  }
+
+  private static int[] newRow(final int columnCount) {
+    var row = new int[columnCount];
+    Arrays.fill(row, NONE);
+    return row;
+  }
+
+  /** Returns the shared scanner for all solution section markers. */
+  public static SectionMarkerScanner instance() {
+    return INSTANCE;
+  }
+
+  /** Creates a new cursor positioned at the beginning of a text. */
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  private int column(final char c) {
+    return c < ASCII_LIMIT ? columnByChar[c] : 0;
+  }
+
+  /**
+   * Scanning state over one text, similar to a {@link java.util.regex.Matcher}. The text may grow
+   * between calls to {@link #find(CharSequence)}; markers split across appended chunks are found
+   * once they are complete. Not thread-safe.
+   */
+  public final class Cursor {
+
+    private int state = ROOT;
+    private int position;
+    private int matchState = NONE;
+    private int matchEnd;
+
+    private Cursor() {}
+
+    /**
+     * Advances to the next marker in the given text, starting where the previous call stopped.
+     *
+     * @param text the scanned text, which must start with the text passed to previous calls
+     * @return true if a marker was found, false if the end of the text was reached
+     */
+    public boolean find(final CharSequence text) {
+      // A position can complete more than one marker when markers are suffixes of each other
+      if (matchState != NONE && outputLinks[matchState] != NONE) {
+        matchState = outputLinks[matchState];
+        return true;
+      }
+
+      var length = text.length();
+      while (position < length) {
+        state = transitions[state][column(text.charAt(position++))];
+        var output = outputs[state] != NONE ? state : outputLinks[state];
+        if (output != NONE) {
+          matchState = output;
+          matchEnd = position;
+          return true;
+        }
+      }
+
+      matchState = NONE;
+      return false;
+    }
+
+    /** Returns the section of the found header, or empty for a section end marker. */
+    public Optional<SolutionSection> section() {
+      return markerSections.get(markerIndex());
+    }
+
+    /** Returns true if the found marker is {@link SolutionSection#SECTION_END}. */
+    public boolean isSectionEnd() {
+      return section().isEmpty();
+    }
+
+    /** Returns the start index of the found marker. */
+    public int start() {
+      return matchEnd - markerLengths[markerIndex()];
+    }
+
+    /** Returns the index after the last character of the found marker. */
+    public int end() {
+      requireMatchState();
+      return matchEnd;
+    }
+
+    /** Returns the number of characters scanned so far. */
+    public int position() {
+      return position;
+    }
+
+    /**
+     * Returns the length of the scanned text's longest suffix that is the beginning of a marker.
+     * These characters may still turn out to be part of a marker once more text arrives.
+     */
+    public int pendingLength() {
+      return depths[state];
+    }
+
+    private int markerIndex() {
+      return outputs[requireMatchState()];
+    }
+
+    private int requireMatchState() {
+      if (matchState == NONE) {
+        throw new IllegalStateException("No marker found");
+      }
+      return matchState;
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package dev.coding_challenge_souffleur.model;
+
+import dev.coding_challenge_souffleur.model.SectionEvent.SectionAppended;
+import dev.coding_challenge_souffleur.model.SectionEvent.SectionCompleted;
+import dev.coding_challenge_souffleur.model.SectionEvent.SectionStarted;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Resumable parser that turns a streamed response into {@link SectionEvent}s. It keeps a {@link
+ * SectionMarkerScanner.Cursor} into the accumulated text, so every delta is scanned once, and holds
+ * back a trailing fragment that could still become a marker (e.g. {@code "===SECT"}) until the next
+ * delta decides it.
+ *
+ * <p>The produced sections match the former regex based extraction: a section starts at the first
+ * occurrence of its header within a solution block and ends at the next {@link
+ * SolutionSection#SECTION_END}, at the next {@code SOLUTION_TITLE:} (solution sections only) or at
+ * the end of the text. Content is trimmed and empty content is never reported, so appended text
+ * never starts a section with whitespace.
+ *
+ * <p>One instance belongs to one stream and is not thread-safe.
+ */
+final class SectionStreamParser {
+
+  private final StringBuilder text = new StringBuilder();
+  private final SectionMarkerScanner.Cursor cursor = SectionMarkerScanner.instance().cursor();
+  private final List<OpenSection> openSections = new ArrayList<>();
+  private final Set<SolutionSection> sectionsSeenInBlock = EnumSet.noneOf(SolutionSection.class);
+
+  private int blockIndex = -1;
+  private boolean titledBlocks;
+  private boolean problemStatementSeen;
+
+  private static boolean isTrimmable(final char c) {
+    // Same definition as String.trim()
+    return c <= ' ';
+  }
+
+  /**
+   * Appends a text delta and parses it.
+   *
+   * @return the section events caused by the delta in stream order, possibly empty
+   */
+  List<SectionEvent> append(final CharSequence delta) {
+    text.append(delta);
+    return parse(false);
+  }
+
+  /**
+   * Marks the end of the stream: the held back tail is no longer a potential marker and gets
+   * appended to the still open sections.
+   *
+   * @return the section events caused by the held back tail, possibly empty
+   */
+  List<SectionEvent> finish() {
+    return parse(true);
+  }
+
+  /** Returns the text received so far. */
+  CharSequence text() {
+    return text;
+  }
+
+  private List<SectionEvent> parse(final boolean endOfStream) {
+    var events = new ArrayList<SectionEvent>();
+    while (cursor.find(text)) {
+      if (cursor.isSectionEnd()) {
+        closeSections(cursor.start(), events, true);
+      } else {
+        onHeader(cursor.section().orElseThrow(), cursor.start(), cursor.end(), events);
+      }
+    }
+
+    var safeEnd = endOfStream ? text.length() : text.length() - cursor.pendingLength();
+    for (final var openSection : openSections) {
+      emit(openSection, safeEnd, events);
+    }
+    return events;
+  }
+
+  private void onHeader(
+      final SolutionSection section,
+      final int markerStart,
+      final int markerEnd,
+      final List<SectionEvent> events) {
+    if (section == SolutionSection.PROBLEM_STATEMENT) {
+      if (!problemStatementSeen) {
+        problemStatementSeen = true;
+        open(SectionEvent.SHARED_SOLUTION_INDEX, section, markerEnd, events);
+      }
+      return;
+    }
+
+    if (section == SolutionSection.SOLUTION_TITLE) {
+      // Every title starts a new solution block and ends all sections of the previous one
+      closeSections(markerStart, events, false);
+      startBlock(true);
+    } else if (blockIndex < 0) {
+      // Solution content without any title is treated as a single solution
+      startBlock(false);
+    }
+
+    if (sectionsSeenInBlock.add(section)) {
+      open(blockIndex, section, markerEnd, events);
+    }
+  }
+
+  private void open(
+      final int solutionIndex,
+      final SolutionSection section,
+      final int contentStart,
+      final List<SectionEvent> events) {
+    openSections.add(new OpenSection(solutionIndex, section, contentStart));
+    events.add(new SectionStarted(solutionIndex, section));
+  }
+
+  private void startBlock(final boolean titled) {
+    sectionsSeenInBlock.clear();
+    if (titled && !titledBlocks && blockIndex == 0) {
+      // The untitled block becomes the first titled block, as it refers to the same solution
+      titledBlocks = true;
+      return;
+    }
+
+    titledBlocks |= titled;
+    blockIndex++;
+  }
+
+  private void closeSections(
+      final int end, final List<SectionEvent> events, final boolean includeShared) {
+    var iterator = openSections.iterator();
+    while (iterator.hasNext()) {
+      var openSection = iterator.next();
+      if (includeShared || !openSection.isShared()) {
+        emit(openSection, end, events);
+        events.add(new SectionCompleted(openSection.solutionIndex, openSection.section));
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Extends the trimmed content of the open section up to end, only looking at text not seen
+   * before, and reports the added text.
+   */
+  private void emit(final OpenSection openSection, final int end, final List<SectionEvent> events) {
+    if (openSection.valueStart < 0) {
+      var start = openSection.scanFrom;
+      while (start < end && isTrimmable(text.charAt(start))) {
+        start++;
+      }
+      openSection.scanFrom = start;
+      if (start >= end) {
+        return;
+      }
+      openSection.valueStart = start;
+      openSection.valueEnd = start;
+    }
+
+    var valueEnd = end;
+    while (valueEnd > openSection.valueEnd && isTrimmable(text.charAt(valueEnd - 1))) {
+      valueEnd--;
+    }
+    if (valueEnd <= openSection.valueEnd) {
+      return;
+    }
+
+    var offset = openSection.valueEnd - openSection.valueStart;
+    var appended = text.substring(openSection.valueEnd, valueEnd);
+    openSection.valueEnd = valueEnd;
+    events.add(
+        new SectionAppended(openSection.solutionIndex, openSection.section, offset, appended));
+  }
+
+  private static final class OpenSection {
+
+    private final int solutionIndex;
+    private final SolutionSection section;
+    private int scanFrom;
+    private int valueStart = -1;
+    private int valueEnd = -1;
+
+    private OpenSection(final int solutionIndex, final SolutionSection section, final int start) {
+      this.solutionIndex = solutionIndex;
+      this.section = section;
+      this.scanFrom = start;
+    }
+
+    private boolean isShared() {
+      return solutionIndex == SectionEvent.SHARED_SOLUTION_INDEX;
+    }
+  }
+}
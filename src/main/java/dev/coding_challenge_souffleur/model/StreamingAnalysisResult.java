@@ -1,70 +1,87 @@
 package dev.coding_challenge_souffleur.model;
 
-import java.util.EnumMap;
-import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Represents a streaming analysis result that can be updated as sections are completed. Internally
- * stores section content in a map keyed by SolutionSection to reduce boilerplate and make it easy
- * to extend.
+ * Immutable snapshot of a streaming analysis result. Updating a section returns a new snapshot that
+ * shares the content of all other sections, so streaming only copies the text of the changed
+ * section. Snapshots can be handed to other threads (e.g. the JavaFX thread) without
+ * synchronization.
  */
-public class StreamingAnalysisResult {
+public final class StreamingAnalysisResult {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(StreamingAnalysisResult.class);
+  private static final int SECTION_COUNT = SolutionSection.values().length;
 
-  private final Map<SolutionSection, String> sections = new EnumMap<>(SolutionSection.class);
+  // Indexed by SolutionSection ordinal, never modified after construction
+  private final String[] sections;
+
+  public StreamingAnalysisResult() {
+    this(new String[SECTION_COUNT]);
+  }
+
+  private StreamingAnalysisResult(final String[] sections) {
+    this.sections = sections;
+  }
 
   /** Returns true if all required sections (excluding SOLUTION_TITLE) are present. */
   boolean isComplete() {
-    return sections.containsKey(SolutionSection.PROBLEM_STATEMENT)
-        && sections.containsKey(SolutionSection.SOLUTION_DESCRIPTION)
-        && sections.containsKey(SolutionSection.EDGE_CASES)
-        && sections.containsKey(SolutionSection.SOLUTION_CODE)
-        && sections.containsKey(SolutionSection.TIME_COMPLEXITY)
-        && sections.containsKey(SolutionSection.SPACE_COMPLEXITY);
+    return getProblemStatement() != null
+        && getSolutionDescription() != null
+        && getEdgeCases() != null
+        && getSolutionCode() != null
+        && getTimeComplexity() != null
+        && getSpaceComplexity() != null;
   }
 
   public String getProblemStatement() {
-    return sections.get(SolutionSection.PROBLEM_STATEMENT);
+    return getValueForSection(SolutionSection.PROBLEM_STATEMENT);
   }
 
   public String getSolutionTitle() {
-    return sections.get(SolutionSection.SOLUTION_TITLE);
+    return getValueForSection(SolutionSection.SOLUTION_TITLE);
   }
 
   public String getSolutionDescription() {
-    return sections.get(SolutionSection.SOLUTION_DESCRIPTION);
+    return getValueForSection(SolutionSection.SOLUTION_DESCRIPTION);
   }
 
   public String getEdgeCases() {
-    return sections.get(SolutionSection.EDGE_CASES);
+    return getValueForSection(SolutionSection.EDGE_CASES);
   }
 
   public String getSolutionCode() {
-    return sections.get(SolutionSection.SOLUTION_CODE);
+    return getValueForSection(SolutionSection.SOLUTION_CODE);
   }
 
   public String getTimeComplexity() {
-    return sections.get(SolutionSection.TIME_COMPLEXITY);
+    return getValueForSection(SolutionSection.TIME_COMPLEXITY);
   }
 
   public String getSpaceComplexity() {
-    return sections.get(SolutionSection.SPACE_COMPLEXITY);
+    return getValueForSection(SolutionSection.SPACE_COMPLEXITY);
   }
 
   public String getValueForSection(final SolutionSection section) {
-    return sections.get(section);
+    return sections[section.ordinal()];
   }
 
-  void setSection(final SolutionSection solutionSection, final String value) {
+  /**
+   * Returns a snapshot with the given section content, or this snapshot if the content is equal.
+   */
+  StreamingAnalysisResult withSection(final SolutionSection solutionSection, final String value) {
     if (value == null) {
       throw new IllegalArgumentException(
           "Value cannot be null when setting section " + solutionSection);
     }
+    if (value.equals(getValueForSection(solutionSection))) {
+      return this;
+    }
 
     LOGGER.trace("Setting section {} to {}", solutionSection, value);
-    sections.put(solutionSection, value);
+    var updatedSections = sections.clone();
+    updatedSections[solutionSection.ordinal()] = value;
+    return new StreamingAnalysisResult(updatedSections);
   }
 }
@@ -0,0 +1,147 @@
+package dev.coding_challenge_souffleur.model;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands the text deltas of a response from the thread reading it to a parser, so a slow parser or
+ * listener never delays reading the socket.
+ *
+ * <p>The deltas are queued up to the capacity. Offering never blocks, once the queue is full a
+ * delta is appended to the last queued chunk instead. The parser then receives fewer, larger
+ * chunks of the same text, which it parses alike. The chunks are consumed in order by at most one
+ * task at a time, so the parser needs no synchronisation. A task the runner fails to run fails the
+ * hand-off, so its completion never waits for a lost task.
+ */
+final class TextDeltaHandOff {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TextDeltaHandOff.class);
+
+  private final int capacity;
+  private final Function<Runnable, CompletableFuture<Void>> runner;
+  private final Consumer<String> consumer;
+  private final ArrayDeque<StringBuilder> chunks;
+  private final CompletableFuture<Void> drained = new CompletableFuture<>();
+
+  private boolean draining;
+  private boolean closed;
+  private long mergedDeltas;
+
+  /**
+   * Creates a hand-off.
+   *
+   * @param capacity the chunks queued before deltas are merged
+   * @param runner runs a task consuming the chunks asynchronously, returning its completion
+   * @param consumer the consumer of the text chunks
+   */
+  TextDeltaHandOff(
+      final int capacity,
+      final Function<Runnable, CompletableFuture<Void>> runner,
+      final Consumer<String> consumer) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+    this.runner = runner;
+    this.consumer = consumer;
+    this.chunks = new ArrayDeque<>(capacity);
+  }
+
+  /**
+   * Queues a text delta, merging it into the last chunk if the queue is full.
+   *
+   * @param delta the text delta
+   * @throws IllegalStateException if the hand-off is closed
+   */
+  void offer(final String delta) {
+    synchronized (this) {
+      if (closed) {
+        throw new IllegalStateException("Hand-off already closed");
+      }
+      if (chunks.size() < capacity) {
+        chunks.addLast(new StringBuilder(delta));
+      } else {
+        chunks.getLast().append(delta);
+        mergedDeltas++;
+      }
+      if (draining) {
+        return;
+      }
+      draining = true;
+    }
+    startDrain();
+  }
+
+  /**
+   * Closes the hand-off once the last delta is offered.
+   *
+   * @return a future completed by the consuming task once all chunks are consumed
+   */
+  CompletableFuture<Void> close() {
+    synchronized (this) {
+      closed = true;
+      if (draining) {
+        return drained;
+      }
+      draining = true;
+    }
+    startDrain();
+    return drained;
+  }
+
+  /** Returns the number of deltas merged into a queued chunk, as the consumer lagged behind. */
+  synchronized long getMergedDeltas() {
+    return mergedDeltas;
+  }
+
+  private void startDrain() {
+    CompletableFuture<Void> drainTask;
+    try {
+      drainTask = runner.apply(this::drain);
+    } catch (final RuntimeException e) {
+      drainTask = CompletableFuture.failedFuture(e);
+    }
+    drainTask.whenComplete(
+        (ignored, error) -> {
+          if (error != null) {
+            drained.completeExceptionally(error);
+          }
+        });
+  }
+
+  private void drain() {
+    while (true) {
+      StringBuilder chunk;
+      long merged;
+      synchronized (this) {
+        chunk = chunks.pollFirst();
+        merged = mergedDeltas;
+        if (chunk == null) {
+          draining = false;
+          if (!closed) {
+            return;
+          }
+        }
+      }
+      if (chunk == null) {
+        if (merged > 0) {
+          LOGGER.debug("Merged {} text deltas while the parser lagged behind", merged);
+        }
+        drained.complete(null);
+        return;
+      }
+      // After a failure of the consumer the remaining text is dropped
+      if (!drained.isDone()) {
+        try {
+          consumer.accept(chunk.toString());
+        } catch (final RuntimeException e) {
+          drained.completeExceptionally(e);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package dev.coding_challenge_souffleur.model;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritablePixelFormat;
+
+/**
+ * Detects changes between frames of a watched window. Each frame is split into square tiles with a
+ * 64-bit FNV-1a hash each, which are compared with the tiles of the last changed frame. Comparing
+ * with the last changed frame rather than the previous one also detects slow changes, e.g. a
+ * problem statement scrolled a few lines per frame.
+ *
+ * <p>The pixels and hashes are kept in buffers reused across frames, so an unchanged frame
+ * allocates nothing. Not thread-safe, frames must be checked one after another.
+ */
+final class TileChangeDetector {
+
+  static final int TILE_SIZE = 32;
+
+  private static final WritablePixelFormat<IntBuffer> ARGB_FORMAT =
+      PixelFormat.getIntArgbInstance();
+  private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+  private static final long FNV_PRIME = 0x100000001B3L;
+
+  private final double minChangedFraction;
+  private int width;
+  private int height;
+  private int[] pixels = new int[0];
+  private long[] tileHashes = new long[0];
+  private long[] referenceHashes = new long[0];
+
+  /**
+   * Creates a detector.
+   *
+   * @param minChangedFraction the fraction of the tiles that must change for a changed frame
+   */
+  TileChangeDetector(final double minChangedFraction) {
+    if (minChangedFraction <= 0.0 || minChangedFraction > 1.0) {
+      throw new IllegalArgumentException(
+          "Minimum changed fraction must be in (0, 1]: " + minChangedFraction);
+    }
+    this.minChangedFraction = minChangedFraction;
+  }
+
+  /**
+   * Checks whether enough tiles of the frame changed since the last changed frame. A changed frame
+   * becomes the reference for the next frames. The first frame and frames of another size are
+   * always changed.
+   *
+   * @param frame the frame to check
+   * @return whether the frame changed
+   */
+  boolean hasChanged(final Image frame) {
+    var frameWidth = (int) frame.getWidth();
+    var frameHeight = (int) frame.getHeight();
+    var resized = frameWidth != width || frameHeight != height;
+    if (resized) {
+      resize(frameWidth, frameHeight);
+    }
+
+    frame.getPixelReader().getPixels(0, 0, width, height, ARGB_FORMAT, pixels, 0, width);
+    hashTiles();
+
+    var changedTiles = 0;
+    for (var i = 0; i < tileHashes.length; i++) {
+      if (tileHashes[i] != referenceHashes[i]) {
+        changedTiles++;
+      }
+    }
+    if (!resized && changedTiles < minChangedFraction * tileHashes.length) {
+      return false;
+    }
+
+    var swap = referenceHashes;
+    referenceHashes = tileHashes;
+    tileHashes = swap;
+    return true;
+  }
+
+  private void resize(final int frameWidth, final int frameHeight) {
+    width = frameWidth;
+    height = frameHeight;
+    pixels = new int[width * height];
+    var tileCount = tilesAcross(width) * tilesAcross(height);
+    tileHashes = new long[tileCount];
+    referenceHashes = new long[tileCount];
+  }
+
+  private void hashTiles() {
+    var columns = tilesAcross(width);
+    Arrays.fill(tileHashes, FNV_OFFSET_BASIS);
+    // Runs row by row, which reads the pixels sequentially
+    for (var y = 0; y < height; y++) {
+      var firstTile = y / TILE_SIZE * columns;
+      var rowOffset = y * width;
+      for (var column = 0; column < columns; column++) {
+        var hash = tileHashes[firstTile + column];
+        var end = rowOffset + Math.min(width, (column + 1) * TILE_SIZE);
+        for (var i = rowOffset + column * TILE_SIZE; i < end; i++) {
+          hash = (hash ^ pixels[i]) * FNV_PRIME;
+        }
+        tileHashes[firstTile + column] = hash;
+      }
+    }
+  }
+
+  private static int tilesAcross(final int length) {
+    return (length + TILE_SIZE - 1) / TILE_SIZE;
+  }
+}
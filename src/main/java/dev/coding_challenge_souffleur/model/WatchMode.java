@@ -0,0 +1,11 @@
+package dev.coding_challenge_souffleur.model;
+
+/** Selects what happens when the watched foreground window changes. */
+public enum WatchMode {
+  /** The window is not watched. */
+  OFF,
+  /** A changed window is captured and shown as preview. */
+  PREVIEW,
+  /** A changed window is captured, shown as preview and analysed. */
+  ANALYSE
+}
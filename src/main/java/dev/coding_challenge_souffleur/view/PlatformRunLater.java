@@ -18,4 +18,16 @@ public interface PlatformRunLater extends Consumer<Runnable> {
    */
   @Override
   void accept(Runnable runnable);
+
+  /**
+   * Executes an update rendering the latest state of a UI element on the JavaFX application thread.
+   * Implementations may drop the update once a newer update for the same target arrives, so it must
+   * not depend on earlier updates having run.
+   *
+   * @param target The UI element or other key identifying what the update renders
+   * @param update The Runnable rendering the latest state of the target
+   */
+  default void coalesce(final Object target, final Runnable update) {
+    accept(update);
+  }
 }
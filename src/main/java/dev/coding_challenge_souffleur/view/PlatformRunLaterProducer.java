@@ -7,13 +7,16 @@ import javafx.application.Platform;
 @ApplicationScoped
 class PlatformRunLaterProducer {
 
+  private final RenderScheduler renderScheduler = new RenderScheduler(Platform::runLater);
+
   /**
-   * Produces a lambda that wraps Platform.runLater().
+   * Produces the render scheduler wrapping Platform.runLater(), shared by all injection points so
+   * updates for the same target are coalesced.
    *
    * @return A PlatformRunLater that executes code on the JavaFx application thread
    */
   @Produces
   PlatformRunLater platformRunLater() {
-    return Platform::runLater;
+    return renderScheduler;
   }
 }
@@ -0,0 +1,129 @@
+package dev.coding_challenge_souffleur.view;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import javafx.animation.AnimationTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link PlatformRunLater} that coalesces UI updates per frame. Of all updates {@link
+ * #coalesce(Object, Runnable) coalesced} for a target only the latest is kept, and pending updates
+ * are applied at most once per JavaFX pulse by an {@link AnimationTimer}. A fast response stream
+ * therefore renders with the display refresh rate instead of flooding the event queue with one
+ * Runnable per streamed delta. The timer only runs while updates are pending.
+ *
+ * <p>Runnables passed to {@link #accept(Runnable)} are never dropped and run as with {@code
+ * Platform.runLater}.
+ */
+final class RenderScheduler implements PlatformRunLater {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RenderScheduler.class);
+
+  private final PlatformRunLater runLater;
+  private final Map<Object, Runnable> pendingUpdates = new LinkedHashMap<>();
+  private final AtomicBoolean framesRequested = new AtomicBoolean();
+  private final LongAdder receivedUpdates = new LongAdder();
+  private final LongAdder appliedUpdates = new LongAdder();
+
+  // Only accessed on the JavaFX application thread
+  private AnimationTimer frameTimer;
+
+  RenderScheduler(final PlatformRunLater runLater) {
+    this.runLater = runLater;
+  }
+
+  @Override
+  public void accept(final Runnable runnable) {
+    runLater.accept(runnable);
+  }
+
+  @Override
+  public void coalesce(final Object target, final Runnable update) {
+    receivedUpdates.increment();
+    synchronized (pendingUpdates) {
+      // Re-inserting moves the target to the end, so targets are applied in order of their latest
+      // update and e.g. a final status is not overwritten by an older pending render
+      pendingUpdates.remove(target);
+      pendingUpdates.put(target, update);
+    }
+
+    if (framesRequested.compareAndSet(false, true)) {
+      runLater.accept(this::startFrames);
+    }
+  }
+
+  /** Returns the number of updates passed to {@link #coalesce(Object, Runnable)}. */
+  long getReceivedUpdateCount() {
+    return receivedUpdates.sum();
+  }
+
+  /** Returns the number of coalesced updates that were applied. */
+  long getAppliedUpdateCount() {
+    return appliedUpdates.sum();
+  }
+
+  /**
+   * Applies the latest pending update of every target. Must be called on the JavaFX application
+   * thread.
+   *
+   * @return true if any update was applied
+   */
+  boolean applyPendingUpdates() {
+    final List<Runnable> updates;
+    synchronized (pendingUpdates) {
+      updates = List.copyOf(pendingUpdates.values());
+      pendingUpdates.clear();
+    }
+
+    for (final var update : updates) {
+      try {
+        update.run();
+      } catch (final RuntimeException e) {
+        LOGGER.warn("Error applying UI update", e);
+      }
+      appliedUpdates.increment();
+    }
+    return !updates.isEmpty();
+  }
+
+  private boolean hasPendingUpdates() {
+    synchronized (pendingUpdates) {
+      return !pendingUpdates.isEmpty();
+    }
+  }
+
+  private void startFrames() {
+    if (frameTimer == null) {
+      frameTimer =
+          new AnimationTimer() {
+            @Override
+            public void handle(final long now) {
+              onFrame();
+            }
+          };
+    }
+    frameTimer.start();
+  }
+
+  private void onFrame() {
+    if (applyPendingUpdates()) {
+      return;
+    }
+
+    // Stop requesting pulses while idle. An update coalesced concurrently either sees the cleared
+    // flag and restarts the timer itself, or is still pending and restarts it here.
+    frameTimer.stop();
+    framesRequested.set(false);
+    LOGGER.trace(
+        "Render scheduler idle, applied {} of {} updates",
+        getAppliedUpdateCount(),
+        getReceivedUpdateCount());
+    if (hasPendingUpdates() && framesRequested.compareAndSet(false, true)) {
+      frameTimer.start();
+    }
+  }
+}
@@ -1,9 +1,11 @@
 package dev.coding_challenge_souffleur.view;
 
+import dev.coding_challenge_souffleur.model.CapturedScreenshot;
 import dev.coding_challenge_souffleur.model.ScreenshotService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import javafx.animation.PauseTransition;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -35,15 +37,27 @@ public class ScreenshotDisplayService {
   }
 
   public void takeScreenshotAndShowPreview() {
-    screenshotService.takeScreenshotOfDesktop().ifPresent(this::showScreenshotAsPreview);
+    showWhenCaptured(screenshotService.takeScreenshotOfDesktop());
   }
 
   public void takeScreenshotOfForegroundWindowAndShowPreview() {
-    screenshotService.takeScreenshotOfForegroundWindow().ifPresent(this::showScreenshotAsPreview);
+    showWhenCaptured(screenshotService.takeScreenshotOfForegroundWindow());
+  }
+
+  private void showWhenCaptured(final CompletableFuture<CapturedScreenshot> capturedScreenshot) {
+    capturedScreenshot
+        .thenAccept(screenshot -> showScreenshotAsPreview(screenshot.getImage()))
+        .exceptionally(
+            e -> {
+              LOGGER.warn("Failed to take screenshot", e);
+              return null;
+            });
   }
 
   public void showScreenshotAsPreview(final Image screenshot) {
-    platformRunLater.accept(
+    // Showing and hiding share a target, so only the latest preview state is rendered
+    platformRunLater.coalesce(
+        this,
         () -> {
           hideScreenshotTimer.stop();
 
@@ -75,7 +89,8 @@ public class ScreenshotDisplayService {
 
   private void hideScreenshotPreviewContainer() {
     try {
-      platformRunLater.accept(
+      platformRunLater.coalesce(
+          this,
           () -> {
             screenshotPreviewContainer.setVisible(false);
             screenshotPreviewContainer.setManaged(false);
@@ -1,13 +1,25 @@
 package dev.coding_challenge_souffleur.view;
 
 import dev.coding_challenge_souffleur.model.AnthropicService;
+import dev.coding_challenge_souffleur.model.CapturedScreenshot;
+import dev.coding_challenge_souffleur.model.CodingLanguage;
 import dev.coding_challenge_souffleur.model.MultiSolutionResult;
 import dev.coding_challenge_souffleur.model.ScreenshotService;
+import dev.coding_challenge_souffleur.model.SectionEvent;
+import dev.coding_challenge_souffleur.model.SectionEventListener;
+import dev.coding_challenge_souffleur.model.WatchMode;
 import dev.coding_challenge_souffleur.view.components.ContentPaneController;
 import dev.coding_challenge_souffleur.view.components.VirtualizedTextDisplay;
 import dev.coding_challenge_souffleur.view.components.HeaderBox;
 import dev.coding_challenge_souffleur.view.components.MultiSolutionTabPane;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
@@ -22,6 +34,11 @@ public class ViewController {
   private static final Logger LOGGER = LoggerFactory.getLogger(ViewController.class);
   private static final String ANALYSIS_COMPLETE = "Analysis complete";
   private static final String ANALYSIS_IN_PROGRESS = "Analysis in progress...";
+
+  /** A batch of section events of an analysis, waiting for the next frame. */
+  private record PendingEvents(
+      long generation, List<SectionEvent> events, MultiSolutionResult result) {}
+
   private AnthropicService anthropicService;
   private ScreenshotService screenshotService;
   private PlatformRunLater platformRunLater;
@@ -29,6 +46,13 @@ public class ViewController {
   private ContentPaneController contentPaneController;
   private MultiSolutionTabPane multiSolutionTabPane;
   private HeaderBox headerBox;
+  // Numbers the analyses started, so the tabs are cleared once per analysis
+  private final AtomicLong analysisGeneration = new AtomicLong();
+  // Written by the streaming thread, read by the JavaFX thread
+  private final Queue<PendingEvents> pendingEvents = new ConcurrentLinkedQueue<>();
+  // Only accessed on the JavaFX thread
+  private long renderedGeneration;
+  private long renderedVersion;
   @FXML private VBox contentPane;
   @FXML private VirtualizedTextDisplay problemStatementFlow;
   @FXML private HBox headerBoxPlaceholder;
@@ -46,7 +70,8 @@ public class ViewController {
   }
 
   void updateStatus(final String status) {
-    platformRunLater.accept(
+    platformRunLater.coalesce(
+        statusLabel,
         () -> {
           LOGGER.trace("Updating status to: {}", status);
           statusLabel.setText(status);
@@ -87,6 +112,22 @@ public class ViewController {
     var mainContainer = (VBox) headerBoxPlaceholder.getParent();
     var headerIndex = mainContainer.getChildren().indexOf(headerBoxPlaceholder);
     mainContainer.getChildren().set(headerIndex, headerBox);
+
+    if (screenshotService.getWatchMode() != WatchMode.OFF) {
+      screenshotService.startWatching(this::showWatchedScreenshot);
+    }
+  }
+
+  private void showWatchedScreenshot(final CapturedScreenshot screenshot) {
+    screenshotDisplayService.showScreenshotAsPreview(screenshot.getImage());
+    if (screenshotService.getWatchMode() != WatchMode.ANALYSE) {
+      return;
+    }
+
+    highlightSolutionCodeAs(anthropicService.getCodingLanguage());
+    updateStatus("Window changed, sending new screenshot for multi-solution analysis...");
+    var future = anthropicService.analyseMultiSolution(screenshot, newResultListener());
+    handleMultiSolutionCompletion(future, "multi-solution analysis");
   }
 
   public HeaderBox getHeaderBox() {
@@ -94,82 +135,172 @@ public class ViewController {
   }
 
   public void executeMultiSolutionAnalysis() {
+    executeMultiSolutionAnalysis(true);
+  }
+
+  /** Analyses the screenshot again, even if a result of a near-identical one is cached. */
+  public void executeFreshMultiSolutionAnalysis() {
+    executeMultiSolutionAnalysis(false);
+  }
+
+  private void executeMultiSolutionAnalysis(final boolean useCachedResult) {
+    highlightSolutionCodeAs(anthropicService.getCodingLanguage());
+
     final var optionalPresentScreenshot = this.screenshotService.getScreenshot();
     if (optionalPresentScreenshot.isPresent()) {
       this.updateStatus("Sending present screenshot for multi-solution analysis...");
       LOGGER.trace("Coordinating multi-solution analysis for present screenshot...");
 
       anthropicService.analyseMultiSolution(
-          optionalPresentScreenshot.get(), this::displayMultiSolutionResult);
+          optionalPresentScreenshot.get(), newResultListener(), useCachedResult);
       return;
     }
 
     var future =
-        takeScreenshotAndAnalyzeMultiSolution(this::displayMultiSolutionResult, this::updateStatus);
+        takeScreenshotAndAnalyzeMultiSolution(
+            newResultListener(), this::updateStatus, useCachedResult);
     handleMultiSolutionCompletion(future, "multi-solution analysis");
   }
 
   public void executeMultiSolutionMockAnalysis() {
+    highlightSolutionCodeAs(CodingLanguage.JAVA); // The mock solutions are written in Java
     updateStatus("Running multi-solution mock analysis...");
-    var future = anthropicService.analyseMultiSolutionMock(this::displayMultiSolutionResult);
+    var future = anthropicService.analyseMultiSolutionMock(newResultListener());
 
     handleMultiSolutionCompletion(future, "multi-solution mock analysis");
   }
 
-  void displayMultiSolutionResult(final MultiSolutionResult result) {
-    platformRunLater.accept(
-        () -> {
-          // Use the enhanced MultiSolutionTabPane to display the result
-          multiSolutionTabPane.displayResult(result);
+  private void highlightSolutionCodeAs(final CodingLanguage codingLanguage) {
+    // The solutions are written in the language selected when the analysis starts
+    platformRunLater.accept(() -> multiSolutionTabPane.setCodingLanguage(codingLanguage));
+  }
 
-          // Handle problem statement display using VirtualizedTextDisplay
-          var problem = result.getSharedProblemStatement();
-          if (problem.isPresent()) {
-            problemStatementFlow.displayProblemStatement(problem.get());
-          } else {
-            problemStatementFlow.displayProblemStatement(null); // Will show "Loading..."
-          }
+  /**
+   * Returns a listener displaying the events of a newly started analysis. A retried request takes
+   * a new generation, so the tabs of the failed attempt are cleared.
+   */
+  private SectionEventListener newResultListener() {
+    return new SectionEventListener() {
+      private volatile long generation = analysisGeneration.incrementAndGet();
 
-          final String statusText;
-          if (result.isComplete()) {
-            LOGGER.debug(
-                "Multi-solution result complete, solution count: {}", result.getSolutionCount());
-            statusText = ANALYSIS_COMPLETE;
-          } else {
-            LOGGER.trace(
-                "Multi-solution result not complete, solution count: {}",
-                result.getSolutionCount());
-            statusText = ANALYSIS_IN_PROGRESS;
-          }
+      @Override
+      public void onSectionEvents(
+          final List<SectionEvent> events, final MultiSolutionResult result) {
+        displayMultiSolutionResult(generation, events, result);
+      }
 
-          LOGGER.trace("Updating status to: {}", statusText);
-          statusLabel.setText(statusText);
+      @Override
+      public void onRestart() {
+        generation = analysisGeneration.incrementAndGet();
+        displayMultiSolutionResult(generation, List.of(), null);
+      }
+    };
+  }
 
-          if (!contentPane.isVisible()) {
-            contentPaneController.showContentPane(contentPane);
-            contentPaneController.adjustWindowSize(contentPane.getScene().getWindow());
-          }
-        });
+  void displayMultiSolutionResult(
+      final long generation, final List<SectionEvent> events, final MultiSolutionResult result) {
+    pendingEvents.add(new PendingEvents(generation, events, result));
+    platformRunLater.coalesce(multiSolutionTabPane, this::renderPendingEvents);
   }
 
-  private CompletableFuture<MultiSolutionResult> takeScreenshotAndAnalyzeMultiSolution(
-      final Consumer<MultiSolutionResult> progressCallback, final Consumer<String> statusCallback) {
-
-    var optionalScreenshot = screenshotService.takeScreenshotOfForegroundWindow();
-    if (optionalScreenshot.isEmpty()) {
-      var failureMessage = "Failed to take screenshot";
-      statusCallback.accept(failureMessage);
-      LOGGER.debug(failureMessage);
-      return CompletableFuture.failedFuture(new IllegalStateException(failureMessage));
+  private void renderPendingEvents() {
+    var batches = new ArrayList<PendingEvents>();
+    for (var pending = pendingEvents.poll(); pending != null; pending = pendingEvents.poll()) {
+      batches.add(pending);
+    }
+    var latestGeneration =
+        Math.max(
+            renderedGeneration,
+            batches.stream().mapToLong(PendingEvents::generation).max().orElse(0));
+    if (latestGeneration > renderedGeneration) {
+      // The first events of a new analysis replace the tabs of the previous one
+      clearSolutions();
+      renderedGeneration = latestGeneration;
+    }
+
+    // Events of all deltas since the last frame are applied at once
+    var events = new ArrayList<SectionEvent>();
+    MultiSolutionResult latestResult = null;
+    for (final var batch : batches) {
+      if (batch.generation() < latestGeneration) {
+        // Queued before its analysis was superseded, the tabs show the newer one
+        LOGGER.trace("Dropping section events of superseded analysis {}", batch.generation());
+        continue;
+      }
+      events.addAll(batch.events());
+      latestResult = batch.result();
+    }
+
+    applySectionEvents(events);
+    if (latestResult != null) {
+      renderLatestResult(latestResult);
+    }
+  }
+
+  private void clearSolutions() {
+    multiSolutionTabPane.clearSolutions();
+    problemStatementFlow.displayProblemStatement(null);
+    renderedVersion = 0;
+  }
+
+  private void applySectionEvents(final List<SectionEvent> events) {
+    // Only the streamed text is applied to the solution tabs
+    multiSolutionTabPane.applySectionEvents(events);
+    for (final var event : events) {
+      if (event.isShared() && event instanceof SectionEvent.SectionAppended appended) {
+        problemStatementFlow.appendFormattedContent(appended.offset(), appended.text());
+      }
+    }
+  }
+
+  private void renderLatestResult(final MultiSolutionResult result) {
+    // Events without content changes, e.g. completed sections, leave the snapshot unchanged
+    if (result.getVersion() == renderedVersion) {
+      return;
+    }
+    renderedVersion = result.getVersion();
+
+    if (result.getSharedProblemStatement().isEmpty()) {
+      problemStatementFlow.displayProblemStatement(null); // Will show "Loading..."
+    }
+
+    final String statusText;
+    if (result.isComplete()) {
+      LOGGER.debug("Multi-solution result complete, solution count: {}", result.getSolutionCount());
+      statusText = ANALYSIS_COMPLETE;
+    } else {
+      LOGGER.trace(
+          "Multi-solution result not complete, solution count: {}", result.getSolutionCount());
+      statusText = ANALYSIS_IN_PROGRESS;
     }
 
-    var screenshot = optionalScreenshot.get();
-    screenshotDisplayService.showScreenshotAsPreview(screenshot);
+    LOGGER.trace("Updating status to: {}", statusText);
+    statusLabel.setText(statusText);
+
+    if (!contentPane.isVisible()) {
+      contentPaneController.showContentPane(contentPane);
+      contentPaneController.adjustWindowSize(contentPane.getScene().getWindow());
+    }
+  }
+
+  private CompletableFuture<MultiSolutionResult> takeScreenshotAndAnalyzeMultiSolution(
+      final SectionEventListener progressListener,
+      final Consumer<String> statusCallback,
+      final boolean useCachedResult) {
+
+    statusCallback.accept("Taking screenshot for multi-solution analysis...");
+    return screenshotService
+        .takeScreenshotOfForegroundWindow()
+        .thenCompose(
+            screenshot -> {
+              screenshotDisplayService.showScreenshotAsPreview(screenshot.getImage());
 
-    statusCallback.accept("Sending new screenshot for multi-solution analysis...");
-    LOGGER.trace("Coordinating multi-solution analysis for new screenshot...");
+              statusCallback.accept("Sending new screenshot for multi-solution analysis...");
+              LOGGER.trace("Coordinating multi-solution analysis for new screenshot...");
 
-    return anthropicService.analyseMultiSolution(screenshot, progressCallback);
+              return anthropicService.analyseMultiSolution(
+                  screenshot, progressListener, useCachedResult);
+            });
   }
 
   private void handleMultiSolutionCompletion(
@@ -179,9 +310,13 @@ public class ViewController {
 
     future.whenComplete(
         (finalResult, error) -> {
+          var cause = error instanceof CompletionException ? error.getCause() : error;
           if (error == null) {
             LOGGER.debug("Analysis '{}' completed successfully", analysisType);
             updateStatus(ANALYSIS_COMPLETE);
+          } else if (cause instanceof CancellationException) {
+            // The status belongs to the analysis that superseded this one
+            LOGGER.debug("Analysis '{}' superseded by a newer one", analysisType);
           } else {
             LOGGER.warn("Error in {}", analysisType, error);
             updateStatus("Error in " + analysisType + ": " + error.getMessage());
@@ -0,0 +1,296 @@
+package dev.coding_challenge_souffleur.view.components;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import org.apache.commons.lang3.StringUtils;
+import org.fxmisc.richtext.model.StyleSpans;
+import org.fxmisc.richtext.model.StyleSpansBuilder;
+
+/**
+ * Incremental tokenizer for syntax highlighting. The tokens of every line are kept together with
+ * the lexer state at the end of the line, so updated text is only tokenized again from the first
+ * line that changed. Streamed code grows at its end, so an update costs about one line plus the
+ * new text instead of the whole document.
+ *
+ * <p>Not thread-safe, it must only be used by one thread at a time.
+ */
+final class CodeTokenizer {
+
+  /** Token types with the style class used to render them. */
+  enum TokenType {
+    KEYWORD("keyword"),
+    STRING("string"),
+    COMMENT("comment"),
+    NUMBER("number");
+
+    private final Collection<String> styleClasses;
+
+    TokenType(final String styleClass) {
+      this.styleClasses = List.of(styleClass);
+    }
+
+    Collection<String> styleClasses() {
+      return styleClasses;
+    }
+  }
+
+  private static final TokenType[] TOKEN_TYPES = TokenType.values();
+  private static final int CODE = 0;
+  private static final int BLOCK_COMMENT = 1;
+  // Inside a multiline string, plus the index of its delimiter
+  private static final int MULTILINE_STRING = 2;
+
+  private final LanguageSyntax syntax;
+  private final List<Line> lines = new ArrayList<>();
+  private final StringBuilder text = new StringBuilder();
+  private int[] tokenBuffer = new int[48];
+  private int tokenBufferSize;
+  // Lexer state while tokenizing a line
+  private int state;
+
+  /**
+   * A tokenized line, its end excludes the line break. Tokens are stored as triples of start, end
+   * and token type ordinal, with positions relative to the whole text.
+   */
+  private record Line(int start, int end, boolean terminated, int endState, int[] tokens) {}
+
+  CodeTokenizer(final LanguageSyntax syntax) {
+    this.syntax = syntax;
+  }
+
+  /**
+   * Sets the text to tokenize and discards the tokens of all lines that changed. A line is kept if
+   * it and its line break are unchanged, as its lexer state only depends on the preceding text.
+   *
+   * @param newText the complete text
+   * @return the index of the first line that is tokenized again
+   */
+  int setText(final String newText) {
+    var difference = StringUtils.indexOfDifference(text, newText);
+    if (difference < 0) {
+      return lines.size();
+    }
+    return replaceFrom(difference, newText.substring(difference));
+  }
+
+  /**
+   * Replaces the text from the given position to its end and discards the tokens of all lines that
+   * changed. Unlike {@link #setText(String)}, only the replaced text is passed and compared.
+   *
+   * @param start the start of the replaced text, at most the length of the text
+   * @param replacement the new text from the start on
+   * @return the index of the first line that is tokenized again
+   */
+  int replaceFrom(final int start, final CharSequence replacement) {
+    var from = Math.min(start, text.length());
+    var stableLines = lines.size();
+    while (stableLines > 0 && !isUnchanged(lines.get(stableLines - 1), from)) {
+      stableLines--;
+    }
+    lines.subList(stableLines, lines.size()).clear();
+    text.setLength(from);
+    text.append(replacement);
+    return stableLines;
+  }
+
+  /** Returns the text to tokenize. */
+  CharSequence text() {
+    return text;
+  }
+
+  /**
+   * Tokenizes all lines that are not tokenized yet.
+   *
+   * @param cancelled checked before each line
+   * @throws CancellationException if cancelled, the lines tokenized so far are kept
+   */
+  void tokenize(final BooleanSupplier cancelled) {
+    while (lines.isEmpty() || lastLine().terminated()) {
+      if (cancelled.getAsBoolean()) {
+        throw new CancellationException("Tokenizing cancelled after " + lines.size() + " lines");
+      }
+
+      var start = lines.isEmpty() ? 0 : lastLine().end() + 1;
+      var startState = lines.isEmpty() ? CODE : lastLine().endState();
+      var lineBreak = text.indexOf("\n", start);
+      lines.add(tokenizeLine(start, lineBreak < 0 ? text.length() : lineBreak, startState));
+    }
+  }
+
+  /** Returns the number of tokenized lines. */
+  int lineCount() {
+    return lines.size();
+  }
+
+  /** Returns the start of the given line, or the end of the tokenized text after the last line. */
+  int lineStart(final int line) {
+    if (line < lines.size()) {
+      return lines.get(line).start();
+    }
+    return lines.isEmpty() ? 0 : lastLine().end();
+  }
+
+  /** Returns the index of the tokenized line containing the given position. */
+  int lineAt(final int position) {
+    var low = 0;
+    var high = lines.size() - 1;
+    while (low < high) {
+      var middle = (low + high + 1) >>> 1;
+      if (lines.get(middle).start() <= position) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the style spans from the start of the given line to the end of the tokenized text.
+   *
+   * @param fromLine the first line, must be less than the {@link #lineCount() line count}
+   */
+  StyleSpans<Collection<String>> styleSpans(final int fromLine) {
+    var builder = new StyleSpansBuilder<Collection<String>>();
+    var position = lineStart(fromLine);
+    for (var i = fromLine; i < lines.size(); i++) {
+      var tokens = lines.get(i).tokens();
+      for (var t = 0; t < tokens.length; t += 3) {
+        if (tokens[t] > position) {
+          builder.add(Collections.emptyList(), tokens[t] - position);
+        }
+        builder.add(TOKEN_TYPES[tokens[t + 2]].styleClasses(), tokens[t + 1] - tokens[t]);
+        position = tokens[t + 1];
+      }
+    }
+    builder.add(Collections.emptyList(), lastLine().end() - position);
+    return builder.create();
+  }
+
+  private static boolean isUnchanged(final Line line, final int difference) {
+    return line.terminated() && line.end() < difference;
+  }
+
+  private Line lastLine() {
+    return lines.get(lines.size() - 1);
+  }
+
+  private Line tokenizeLine(final int start, final int end, final int startState) {
+    tokenBufferSize = 0;
+    state = startState;
+    var position = start;
+    while (position < end) {
+      if (state == BLOCK_COMMENT) {
+        var close = findClosing("*/", position, end, false);
+        state = close < 0 ? BLOCK_COMMENT : CODE;
+        position = addToken(position, close < 0 ? end : close, TokenType.COMMENT);
+      } else if (state >= MULTILINE_STRING) {
+        var delimiter = syntax.multilineStringDelimiters().get(state - MULTILINE_STRING);
+        var close = findClosing(delimiter, position, end, true);
+        state = close < 0 ? state : CODE;
+        position = addToken(position, close < 0 ? end : close, TokenType.STRING);
+      } else {
+        position = tokenizeCode(position, end);
+      }
+    }
+
+    return new Line(
+        start, end, end < text.length(), state, Arrays.copyOf(tokenBuffer, tokenBufferSize));
+  }
+
+  /**
+   * Tokenizes the code at the given position, opening a multiline token changes the lexer state.
+   *
+   * @return the position after the token, or after the character if it starts no token
+   */
+  private int tokenizeCode(final int position, final int end) {
+    if (startsWith(syntax.lineComment(), position)) {
+      return addToken(position, end, TokenType.COMMENT);
+    }
+    if (syntax.blockComments() && startsWith("/*", position)) {
+      var close = findClosing("*/", position + 2, end, false);
+      state = close < 0 ? BLOCK_COMMENT : CODE;
+      return addToken(position, close < 0 ? end : close, TokenType.COMMENT);
+    }
+
+    var delimiters = syntax.multilineStringDelimiters();
+    for (var i = 0; i < delimiters.size(); i++) {
+      var delimiter = delimiters.get(i);
+      if (startsWith(delimiter, position)) {
+        var close = findClosing(delimiter, position + delimiter.length(), end, true);
+        state = close < 0 ? MULTILINE_STRING + i : CODE;
+        return addToken(position, close < 0 ? end : close, TokenType.STRING);
+      }
+    }
+
+    var c = text.charAt(position);
+    if (syntax.quotes().indexOf(c) >= 0) {
+      // Unterminated literals end with the line
+      var close = findClosing(String.valueOf(c), position + 1, end, true);
+      return addToken(position, close < 0 ? end : close, TokenType.STRING);
+    }
+    if (Character.isDigit(c)) {
+      var tokenEnd = position + 1;
+      while (tokenEnd < end && isNumberPart(text.charAt(tokenEnd))) {
+        tokenEnd++;
+      }
+      return addToken(position, tokenEnd, TokenType.NUMBER);
+    }
+    if (Character.isJavaIdentifierStart(c)) {
+      // Identifiers are skipped as a whole, so digits within them are no numbers
+      var tokenEnd = position + 1;
+      while (tokenEnd < end && Character.isJavaIdentifierPart(text.charAt(tokenEnd))) {
+        tokenEnd++;
+      }
+      if (syntax.keywords().contains(text.substring(position, tokenEnd))) {
+        addToken(position, tokenEnd, TokenType.KEYWORD);
+      }
+      return tokenEnd;
+    }
+    return position + 1;
+  }
+
+  private boolean startsWith(final String prefix, final int position) {
+    if (position + prefix.length() > text.length()) {
+      return false;
+    }
+    for (var i = 0; i < prefix.length(); i++) {
+      if (text.charAt(position + i) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isNumberPart(final char c) {
+    return Character.isLetterOrDigit(c) || c == '.' || c == '_';
+  }
+
+  // Returns the position after the closing delimiter, or -1 if the line does not contain it
+  private int findClosing(
+      final String delimiter, final int from, final int end, final boolean escapes) {
+    for (var i = from; i + delimiter.length() <= end; i++) {
+      if (escapes && text.charAt(i) == '\\') {
+        i++;
+      } else if (startsWith(delimiter, i)) {
+        return i + delimiter.length();
+      }
+    }
+    return -1;
+  }
+
+  private int addToken(final int start, final int end, final TokenType type) {
+    if (tokenBufferSize + 3 > tokenBuffer.length) {
+      tokenBuffer = Arrays.copyOf(tokenBuffer, tokenBuffer.length * 2);
+    }
+    tokenBuffer[tokenBufferSize++] = start;
+    tokenBuffer[tokenBufferSize++] = end;
+    tokenBuffer[tokenBufferSize++] = type.ordinal();
+    return end;
+  }
+}
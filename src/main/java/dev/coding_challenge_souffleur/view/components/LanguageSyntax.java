@@ -0,0 +1,106 @@
+package dev.coding_challenge_souffleur.view.components;
+
+import dev.coding_challenge_souffleur.model.CodingLanguage;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lexical rules of a {@link CodingLanguage} used for syntax highlighting. Only the rules needed to
+ * tell keywords, literals and comments apart are modelled, not the full grammar.
+ *
+ * @param keywords the reserved words and literal keywords, e.g. {@code true}
+ * @param lineComment the prefix starting a comment that ends with the line
+ * @param blockComments whether C style block comments are supported
+ * @param multilineStringDelimiters delimiters of strings that may span lines, e.g. {@code """}
+ * @param quotes the characters delimiting single line string and character literals
+ */
+record LanguageSyntax(
+    Set<String> keywords,
+    String lineComment,
+    boolean blockComments,
+    List<String> multilineStringDelimiters,
+    String quotes) {
+
+  private static final Map<CodingLanguage, LanguageSyntax> SYNTAXES =
+      new EnumMap<>(CodingLanguage.class);
+
+  static {
+    SYNTAXES.put(
+        CodingLanguage.JAVA,
+        new LanguageSyntax(
+            Set.of(
+                "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class",
+                "const", "continue", "default", "do", "double", "else", "enum", "extends", "false",
+                "final", "finally", "float", "for", "goto", "if", "implements", "import",
+                "instanceof", "int", "interface", "long", "native", "new", "null", "package",
+                "private", "protected", "public", "record", "return", "sealed", "short", "static",
+                "strictfp", "super", "switch", "synchronized", "this", "throw", "throws",
+                "transient", "true", "try", "var", "void", "volatile", "while", "yield"),
+            "//",
+            true,
+            List.of("\"\"\""),
+            "\"'"));
+    SYNTAXES.put(
+        CodingLanguage.PYTHON,
+        new LanguageSyntax(
+            Set.of(
+                "False", "None", "True", "and", "as", "assert", "async", "await", "break", "class",
+                "continue", "def", "del", "elif", "else", "except", "finally", "for", "from",
+                "global", "if", "import", "in", "is", "lambda", "nonlocal", "not", "or", "pass",
+                "raise", "return", "self", "try", "while", "with", "yield"),
+            "#",
+            false,
+            List.of("\"\"\"", "'''"),
+            "\"'"));
+    SYNTAXES.put(
+        CodingLanguage.CSHARP,
+        new LanguageSyntax(
+            Set.of(
+                "abstract", "as", "base", "bool", "break", "byte", "case", "catch", "char",
+                "checked", "class", "const", "continue", "decimal", "default", "delegate", "do",
+                "double", "else", "enum", "event", "explicit", "extern", "false", "finally",
+                "fixed", "float", "for", "foreach", "get", "goto", "if", "implicit", "in", "int",
+                "interface", "internal", "is", "lock", "long", "namespace", "new", "null",
+                "object", "operator", "out", "override", "params", "private", "protected",
+                "public", "readonly", "record", "ref", "return", "sbyte", "sealed", "set", "short",
+                "sizeof", "stackalloc", "static", "string", "struct", "switch", "this", "throw",
+                "true", "try", "typeof", "uint", "ulong", "unchecked", "unsafe", "ushort", "using",
+                "var", "virtual", "void", "volatile", "while", "yield"),
+            "//",
+            true,
+            List.of(),
+            "\"'"));
+    SYNTAXES.put(
+        CodingLanguage.JAVASCRIPT,
+        new LanguageSyntax(
+            Set.of(
+                "async", "await", "break", "case", "catch", "class", "const", "continue",
+                "debugger", "default", "delete", "do", "else", "export", "extends", "false",
+                "finally", "for", "function", "if", "import", "in", "instanceof", "let", "new",
+                "null", "of", "return", "static", "super", "switch", "this", "throw", "true",
+                "try", "typeof", "undefined", "var", "void", "while", "with", "yield"),
+            "//",
+            true,
+            List.of("`"),
+            "\"'"));
+    SYNTAXES.put(
+        CodingLanguage.GOLANG,
+        new LanguageSyntax(
+            Set.of(
+                "break", "case", "chan", "const", "continue", "default", "defer", "else",
+                "fallthrough", "false", "for", "func", "go", "goto", "if", "import", "interface",
+                "iota", "map", "nil", "package", "range", "return", "select", "struct", "switch",
+                "true", "type", "var"),
+            "//",
+            true,
+            List.of("`"),
+            "\"'"));
+  }
+
+  /** Returns the syntax of the given language. */
+  static LanguageSyntax of(final CodingLanguage language) {
+    return SYNTAXES.get(language);
+  }
+}
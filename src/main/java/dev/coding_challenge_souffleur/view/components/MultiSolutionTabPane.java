@@ -1,6 +1,8 @@
 package dev.coding_challenge_souffleur.view.components;
 
-import dev.coding_challenge_souffleur.model.MultiSolutionResult;
+import dev.coding_challenge_souffleur.model.CodingLanguage;
+import dev.coding_challenge_souffleur.model.SectionEvent;
+import java.util.List;
 import javafx.scene.control.TabPane;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,42 +16,61 @@ public class MultiSolutionTabPane extends TabPane {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MultiSolutionTabPane.class);
 
+  private CodingLanguage codingLanguage;
+
   public MultiSolutionTabPane() {
     this.getStyleClass().add("solution-tabs");
     this.setId("solutionTabPane");
   }
 
   /**
-   * Displays the given MultiSolutionResult by incrementally updating solution tabs. This method
-   * preserves existing tabs and only updates their content, preventing flickering and maintaining
-   * user's tab selection state during streaming updates.
+   * Applies streamed section events to the solution tabs. Only the sections named by the events
+   * are touched; events of the shared problem statement are ignored.
    *
-   * @param multiSolutionResult the multi-solution multiSolutionResult to display
+   * @param events the section events in stream order
    */
-  public void displayResult(final MultiSolutionResult multiSolutionResult) {
-    LOGGER.trace("Displaying multi-solution multiSolutionResult in TabPane...");
+  public void applySectionEvents(final List<SectionEvent> events) {
+    var updated = false;
+    for (final var event : events) {
+      if (event.isShared()) {
+        continue;
+      }
 
-    var solutionCount = Math.max(1, multiSolutionResult.getSolutionCount());
-    for (var i = 0; i < solutionCount; i++) {
-      LOGGER.trace("Updating tab content for solution {}", i + 1);
+      getOrCreateTabContent(event.solutionIndex()).applySectionEvent(event);
+      updated = true;
+    }
 
-      final var optionalSolution = multiSolutionResult.getSolution(i);
-      if (optionalSolution.isEmpty()) {
-        return;
-      }
-      var solution = optionalSolution.get();
+    if (updated) {
+      requestFullLayout();
+    }
+  }
+
+  /** Removes the tabs of the previous analysis, before the events of a new one are applied. */
+  public void clearSolutions() {
+    LOGGER.trace("Clearing solution tabs for a new analysis");
+    this.getTabs().clear();
+  }
 
-      var tabContent = getOrCreateTabContent(i);
-      tabContent.displaySolution(solution, i);
+  /**
+   * Sets the language used to highlight the solution code of all current and future tabs.
+   *
+   * @param codingLanguage the language of the solution code
+   */
+  public void setCodingLanguage(final CodingLanguage codingLanguage) {
+    this.codingLanguage = codingLanguage;
+    for (final var tab : this.getTabs()) {
+      ((SolutionTabContent) tab.getContent()).setCodingLanguage(codingLanguage);
+    }
+  }
 
-      // Force layout pass to trigger window resize for content changes
-      this.requestLayout();
+  private void requestFullLayout() {
+    // Force layout pass to trigger window resize for content changes
+    this.requestLayout();
 
-      // Also request layout on the scene root to ensure full layout recalculation
-      var scene = this.getScene();
-      if (scene != null && scene.getRoot() != null) {
-        scene.getRoot().requestLayout();
-      }
+    // Also request layout on the scene root to ensure full layout recalculation
+    var scene = this.getScene();
+    if (scene != null && scene.getRoot() != null) {
+      scene.getRoot().requestLayout();
     }
   }
 
@@ -57,6 +78,7 @@ public class MultiSolutionTabPane extends TabPane {
     SolutionTabContent tabContent;
     if (i >= this.getTabs().size()) {
       tabContent = new SolutionTabContent();
+      tabContent.setCodingLanguage(codingLanguage);
       var tab = tabContent.getTab();
       this.getTabs().add(tab);
       LOGGER.trace("Adding new tab for solution {}", i + 1);
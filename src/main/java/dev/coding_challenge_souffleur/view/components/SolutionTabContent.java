@@ -1,6 +1,7 @@
 package dev.coding_challenge_souffleur.view.components;
 
-import dev.coding_challenge_souffleur.model.StreamingAnalysisResult;
+import dev.coding_challenge_souffleur.model.CodingLanguage;
+import dev.coding_challenge_souffleur.model.SectionEvent;
 import java.io.IOException;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -9,14 +10,15 @@ import javafx.scene.control.Tab;
 
 /**
  * Reusable UI component for displaying a single solution tab's content. Built with the Custom
- * Component + FXML pattern for clearer separation of structure and behavior. Enhanced to handle
- * domain Solution objects directly.
+ * Component + FXML pattern for clearer separation of structure and behavior. Applies the streamed
+ * section events of its solution.
  */
 public class SolutionTabContent extends ScrollPane {
 
   private static final String SOLUTION_TAB_FXML = "SolutionTabContent.fxml";
 
   private final Tab tab;
+  private String solutionTitle;
 
   @FXML private VirtualizedTextDisplay solutionDescriptionFlow;
   @FXML private VirtualizedTextDisplay edgeCasesFlow;
@@ -40,31 +42,57 @@ public class SolutionTabContent extends ScrollPane {
   }
 
   /**
-   * Displays a solution using an existing tab (for updates) or creates a new tab (for initial
-   * display). This unified method handles both creation and incremental updates elegantly.
+   * Applies a streamed section event of this solution, only touching the section it refers to.
+   * Content streamed before the solution title belongs to the same solution and is kept.
    *
-   * @param solution the solution to display
-   * @param solutionIndex the 0-based index of this solution
+   * @param event the section event of the solution shown in this tab
    */
-  void displaySolution(final StreamingAnalysisResult solution, final int solutionIndex) {
-    updateTabTitle(solution, solutionIndex);
+  void applySectionEvent(final SectionEvent event) {
+    if (event instanceof SectionEvent.SectionStarted) {
+      updateTabTitle(event.solutionIndex());
+      return;
+    }
+
+    if (!(event instanceof SectionEvent.SectionAppended appended)) {
+      return;
+    }
 
-    solutionDescriptionFlow.setFormattedContent(solution.getSolutionDescription());
-    edgeCasesFlow.setFormattedContent(solution.getEdgeCases());
-    solutionCodeFlow.setFormattedCodeContent(solution.getSolutionCode());
-    timeComplexityFlow.setFormattedContent(solution.getTimeComplexity());
-    spaceComplexityFlow.setFormattedContent(solution.getSpaceComplexity());
+    var offset = appended.offset();
+    var text = appended.text();
+    switch (appended.section()) {
+      case SOLUTION_TITLE -> {
+        solutionTitle = appended.applyTo(solutionTitle);
+        updateTabTitle(appended.solutionIndex());
+      }
+      case SOLUTION_DESCRIPTION -> solutionDescriptionFlow.appendFormattedContent(offset, text);
+      case EDGE_CASES -> edgeCasesFlow.appendFormattedContent(offset, text);
+      case SOLUTION_CODE -> solutionCodeFlow.appendFormattedCodeContent(offset, text);
+      case TIME_COMPLEXITY -> timeComplexityFlow.appendFormattedContent(offset, text);
+      case SPACE_COMPLEXITY -> spaceComplexityFlow.appendFormattedContent(offset, text);
+      case PROBLEM_STATEMENT -> {
+        // The problem statement is displayed outside the solution tabs
+      }
+    }
+  }
+
+  /**
+   * Sets the language used to highlight the solution code.
+   *
+   * @param codingLanguage the language of the solution code
+   */
+  void setCodingLanguage(final CodingLanguage codingLanguage) {
+    solutionCodeFlow.setCodingLanguage(codingLanguage);
   }
 
   Tab getTab() {
     return this.tab;
   }
 
-  private void updateTabTitle(final StreamingAnalysisResult solution, final int solutionIndex) {
+  private void updateTabTitle(final int solutionIndex) {
     // Set tab title from solution title or default
     var newTabTitle = "(" + (solutionIndex + 1) + ") Solution";
-    if (solution.getSolutionTitle() != null) {
-      newTabTitle = "(" + (solutionIndex + 1) + ") " + solution.getSolutionTitle();
+    if (solutionTitle != null) {
+      newTabTitle = "(" + (solutionIndex + 1) + ") " + solutionTitle;
     }
 
     // Only update the title if it would change
@@ -0,0 +1,144 @@
+package dev.coding_challenge_souffleur.view.components;
+
+import dev.coding_challenge_souffleur.model.CodingLanguage;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+import org.fxmisc.richtext.CodeArea;
+import org.fxmisc.richtext.model.StyleSpans;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Highlights the syntax of a {@link CodeArea} in the background. The code is tokenized on a shared
+ * highlighting thread and the style spans are applied on the JavaFX application thread, so
+ * highlighting never blocks rendering. A new update cancels the pending highlighting job, and each
+ * job only restyles the lines that changed since the previously applied spans. Updates pass only
+ * the replaced text, which the jobs apply in order to their copy of the code.
+ *
+ * <p>{@link #highlight(CodingLanguage, int, String)} must be called on the JavaFX application
+ * thread.
+ */
+final class SyntaxHighlighter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SyntaxHighlighter.class);
+  private static final ExecutorService HIGHLIGHTING_EXECUTOR =
+      Executors.newSingleThreadExecutor(
+          Thread.ofPlatform().name("syntax-highlighting").daemon().factory());
+
+  private final CodeArea codeArea;
+  private final ExecutorService executor;
+  private final Consumer<Runnable> runLater;
+
+  // Written on the JavaFX thread, read by jobs to detect that they are stale
+  private volatile long generation;
+  // Added on the JavaFX thread, applied by the next job, also those of cancelled jobs
+  private final Queue<Edit> pendingEdits = new ConcurrentLinkedQueue<>();
+
+  // Only accessed on the JavaFX thread
+  private Future<?> pendingJob;
+  private int unstyledFrom = Integer.MAX_VALUE;
+
+  // Only accessed by highlighting jobs, which run one at a time
+  private CodeTokenizer tokenizer;
+  private CodingLanguage tokenizerLanguage;
+  private int appliedLineCount;
+
+  /** Text replaced in the code area, from the start to the end of the text. */
+  private record Edit(int start, String replacement) {}
+
+  SyntaxHighlighter(final CodeArea codeArea) {
+    this(codeArea, HIGHLIGHTING_EXECUTOR, Platform::runLater);
+  }
+
+  SyntaxHighlighter(
+      final CodeArea codeArea, final ExecutorService executor, final Consumer<Runnable> runLater) {
+    this.codeArea = codeArea;
+    this.executor = executor;
+    this.runLater = runLater;
+  }
+
+  /**
+   * Highlights the text of the code area in the background and cancels the pending highlighting.
+   *
+   * @param language the language of the code
+   * @param changedFrom the start of the text replaced since the last call, which lost its styles
+   * @param replacement the text of the code area from the start of the change to its end
+   */
+  void highlight(final CodingLanguage language, final int changedFrom, final String replacement) {
+    pendingEdits.add(new Edit(changedFrom, replacement));
+    unstyledFrom = Math.min(unstyledFrom, changedFrom);
+    var jobGeneration = ++generation;
+    if (pendingJob != null) {
+      pendingJob.cancel(false);
+    }
+
+    var restyleFrom = unstyledFrom;
+    pendingJob =
+        executor.submit(() -> computeStyleSpans(language, restyleFrom, jobGeneration));
+  }
+
+  private void computeStyleSpans(
+      final CodingLanguage language, final int restyleFrom, final long jobGeneration) {
+    try {
+      if (language != tokenizerLanguage) {
+        var previous = tokenizer;
+        tokenizer = new CodeTokenizer(LanguageSyntax.of(language));
+        tokenizerLanguage = language;
+        appliedLineCount = 0;
+        if (previous != null) {
+          tokenizer.replaceFrom(0, previous.text());
+        }
+      }
+
+      // Only lines after the last stable line are tokenized again
+      for (var edit = pendingEdits.poll(); edit != null; edit = pendingEdits.poll()) {
+        var firstChangedLine = tokenizer.replaceFrom(edit.start(), edit.replacement());
+        appliedLineCount = Math.min(appliedLineCount, firstChangedLine);
+      }
+      tokenizer.tokenize(() -> generation != jobGeneration);
+
+      var fromLine = appliedLineCount;
+      if (restyleFrom < Integer.MAX_VALUE) {
+        fromLine = Math.min(fromLine, tokenizer.lineAt(restyleFrom));
+      }
+      if (fromLine >= tokenizer.lineCount()) {
+        return;
+      }
+
+      var from = tokenizer.lineStart(fromLine);
+      var styleSpans = tokenizer.styleSpans(fromLine);
+      appliedLineCount = tokenizer.lineCount();
+      runLater.accept(() -> applyStyleSpans(from, styleSpans, jobGeneration));
+    } catch (final CancellationException e) {
+      LOGGER.trace("Stale highlighting job: {}", e.getMessage());
+    } catch (final RuntimeException e) {
+      LOGGER.warn("Error highlighting {} code", language, e);
+    }
+  }
+
+  private void applyStyleSpans(
+      final int from, final StyleSpans<Collection<String>> styleSpans, final long jobGeneration) {
+    if (jobGeneration == generation) {
+      // The spans cover all text replaced until the job was started
+      unstyledFrom = Integer.MAX_VALUE;
+    }
+
+    // Spans of an older job are applied as well, newer jobs restyle where the text changed since
+    var length = codeArea.getLength();
+    if (from >= length) {
+      return;
+    }
+    if (styleSpans.length() > length - from) {
+      codeArea.setStyleSpans(from, styleSpans.subView(0, length - from));
+    } else {
+      codeArea.setStyleSpans(from, styleSpans);
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package dev.coding_challenge_souffleur.view.components;
 
+import dev.coding_challenge_souffleur.model.CodingLanguage;
 import javafx.scene.layout.StackPane;
+import org.apache.commons.lang3.StringUtils;
 import org.fxmisc.richtext.CodeArea;
 import org.fxmisc.richtext.LineNumberFactory;
 
@@ -8,6 +10,12 @@ import org.fxmisc.richtext.LineNumberFactory;
  * A memory-efficient text display component using RichTextFX's virtualized rendering. This
  * component replaces FormattedTextFlow's node-per-line approach with virtualized scrolling, which
  * only renders visible lines in the viewport.
+ *
+ * <p>Updates only patch the changed tail of the document: streamed content mostly grows at its
+ * end, and replacing the whole text would rebuild all paragraphs on every update.
+ *
+ * <p>Code is syntax highlighted in the background once its {@link
+ * #setCodingLanguage(CodingLanguage) language} is set.
  */
 public class VirtualizedTextDisplay extends StackPane {
 
@@ -15,12 +23,20 @@ public class VirtualizedTextDisplay extends StackPane {
   private static final String TEXT_STYLE_CLASS = "text-content";
 
   private final CodeArea codeArea;
+  private final SyntaxHighlighter syntaxHighlighter;
+  // Mirrors the text of the read-only code area to find changes without copying the document
+  private final StringBuilder displayedText = new StringBuilder();
   private boolean isCodeMode = false;
+  private int displayedParagraphCount = -1;
+  private CodingLanguage codingLanguage;
 
   public VirtualizedTextDisplay() {
     this.codeArea = new CodeArea();
     this.codeArea.setEditable(false);
     this.codeArea.setWrapText(true); // Enable wrapping by default for text sections
+    // Inserted text stays unstyled until it is highlighted, instead of continuing a keyword style
+    this.codeArea.setUseInitialStyleForInsertion(true);
+    this.syntaxHighlighter = new SyntaxHighlighter(codeArea);
 
     // Apply default text styling
     this.codeArea.getStyleClass().add(TEXT_STYLE_CLASS);
@@ -46,6 +62,41 @@ public class VirtualizedTextDisplay extends StackPane {
     setContentInternal(content, true);
   }
 
+  /**
+   * Places streamed text at the given offset, replacing any content shown at or after it. Only the
+   * new text is inserted, so long content is not replaced on every streamed delta.
+   *
+   * @param offset the position of the text within the content
+   * @param text The text to display at the offset
+   */
+  public void appendFormattedContent(final int offset, final String text) {
+    appendContentInternal(offset, text, false);
+  }
+
+  /**
+   * Places streamed code at the given offset, replacing any content shown at or after it.
+   *
+   * @param offset the position of the code within the content
+   * @param text The code to display at the offset
+   */
+  public void appendFormattedCodeContent(final int offset, final String text) {
+    appendContentInternal(offset, text, true);
+  }
+
+  /**
+   * Sets the language used to highlight code content and highlights the displayed code again.
+   *
+   * @param codingLanguage the language of the code content
+   */
+  public void setCodingLanguage(final CodingLanguage codingLanguage) {
+    if (codingLanguage == this.codingLanguage) {
+      return;
+    }
+
+    this.codingLanguage = codingLanguage;
+    highlightCode(0);
+  }
+
   /**
    * Displays problem statement content with appropriate formatting. This method provides a specific
    * interface for problem statement display.
@@ -64,25 +115,63 @@ public class VirtualizedTextDisplay extends StackPane {
     // Handle null/empty content
     if (content == null || content.isEmpty()) {
       codeArea.clear();
+      displayedText.setLength(0);
       return;
     }
 
-    // Update content
-    codeArea.replaceText(content);
+    // Only the text after the common prefix is replaced
+    var differenceIndex = StringUtils.indexOfDifference(displayedText, content);
+    var start = differenceIndex < 0 ? content.length() : differenceIndex;
+    replaceTail(start, content.substring(start), isCode);
+  }
+
+  private void appendContentInternal(final int offset, final String text, final boolean isCode) {
+    replaceTail(Math.min(offset, displayedText.length()), text, isCode);
+  }
+
+  private void replaceTail(final int start, final String tail, final boolean isCode) {
+    var length = displayedText.length();
+    if (start < length || !tail.isEmpty()) {
+      // Keep the scroll position, the caret of the read-only area must not drag the viewport
+      var scrollY = codeArea.estimatedScrollYProperty().getValue();
+      if (start == length) {
+        codeArea.appendText(tail);
+      } else {
+        codeArea.replaceText(start, length, tail);
+      }
+      codeArea.estimatedScrollYProperty().setValue(scrollY);
+
+      displayedText.setLength(start);
+      displayedText.append(tail);
+      highlightCode(start);
+    }
 
     // Update styling and line numbers based on mode
     if (isCode != isCodeMode) {
       isCodeMode = isCode;
       updateStyling();
+      highlightCode(0);
     }
 
     // Resize CodeArea to fit all content
     resizeToFitContent();
   }
 
+  private void highlightCode(final int changedFrom) {
+    if (isCodeMode && codingLanguage != null && !displayedText.isEmpty()) {
+      // Only the changed text is copied, mostly the streamed delta
+      syntaxHighlighter.highlight(
+          codingLanguage, changedFrom, displayedText.substring(changedFrom));
+    }
+  }
+
   private void resizeToFitContent() {
-    // Calculate height needed to show all paragraphs (lines)
+    // Calculate height needed to show all paragraphs (lines), which only changes with new lines
     var paragraphCount = codeArea.getParagraphs().size();
+    if (paragraphCount == displayedParagraphCount) {
+      return;
+    }
+    displayedParagraphCount = paragraphCount;
 
     // More accurate line height based on CSS font-size: 13px
     // Actual rendered height is closer to font-size + minimal spacing
@@ -35,6 +35,10 @@ enum KeyCommand {
       ConfigurationKeys.APP_KEYBOARD_KEY_RUN_ANALYSIS,
       deps -> deps.viewController().executeMultiSolutionAnalysis()),
 
+  RUN_FRESH_ANALYSIS(
+      ConfigurationKeys.APP_KEYBOARD_KEY_RUN_FRESH_ANALYSIS,
+      deps -> deps.viewController().executeFreshMultiSolutionAnalysis()),
+
   RUN_MOCK_ANALYSIS(
       ConfigurationKeys.APP_KEYBOARD_KEY_RUN_MOCK_ANALYSIS,
       deps -> deps.viewController().executeMultiSolutionMockAnalysis()),
@@ -0,0 +1,129 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class AnalysisCoordinatorTest {
+
+  private static AnalysisResultCache.Key createKey(final long word) {
+    var words = new long[PerceptualHash.WORDS];
+    words[0] = word;
+    return new AnalysisResultCache.Key(PerceptualHash.ofWords(words), CodingLanguage.JAVA, 1);
+  }
+
+  @Test
+  void run_ShouldAttachRepeatedRequestToRunningAnalysis() {
+    // Given
+    var coordinator = new AnalysisCoordinator();
+    var starts = new AtomicInteger();
+    var pending = new CompletableFuture<MultiSolutionResult>();
+    var first =
+        coordinator.run(
+            createKey(1),
+            cancellation -> {
+              starts.incrementAndGet();
+              return pending;
+            });
+
+    // When
+    var repeated =
+        coordinator.run(
+            createKey(1),
+            cancellation -> {
+              starts.incrementAndGet();
+              return new CompletableFuture<>();
+            });
+
+    // Then
+    assertEquals(1, starts.get());
+    var result = new MultiSolutionResult();
+    pending.complete(result);
+    assertSame(result, first.join());
+    assertSame(result, repeated.join());
+  }
+
+  @Test
+  void run_ShouldCancelSupersededAnalysis() {
+    // Given a running analysis with an open stream
+    var coordinator = new AnalysisCoordinator();
+    var streamClosed = new AtomicBoolean();
+    var cancellation = new AtomicReference<AnalysisCoordinator.Cancellation>();
+    var receivedEvents = new AtomicInteger();
+    var superseded =
+        coordinator.run(
+            createKey(1),
+            started -> {
+              cancellation.set(started);
+              started.register(() -> streamClosed.set(true));
+              return new CompletableFuture<>();
+            });
+    var listener = cancellation.get().guard((events, result) -> receivedEvents.incrementAndGet());
+
+    // When another screenshot is analysed
+    coordinator.run(createKey(2), started -> new CompletableFuture<>());
+
+    // Then
+    assertThrows(CancellationException.class, superseded::join);
+    assertTrue(streamClosed.get());
+    assertTrue(cancellation.get().isCancelled());
+    assertThrows(CancellationException.class, cancellation.get()::throwIfCancelled);
+    listener.onSectionEvents(List.of(), new MultiSolutionResult());
+    assertEquals(0, receivedEvents.get());
+  }
+
+  @Test
+  void run_ShouldCloseStreamRegisteredAfterCancellation() {
+    // Given a cancelled analysis, which did not open its stream yet
+    var coordinator = new AnalysisCoordinator();
+    var cancellation = new AtomicReference<AnalysisCoordinator.Cancellation>();
+    coordinator.run(
+        createKey(1),
+        started -> {
+          cancellation.set(started);
+          return new CompletableFuture<>();
+        });
+    coordinator.run(createKey(2), started -> new CompletableFuture<>());
+
+    // When
+    var streamClosed = new AtomicBoolean();
+    cancellation.get().register(() -> streamClosed.set(true));
+
+    // Then
+    assertTrue(streamClosed.get());
+  }
+
+  @Test
+  void run_ShouldStartAgainAfterCompletion() {
+    // Given
+    var coordinator = new AnalysisCoordinator();
+    var starts = new AtomicInteger();
+    coordinator
+        .run(
+            createKey(1),
+            cancellation -> {
+              starts.incrementAndGet();
+              return CompletableFuture.completedFuture(new MultiSolutionResult());
+            })
+        .join();
+
+    // When
+    coordinator
+        .run(
+            createKey(1),
+            cancellation -> {
+              starts.incrementAndGet();
+              return CompletableFuture.completedFuture(new MultiSolutionResult());
+            })
+        .join();
+
+    // Then
+    assertEquals(2, starts.get());
+  }
+}
@@ -0,0 +1,200 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class AnalysisExecutorTest {
+
+  private static final long TIMEOUT_MILLIS = 5000;
+
+  private AnalysisExecutor executor;
+
+  private AnalysisExecutor start(final boolean virtualThreads, final int maxConcurrency) {
+    executor = new AnalysisExecutor(virtualThreads, maxConcurrency);
+    executor.start();
+    return executor;
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  // Starts a task taking a thread and a permit until released, also while shutting down
+  private static void occupy(final AnalysisExecutor busyExecutor, final CountDownLatch release)
+      throws InterruptedException {
+    var started = new CountDownLatch(1);
+    busyExecutor.runAsync(
+        "task",
+        () -> {
+          started.countDown();
+          while (release.getCount() > 0) {
+            try {
+              release.await();
+            } catch (final InterruptedException e) {
+              // Keeps the permit until released
+            }
+          }
+        });
+    assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void supplyAsync_ShouldNameThreadAfterStage() {
+    // Given
+    var virtualExecutor = start(true, 2);
+
+    // When
+    var thread =
+        virtualExecutor
+            .supplyAsync(
+                "api-stream",
+                () -> {
+                  var current = Thread.currentThread();
+                  return current.isVirtual() + " " + current.getName();
+                })
+            .join();
+
+    // Then
+    assertTrue(thread.startsWith("true analysis-"), thread);
+    assertTrue(thread.endsWith(":api-stream"), thread);
+  }
+
+  @Test
+  void supplyAsync_ShouldRunOnPlatformThreadsIfConfigured() {
+    // Given
+    var platformExecutor = start(false, 2);
+
+    // When
+    var virtual =
+        platformExecutor.supplyAsync("task", () -> Thread.currentThread().isVirtual()).join();
+
+    // Then
+    assertFalse(virtual);
+  }
+
+  @Test
+  void runAsync_ShouldBoundConcurrentTasks() throws InterruptedException {
+    // Given
+    var boundedExecutor = start(true, 2);
+    var running = new AtomicInteger();
+    var maxRunning = new AtomicInteger();
+    var release = new CountDownLatch(1);
+    var finished = new CountDownLatch(5);
+
+    // When
+    for (var i = 0; i < 5; i++) {
+      boundedExecutor.runAsync(
+          "task",
+          () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+              release.await();
+            } catch (final InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            finished.countDown();
+          });
+    }
+
+    // Then
+    await().atMost(Duration.ofMillis(TIMEOUT_MILLIS)).until(() -> running.get() == 2);
+    release.countDown();
+    assertTrue(finished.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    assertEquals(2, maxRunning.get());
+  }
+
+  @Test
+  void shutdown_ShouldInterruptRunningTasks() throws InterruptedException {
+    // Given
+    var runningExecutor = start(true, 1);
+    var started = new CountDownLatch(1);
+    var interrupted = new AtomicBoolean();
+    runningExecutor.runAsync(
+        "task",
+        () -> {
+          started.countDown();
+          try {
+            TimeUnit.MILLISECONDS.sleep(TIMEOUT_MILLIS);
+          } catch (final InterruptedException e) {
+            interrupted.set(true);
+          }
+        });
+    assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+    // When
+    runningExecutor.shutdown();
+
+    // Then
+    assertTrue(interrupted.get());
+  }
+
+  @Test
+  void supplyAsync_ShouldFailTaskWaitingForPermitOnShutdown() throws InterruptedException {
+    // Given a task holding the only permit
+    var busyExecutor = start(true, 1);
+    var release = new CountDownLatch(1);
+    occupy(busyExecutor, release);
+    var waiting = busyExecutor.supplyAsync("mock-stream", () -> "result");
+
+    // When
+    var shutdown = CompletableFuture.runAsync(busyExecutor::shutdown);
+
+    // Then
+    var error = assertThrows(CompletionException.class, waiting::join);
+    assertInstanceOf(InterruptedException.class, error.getCause());
+    release.countDown();
+    shutdown.join();
+  }
+
+  @Test
+  void supplyAsync_ShouldFailTaskQueuedForPlatformThreadOnShutdown() throws InterruptedException {
+    // Given a task taking the only platform thread
+    var busyExecutor = start(false, 1);
+    var release = new CountDownLatch(1);
+    occupy(busyExecutor, release);
+    var queued = busyExecutor.supplyAsync("api-stream", () -> "result");
+
+    // When
+    var shutdown = CompletableFuture.runAsync(busyExecutor::shutdown);
+
+    // Then
+    var error = assertThrows(CompletionException.class, queued::join);
+    assertInstanceOf(RejectedExecutionException.class, error.getCause());
+    release.countDown();
+    shutdown.join();
+  }
+
+  @Test
+  void supplyAsync_ShouldFailTaskAfterShutdown() {
+    // Given
+    var stoppedExecutor = start(true, 1);
+    stoppedExecutor.shutdown();
+
+    // When
+    var rejected = stoppedExecutor.supplyAsync("stream-parse", () -> "result");
+
+    // Then
+    var error = assertThrows(CompletionException.class, rejected::join);
+    assertInstanceOf(RejectedExecutionException.class, error.getCause());
+  }
+
+  @Test
+  void constructor_ShouldRejectInvalidConcurrency() {
+    assertThrows(IllegalArgumentException.class, () -> new AnalysisExecutor(true, 0));
+  }
+}
@@ -0,0 +1,143 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import javafx.scene.image.Image;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AnalysisResultCacheTest {
+
+  private static final int PROMPT_VERSION = 1;
+  private static final String MODEL = "claude-sonnet-4-6";
+  private static final String RESPONSE_TEXT = "PROBLEM_STATEMENT: Problem";
+
+  @TempDir Path directory;
+
+  /** Creates an image of random pixels, differing in the given number of pixels per seed. */
+  private static Image createImage(final long seed, final int changedPixels) {
+    var image = TestImages.createNoiseImage(170, 160, seed);
+    var pixelWriter = image.getPixelWriter();
+    for (var i = 0; i < changedPixels; i++) {
+      pixelWriter.setArgb(i, 0, 0xFFFFFFFF);
+    }
+    return image;
+  }
+
+  private static AnalysisResultCache createCache(final int maxEntries) {
+    var store = new AnalysisStore(null, 2, 0);
+    store.open();
+    return new AnalysisResultCache(maxEntries, 12, store);
+  }
+
+  private static AnalysisResultCache.Key keyOf(final Image image, final CodingLanguage language) {
+    return new AnalysisResultCache.Key(PerceptualHash.of(image), language, PROMPT_VERSION);
+  }
+
+  private static MultiSolutionResult createCompleteResult() {
+    var solution =
+        new StreamingAnalysisResult()
+            .withSection(SolutionSection.SOLUTION_DESCRIPTION, "Description")
+            .withSection(SolutionSection.EDGE_CASES, "Edge cases")
+            .withSection(SolutionSection.SOLUTION_CODE, "Code")
+            .withSection(SolutionSection.TIME_COMPLEXITY, "O(n)")
+            .withSection(SolutionSection.SPACE_COMPLEXITY, "O(1)");
+    return new MultiSolutionResult().withSharedProblemStatement("Problem").withSolution(solution);
+  }
+
+  @Test
+  void get_ShouldReturnResultOfNearIdenticalScreenshot() {
+    // Given
+    var cache = createCache(4);
+    var result = createCompleteResult();
+    cache.put(keyOf(createImage(1, 0), CodingLanguage.JAVA), result, MODEL, RESPONSE_TEXT);
+
+    // Then
+    assertSame(result, cache.get(keyOf(createImage(1, 0), CodingLanguage.JAVA)).orElseThrow());
+    assertSame(result, cache.get(keyOf(createImage(1, 3), CodingLanguage.JAVA)).orElseThrow());
+    assertTrue(cache.get(keyOf(createImage(2, 0), CodingLanguage.JAVA)).isEmpty());
+  }
+
+  @Test
+  void get_ShouldMissForOtherLanguageOrPromptVersion() {
+    // Given
+    var cache = createCache(4);
+    var image = createImage(1, 0);
+    cache.put(keyOf(image, CodingLanguage.JAVA), createCompleteResult(), MODEL, RESPONSE_TEXT);
+
+    // Then
+    assertTrue(cache.get(keyOf(image, CodingLanguage.PYTHON)).isEmpty());
+    var otherPrompt =
+        new AnalysisResultCache.Key(PerceptualHash.of(image), CodingLanguage.JAVA, 2);
+    assertTrue(cache.get(otherPrompt).isEmpty());
+  }
+
+  @Test
+  void put_ShouldEvictLeastRecentlyUsedResult() {
+    // Given
+    var cache = createCache(2);
+    var first = keyOf(createImage(1, 0), CodingLanguage.JAVA);
+    var second = keyOf(createImage(2, 0), CodingLanguage.JAVA);
+    var third = keyOf(createImage(3, 0), CodingLanguage.JAVA);
+    cache.put(first, createCompleteResult(), MODEL, RESPONSE_TEXT);
+    cache.put(second, createCompleteResult(), MODEL, RESPONSE_TEXT);
+
+    // When the first is used, the second is the least recently used
+    cache.get(first);
+    cache.put(third, createCompleteResult(), MODEL, RESPONSE_TEXT);
+
+    // Then
+    assertTrue(cache.get(first).isPresent());
+    assertTrue(cache.get(second).isEmpty());
+    assertTrue(cache.get(third).isPresent());
+  }
+
+  @Test
+  void put_ShouldNotCacheIncompleteResults() {
+    // Given
+    var cache = createCache(4);
+    var key = keyOf(createImage(1, 0), CodingLanguage.JAVA);
+
+    // When
+    var incomplete = new MultiSolutionResult().withSharedProblemStatement("Problem");
+    cache.put(key, incomplete, MODEL, RESPONSE_TEXT);
+
+    // Then
+    assertTrue(cache.get(key).isEmpty());
+  }
+
+  @Test
+  void get_ShouldFallBackToStoreAfterRestart() {
+    // Given
+    var store = new AnalysisStore(directory, 8, 1024 * 1024);
+    store.open();
+    new AnalysisResultCache(4, 12, store)
+        .put(keyOf(createImage(1, 0), CodingLanguage.JAVA), createCompleteResult(), MODEL, "");
+    store.close();
+
+    // When
+    var reopenedStore = new AnalysisStore(directory, 8, 1024 * 1024);
+    reopenedStore.open();
+    var cache = new AnalysisResultCache(4, 12, reopenedStore);
+    var result = cache.get(keyOf(createImage(1, 0), CodingLanguage.JAVA));
+    reopenedStore.close();
+
+    // Then the stored result is cached
+    assertEquals("Code", result.orElseThrow().getSolution(0).orElseThrow().getSolutionCode());
+    assertSame(result.get(), cache.get(keyOf(createImage(1, 0), CodingLanguage.JAVA)).get());
+  }
+
+  @Test
+  void put_ShouldNotCacheWhenDisabled() {
+    // Given
+    var cache = createCache(0);
+    var key = keyOf(createImage(1, 0), CodingLanguage.JAVA);
+
+    // When
+    cache.put(key, createCompleteResult(), MODEL, RESPONSE_TEXT);
+
+    // Then
+    assertTrue(cache.get(key).isEmpty());
+  }
+}
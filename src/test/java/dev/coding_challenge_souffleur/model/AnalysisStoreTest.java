@@ -0,0 +1,211 @@
+package dev.coding_challenge_souffleur.model;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AnalysisStoreTest {
+
+  private static final String MODEL = "claude-sonnet-4-6";
+  private static final int MAX_DISTANCE = 12;
+
+  @TempDir Path directory;
+
+  /** Creates a key with a random screenshot hash, far from the hashes of other seeds. */
+  private static AnalysisResultCache.Key createKey(final long seed) {
+    var random = new Random(seed);
+    var words = new long[PerceptualHash.WORDS];
+    for (var i = 0; i < words.length; i++) {
+      words[i] = random.nextLong();
+    }
+    return new AnalysisResultCache.Key(PerceptualHash.ofWords(words), CodingLanguage.JAVA, 1);
+  }
+
+  private static MultiSolutionResult createResult(final String code) {
+    var solution =
+        new StreamingAnalysisResult()
+            .withSection(SolutionSection.SOLUTION_TITLE, "Title")
+            .withSection(SolutionSection.SOLUTION_CODE, code);
+    return new MultiSolutionResult().withSharedProblemStatement("Problem").withSolution(solution);
+  }
+
+  private static String findCode(final AnalysisStore store, final AnalysisResultCache.Key key) {
+    return store
+        .find(key, MAX_DISTANCE)
+        .map(result -> result.getSolution(0).orElseThrow().getSolutionCode())
+        .orElse(null);
+  }
+
+  private static List<String> codesOf(final List<MultiSolutionResult> results) {
+    return results.stream()
+        .map(result -> result.getSolution(0).orElseThrow().getSolutionCode())
+        .toList();
+  }
+
+  private AnalysisStore openStore(final int capacity, final long maxLogBytes) {
+    var store = new AnalysisStore(directory, capacity, maxLogBytes);
+    store.open();
+    return store;
+  }
+
+  @Test
+  void find_ShouldReturnStoredResultAfterReopen() throws IOException {
+    // Given
+    var store = openStore(8, 1024 * 1024);
+    store.append(createKey(1), MODEL, "Response ünïcode", createResult("first"));
+    store.append(createKey(2), MODEL, "Response", createResult("second"));
+    store.close();
+
+    // When
+    var reopened = openStore(8, 1024 * 1024);
+
+    // Then
+    var result = reopened.find(createKey(1), MAX_DISTANCE).orElseThrow();
+    assertEquals("Problem", result.getSharedProblemStatement().orElseThrow());
+    assertEquals("Title", result.getSolution(0).orElseThrow().getSolutionTitle());
+    assertEquals("first", result.getSolution(0).orElseThrow().getSolutionCode());
+    assertEquals("second", findCode(reopened, createKey(2)));
+    assertNull(findCode(reopened, createKey(3)));
+    // The raw response text is stored as UTF-8
+    var log = Files.readString(directory.resolve("analyses.log"), StandardCharsets.ISO_8859_1);
+    var responseBytes = "Response ünïcode".getBytes(StandardCharsets.UTF_8);
+    assertTrue(log.contains(new String(responseBytes, StandardCharsets.ISO_8859_1)));
+    reopened.close();
+  }
+
+  @Test
+  void findStoredBetween_ShouldReturnResultsOfPeriod() {
+    // Given records stored before and after a point in time
+    var store = openStore(8, 1024 * 1024);
+    store.append(createKey(1), MODEL, "Response", createResult("first"));
+    var afterFirst = System.currentTimeMillis();
+    while (System.currentTimeMillis() == afterFirst) {
+      Thread.onSpinWait();
+    }
+    var middle = Instant.now();
+    store.append(createKey(2), MODEL, "Response", createResult("second"));
+    store.append(createKey(3), MODEL, "Response", createResult("third"));
+    var end = Instant.now().plusSeconds(1);
+
+    // When
+    var before = store.findStoredBetween(Instant.EPOCH, middle);
+    var after = store.findStoredBetween(middle, end);
+
+    // Then
+    assertEquals(List.of("first"), codesOf(before));
+    assertEquals(List.of("second", "third"), codesOf(after));
+    assertTrue(store.findStoredBetween(end, end.plusSeconds(1)).isEmpty());
+    store.close();
+  }
+
+  @Test
+  void find_ShouldMissForOtherLanguage() {
+    // Given
+    var store = openStore(8, 1024 * 1024);
+    var key = createKey(1);
+    store.append(key, MODEL, "Response", createResult("code"));
+
+    // Then
+    var otherLanguage =
+        new AnalysisResultCache.Key(key.screenshotHash(), CodingLanguage.PYTHON, 1);
+    assertTrue(store.find(otherLanguage, MAX_DISTANCE).isEmpty());
+    store.close();
+  }
+
+  @Test
+  void open_ShouldRebuildMissingIndexFromLog() throws IOException {
+    // Given
+    var store = openStore(8, 1024 * 1024);
+    store.append(createKey(1), MODEL, "Response", createResult("first"));
+    store.close();
+    Files.delete(directory.resolve("analyses.idx"));
+
+    // When
+    var reopened = openStore(8, 1024 * 1024);
+
+    // Then
+    assertEquals("first", findCode(reopened, createKey(1)));
+    reopened.close();
+  }
+
+  @Test
+  void open_ShouldDropRecordCutOffByCrash() throws IOException {
+    // Given a record cut off after its length
+    var store = openStore(8, 1024 * 1024);
+    store.append(createKey(1), MODEL, "Response", createResult("first"));
+    store.close();
+    Files.write(directory.resolve("analyses.log"), new byte[] {0, 0, 1, 0, 42}, APPEND);
+
+    // When
+    var reopened = openStore(8, 1024 * 1024);
+    reopened.append(createKey(2), MODEL, "Response", createResult("second"));
+    reopened.close();
+
+    // Then
+    var recovered = openStore(8, 1024 * 1024);
+    assertEquals("first", findCode(recovered, createKey(1)));
+    assertEquals("second", findCode(recovered, createKey(2)));
+    recovered.close();
+  }
+
+  @Test
+  void append_ShouldCompactWhenFull() {
+    // Given a full store, with an older record of the newest key
+    var store = openStore(4, 1024 * 1024);
+    store.append(createKey(1), MODEL, "Response", createResult("first"));
+    store.append(createKey(2), MODEL, "Response", createResult("second"));
+    store.append(createKey(3), MODEL, "Response", createResult("outdated"));
+    store.append(createKey(3), MODEL, "Response", createResult("third"));
+
+    // When
+    store.append(createKey(4), MODEL, "Response", createResult("fourth"));
+
+    // Then the newest records of half the capacity are kept
+    assertNull(findCode(store, createKey(1)));
+    assertEquals("second", findCode(store, createKey(2)));
+    assertEquals("third", findCode(store, createKey(3)));
+    assertEquals("fourth", findCode(store, createKey(4)));
+    store.close();
+  }
+
+  @Test
+  void append_ShouldCompactWhenLogExceedsSizeCap() throws IOException {
+    // Given
+    var store = openStore(64, 2048);
+    for (var seed = 0; seed < 20; seed++) {
+      store.append(createKey(seed), MODEL, "Response", createResult("code " + seed));
+    }
+    store.close();
+
+    // Then
+    assertTrue(Files.size(directory.resolve("analyses.log")) <= 2048);
+    var reopened = openStore(64, 2048);
+    assertEquals("code 19", findCode(reopened, createKey(19)));
+    assertNull(findCode(reopened, createKey(0)));
+    reopened.close();
+  }
+
+  @Test
+  void disabledStore_ShouldStoreNothing() {
+    // Given
+    var store = new AnalysisStore(null, 8, 1024 * 1024);
+    store.open();
+
+    // When
+    store.append(createKey(1), MODEL, "Response", createResult("first"));
+
+    // Then
+    assertTrue(store.find(createKey(1), MAX_DISTANCE).isEmpty());
+    assertFalse(Files.exists(directory.resolve("analyses.log")));
+    store.close();
+  }
+}
@@ -3,6 +3,7 @@ package dev.coding_challenge_souffleur.model;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.anthropic.client.AnthropicClient;
+import com.anthropic.client.AnthropicClientAsync;
 import org.junit.jupiter.api.Test;
 
 class AnthropicClientProducerTest {
@@ -34,6 +35,21 @@ class AnthropicClientProducerTest {
     assertNotNull(client);
   }
 
+  @Test
+  void shouldInitializeAsyncAnthropicClient() throws Exception {
+    var producer = new AnthropicClientProducer("test-api-key");
+
+    var initMethod = AnthropicClientProducer.class.getDeclaredMethod("init");
+    initMethod.setAccessible(true);
+    initMethod.invoke(producer);
+
+    var clientField = AnthropicClientProducer.class.getDeclaredField("anthropicClientAsync");
+    clientField.setAccessible(true);
+    var client = (AnthropicClientAsync) clientField.get(producer);
+
+    assertNotNull(client);
+  }
+
   @Test
   void shouldCreateProducerEvenWithNullApiKey() {
     var producer = new AnthropicClientProducer(null);
@@ -0,0 +1,178 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Streams responses of a local stub of the Messages API on the async client. */
+class AnthropicServiceAsyncStreamTest {
+
+  private static final EncodedImage IMAGE =
+      new EncodedImage(new byte[] {1, 2, 3}, ImageFormat.PNG);
+  private static final long DELAY_PER_LINE_MILLIS = 5;
+  private static final long TIMEOUT_MILLIS = 5000;
+
+  private MessagesApiStub messagesApi;
+  private RetryPolicy retryPolicy;
+  private AnthropicService anthropicService;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    messagesApi = new MessagesApiStub(DELAY_PER_LINE_MILLIS);
+    retryPolicy = new RetryPolicy(2, 1, 1, 5, 30000, Clock.systemUTC(), new Random(1));
+    anthropicService = messagesApi.createService(retryPolicy, true, 4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    messagesApi.close();
+  }
+
+  /** Creates a screenshot of random pixels, each seed hashing differently. */
+  private static CapturedScreenshot createScreenshot(final long seed) {
+    return new CapturedScreenshot(TestImages.createNoiseImage(170, 160, seed), Instant.now());
+  }
+
+  private static void assertMockResult(final MultiSolutionResult result) {
+    assertTrue(result.isComplete());
+    assertEquals(3, result.getSolutionCount());
+    assertTrue(result.getSharedProblemStatement().orElseThrow().contains("Given four integer"));
+    assertTrue(result.getSolution(0).orElseThrow().getSolutionCode().contains("class Solution {"));
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldParseOnStreamParseThread() {
+    // Given
+    Set<String> listenerThreads = ConcurrentHashMap.newKeySet();
+
+    // When
+    var result =
+        anthropicService
+            .analyseMultiSolution(
+                IMAGE, (events, partial) -> listenerThreads.add(Thread.currentThread().getName()))
+            .join();
+
+    // Then
+    assertMockResult(result);
+    assertFalse(listenerThreads.isEmpty());
+    assertTrue(
+        listenerThreads.stream().allMatch(name -> name.endsWith(":stream-parse")),
+        listenerThreads.toString());
+    var usage = anthropicService.getLastUsage().orElseThrow();
+    assertEquals(1200, usage.outputTokens());
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldMergeDeltasForSlowListener() {
+    // Given a listener slower than the stream, with room for four queued chunks only
+    Set<String> listenerThreads = ConcurrentHashMap.newKeySet();
+
+    // When
+    var result =
+        anthropicService
+            .analyseMultiSolution(
+                IMAGE,
+                (events, partial) -> {
+                  listenerThreads.add(Thread.currentThread().getName());
+                  try {
+                    TimeUnit.MILLISECONDS.sleep(4 * DELAY_PER_LINE_MILLIS);
+                  } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                })
+            .join();
+
+    // Then the merged chunks are parsed to the same result
+    assertMockResult(result);
+    assertFalse(listenerThreads.isEmpty());
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldRetryOverloadedResponse() {
+    // Given
+    messagesApi.failNext(new MessagesApiStub.Failure(529, "overloaded_error", Map.of()));
+
+    // When
+    var result = anthropicService.analyseMultiSolution(IMAGE, null).join();
+
+    // Then
+    assertMockResult(result);
+    assertEquals(2, messagesApi.requests().size());
+    assertEquals(1, retryPolicy.getMetrics().retries());
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldNotParseFailedStreamAlongsideRetry() {
+    // Given a stream failing after its first lines, and a slow listener still parsing them
+    messagesApi.failNext(new MessagesApiStub.Failure(200, "overloaded_error", Map.of()));
+    var parsing = new AtomicInteger();
+    var overlapped = new AtomicBoolean();
+    var batchesAfterRestart = new AtomicInteger();
+    var restarted = new AtomicBoolean();
+    var listener =
+        new SectionEventListener() {
+          @Override
+          public void onSectionEvents(
+              final List<SectionEvent> events, final MultiSolutionResult result) {
+            if (parsing.incrementAndGet() > 1) {
+              overlapped.set(true);
+            }
+            if (restarted.get()) {
+              batchesAfterRestart.incrementAndGet();
+            }
+            try {
+              TimeUnit.MILLISECONDS.sleep(4 * DELAY_PER_LINE_MILLIS);
+            } catch (final InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            parsing.decrementAndGet();
+          }
+
+          @Override
+          public void onRestart() {
+            restarted.set(true);
+          }
+        };
+
+    // When
+    var result = anthropicService.analyseMultiSolution(IMAGE, listener).join();
+
+    // Then the chunks of the failed stream are never parsed together with those of the retry
+    assertMockResult(result);
+    assertTrue(restarted.get());
+    assertTrue(batchesAfterRestart.get() > 0);
+    assertFalse(overlapped.get());
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldStopSupersededStream() throws InterruptedException {
+    // Given a running analysis
+    var superseded = anthropicService.analyseMultiSolution(createScreenshot(1), null);
+    assertTrue(messagesApi.awaitFirstRequest(TIMEOUT_MILLIS));
+
+    // When another screenshot is analysed
+    var current = anthropicService.analyseMultiSolution(createScreenshot(2), null);
+
+    // Then the superseded analysis fails, and its connection is closed
+    var error = assertThrows(RuntimeException.class, superseded::join);
+    var cause = error instanceof CompletionException ? error.getCause() : error;
+    assertInstanceOf(CancellationException.class, cause);
+    assertTrue(messagesApi.awaitDisconnect(TIMEOUT_MILLIS));
+    assertMockResult(current.join());
+  }
+}
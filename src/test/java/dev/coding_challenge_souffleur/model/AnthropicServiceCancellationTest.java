@@ -0,0 +1,101 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Runs overlapping analyses against a local stub of the Messages API streaming slowly. */
+class AnthropicServiceCancellationTest {
+
+  private static final long DELAY_PER_LINE_MILLIS = 20;
+  private static final long TIMEOUT_MILLIS = 5000;
+
+  private MessagesApiStub messagesApi;
+  private AnthropicService anthropicService;
+
+  /** Creates a screenshot of random pixels, each seed hashing differently. */
+  private static CapturedScreenshot createScreenshot(final long seed) {
+    return new CapturedScreenshot(TestImages.createNoiseImage(170, 160, seed), Instant.now());
+  }
+
+  private static Throwable causeOf(final RuntimeException e) {
+    return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+  }
+
+  @BeforeEach
+  void setUp() throws IOException {
+    messagesApi = new MessagesApiStub(DELAY_PER_LINE_MILLIS);
+    anthropicService = messagesApi.createService();
+  }
+
+  @AfterEach
+  void tearDown() {
+    messagesApi.close();
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldStopSupersededStream() throws InterruptedException {
+    // Given a running analysis
+    var supersededEvents = new AtomicInteger();
+    var superseded =
+        anthropicService.analyseMultiSolution(
+            createScreenshot(1), (events, result) -> supersededEvents.incrementAndGet());
+    assertTrue(messagesApi.awaitFirstRequest(TIMEOUT_MILLIS));
+
+    // When another screenshot is analysed
+    var started = System.nanoTime();
+    var current = anthropicService.analyseMultiSolution(createScreenshot(2), null);
+
+    // Then the superseded analysis fails at once, and its connection is closed
+    var error = assertThrows(RuntimeException.class, superseded::join);
+    assertInstanceOf(CancellationException.class, causeOf(error));
+    assertTrue(messagesApi.awaitDisconnect(TIMEOUT_MILLIS));
+    assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS));
+    var eventsAfterCancellation = supersededEvents.get();
+
+    assertTrue(current.join().isComplete());
+    assertEquals(eventsAfterCancellation, supersededEvents.get());
+    assertEquals(2, messagesApi.requests().size());
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldAttachRepeatedRequestToRunningAnalysis() {
+    // Given
+    var screenshot = createScreenshot(1);
+    var first = anthropicService.analyseMultiSolution(screenshot, null);
+
+    // When
+    var repeated = anthropicService.analyseMultiSolution(screenshot, null);
+
+    // Then both get the result of one stream
+    assertSame(first.join(), repeated.join());
+    assertEquals(1, messagesApi.requests().size());
+  }
+
+  @Test
+  void analyseMultiSolutionMock_ShouldBeSupersededByAnalysis() {
+    // Given a running mock
+    var mockEvents = new AtomicInteger();
+    var mock =
+        anthropicService.analyseMultiSolutionMock(
+            (events, result) -> mockEvents.incrementAndGet());
+
+    // When a screenshot is analysed
+    var current = anthropicService.analyseMultiSolution(createScreenshot(1), null);
+
+    // Then the mock fails, and its listener receives no further events
+    var error = assertThrows(RuntimeException.class, mock::join);
+    assertInstanceOf(CancellationException.class, causeOf(error));
+    var eventsAfterCancellation = mockEvents.get();
+    assertTrue(current.join().isComplete());
+    assertEquals(eventsAfterCancellation, mockEvents.get());
+  }
+}
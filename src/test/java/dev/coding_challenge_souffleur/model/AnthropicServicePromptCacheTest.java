@@ -0,0 +1,89 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Checks the shape of the streaming request against a local stub of the Messages API. */
+class AnthropicServicePromptCacheTest {
+
+  private MessagesApiStub messagesApi;
+  private AnthropicService anthropicService;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    messagesApi = new MessagesApiStub(0);
+    anthropicService = messagesApi.createService();
+  }
+
+  @AfterEach
+  void tearDown() {
+    messagesApi.close();
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldSendSystemPromptAsCachedBlocks() {
+    // Given
+    anthropicService.setCodingLanguage(CodingLanguage.PYTHON);
+    var image = new EncodedImage(new byte[] {1, 2, 3}, ImageFormat.PNG);
+
+    // When
+    var result = anthropicService.analyseMultiSolution(image, null).join();
+
+    // Then the shared block comes first, and both blocks end at a cache breakpoint
+    assertTrue(result.isComplete());
+    var system = messagesApi.lastRequest().get("system");
+    assertTrue(system.isArray());
+    assertEquals(2, system.size());
+    for (final var block : system) {
+      assertEquals("text", block.get("type").asText());
+      assertEquals("ephemeral", block.get("cache_control").get("type").asText());
+    }
+    assertFalse(system.get(0).get("text").asText().contains("Python"));
+    assertTrue(system.get(1).get("text").asText().contains("Python 3.9+"));
+    // The image, which differs per request, is not cached
+    var imageBlock = messagesApi.lastRequest().get("messages").get(0).get("content").get(0);
+    assertEquals("image", imageBlock.get("type").asText());
+    assertNull(imageBlock.get("cache_control"));
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldKeepSharedBlockAcrossLanguages() {
+    // Given
+    var image = new EncodedImage(new byte[] {1, 2, 3}, ImageFormat.PNG);
+    anthropicService.setCodingLanguage(CodingLanguage.JAVA);
+    anthropicService.analyseMultiSolution(image, null).join();
+    var javaSystem = messagesApi.lastRequest().get("system");
+
+    // When
+    anthropicService.setCodingLanguage(CodingLanguage.GOLANG);
+    anthropicService.analyseMultiSolution(image, null).join();
+
+    // Then
+    var golangSystem = messagesApi.lastRequest().get("system");
+    assertEquals(javaSystem.get(0), golangSystem.get(0));
+    assertNotEquals(javaSystem.get(1), golangSystem.get(1));
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldRecordCacheUsage() {
+    // Given
+    assertTrue(anthropicService.getLastUsage().isEmpty());
+    var image = new EncodedImage(new byte[] {1, 2, 3}, ImageFormat.PNG);
+
+    // When
+    anthropicService.analyseMultiSolution(image, null).join();
+
+    // Then
+    var usage = anthropicService.getLastUsage().orElseThrow();
+    assertEquals(1600, usage.inputTokens());
+    assertEquals(900, usage.cacheReadInputTokens());
+    assertEquals(0, usage.cacheCreationInputTokens());
+    assertEquals(2500, usage.totalInputTokens());
+    assertEquals(1200, usage.outputTokens());
+    assertFalse(usage.timeToFirstToken().isNegative());
+  }
+}
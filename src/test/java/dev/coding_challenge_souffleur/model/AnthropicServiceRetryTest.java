@@ -0,0 +1,174 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.anthropic.errors.UnauthorizedException;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Injects failures into a local stub of the Messages API. */
+class AnthropicServiceRetryTest {
+
+  private static final EncodedImage IMAGE =
+      new EncodedImage(new byte[] {1, 2, 3}, ImageFormat.PNG);
+  private static final MessagesApiStub.Failure OVERLOADED =
+      new MessagesApiStub.Failure(529, "overloaded_error", Map.of());
+  private static final long CIRCUIT_OPEN_MILLIS = 300;
+
+  private MessagesApiStub messagesApi;
+  private RetryPolicy retryPolicy;
+  private AnthropicService anthropicService;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    messagesApi = new MessagesApiStub(0);
+    retryPolicy =
+        new RetryPolicy(3, 1, 10, 2, CIRCUIT_OPEN_MILLIS, Clock.systemUTC(), new Random(1));
+    anthropicService = messagesApi.createService(retryPolicy);
+  }
+
+  @AfterEach
+  void tearDown() {
+    messagesApi.close();
+  }
+
+  private MultiSolutionResult analyse() {
+    return anthropicService.analyseMultiSolution(IMAGE, null).join();
+  }
+
+  private static Throwable causeOf(final CompletionException e) {
+    return e.getCause() instanceof RuntimeException wrapper && wrapper.getCause() != null
+        ? wrapper.getCause()
+        : e.getCause();
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldRetryOverloadedResponse() {
+    // Given
+    messagesApi.failNext(OVERLOADED);
+
+    // When
+    var result = analyse();
+
+    // Then
+    assertTrue(result.isComplete());
+    assertEquals(2, messagesApi.requests().size());
+    var metrics = retryPolicy.getMetrics();
+    assertEquals(2, metrics.attempts());
+    assertEquals(1, metrics.retries());
+    assertEquals(0, metrics.failures());
+    assertEquals(RetryPolicy.CircuitState.CLOSED, metrics.circuitState());
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldCountOverloadedStreamErrorsByCircuitBreaker() {
+    // Given overload errors within streams started with status 200
+    var streamOverloaded = new MessagesApiStub.Failure(200, "overloaded_error", Map.of());
+    messagesApi.failNext(streamOverloaded);
+    messagesApi.failNext(streamOverloaded);
+
+    // When
+    var error = assertThrows(CompletionException.class, this::analyse);
+
+    // Then they are classified as overload, opening the circuit breaker
+    assertInstanceOf(IllegalStateException.class, error.getCause());
+    assertEquals(2, messagesApi.requests().size());
+    assertEquals(RetryPolicy.CircuitState.OPEN, retryPolicy.getMetrics().circuitState());
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldRestartListenerOnRetry() {
+    // Given a stream failing after its first lines
+    messagesApi.failNext(new MessagesApiStub.Failure(200, "overloaded_error", Map.of()));
+    var calls = new CopyOnWriteArrayList<String>();
+    var listener =
+        new SectionEventListener() {
+          @Override
+          public void onSectionEvents(
+              final List<SectionEvent> events, final MultiSolutionResult result) {
+            calls.add("events");
+          }
+
+          @Override
+          public void onRestart() {
+            calls.add("restart");
+          }
+        };
+
+    // When
+    var result = anthropicService.analyseMultiSolution(IMAGE, listener).join();
+
+    // Then the events of the failed attempt are followed by a restart
+    assertTrue(result.isComplete());
+    assertEquals(1, Collections.frequency(calls, "restart"));
+    var restart = calls.indexOf("restart");
+    assertTrue(restart > 0, calls::toString);
+    assertTrue(restart < calls.size() - 1, calls::toString);
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldNotRetryAuthenticationError() {
+    // Given
+    messagesApi.failNext(new MessagesApiStub.Failure(401, "authentication_error", Map.of()));
+
+    // When
+    var error = assertThrows(CompletionException.class, this::analyse);
+
+    // Then
+    assertInstanceOf(UnauthorizedException.class, causeOf(error));
+    assertEquals(1, messagesApi.requests().size());
+    assertEquals(0, retryPolicy.getMetrics().retries());
+    assertEquals(1, retryPolicy.getMetrics().failures());
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldHonourRetryAfter() {
+    // Given
+    messagesApi.failNext(
+        new MessagesApiStub.Failure(429, "rate_limit_error", Map.of("retry-after", "1")));
+
+    // When
+    var started = System.nanoTime();
+    var result = analyse();
+
+    // Then
+    assertTrue(result.isComplete());
+    assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() >= 1000);
+    assertEquals(2, messagesApi.requests().size());
+    assertTrue(retryPolicy.getMetrics().backoffMillis() >= 1000);
+  }
+
+  @Test
+  void analyseMultiSolution_ShouldFailFastWhileCircuitIsOpen() {
+    // Given overload responses reaching the threshold of the circuit breaker
+    messagesApi.failNext(OVERLOADED);
+    messagesApi.failNext(OVERLOADED);
+    var error = assertThrows(CompletionException.class, this::analyse);
+    assertInstanceOf(IllegalStateException.class, error.getCause());
+    assertEquals(RetryPolicy.CircuitState.OPEN, retryPolicy.getMetrics().circuitState());
+
+    // When called while the circuit is open
+    assertThrows(CompletionException.class, this::analyse);
+
+    // Then no request is sent
+    assertEquals(2, messagesApi.requests().size());
+    assertEquals(2, retryPolicy.getMetrics().rejections());
+
+    // Then after the pause a probe succeeds and closes the circuit
+    await().pollDelay(Duration.ofMillis(CIRCUIT_OPEN_MILLIS)).until(() -> true);
+    assertTrue(analyse().isComplete());
+    assertEquals(3, messagesApi.requests().size());
+    assertEquals(RetryPolicy.CircuitState.CLOSED, retryPolicy.getMetrics().circuitState());
+  }
+}
@@ -1,7 +1,7 @@
 package dev.coding_challenge_souffleur.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.smallrye.config.inject.ConfigExtension;
@@ -23,9 +23,10 @@ import org.junit.jupiter.params.provider.MethodSource;
 @AddExtensions(ConfigExtension.class)
 class AnthropicServiceTest {
 
-  private static byte[] testImage;
+  private static EncodedImage testImage;
 
   @Inject private AnthropicService anthropicService;
+  @Inject private PromptRegistry promptRegistry;
 
   @BeforeAll
   static void setupTestImage() throws IOException {
@@ -35,7 +36,7 @@ class AnthropicServiceTest {
       if (inputStream == null) {
         throw new IllegalStateException("Test image resource not found");
       }
-      testImage = inputStream.readAllBytes();
+      testImage = new EncodedImage(inputStream.readAllBytes(), ImageFormat.PNG);
     }
   }
 
@@ -105,12 +106,13 @@ class AnthropicServiceTest {
 
   @ParameterizedTest
   @MethodSource("languageTestData")
-  void testBuildSystemMessageForDifferentLanguages(
+  void testBuildSystemBlocksForDifferentLanguages(
       CodingLanguage codingLanguage, String expectedContent) {
-    anthropicService.setCodingLanguage(codingLanguage);
-
-    var systemMessage = anthropicService.buildSystemMessage();
-    assertNotNull(systemMessage);
-    assertTrue(systemMessage.contains(expectedContent));
+    var systemBlocks = promptRegistry.get(codingLanguage).blocks();
+    assertEquals(2, systemBlocks.size());
+    assertTrue(systemBlocks.get(1).text().contains(expectedContent));
+    // The shared block does not depend on the language, so a language switch still hits the cache
+    assertFalse(systemBlocks.get(0).text().contains(expectedContent));
+    assertTrue(systemBlocks.stream().allMatch(block -> block.cacheControl().isPresent()));
   }
 }
@@ -0,0 +1,66 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.Instant;
+import javafx.scene.image.WritableImage;
+import org.junit.jupiter.api.Test;
+
+class CapturedScreenshotTest {
+
+  private static final Instant CAPTURED_AT = Instant.parse("2025-01-01T12:00:00Z");
+
+  private static WritableImage createImage(final int color) {
+    var image = new WritableImage(40, 20);
+    for (var y = 0; y < 20; y++) {
+      for (var x = 0; x < 40; x++) {
+        image.getPixelWriter().setArgb(x, y, x == y ? color : 0xFFFFFFFF);
+      }
+    }
+    return image;
+  }
+
+  private static ImageService createImageService(final ImageCodec codec) {
+    return new ImageService(codec, 0.85f, Integer.MAX_VALUE, true);
+  }
+
+  @Test
+  void encode_ShouldEncodeOncePerCodec() throws IOException {
+    var screenshot = new CapturedScreenshot(createImage(0xFF000000), CAPTURED_AT);
+    var pngImageService = createImageService(ImageCodec.PNG);
+    var jpegImageService = createImageService(ImageCodec.JPEG);
+
+    var png = screenshot.encode(pngImageService);
+    var jpeg = screenshot.encode(jpegImageService);
+
+    assertEquals(ImageFormat.PNG, png.format());
+    assertEquals(ImageFormat.JPEG, jpeg.format());
+    assertSame(png, screenshot.encode(pngImageService));
+    assertSame(png, screenshot.encode(createImageService(ImageCodec.PNG)));
+    assertSame(jpeg, screenshot.encode(jpegImageService));
+  }
+
+  @Test
+  void getContentHash_ShouldDependOnPixelsOnly() {
+    var screenshot = new CapturedScreenshot(createImage(0xFF000000), CAPTURED_AT);
+    var samePixels = new CapturedScreenshot(createImage(0xFF000000), Instant.now());
+    var otherPixels = new CapturedScreenshot(createImage(0xFF000001), CAPTURED_AT);
+
+    assertEquals(64, screenshot.getContentHash().length());
+    assertEquals(screenshot.getContentHash(), samePixels.getContentHash());
+    assertNotEquals(screenshot.getContentHash(), otherPixels.getContentHash());
+  }
+
+  @Test
+  void shouldDescribeCapture() {
+    var image = createImage(0xFF000000);
+    var screenshot = new CapturedScreenshot(image, CAPTURED_AT);
+
+    assertSame(image, screenshot.getImage());
+    assertEquals(CAPTURED_AT, screenshot.getCapturedAt());
+    assertEquals(40, screenshot.getWidth());
+    assertEquals(20, screenshot.getHeight());
+    assertEquals(ImageTokenBudget.estimateTokens(40, 20), screenshot.getEstimatedTokens());
+  }
+}
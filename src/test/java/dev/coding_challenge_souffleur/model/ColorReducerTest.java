@@ -0,0 +1,96 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ColorReducerTest {
+
+  private static final int LENGTH = 100 * 100;
+  private static final int BACKGROUND = 0xFF1E1E1E;
+
+  private final ColorReducer colorReducer = new ColorReducer();
+
+  // Anti-aliased gray text on a dark background
+  private static int[] createGrayText() {
+    var random = new Random(42);
+    var pixels = new int[LENGTH];
+    Arrays.fill(pixels, BACKGROUND);
+    for (var i = 0; i < LENGTH; i += 3) {
+      var level = 0x1E + random.nextInt(0xD4 - 0x1E);
+      pixels[i] = 0xFF000000 | level << 16 | level << 8 | level;
+    }
+    return pixels;
+  }
+
+  @Test
+  void reduce_ShouldWriteGrayTextAsGrayscale() {
+    var pixels = createGrayText();
+
+    var result = colorReducer.reduce(pixels, LENGTH).orElseThrow();
+
+    assertTrue(result.isGrayscale());
+    for (var i = 0; i < LENGTH; i++) {
+      assertEquals(pixels[i] & 0xFF, result.samples()[i] & 0xFF);
+    }
+  }
+
+  @Test
+  void reduce_ShouldIgnoreColoredFringesOfSubpixelRendering() {
+    var pixels = createGrayText();
+    var random = new Random(7);
+    for (var i = 1; i < LENGTH; i += 20) {
+      pixels[i] = 0xFF000000 | random.nextInt();
+    }
+
+    assertTrue(colorReducer.reduce(pixels, LENGTH).orElseThrow().isGrayscale());
+  }
+
+  @Test
+  void reduce_ShouldKeepSyntaxColorsInExactPalette() {
+    var pixels = createGrayText();
+    // A keyword color in solid glyph cores
+    for (var i = 1; i < LENGTH; i += 50) {
+      pixels[i] = 0xFF569CD6;
+    }
+
+    var result = colorReducer.reduce(pixels, LENGTH).orElseThrow();
+
+    assertFalse(result.isGrayscale());
+    for (var i = 0; i < LENGTH; i++) {
+      assertEquals(pixels[i] & 0xFFFFFF, result.palette()[result.samples()[i] & 0xFF]);
+    }
+  }
+
+  @Test
+  void reduce_ShouldMapRareColorsToNearestFrequentColor() {
+    // 250 frequent colors and 100 colors of a single pixel, which lie between them
+    var pixels = new int[LENGTH];
+    for (var i = 0; i < LENGTH; i++) {
+      var isRare = i >= LENGTH - 100;
+      var color = isRare ? i - (LENGTH - 100) : i % 250;
+      var red = color / 16 * 16 + (isRare ? 9 : 0);
+      pixels[i] = 0xFF000080 | red << 16 | color % 16 * 16 << 8;
+    }
+
+    var result = colorReducer.reduce(pixels, LENGTH).orElseThrow();
+
+    assertEquals(256, result.palette().length);
+    assertEquals(0x000080, result.palette()[result.samples()[0] & 0xFF]);
+    // The first rare color 0x090080 is nearer to 0x100080 than to 0x000080
+    assertEquals(0x100080, result.palette()[result.samples()[LENGTH - 100] & 0xFF]);
+  }
+
+  @Test
+  void reduce_ShouldKeepAllColorsOfNoise() {
+    var random = new Random(42);
+    var pixels = new int[LENGTH];
+    for (var i = 0; i < LENGTH; i++) {
+      pixels[i] = 0xFF000000 | random.nextInt();
+    }
+
+    assertTrue(colorReducer.reduce(pixels, LENGTH).isEmpty());
+  }
+}
@@ -0,0 +1,109 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import javafx.scene.image.WritableImage;
+import org.junit.jupiter.api.Test;
+
+class ContentCropperTest {
+
+  private static final int WIDTH = 400;
+  private static final int HEIGHT = 300;
+  private static final int BACKGROUND = 0xFFF0F0F0;
+
+  // A uniform image with text-like noise in the given rectangle
+  private static int[] createPixels(
+      final int left, final int top, final int right, final int bottom) {
+    var random = new Random(42);
+    var pixels = new int[WIDTH * HEIGHT];
+    Arrays.fill(pixels, BACKGROUND);
+    for (var y = top; y < bottom; y++) {
+      for (var x = left; x < right; x++) {
+        if (random.nextInt(3) == 0) {
+          pixels[y * WIDTH + x] = 0xFF202020;
+        }
+      }
+    }
+    return pixels;
+  }
+
+  @Test
+  void findContent_ShouldTrimUniformBorders() {
+    var pixels = createPixels(100, 50, 300, 250);
+
+    var region = new ContentCropper(true, 0.1).findContent(pixels, WIDTH, HEIGHT);
+
+    // The content plus padding
+    assertEquals(new ContentCropper.Region(92, 42, 216, 216), region);
+  }
+
+  @Test
+  void findContent_ShouldDropSparseSidePanel() {
+    var pixels = createPixels(150, 0, 400, 300);
+    // A side panel with a single line of text
+    for (var x = 10; x < 60; x += 2) {
+      pixels[150 * WIDTH + x] = 0xFF202020;
+    }
+
+    var region = new ContentCropper(true, 0.1).findContent(pixels, WIDTH, HEIGHT);
+
+    assertEquals(142, region.x());
+    assertEquals(WIDTH, region.x() + region.width());
+    assertEquals(HEIGHT, region.height());
+  }
+
+  @Test
+  void findContent_ShouldKeepMinimumArea() {
+    var pixels = createPixels(190, 140, 210, 160);
+
+    var region = new ContentCropper(true, 0.25).findContent(pixels, WIDTH, HEIGHT);
+
+    assertEquals(WIDTH / 2, region.width());
+    assertEquals(HEIGHT / 2, region.height());
+    // The kept area is centered on the content
+    assertEquals(100, region.x());
+    assertEquals(75, region.y());
+  }
+
+  @Test
+  void findContent_ShouldKeepUniformImage() {
+    var pixels = new int[WIDTH * HEIGHT];
+    Arrays.fill(pixels, BACKGROUND);
+
+    var region = new ContentCropper(true, 0.1).findContent(pixels, WIDTH, HEIGHT);
+
+    assertEquals(new ContentCropper.Region(0, 0, WIDTH, HEIGHT), region);
+  }
+
+  @Test
+  void crop_ShouldCropImageToContent() {
+    var image = new WritableImage(WIDTH, HEIGHT);
+    var pixels = createPixels(100, 50, 300, 250);
+    for (var y = 0; y < HEIGHT; y++) {
+      for (var x = 0; x < WIDTH; x++) {
+        image.getPixelWriter().setArgb(x, y, pixels[y * WIDTH + x]);
+      }
+    }
+
+    var result = new ContentCropper(true, 0.1).crop(image);
+
+    assertEquals(216, (int) result.getWidth());
+    assertEquals(216, (int) result.getHeight());
+    assertEquals(pixels[100 * WIDTH + 150], result.getPixelReader().getArgb(150 - 92, 100 - 42));
+  }
+
+  @Test
+  void crop_WhenDisabled_ShouldReturnSameImage() {
+    var image = new WritableImage(WIDTH, HEIGHT);
+
+    assertSame(image, new ContentCropper(false, 0.1).crop(image));
+  }
+
+  @Test
+  void constructor_ShouldRejectInvalidMinimumKeepArea() {
+    assertThrows(IllegalArgumentException.class, () -> new ContentCropper(true, 0.0));
+    assertThrows(IllegalArgumentException.class, () -> new ContentCropper(true, 1.5));
+  }
+}
@@ -0,0 +1,96 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class ImageResamplerTest {
+
+  private static final int BLACK = 0xFF000000;
+  private static final int WHITE = 0xFFFFFFFF;
+
+  // Black left half and white right half, with a vertical edge in the middle
+  private static int[] createEdge(final int width, final int height) {
+    var pixels = new int[width * height];
+    for (var y = 0; y < height; y++) {
+      for (var x = 0; x < width; x++) {
+        pixels[y * width + x] = x < width / 2 ? BLACK : WHITE;
+      }
+    }
+    return pixels;
+  }
+
+  @ParameterizedTest
+  @EnumSource(ImageResampler.Kernel.class)
+  void resample_ShouldKeepColorOfUniformImage(final ImageResampler.Kernel kernel) {
+    var source = new int[300 * 200];
+    Arrays.fill(source, 0xFF336699);
+
+    var result = new ImageResampler(kernel).resample(source, 300, 200, 117, 61);
+
+    assertEquals(117 * 61, result.length);
+    assertTrue(Arrays.stream(result).allMatch(argb -> argb == 0xFF336699));
+  }
+
+  @Test
+  void resample_WithAreaAverage_ShouldAverageCoveredPixels() {
+    int[] source = {BLACK, WHITE, 0xFFFF0000, 0xFFFF0000, BLACK, WHITE, 0xFFFF0000, 0xFFFF0000};
+
+    var result =
+        new ImageResampler(ImageResampler.Kernel.AREA_AVERAGE).resample(source, 4, 2, 2, 1);
+
+    assertArrayEquals(new int[] {0xFF808080, 0xFFFF0000}, result);
+  }
+
+  @Test
+  void resample_WithLanczos_ShouldKeepEdgesSharp() {
+    var source = createEdge(64, 4);
+
+    var result = new ImageResampler(ImageResampler.Kernel.LANCZOS3).resample(source, 64, 4, 24, 2);
+
+    // The edge stays one pixel wide even at a fractional scale
+    assertTrue((result[11] & 0xFF) < 0x20);
+    assertTrue((result[12] & 0xFF) > 0xE0);
+    // Far from the edge the ringing of the filter has faded out
+    assertEquals(BLACK, result[0]);
+    assertEquals(WHITE, result[23]);
+  }
+
+  @Test
+  void resample_ShouldProduceSameResultInEveryBand() {
+    var source = createEdge(400, 1000);
+
+    var result =
+        new ImageResampler(ImageResampler.Kernel.LANCZOS3).resample(source, 400, 1000, 150, 375);
+
+    for (var y = 1; y < 375; y++) {
+      assertArrayEquals(
+          Arrays.copyOfRange(result, 0, 150),
+          Arrays.copyOfRange(result, y * 150, (y + 1) * 150),
+          "row " + y);
+    }
+  }
+
+  @Test
+  void resample_ShouldScaleUp() {
+    int[] source = {BLACK, WHITE};
+
+    var result =
+        new ImageResampler(ImageResampler.Kernel.AREA_AVERAGE).resample(source, 2, 1, 4, 2);
+
+    assertArrayEquals(new int[] {BLACK, BLACK, WHITE, WHITE, BLACK, BLACK, WHITE, WHITE}, result);
+  }
+
+  @Test
+  void resample_ShouldCopyUnchangedSize() {
+    var source = createEdge(8, 8);
+
+    var result = new ImageResampler(ImageResampler.Kernel.LANCZOS3).resample(source, 8, 8, 8, 8);
+
+    assertArrayEquals(source, result);
+    assertNotSame(source, result);
+  }
+}
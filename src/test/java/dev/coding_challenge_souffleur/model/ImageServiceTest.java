@@ -38,23 +38,28 @@ class ImageServiceTest {
     return image;
   }
 
+  private static ImageService createImageService(final ImageCodec codec, final int maxBytes) {
+    return new ImageService(codec, 0.85f, maxBytes, true);
+  }
+
   @BeforeEach
   void setUp() {
-    imageService = new ImageService();
+    imageService = createImageService(ImageCodec.PNG, Integer.MAX_VALUE);
     testImage = createTestImage(TEST_IMAGE_WIDTH, TEST_IMAGE_HEIGHT);
   }
 
   @Test
-  void convertToByteArray_ShouldConvertImageToByteArray() throws IOException {
+  void encode_ShouldConvertImageToByteArray() throws IOException {
     // When
-    var result = imageService.convertToByteArray(testImage);
+    var result = imageService.encode(testImage);
 
     // Then
     assertNotNull(result);
-    assertTrue(result.length > 0);
+    assertEquals(ImageFormat.PNG, result.format());
+    assertTrue(result.size() > 0);
 
     // Verify the byte array can be converted back to an image
-    var reconstructedImage = new Image(new ByteArrayInputStream(result));
+    var reconstructedImage = new Image(new ByteArrayInputStream(result.data()));
     assertEquals(TEST_IMAGE_WIDTH, (int) reconstructedImage.getWidth());
     assertEquals(TEST_IMAGE_HEIGHT, (int) reconstructedImage.getHeight());
   }
@@ -62,7 +67,7 @@ class ImageServiceTest {
   @Test
   void convertToJavaFxImage_ShouldConvertByteArrayToImage() throws IOException {
     // Given
-    var imageBytes = imageService.convertToByteArray(testImage);
+    var imageBytes = imageService.encode(testImage).data();
 
     // When
     var result = imageService.convertToJavaFxImage(imageBytes);
@@ -74,9 +79,81 @@ class ImageServiceTest {
   }
 
   @Test
-  void convertToByteArray_ShouldThrowIOException_WhenImageIsNull() {
+  void encode_WithJpegCodec_ShouldEncodeAsJpeg() throws IOException {
+    // When
+    var result = createImageService(ImageCodec.JPEG, Integer.MAX_VALUE).encode(testImage);
+
+    // Then
+    assertEquals(ImageFormat.JPEG, result.format());
+    var reconstructedImage = imageService.convertToJavaFxImage(result.data());
+    assertEquals(TEST_IMAGE_WIDTH, (int) reconstructedImage.getWidth());
+    assertEquals(TEST_IMAGE_HEIGHT, (int) reconstructedImage.getHeight());
+  }
+
+  @Test
+  void encode_WithAutoCodec_ShouldKeepSmallerEncoding() throws IOException {
+    // Given
+    var autoImageService = createImageService(ImageCodec.AUTO, Integer.MAX_VALUE);
+
+    // Then
+    assertEquals(ImageFormat.PNG, autoImageService.encode(testImage).format());
+    assertEquals(
+        ImageFormat.JPEG,
+        autoImageService.encode(TestImages.createNoiseImage(64, 64, 42)).format());
+  }
+
+  @Test
+  void encode_WhenLargerThanCap_ShouldFallBackToJpeg() throws IOException {
+    // Given
+    var noiseImage = TestImages.createNoiseImage(64, 64, 42);
+    var pngSize = imageService.encode(noiseImage).size();
+
+    // When
+    var result = createImageService(ImageCodec.PNG, pngSize / 2).encode(noiseImage);
+
+    // Then
+    assertEquals(ImageFormat.JPEG, result.format());
+    assertTrue(result.size() <= pngSize / 2);
+  }
+
+  @Test
+  void resize_ShouldKeepColorOfUniformImage() {
+    // Given
+    var image = new WritableImage(40, 20);
+    var pixelWriter = image.getPixelWriter();
+    for (var y = 0; y < 20; y++) {
+      for (var x = 0; x < 40; x++) {
+        pixelWriter.setArgb(x, y, 0xFF336699);
+      }
+    }
+
+    // When
+    var result = imageService.resize(image, 13, 7);
+
+    // Then
+    assertEquals(13, (int) result.getWidth());
+    assertEquals(7, (int) result.getHeight());
+    for (var y = 0; y < 7; y++) {
+      for (var x = 0; x < 13; x++) {
+        assertEquals(0xFF336699, result.getPixelReader().getArgb(x, y));
+      }
+    }
+  }
+
+  @Test
+  void resize_ShouldScaleDownToGivenSize() {
+    // When
+    var result = imageService.resize(testImage, 3, 7);
+
+    // Then
+    assertEquals(3, (int) result.getWidth());
+    assertEquals(7, (int) result.getHeight());
+  }
+
+  @Test
+  void encode_ShouldThrowException_WhenImageIsNull() {
     // Then
-    assertThrows(NullPointerException.class, () -> imageService.convertToByteArray(null));
+    assertThrows(NullPointerException.class, () -> imageService.encode(null));
   }
 
   @Test
@@ -88,7 +165,7 @@ class ImageServiceTest {
   @Test
   void roundTripConversion_ShouldPreserveImageData() throws IOException {
     // Given
-    var imageBytes = imageService.convertToByteArray(testImage);
+    var imageBytes = imageService.encode(testImage).data();
 
     // When
     var result = imageService.convertToJavaFxImage(imageBytes);
@@ -99,8 +176,8 @@ class ImageServiceTest {
     assertEquals(TEST_IMAGE_HEIGHT, (int) result.getHeight());
 
     // Convert back to byte array to complete the round trip
-    var resultBytes = imageService.convertToByteArray(result);
+    var resultBytes = imageService.encode(result);
     assertNotNull(resultBytes);
-    assertTrue(resultBytes.length > 0);
+    assertTrue(resultBytes.size() > 0);
   }
 }
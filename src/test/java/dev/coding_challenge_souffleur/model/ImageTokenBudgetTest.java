@@ -0,0 +1,50 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class ImageTokenBudgetTest {
+
+  @Test
+  void estimateTokens_ShouldCountPixelsPerToken() {
+    assertEquals(1, ImageTokenBudget.estimateTokens(1, 1));
+    assertEquals(1, ImageTokenBudget.estimateTokens(30, 25));
+    assertEquals(1920, ImageTokenBudget.estimateTokens(1600, 900));
+  }
+
+  @Test
+  void fit_ShouldKeepImageWithinBudget() {
+    var budget = new ImageTokenBudget(1600);
+
+    assertEquals(new ImageTokenBudget.Size(1000, 800), budget.fit(1000, 800));
+  }
+
+  @Test
+  void fit_ShouldScaleDownToTokenBudget() {
+    var budget = new ImageTokenBudget(400);
+
+    var size = budget.fit(1600, 900);
+
+    assertTrue(ImageTokenBudget.estimateTokens(size.width(), size.height()) <= 400);
+    // Largest size of the aspect ratio within the budget
+    assertTrue(ImageTokenBudget.estimateTokens(size.width() + 2, size.height() + 1) > 400);
+    assertEquals(1600.0 / 900, (double) size.width() / size.height(), 0.01);
+  }
+
+  @Test
+  void fit_ShouldLimitLongEdge() {
+    var budget = new ImageTokenBudget(1600);
+
+    var size = budget.fit(3000, 300);
+
+    assertEquals(ImageTokenBudget.MAX_LONG_EDGE_PIXELS, size.width());
+    assertEquals(156, size.height());
+  }
+
+  @Test
+  void constructor_ShouldLimitBudgetToServerLimit() {
+    assertEquals(ImageTokenBudget.MAX_TOKENS, new ImageTokenBudget(5000).getTokenBudget());
+    assertThrows(IllegalArgumentException.class, () -> new ImageTokenBudget(0));
+  }
+}
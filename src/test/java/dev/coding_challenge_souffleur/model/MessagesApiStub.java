@@ -0,0 +1,276 @@
+package dev.coding_challenge_souffleur.model;
+
+import com.anthropic.client.AnthropicClient;
+import com.anthropic.client.AnthropicClientAsync;
+import com.anthropic.client.okhttp.AnthropicOkHttpClient;
+import com.anthropic.models.messages.Model;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stub of the streaming Messages API. It records the requests and streams the mock response
+ * line by line, reporting a prompt cache hit in the usage. Failures can be injected, they answer
+ * the next requests instead of the stream.
+ *
+ * <p>The stub also creates the {@link AnthropicService} under test, sending its requests to the
+ * stub. The executors of the service are shut down when the stub is closed.
+ */
+class MessagesApiStub implements AutoCloseable {
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+  // Lines of the response streamed before an error event
+  private static final int FAILED_STREAM_LINES = 3;
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final String responseText;
+  private final long delayPerLineMillis;
+  private final List<JsonNode> requests = new ArrayList<>();
+  private final Deque<Failure> failures = new ArrayDeque<>();
+  private final CountDownLatch firstRequest = new CountDownLatch(1);
+  private final CountDownLatch disconnected = new CountDownLatch(1);
+  private final ImageProcessingExecutor imageProcessingExecutor = new ImageProcessingExecutor();
+  private final AnalysisExecutor analysisExecutor = new AnalysisExecutor(true, 4);
+
+  /**
+   * Starts a stub on a free port of the loopback address.
+   *
+   * @param delayPerLineMillis the delay before each streamed line of the response
+   */
+  MessagesApiStub(final long delayPerLineMillis) throws IOException {
+    this.delayPerLineMillis = delayPerLineMillis;
+    try (var inputStream = getClass().getResourceAsStream("/prompts/multi_solution_mock.txt")) {
+      this.responseText = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/v1/messages", this::handleMessages);
+    // Concurrent streams are served in parallel
+    server.setExecutor(executor);
+    server.start();
+    imageProcessingExecutor.start();
+    analysisExecutor.start();
+  }
+
+  /**
+   * An error response. With status 200 the error is sent as an error event of the stream after the
+   * first lines of the response, as the API does when it fails after the response started.
+   *
+   * @param statusCode the status code
+   * @param errorType the type of the error, e.g. {@code overloaded_error}
+   * @param headers the headers of the response, e.g. {@code retry-after}
+   */
+  record Failure(int statusCode, String errorType, Map<String, String> headers) {}
+
+  /** Answers the next request not answered by an earlier failure with the given failure. */
+  synchronized void failNext(final Failure failure) {
+    failures.add(failure);
+  }
+
+  /** Creates a client sending its requests to the stub, without retries. */
+  AnthropicClient createClient() {
+    return AnthropicOkHttpClient.builder()
+        .apiKey("test-api-key")
+        .baseUrl("http://localhost:" + server.getAddress().getPort())
+        .maxRetries(0)
+        .build();
+  }
+
+  /** Creates an asynchronous client sending its requests to the stub, without retries. */
+  AnthropicClientAsync createAsyncClient() {
+    return createClient().async();
+  }
+
+  /** Creates a service streaming synchronously, without retries. */
+  AnthropicService createService() {
+    return createService(new RetryPolicy(1, 1, 1, 5, 30000, Clock.systemUTC(), new Random()));
+  }
+
+  /** Creates a service streaming synchronously, retrying by the given policy. */
+  AnthropicService createService(final RetryPolicy retryPolicy) {
+    return createService(retryPolicy, false, 64);
+  }
+
+  /**
+   * Creates a service sending its requests to the stub, without a result cache.
+   *
+   * @param retryPolicy the policy retrying failed requests
+   * @param asyncStreaming whether the responses are streamed on the async client
+   * @param streamQueueCapacity the text deltas queued for the parser of an async stream
+   * @return the service, with its prompts loaded
+   */
+  AnthropicService createService(
+      final RetryPolicy retryPolicy, final boolean asyncStreaming, final int streamQueueCapacity) {
+    var promptRegistry = new PromptRegistry(new FileService(), null);
+    promptRegistry.load();
+    var store = new AnalysisStore(null, 2, 0);
+    store.open();
+    var anthropicService =
+        new AnthropicService(
+            createClient(),
+            createAsyncClient(),
+            new ImageService(ImageCodec.PNG, 0.9f, 5 * 1024 * 1024, false),
+            new MultiSolutionStreamProcessor(),
+            new FileService(),
+            promptRegistry,
+            imageProcessingExecutor,
+            new AnalysisResultCache(0, 12, store),
+            new AnalysisCoordinator(),
+            retryPolicy,
+            analysisExecutor,
+            Model.of("claude-sonnet-4-6"),
+            asyncStreaming,
+            streamQueueCapacity);
+    anthropicService.loadPrompts();
+    return anthropicService;
+  }
+
+  synchronized List<JsonNode> requests() {
+    return List.copyOf(requests);
+  }
+
+  synchronized JsonNode lastRequest() {
+    return requests.getLast();
+  }
+
+  /** Waits for the first request, returning false on timeout. */
+  boolean awaitFirstRequest(final long timeoutMillis) throws InterruptedException {
+    return firstRequest.await(timeoutMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /** Waits until a client closed a stream before its end, returning false on timeout. */
+  boolean awaitDisconnect(final long timeoutMillis) throws InterruptedException {
+    return disconnected.await(timeoutMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+    imageProcessingExecutor.shutdown();
+    analysisExecutor.shutdown();
+  }
+
+  private static String event(final String type, final String data) {
+    return "event: " + type + "\ndata: " + data + "\n\n";
+  }
+
+  private void handleMessages(final HttpExchange exchange) throws IOException {
+    Failure failure;
+    synchronized (this) {
+      requests.add(JSON.readTree(exchange.getRequestBody()));
+      failure = failures.poll();
+    }
+    firstRequest.countDown();
+    if (failure != null) {
+      sendFailure(exchange, failure);
+      return;
+    }
+
+    exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+    exchange.sendResponseHeaders(200, 0);
+    try (var responseBody = exchange.getResponseBody()) {
+      for (final var event : events()) {
+        if (event.startsWith("event: content_block_delta")) {
+          TimeUnit.MILLISECONDS.sleep(delayPerLineMillis);
+        }
+        responseBody.write(event.getBytes(StandardCharsets.UTF_8));
+        responseBody.flush();
+      }
+    } catch (final IOException e) {
+      disconnected.countDown();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void sendFailure(final HttpExchange exchange, final Failure failure) throws IOException {
+    var error =
+        JSON.createObjectNode()
+            .put("type", "error")
+            .set(
+                "error",
+                JSON.createObjectNode()
+                    .put("type", failure.errorType())
+                    .put("message", "Injected " + failure.errorType()));
+    failure.headers().forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+    if (failure.statusCode() == 200) {
+      exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+      exchange.sendResponseHeaders(200, 0);
+      try (var responseBody = exchange.getResponseBody()) {
+        var stream =
+            String.join("", events().subList(0, 2 + FAILED_STREAM_LINES))
+                + event("error", JSON.writeValueAsString(error));
+        responseBody.write(stream.getBytes(StandardCharsets.UTF_8));
+      }
+      return;
+    }
+
+    var bytes = JSON.writeValueAsBytes(error);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(failure.statusCode(), bytes.length);
+    try (var responseBody = exchange.getResponseBody()) {
+      responseBody.write(bytes);
+    }
+  }
+
+  private List<String> events() {
+    var events = new ArrayList<String>();
+    events.add(
+        event(
+            "message_start",
+            """
+            {"type":"message_start","message":{"id":"msg_stub","type":"message",\
+            "role":"assistant","model":"claude-sonnet-4-6","content":[],"stop_reason":null,\
+            "stop_sequence":null,"usage":{"input_tokens":1600,"output_tokens":1,\
+            "cache_creation_input_tokens":0,"cache_read_input_tokens":900,\
+            "server_tool_use":null,"service_tier":"standard"}}}"""));
+    events.add(
+        event(
+            "content_block_start",
+            """
+            {"type":"content_block_start","index":0,"content_block":{"type":"text","text":""}}"""));
+    for (final var line : responseText.lines().toList()) {
+      var delta =
+          JSON.createObjectNode()
+              .put("type", "content_block_delta")
+              .put("index", 0)
+              .set(
+                  "delta",
+                  JSON.createObjectNode().put("type", "text_delta").put("text", line + "\n"));
+      try {
+        events.add(event("content_block_delta", JSON.writeValueAsString(delta)));
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    events.add(event("content_block_stop", "{\"type\":\"content_block_stop\",\"index\":0}"));
+    events.add(
+        event(
+            "message_delta",
+            """
+            {"type":"message_delta","delta":{"stop_reason":"end_turn","stop_sequence":null},\
+            "usage":{"input_tokens":1600,"output_tokens":1200,\
+            "cache_creation_input_tokens":0,"cache_read_input_tokens":900,\
+            "server_tool_use":null}}"""));
+    events.add(event("message_stop", "{\"type\":\"message_stop\"}"));
+    return events;
+  }
+}
@@ -29,18 +29,18 @@ class MultiSolutionResultTest {
       var solution1 = new StreamingAnalysisResult();
       var solution2 = new StreamingAnalysisResult();
 
-      result.addSolution(solution1);
+      result = result.withSolution(solution1);
       assertEquals(1, result.getSolutionCount());
       assertTrue(result.hasAnySolutions());
 
-      result.addSolution(solution2);
+      result = result.withSolution(solution2);
       assertEquals(2, result.getSolutionCount());
     }
 
     @Test
     void shouldReturnSolutionByIndex() {
       var solution = new StreamingAnalysisResult();
-      result.addSolution(solution);
+      result = result.withSolution(solution);
 
       assertTrue(result.getSolution(0).isPresent());
       assertSame(solution, result.getSolution(0).get());
@@ -51,7 +51,7 @@ class MultiSolutionResultTest {
     @Test
     void shouldReturnUnmodifiableListOfSolutions() {
       var solution = new StreamingAnalysisResult();
-      result.addSolution(solution);
+      result = result.withSolution(solution);
 
       assertEquals(1, result.getSolutionCount());
     }
@@ -64,11 +64,11 @@ class MultiSolutionResultTest {
     void shouldHandleSharedProblemStatement() {
       assertTrue(result.getSharedProblemStatement().isEmpty());
 
-      result.setSharedProblemStatement("Test problem");
+      result = result.withSharedProblemStatement("Test problem");
       assertTrue(result.getSharedProblemStatement().isPresent());
       assertEquals("Test problem", result.getSharedProblemStatement().get());
 
-      result.setSharedProblemStatement(null);
+      result = result.withSharedProblemStatement(null);
       assertTrue(result.getSharedProblemStatement().isEmpty());
     }
   }
@@ -87,32 +87,126 @@ class MultiSolutionResultTest {
       assertFalse(result.isComplete());
 
       var solution1 = createCompleteSolution();
-      result.addSolution(solution1);
+      result = result.withSolution(solution1);
       assertTrue(result.isComplete());
 
       var solution2 = new StreamingAnalysisResult(); // Incomplete solution
-      result.addSolution(solution2);
+      result = result.withSolution(solution2);
       assertFalse(result.isComplete());
 
       // Make second solution complete
-      solution2.setSection(SolutionSection.SOLUTION_DESCRIPTION, "Description");
-      solution2.setSection(SolutionSection.EDGE_CASES, "Edge cases");
-      solution2.setSection(SolutionSection.SOLUTION_CODE, "Code");
-      solution2.setSection(SolutionSection.TIME_COMPLEXITY, "O(n)");
-      solution2.setSection(SolutionSection.SPACE_COMPLEXITY, "O(1)");
-      solution2.setSection(SolutionSection.PROBLEM_STATEMENT, "Problem");
+      result = result.withSolution(1, createCompleteSolution());
       assertTrue(result.isComplete());
     }
   }
 
+  @Nested
+  class SectionEvents {
+
+    @Test
+    void shouldCreateSolutionWhenSectionStarts() {
+      result = result.withEvent(new SectionEvent.SectionStarted(0, SolutionSection.SOLUTION_TITLE));
+
+      assertEquals(1, result.getSolutionCount());
+      assertNull(result.getSolution(0).orElseThrow().getSolutionTitle());
+    }
+
+    @Test
+    void shouldAppendTextAtOffset() {
+      result =
+          result.withEvent(
+              new SectionEvent.SectionAppended(0, SolutionSection.SOLUTION_CODE, 0, "int a"));
+      result =
+          result.withEvent(
+              new SectionEvent.SectionAppended(0, SolutionSection.SOLUTION_CODE, 5, " = 1;"));
+
+      assertEquals("int a = 1;", result.getSolution(0).orElseThrow().getSolutionCode());
+    }
+
+    @Test
+    void shouldReplaceContentWhenAppendingAtStart() {
+      result =
+          result.withEvent(
+              new SectionEvent.SectionAppended(
+                  SectionEvent.SHARED_SOLUTION_INDEX, SolutionSection.PROBLEM_STATEMENT, 0, "Old"));
+      result =
+          result.withEvent(
+              new SectionEvent.SectionAppended(
+                  SectionEvent.SHARED_SOLUTION_INDEX, SolutionSection.PROBLEM_STATEMENT, 0, "New"));
+
+      assertEquals("New", result.getSharedProblemStatement().orElseThrow());
+      assertEquals(0, result.getSolutionCount());
+    }
+
+    @Test
+    void shouldRebuildSnapshotFromItsEvents() {
+      result =
+          result
+              .withSharedProblemStatement("Problem")
+              .withSolution(createCompleteSolution())
+              .withSolution(
+                  new StreamingAnalysisResult().withSection(SolutionSection.SOLUTION_CODE, "Code"));
+
+      var rebuilt = new MultiSolutionResult();
+      for (final var event : result.toSectionEvents()) {
+        rebuilt = rebuilt.withEvent(event);
+      }
+
+      assertEquals("Problem", rebuilt.getSharedProblemStatement().orElseThrow());
+      assertEquals(2, rebuilt.getSolutionCount());
+      assertEquals("Description", rebuilt.getSolution(0).orElseThrow().getSolutionDescription());
+      assertEquals("O(1)", rebuilt.getSolution(0).orElseThrow().getSpaceComplexity());
+      assertEquals("Code", rebuilt.getSolution(1).orElseThrow().getSolutionCode());
+      assertNull(rebuilt.getSolution(1).orElseThrow().getEdgeCases());
+    }
+  }
+
+  @Nested
+  class Snapshots {
+
+    @Test
+    void shouldIncreaseVersionOnUpdate() {
+      var original = result;
+
+      result = result.withSharedProblemStatement("Problem");
+
+      assertTrue(result.getVersion() > original.getVersion());
+      assertTrue(original.getSharedProblemStatement().isEmpty());
+    }
+
+    @Test
+    void shouldShareUnchangedSolutions() {
+      var first = createCompleteSolution();
+      result = result.withSolution(first).withSolution(new StreamingAnalysisResult());
+
+      var updated =
+          result.withEvent(
+              new SectionEvent.SectionAppended(1, SolutionSection.SOLUTION_CODE, 0, "Code"));
+
+      assertSame(first, updated.getSolution(0).orElseThrow());
+      assertNull(result.getSolution(1).orElseThrow().getSolutionCode());
+      assertEquals("Code", updated.getSolution(1).orElseThrow().getSolutionCode());
+    }
+
+    @Test
+    void shouldKeepSnapshotForEventsWithoutChanges() {
+      result = result.withSolution(createCompleteSolution());
+
+      var updated =
+          result.withEvent(new SectionEvent.SectionCompleted(0, SolutionSection.SOLUTION_CODE));
+
+      assertSame(result, updated);
+      assertEquals(result.getVersion(), updated.getVersion());
+    }
+  }
+
   private StreamingAnalysisResult createCompleteSolution() {
-    var solution = new StreamingAnalysisResult();
-    solution.setSection(SolutionSection.PROBLEM_STATEMENT, "Problem");
-    solution.setSection(SolutionSection.SOLUTION_DESCRIPTION, "Description");
-    solution.setSection(SolutionSection.EDGE_CASES, "Edge cases");
-    solution.setSection(SolutionSection.SOLUTION_CODE, "Code");
-    solution.setSection(SolutionSection.TIME_COMPLEXITY, "O(n)");
-    solution.setSection(SolutionSection.SPACE_COMPLEXITY, "O(1)");
-    return solution;
+    return new StreamingAnalysisResult()
+        .withSection(SolutionSection.PROBLEM_STATEMENT, "Problem")
+        .withSection(SolutionSection.SOLUTION_DESCRIPTION, "Description")
+        .withSection(SolutionSection.EDGE_CASES, "Edge cases")
+        .withSection(SolutionSection.SOLUTION_CODE, "Code")
+        .withSection(SolutionSection.TIME_COMPLEXITY, "O(n)")
+        .withSection(SolutionSection.SPACE_COMPLEXITY, "O(1)");
   }
 }
@@ -2,7 +2,10 @@ package dev.coding_challenge_souffleur.model;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.anthropic.helpers.MessageAccumulator;
 import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
 import org.jboss.weld.junit5.auto.AddBeanClasses;
 import org.jboss.weld.junit5.auto.EnableAutoWeld;
 import org.junit.jupiter.api.BeforeEach;
@@ -129,17 +132,17 @@ class MultiSolutionStreamProcessorTest {
 
   @Inject private MultiSolutionStreamProcessor processor;
 
-  private MultiSolutionResult result;
+  private MultiSolutionStream stream;
 
   @BeforeEach
   void setUp() {
-    result = new MultiSolutionResult();
+    stream = new MultiSolutionStream();
   }
 
   @Test
   void shouldProcessSingleSolutionText() {
-    var accumulatedText = new StringBuilder();
-    processor.processStreamEvents(result, accumulatedText, null, SINGLE_SOLUTION_TEXT);
+    processor.processStreamEvents(stream, null, SINGLE_SOLUTION_TEXT);
+    var result = stream.result();
 
     assertEquals(1, result.getSolutionCount());
     assertTrue(result.getSharedProblemStatement().isPresent());
@@ -154,8 +157,8 @@ class MultiSolutionStreamProcessorTest {
 
   @Test
   void shouldProcessMultipleSolutionsText() {
-    var accumulatedText = new StringBuilder();
-    processor.processStreamEvents(result, accumulatedText, null, MULTI_SOLUTION_TEXT);
+    processor.processStreamEvents(stream, null, MULTI_SOLUTION_TEXT);
+    var result = stream.result();
 
     assertEquals(2, result.getSolutionCount());
     assertTrue(result.getSharedProblemStatement().isPresent());
@@ -171,17 +174,16 @@ class MultiSolutionStreamProcessorTest {
 
   @Test
   void shouldHandleEmptyText() {
-    var accumulatedText = new StringBuilder();
-    processor.processStreamEvents(result, accumulatedText, null, "");
+    processor.processStreamEvents(stream, null, "");
 
-    assertEquals(0, result.getSolutionCount());
-    assertFalse(result.hasAnySolutions());
+    assertEquals(0, stream.result().getSolutionCount());
+    assertFalse(stream.result().hasAnySolutions());
   }
 
   @Test
   void shouldHandleTextWithoutSolutionTitles() {
-    var accumulatedText = new StringBuilder();
-    processor.processStreamEvents(result, accumulatedText, null, TEXT_WITHOUT_SOLUTION_TITLES);
+    processor.processStreamEvents(stream, null, TEXT_WITHOUT_SOLUTION_TITLES);
+    var result = stream.result();
 
     // Should create one solution even without explicit SOLUTION_TITLE
     assertEquals(1, result.getSolutionCount());
@@ -191,21 +193,59 @@ class MultiSolutionStreamProcessorTest {
 
   @Test
   void shouldUpdateResultProgressively() {
-    var accumulatedText = new StringBuilder();
-
     // First, add problem statement
-    processor.processStreamEvents(result, accumulatedText, null, PROBLEM_STATEMENT_ONLY);
+    processor.processStreamEvents(stream, null, PROBLEM_STATEMENT_ONLY);
+    var firstResult = stream.result();
 
-    assertTrue(result.getSharedProblemStatement().isPresent());
-    assertEquals(0, result.getSolutionCount());
+    assertTrue(firstResult.getSharedProblemStatement().isPresent());
+    assertEquals(0, firstResult.getSolutionCount());
 
     // Then add first solution
-    processor.processStreamEvents(result, accumulatedText, null, SOLUTION_CONTINUATION);
+    processor.processStreamEvents(stream, null, SOLUTION_CONTINUATION);
+    var secondResult = stream.result();
 
-    assertEquals(1, result.getSolutionCount());
-    var solution = result.getSolution(0).orElseThrow();
+    assertEquals(0, firstResult.getSolutionCount()); // Earlier snapshot is unchanged
+    assertEquals(1, secondResult.getSolutionCount());
+    var solution = secondResult.getSolution(0).orElseThrow();
     assertNotNull(solution.getSolutionTitle());
     assertNotNull(solution.getSolutionDescription());
     assertNull(solution.getSolutionCode()); // Not yet added
   }
+
+  @Test
+  void shouldNotifyListenerWithEventsOfEachDelta() {
+    var batches = new ArrayList<List<SectionEvent>>();
+
+    processor.processStreamEvents(
+        stream, (events, updated) -> batches.add(events), PROBLEM_STATEMENT_ONLY);
+    processor.processStreamEvents(stream, (events, updated) -> batches.add(events), "\n");
+
+    assertEquals(1, batches.size());
+    assertTrue(batches.getFirst().stream().allMatch(SectionEvent::isShared));
+  }
+
+  @Test
+  void shouldAdaptListenerToSnapshotCallback() {
+    var snapshots = new ArrayList<MultiSolutionResult>();
+
+    processor.processStreamEvents(
+        stream, SectionEventListener.ofSnapshots(snapshots::add), SINGLE_SOLUTION_TEXT);
+
+    assertEquals(List.of(stream.result()), snapshots);
+  }
+
+  @Test
+  void shouldApplyHeldBackTextWhenFinalResponseFails() {
+    var batches = new ArrayList<List<SectionEvent>>();
+    SectionEventListener listener = (events, updated) -> batches.add(events);
+    processor.processStreamEvents(stream, listener, "PROBLEM_STATEMENT:\nTest problem\n===SECT");
+    assertEquals("Test problem", stream.result().getSharedProblemStatement().orElseThrow());
+
+    // The accumulator received no message, so the complete response cannot be read
+    processor.handleFinalResponse(stream, listener, MessageAccumulator.create());
+
+    assertEquals(
+        "Test problem\n===SECT", stream.result().getSharedProblemStatement().orElseThrow());
+    assertEquals(2, batches.size());
+  }
 }
@@ -0,0 +1,52 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class MultiSolutionStreamTest {
+
+  @Test
+  void shouldStartWithEmptyResult() {
+    var stream = new MultiSolutionStream();
+
+    assertEquals(0, stream.result().getSolutionCount());
+    assertTrue(stream.result().getSharedProblemStatement().isEmpty());
+  }
+
+  @Test
+  void shouldPublishNewSnapshotPerChangingDelta() {
+    var stream = new MultiSolutionStream();
+
+    stream.append("SOLUTION_CODE:\nint a;");
+    var first = stream.result();
+    stream.append("\nint b;");
+    var second = stream.result();
+
+    assertEquals("int a;", first.getSolution(0).orElseThrow().getSolutionCode());
+    assertEquals("int a;\nint b;", second.getSolution(0).orElseThrow().getSolutionCode());
+    assertTrue(second.getVersion() > first.getVersion());
+  }
+
+  @Test
+  void shouldKeepSnapshotWhenDeltaChangesNothing() {
+    var stream = new MultiSolutionStream();
+    stream.append("PROBLEM_STATEMENT:\nProblem");
+    var before = stream.result();
+
+    stream.append("\n\n");
+
+    assertSame(before, stream.result());
+  }
+
+  @Test
+  void shouldPublishHeldBackTextOnFinish() {
+    var stream = new MultiSolutionStream();
+    stream.append("PROBLEM_STATEMENT:\nIs a ==");
+
+    stream.finish();
+
+    assertEquals("Is a ==", stream.result().getSharedProblemStatement().orElseThrow());
+    assertEquals("PROBLEM_STATEMENT:\nIs a ==", stream.text().toString());
+  }
+}
@@ -0,0 +1,75 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class PerceptualHashTest {
+
+  private static Image screenshot;
+
+  @BeforeAll
+  static void loadScreenshot() throws IOException {
+    try (var inputStream =
+        PerceptualHashTest.class.getResourceAsStream(
+            "/leetcode-screenshot-course-schedule-ii.png")) {
+      if (inputStream == null) {
+        throw new IllegalStateException("Test image resource not found");
+      }
+      screenshot = new Image(inputStream);
+    }
+  }
+
+  /** Copies a region of the screenshot, e.g. to simulate scrolling. */
+  private static Image crop(final int x, final int y, final int width, final int height) {
+    return new WritableImage(screenshot.getPixelReader(), x, y, width, height);
+  }
+
+  @Test
+  void of_ShouldHashEqualImagesEqually() {
+    var hash = PerceptualHash.of(screenshot);
+
+    assertEquals(0, hash.distanceTo(PerceptualHash.of(screenshot)));
+    assertEquals(hash, PerceptualHash.of(screenshot));
+    assertEquals(hash.hashCode(), PerceptualHash.of(screenshot).hashCode());
+  }
+
+  @Test
+  void distanceTo_ShouldBeSmallForScrolledScreenshot() {
+    var width = (int) screenshot.getWidth();
+    var height = (int) screenshot.getHeight() - 40;
+
+    var distance =
+        PerceptualHash.of(crop(0, 0, width, height))
+            .distanceTo(PerceptualHash.of(crop(0, 6, width, height)));
+
+    assertTrue(distance <= 12, "Distance of scrolled screenshot: " + distance);
+  }
+
+  @Test
+  void distanceTo_ShouldBeLargeForDifferentContent() {
+    var width = (int) screenshot.getWidth() / 2;
+    var height = (int) screenshot.getHeight();
+
+    var distance =
+        PerceptualHash.of(crop(0, 0, width, height))
+            .distanceTo(PerceptualHash.of(crop(width, 0, width, height)));
+
+    assertTrue(distance > 12, "Distance of different halves: " + distance);
+    assertTrue(
+        PerceptualHash.of(TestImages.createNoiseImage(64, 64, 1))
+                .distanceTo(PerceptualHash.of(TestImages.createNoiseImage(64, 64, 2)))
+            > 12);
+  }
+
+  @Test
+  void of_ShouldHashImagesSmallerThanTheGrid() {
+    var hash = PerceptualHash.of(TestImages.createNoiseImage(5, 3, 1));
+
+    assertEquals(0, hash.distanceTo(PerceptualHash.of(TestImages.createNoiseImage(5, 3, 1))));
+  }
+}
@@ -0,0 +1,202 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+
+class PngEncoderTest {
+
+  private final PngEncoder encoder = new PngEncoder(4, false);
+  private final PngEncoder colorReducingEncoder = new PngEncoder(4, true);
+
+  /** Creates an image of flat areas and noise, so that every filter type is chosen. */
+  private static WritableImage createImage(final int width, final int height, final int alpha) {
+    var random = new Random(42);
+    var image = new WritableImage(width, height);
+    var pixelWriter = image.getPixelWriter();
+    for (var y = 0; y < height; y++) {
+      for (var x = 0; x < width; x++) {
+        var rgb = (x / 7 + y / 5) % 3 == 0 ? random.nextInt() : x * y;
+        pixelWriter.setArgb(x, y, alpha << 24 | rgb & 0xFFFFFF);
+      }
+    }
+    return image;
+  }
+
+  private static void assertDecodesToSamePixels(final Image image, final byte[] png)
+      throws IOException {
+    var decoded = ImageIO.read(new ByteArrayInputStream(png));
+    assertEquals((int) image.getWidth(), decoded.getWidth());
+    assertEquals((int) image.getHeight(), decoded.getHeight());
+    var pixelReader = image.getPixelReader();
+    for (var y = 0; y < decoded.getHeight(); y++) {
+      for (var x = 0; x < decoded.getWidth(); x++) {
+        assertEquals(pixelReader.getArgb(x, y), decoded.getRGB(x, y), "pixel " + x + "," + y);
+      }
+    }
+  }
+
+  /** Asserts that the IDAT data is a single zlib stream of the expected length. */
+  private static void assertSingleZlibStream(final byte[] png, final int expectedLength)
+      throws DataFormatException {
+    var buffer = ByteBuffer.wrap(png, 8, png.length - 8);
+    var inflater = new Inflater();
+    try {
+      while (buffer.hasRemaining()) {
+        var length = buffer.getInt();
+        var type = new String(png, buffer.position(), 4, StandardCharsets.US_ASCII);
+        if (type.equals("IDAT")) {
+          inflater.setInput(png, buffer.position() + 4, length);
+        }
+        buffer.position(buffer.position() + 4 + length + 4);
+      }
+      var inflated = new byte[expectedLength + 1];
+      var inflatedLength = 0;
+      while (!inflater.finished() && inflatedLength < inflated.length) {
+        var count = inflater.inflate(inflated, inflatedLength, inflated.length - inflatedLength);
+        if (count == 0 && inflater.needsInput()) {
+          break;
+        }
+        inflatedLength += count;
+      }
+      assertTrue(inflater.finished());
+      assertEquals(expectedLength, inflatedLength);
+      assertEquals(0, inflater.getRemaining());
+    } finally {
+      inflater.end();
+    }
+  }
+
+  @Test
+  void shouldEncodeOpaqueImageAsRgb() throws IOException {
+    var image = createImage(16, 8, 0xFF);
+
+    var png = encoder.encode(image);
+
+    // Color type in the IHDR chunk
+    assertEquals(2, png[25]);
+    assertDecodesToSamePixels(image, png);
+  }
+
+  @Test
+  void shouldEncodeTranslucentImageAsRgba() throws IOException {
+    var image = createImage(16, 8, 0x80);
+
+    var png = encoder.encode(image);
+
+    assertEquals(6, png[25]);
+    assertDecodesToSamePixels(image, png);
+  }
+
+  @Test
+  void shouldStitchBandsOfLargeImageToValidStream() throws IOException {
+    // Large enough to be split into several bands on a multicore machine
+    var image = createImage(1600, 900, 0xFF);
+
+    assertDecodesToSamePixels(image, encoder.encode(image));
+  }
+
+  @Test
+  void shouldNotWriteEmptyBandsWhenBandHeightIsRoundedUp() throws DataFormatException {
+    // Rows long enough for a band each, so up to 16 cores split some heights into uneven bands
+    var width = 44_000;
+    for (var height = 2; height <= 17; height++) {
+      var image = createImage(width, height, 0xFF);
+
+      assertSingleZlibStream(encoder.encode(image), height * (1 + width * 3));
+    }
+  }
+
+  @Test
+  void shouldReusePixelBufferForImagesOfDifferentSize() throws IOException {
+    var large = createImage(64, 64, 0xFF);
+    var small = createImage(3, 200, 0xFF);
+
+    assertDecodesToSamePixels(large, encoder.encode(large));
+    assertDecodesToSamePixels(small, encoder.encode(small));
+    assertDecodesToSamePixels(large, encoder.encode(large));
+  }
+
+  @Test
+  void shouldEncodeGrayImageAsGrayscale() throws IOException {
+    var image = new WritableImage(32, 16);
+    for (var y = 0; y < 16; y++) {
+      for (var x = 0; x < 32; x++) {
+        var level = x * y % 256;
+        image.getPixelWriter().setArgb(x, y, 0xFF000000 | level << 16 | level << 8 | level);
+      }
+    }
+
+    var png = colorReducingEncoder.encode(image);
+
+    assertEquals(0, png[25]);
+    var decoded = ImageIO.read(new ByteArrayInputStream(png));
+    for (var y = 0; y < 16; y++) {
+      for (var x = 0; x < 32; x++) {
+        assertEquals(x * y % 256, decoded.getRaster().getSample(x, y, 0), "pixel " + x + "," + y);
+      }
+    }
+  }
+
+  @Test
+  void shouldEncodeImageOfFewColorsWithPalette() throws IOException {
+    var image = new WritableImage(32, 16);
+    for (var y = 0; y < 16; y++) {
+      for (var x = 0; x < 32; x++) {
+        image.getPixelWriter().setArgb(x, y, (x + y) % 4 == 0 ? 0xFF569CD6 : 0xFFFFFFFF - x);
+      }
+    }
+
+    var png = colorReducingEncoder.encode(image);
+
+    assertEquals(3, png[25]);
+    assertDecodesToSamePixels(image, png);
+  }
+
+  @Test
+  void shouldShrinkScreenshotOfCodeByReducingColors() throws IOException {
+    BufferedImage screenshot;
+    try (var inputStream =
+        getClass().getResourceAsStream("/leetcode-screenshot-course-schedule-ii.png")) {
+      screenshot = ImageIO.read(inputStream);
+    }
+    var image = new WritableImage(screenshot.getWidth(), screenshot.getHeight());
+    for (var y = 0; y < screenshot.getHeight(); y++) {
+      for (var x = 0; x < screenshot.getWidth(); x++) {
+        image.getPixelWriter().setArgb(x, y, screenshot.getRGB(x, y));
+      }
+    }
+
+    var rgbSize = encoder.encode(image).length;
+    var reducedSize = colorReducingEncoder.encode(image).length;
+
+    assertTrue(reducedSize * 2 < rgbSize, reducedSize + " bytes reduced, " + rgbSize + " as RGB");
+  }
+
+  @Test
+  void shouldCombineAdler32OfConsecutiveData() {
+    var data = new byte[100_000];
+    new Random(7).nextBytes(data);
+    var first = new Adler32();
+    first.update(data, 0, 30_000);
+    var second = new Adler32();
+    second.update(data, 30_000, 70_000);
+    var whole = new Adler32();
+    whole.update(data);
+
+    assertEquals(
+        whole.getValue(), PngEncoder.combineAdler32(first.getValue(), second.getValue(), 70_000));
+  }
+}
@@ -0,0 +1,111 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PromptRegistryTest {
+
+  @TempDir Path directory;
+
+  private static PromptRegistry loadFromClasspath() {
+    var registry = new PromptRegistry(new FileService(), null);
+    registry.load();
+    return registry;
+  }
+
+  /** Writes prompt files of the given line separator into a directory. */
+  private static void writePrompts(final Path directory, final String lineSeparator)
+      throws IOException {
+    Files.writeString(directory.resolve("system_prompt.txt"), "Base" + lineSeparator + "prompt");
+    Files.writeString(directory.resolve("response_format.txt"), "Format");
+    Files.writeString(directory.resolve("user_message.txt"), "Solve it");
+    for (final var codingLanguage : CodingLanguage.values()) {
+      Files.writeString(
+          directory.resolve(codingLanguage.getPromptFileName()),
+          "Use " + codingLanguage.getDisplayName());
+    }
+  }
+
+  @Test
+  void get_ShouldAssemblePromptsOfAllLanguages() {
+    // Given
+    var registry = loadFromClasspath();
+    var javaPrompt = registry.get(CodingLanguage.JAVA);
+
+    // Then the shared block is the same for all languages
+    for (final var codingLanguage : CodingLanguage.values()) {
+      var prompt = registry.get(codingLanguage);
+      assertEquals(2, prompt.blocks().size());
+      assertSame(javaPrompt.blocks().get(0), prompt.blocks().get(0));
+      assertFalse(prompt.userMessage().isBlank());
+    }
+    assertNotEquals(
+        javaPrompt.blocks().get(1), registry.get(CodingLanguage.PYTHON).blocks().get(1));
+  }
+
+  @Test
+  void contentHash_ShouldBeStableAndDifferPerLanguage() {
+    // Given
+    var registry = loadFromClasspath();
+
+    // Then
+    var otherRegistry = loadFromClasspath();
+    for (final var codingLanguage : CodingLanguage.values()) {
+      assertEquals(
+          registry.get(codingLanguage).contentHash(),
+          otherRegistry.get(codingLanguage).contentHash());
+    }
+    assertNotEquals(
+        registry.get(CodingLanguage.JAVA).contentHash(),
+        registry.get(CodingLanguage.GOLANG).contentHash());
+  }
+
+  @Test
+  void contentHash_ShouldNotDependOnLineSeparators() throws IOException {
+    // Given
+    var unixDirectory = Files.createDirectory(directory.resolve("unix"));
+    var windowsDirectory = Files.createDirectory(directory.resolve("windows"));
+    writePrompts(unixDirectory, "\n");
+    writePrompts(windowsDirectory, "\r\n");
+
+    // When
+    var unixRegistry = new PromptRegistry(new FileService(), unixDirectory);
+    var windowsRegistry = new PromptRegistry(new FileService(), windowsDirectory);
+    unixRegistry.load();
+    windowsRegistry.load();
+
+    // Then
+    assertEquals(
+        unixRegistry.get(CodingLanguage.JAVA).contentHash(),
+        windowsRegistry.get(CodingLanguage.JAVA).contentHash());
+    unixRegistry.close();
+    windowsRegistry.close();
+  }
+
+  @Test
+  void watchedDirectory_ShouldReloadChangedPrompts() throws IOException {
+    // Given
+    writePrompts(directory, "\n");
+    var registry = new PromptRegistry(new FileService(), directory);
+    registry.load();
+    var previousHash = registry.get(CodingLanguage.PYTHON).contentHash();
+
+    // When
+    Files.writeString(directory.resolve("python_prompt.txt"), "Use Python 3.12");
+
+    // Then
+    await()
+        .atMost(Duration.ofSeconds(30))
+        .until(() -> registry.get(CodingLanguage.PYTHON).contentHash() != previousHash);
+    assertEquals("Use Python 3.12", registry.get(CodingLanguage.PYTHON).blocks().get(1).text());
+    assertEquals("Use Java", registry.get(CodingLanguage.JAVA).blocks().get(1).text());
+    registry.close();
+  }
+}
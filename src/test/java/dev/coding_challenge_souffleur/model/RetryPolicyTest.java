@@ -0,0 +1,227 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.anthropic.core.JsonValue;
+import com.anthropic.core.http.Headers;
+import com.anthropic.errors.RateLimitException;
+import com.anthropic.errors.SseException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+  private static final Executor DIRECT = Runnable::run;
+
+  private static RetryPolicy createPolicy(final int maxAttempts) {
+    return new RetryPolicy(maxAttempts, 1, 5, 3, 1000, Clock.systemUTC(), new Random(1));
+  }
+
+  private static SseException streamError(final String errorType) {
+    var body = Map.of("type", "error", "error", Map.of("type", errorType, "message", "Injected"));
+    return SseException.builder()
+        .statusCode(200)
+        .headers(Headers.builder().build())
+        .body(JsonValue.from(body))
+        .build();
+  }
+
+  @Test
+  void nextDelayMillis_ShouldStayBetweenBaseAndThreeTimesPreviousDelay() {
+    // Given
+    var policy = new RetryPolicy(10, 100, 1000, 3, 1000, Clock.systemUTC(), new Random(1));
+
+    // Then
+    var delay = 100L;
+    for (var i = 0; i < 100; i++) {
+      var next = policy.nextDelayMillis(delay);
+      assertTrue(next >= 100, "at least the base delay: " + next);
+      assertTrue(next <= Math.min(1000, delay * 3), "at most three times " + delay + ": " + next);
+      delay = next;
+    }
+  }
+
+  @Test
+  void nextDelayMillis_ShouldSpreadDelays() {
+    // Given
+    var policy = new RetryPolicy(10, 100, 10_000, 3, 1000, Clock.systemUTC(), new Random(1));
+
+    // Then retries after the same delay do not wait alike
+    var first = policy.nextDelayMillis(1000);
+    var differing = false;
+    for (var i = 0; i < 10 && !differing; i++) {
+      differing = policy.nextDelayMillis(1000) != first;
+    }
+    assertTrue(differing);
+  }
+
+  @Test
+  void classify_ShouldRetryNetworkErrorsOnly() {
+    var networkError = new CompletionException(new UncheckedIOException(new IOException("reset")));
+    assertEquals(RetryPolicy.FailureKind.RETRYABLE, RetryPolicy.classify(networkError));
+    assertEquals(
+        RetryPolicy.FailureKind.FATAL, RetryPolicy.classify(new CancellationException("stop")));
+    assertEquals(
+        RetryPolicy.FailureKind.FATAL, RetryPolicy.classify(new IllegalArgumentException("bug")));
+  }
+
+  @Test
+  void classify_ShouldClassifyStreamErrorsByType() {
+    assertEquals(
+        RetryPolicy.FailureKind.OVERLOADED,
+        RetryPolicy.classify(new CompletionException(streamError("overloaded_error"))));
+    assertEquals(RetryPolicy.FailureKind.RETRYABLE, RetryPolicy.classify(streamError("api_error")));
+    assertEquals(
+        RetryPolicy.FailureKind.FATAL, RetryPolicy.classify(streamError("invalid_request_error")));
+  }
+
+  @Test
+  void execute_ShouldProbeAgainWhenProbeDoesNotComplete() {
+    // Given a circuit opened by an overload response
+    var circuitOpen = Duration.ofMillis(50);
+    var policy =
+        new RetryPolicy(1, 1, 5, 1, circuitOpen.toMillis(), Clock.systemUTC(), new Random(1));
+    var overloaded =
+        RateLimitException.builder()
+            .headers(Headers.builder().build())
+            .body(JsonValue.from(Map.of()))
+            .build();
+    var failed =
+        policy.execute(
+            () -> {
+              throw overloaded;
+            },
+            DIRECT);
+    assertThrows(CompletionException.class, failed::join);
+    assertEquals(RetryPolicy.CircuitState.OPEN, policy.getMetrics().circuitState());
+
+    // Given a probe that never completes
+    await().pollDelay(circuitOpen).until(() -> true);
+    var probe = policy.executeAsync(CompletableFuture<String>::new);
+    assertThrows(CompletionException.class, policy.execute(() -> "result", DIRECT)::join);
+
+    // When the probe times out
+    await().pollDelay(circuitOpen).until(() -> true);
+
+    // Then the next call probes again, closing the circuit
+    assertEquals("result", policy.execute(() -> "result", DIRECT).join());
+    assertEquals(RetryPolicy.CircuitState.CLOSED, policy.getMetrics().circuitState());
+    assertFalse(probe.isDone());
+  }
+
+  @Test
+  void execute_ShouldRetryUntilSuccess() {
+    // Given
+    var policy = createPolicy(3);
+    var calls = new AtomicInteger();
+
+    // When
+    var result =
+        policy
+            .execute(
+                () -> {
+                  if (calls.incrementAndGet() < 3) {
+                    throw new UncheckedIOException(new IOException("reset"));
+                  }
+                  return "result";
+                },
+                DIRECT)
+            .join();
+
+    // Then
+    assertEquals("result", result);
+    var metrics = policy.getMetrics();
+    assertEquals(3, metrics.attempts());
+    assertEquals(2, metrics.retries());
+    assertEquals(0, metrics.failures());
+  }
+
+  @Test
+  void executeAsync_ShouldRetryFailedFuture() {
+    // Given
+    var policy = createPolicy(3);
+    var calls = new AtomicInteger();
+
+    // When
+    var result =
+        policy
+            .executeAsync(
+                () ->
+                    calls.incrementAndGet() < 2
+                        ? CompletableFuture.<String>failedFuture(new IOException("reset"))
+                        : CompletableFuture.completedFuture("result"))
+            .join();
+
+    // Then
+    assertEquals("result", result);
+    assertEquals(2, calls.get());
+    assertEquals(1, policy.getMetrics().retries());
+  }
+
+  @Test
+  void execute_ShouldFailAfterLastAttempt() {
+    // Given
+    var policy = createPolicy(2);
+    var calls = new AtomicInteger();
+
+    // When
+    var future =
+        policy.execute(
+            () -> {
+              calls.incrementAndGet();
+              throw new UncheckedIOException(new IOException("reset"));
+            },
+            DIRECT);
+
+    // Then
+    var error = assertThrows(CompletionException.class, future::join);
+    assertInstanceOf(UncheckedIOException.class, error.getCause());
+    assertEquals(2, calls.get());
+    assertEquals(1, policy.getMetrics().failures());
+  }
+
+  @Test
+  void execute_ShouldNotRetryFatalFailure() {
+    // Given
+    var policy = createPolicy(3);
+    var calls = new AtomicInteger();
+
+    // When
+    var future =
+        policy.execute(
+            () -> {
+              calls.incrementAndGet();
+              throw new IllegalArgumentException("bug");
+            },
+            DIRECT);
+
+    // Then
+    assertThrows(CompletionException.class, future::join);
+    assertEquals(1, calls.get());
+    assertEquals(0, policy.getMetrics().retries());
+  }
+
+  @Test
+  void constructor_ShouldRejectInvalidSettings() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new RetryPolicy(0, 1, 5, 3, 1000, Clock.systemUTC(), new Random()));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new RetryPolicy(3, 10, 5, 3, 1000, Clock.systemUTC(), new Random()));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new RetryPolicy(3, 1, 5, 0, 1000, Clock.systemUTC(), new Random()));
+  }
+}
@@ -3,6 +3,8 @@ package dev.coding_challenge_souffleur.model;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Path;
+import javafx.scene.image.WritableImage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -11,10 +13,24 @@ class ScreenshotServiceTest {
   private ScreenshotService screenshotService;
   private ImageService imageService;
 
+  private ScreenshotService createScreenshotService(final boolean saveScreenshotToFile) {
+    return new ScreenshotService(
+        saveScreenshotToFile,
+        ImageTokenBudget.MAX_TOKENS,
+        WatchMode.OFF,
+        2000,
+        0.02,
+        imageService,
+        new ContentCropper(false, 1.0),
+        new ScreenshotWriter(Path.of("."), imageService, 1, 1, 1),
+        Runnable::run,
+        Runnable::run);
+  }
+
   @BeforeEach
   void setUp() {
-    imageService = new ImageService();
-    screenshotService = new ScreenshotService(false, imageService);
+    imageService = new ImageService(ImageCodec.PNG, 0.85f, Integer.MAX_VALUE, true);
+    screenshotService = createScreenshotService(false);
   }
 
   @Test
@@ -25,12 +41,30 @@ class ScreenshotServiceTest {
 
   @Test
   void constructor_WithSaveToFileEnabled_ShouldNotThrow() {
-    assertDoesNotThrow(() -> new ScreenshotService(true, imageService));
+    assertDoesNotThrow(() -> createScreenshotService(true));
   }
 
   @Test
   void constructor_WithSaveToFileDisabled_ShouldNotThrow() {
-    assertDoesNotThrow(() -> new ScreenshotService(false, imageService));
+    assertDoesNotThrow(() -> createScreenshotService(false));
+  }
+
+  @Test
+  void resizeToTokenBudget_ShouldScaleLargeCaptureToBudget() {
+    var result = screenshotService.resizeToTokenBudget(new WritableImage(2560, 1440));
+
+    var width = (int) result.getWidth();
+    var height = (int) result.getHeight();
+    assertTrue(width <= ImageTokenBudget.MAX_LONG_EDGE_PIXELS);
+    assertTrue(ImageTokenBudget.estimateTokens(width, height) <= ImageTokenBudget.MAX_TOKENS);
+    assertEquals(2560.0 / 1440, (double) width / height, 0.01);
+  }
+
+  @Test
+  void resizeToTokenBudget_ShouldKeepSmallCapture() {
+    var capture = new WritableImage(800, 600);
+
+    assertSame(capture, screenshotService.resizeToTokenBudget(capture));
   }
 
   @Test
@@ -0,0 +1,130 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import javafx.scene.image.WritableImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ScreenshotWriterTest {
+
+  private static final Instant CAPTURED_AT = Instant.parse("2025-01-01T12:00:00Z");
+
+  @TempDir Path directory;
+
+  private ImageService imageService;
+
+  private static CapturedScreenshot createScreenshot(final int color, final Instant capturedAt) {
+    var image = new WritableImage(8, 8);
+    image.getPixelWriter().setArgb(0, 0, color);
+    return new CapturedScreenshot(image, capturedAt);
+  }
+
+  private ScreenshotWriter createScreenshotWriter(final int queueCapacity, final int maxFiles) {
+    return new ScreenshotWriter(directory, imageService, queueCapacity, maxFiles, Long.MAX_VALUE);
+  }
+
+  private List<String> listFileNames() throws IOException {
+    try (var paths = Files.list(directory)) {
+      return paths.map(path -> path.getFileName().toString()).sorted().toList();
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    imageService = new ImageService(ImageCodec.PNG, 0.85f, Integer.MAX_VALUE, true);
+  }
+
+  @Test
+  void save_ShouldWriteEncodedScreenshotsWithoutOverwriting() throws IOException {
+    var writer = createScreenshotWriter(4, 10);
+    var first = createScreenshot(0xFF000000, CAPTURED_AT);
+    var second = createScreenshot(0xFF0000FF, CAPTURED_AT);
+
+    writer.start();
+    writer.save(first);
+    writer.save(second);
+    writer.shutdown();
+
+    var fileNames = listFileNames();
+    assertEquals(2, fileNames.size());
+    assertTrue(fileNames.get(0).matches("screenshot_\\d{8}-\\d{6}-\\d{3}\\.png"));
+    assertTrue(fileNames.get(1).matches("screenshot_\\d{8}-\\d{6}-\\d{3}_1\\.png"));
+    assertArrayEquals(
+        first.encode(imageService).data(), Files.readAllBytes(directory.resolve(fileNames.get(0))));
+    assertArrayEquals(
+        second.encode(imageService).data(),
+        Files.readAllBytes(directory.resolve(fileNames.get(1))));
+  }
+
+  @Test
+  void save_ShouldSkipUnchangedScreenshot() throws IOException {
+    var writer = createScreenshotWriter(4, 10);
+
+    writer.start();
+    writer.save(createScreenshot(0xFF000000, CAPTURED_AT));
+    writer.save(createScreenshot(0xFF000000, CAPTURED_AT.plusSeconds(1)));
+    writer.shutdown();
+
+    assertEquals(1, listFileNames().size());
+  }
+
+  @Test
+  void save_ShouldDeleteOldestScreenshotsBeyondMaxFiles() throws IOException {
+    var writer = createScreenshotWriter(4, 2);
+
+    writer.start();
+    for (var i = 0; i < 3; i++) {
+      writer.save(createScreenshot(0xFF000000 | i, CAPTURED_AT.plusSeconds(i)));
+    }
+    writer.shutdown();
+
+    var fileNames = listFileNames();
+    assertEquals(2, fileNames.size());
+    // The minutes and seconds of the two latest capture times
+    assertTrue(fileNames.get(0).contains("0001-000"), fileNames.get(0));
+    assertTrue(fileNames.get(1).contains("0002-000"), fileNames.get(1));
+  }
+
+  @Test
+  void save_ShouldKeepFilesNotNamedByWriter() throws IOException {
+    var writer = createScreenshotWriter(4, 1);
+    Files.writeString(directory.resolve("screenshot_baseline.png"), "baseline");
+    Files.writeString(directory.resolve("screenshot_20250101-115959-000.jpg.bak"), "backup");
+
+    writer.start();
+    writer.save(createScreenshot(0xFF000000, CAPTURED_AT));
+    writer.save(createScreenshot(0xFF0000FF, CAPTURED_AT.plusSeconds(1)));
+    writer.shutdown();
+
+    var fileNames = listFileNames();
+    assertEquals(3, fileNames.size(), fileNames.toString());
+    assertTrue(fileNames.contains("screenshot_baseline.png"));
+    assertTrue(fileNames.contains("screenshot_20250101-115959-000.jpg.bak"));
+    assertTrue(fileNames.stream().anyMatch(name -> name.contains("0001-000.png")));
+  }
+
+  @Test
+  void save_WhenQueueFull_ShouldDropOldestScreenshot() throws IOException {
+    var writer = createScreenshotWriter(1, 10);
+    var latest = createScreenshot(0xFF0000FF, CAPTURED_AT);
+
+    // Nothing is written before the writer starts
+    writer.save(createScreenshot(0xFF000000, CAPTURED_AT));
+    writer.save(latest);
+    writer.start();
+    writer.shutdown();
+
+    var fileNames = listFileNames();
+    assertEquals(1, fileNames.size());
+    assertArrayEquals(
+        latest.encode(imageService).data(),
+        Files.readAllBytes(directory.resolve(fileNames.get(0))));
+  }
+}
@@ -0,0 +1,87 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class SectionMarkerScannerTest {
+
+  private static List<String> findAll(final CharSequence text) {
+    var found = new ArrayList<String>();
+    var cursor = SectionMarkerScanner.instance().cursor();
+    while (cursor.find(text)) {
+      var name = cursor.section().map(Enum::name).orElse("END");
+      found.add(name + "@" + cursor.start() + "-" + cursor.end());
+    }
+    return found;
+  }
+
+  @Test
+  void shouldFindAllMarkersInOnePass() {
+    var text =
+        "PROBLEM_STATEMENT:\nP\n"
+            + SolutionSection.SECTION_END
+            + "\nSOLUTION_TITLE: T "
+            + SolutionSection.SECTION_END;
+
+    assertEquals(
+        List.of("PROBLEM_STATEMENT@0-18", "END@21-38", "SOLUTION_TITLE@39-54", "END@57-74"),
+        findAll(text));
+  }
+
+  @Test
+  void shouldFindEveryHeader() {
+    for (final var section : SolutionSection.values()) {
+      var cursor = SectionMarkerScanner.instance().cursor();
+
+      assertTrue(cursor.find("text " + section.headerPrefix() + " more"));
+      assertEquals(Optional.of(section), cursor.section());
+      assertFalse(cursor.isSectionEnd());
+      assertEquals(5, cursor.start());
+      assertEquals(5 + section.headerPrefix().length(), cursor.end());
+    }
+  }
+
+  @Test
+  void shouldIgnoreTextWithoutMarkers() {
+    assertEquals(List.of(), findAll("SOLUTION_ TITLE: ==SECTION_END== ünïcödé"));
+  }
+
+  @Test
+  void shouldTellSolutionHeadersFromProblemStatement() {
+    assertEquals(
+        List.of("SOLUTION_DESCRIPTION@0-21", "EDGE_CASES@39-50"),
+        findAll("SOLUTION_DESCRIPTION: Description here EDGE_CASES: Some edge cases"));
+    assertEquals(
+        List.of("PROBLEM_STATEMENT@10-28"), findAll("Some text PROBLEM_STATEMENT: Problem"));
+    assertEquals(List.of(), findAll(""));
+  }
+
+  @Test
+  void shouldFindMarkerSplitAcrossGrowingText() {
+    var text = new StringBuilder("abc ===SEC");
+    var cursor = SectionMarkerScanner.instance().cursor();
+
+    assertFalse(cursor.find(text));
+    assertEquals(text.length(), cursor.position());
+    assertEquals("===SEC".length(), cursor.pendingLength());
+
+    text.append("TION_END=== def");
+    assertTrue(cursor.find(text));
+    assertTrue(cursor.isSectionEnd());
+    assertEquals(4, cursor.start());
+    assertFalse(cursor.find(text));
+    assertEquals(0, cursor.pendingLength());
+  }
+
+  @Test
+  void shouldThrowWhenNoMarkerFound() {
+    var cursor = SectionMarkerScanner.instance().cursor();
+
+    assertFalse(cursor.find("nothing"));
+    assertThrows(IllegalStateException.class, cursor::start);
+  }
+}
@@ -0,0 +1,222 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import dev.coding_challenge_souffleur.model.SectionEvent.SectionAppended;
+import dev.coding_challenge_souffleur.model.SectionEvent.SectionCompleted;
+import dev.coding_challenge_souffleur.model.SectionEvent.SectionStarted;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SectionStreamParserTest {
+
+  private static final String TWO_SOLUTIONS_TEXT =
+      """
+      PROBLEM_STATEMENT:
+      Find the pair
+      ===SECTION_END===
+
+      SOLUTION_TITLE:
+      Brute Force
+      ===SECTION_END===
+
+      SOLUTION_CODE:
+      if (a == b) { return; }
+      ===SECTION_END===
+
+      SOLUTION_TITLE:
+      Hash Map
+      ===SECTION_END===
+
+      SOLUTION_DESCRIPTION:
+      Remember seen values
+      ===SECTION_END===
+      """;
+
+  private static boolean hasAppendedText(final List<SectionEvent> events) {
+    return events.stream().anyMatch(SectionAppended.class::isInstance);
+  }
+
+  private static void assertTwoSolutions(final MultiSolutionResult result) {
+    assertEquals("Find the pair", result.getSharedProblemStatement().orElseThrow());
+    assertEquals(2, result.getSolutionCount());
+
+    var first = result.getSolution(0).orElseThrow();
+    assertEquals("Brute Force", first.getSolutionTitle());
+    assertEquals("if (a == b) { return; }", first.getSolutionCode());
+
+    var second = result.getSolution(1).orElseThrow();
+    assertEquals("Hash Map", second.getSolutionTitle());
+    assertEquals("Remember seen values", second.getSolutionDescription());
+    assertNull(second.getSolutionCode());
+  }
+
+  @Test
+  void shouldParseCompleteTextInOneDelta() {
+    var stream = new MultiSolutionStream();
+
+    assertTrue(hasAppendedText(stream.append(TWO_SOLUTIONS_TEXT)));
+
+    assertTwoSolutions(stream.result());
+  }
+
+  @Test
+  void shouldRecognizeMarkersSplitAcrossSingleCharacterDeltas() {
+    var stream = new MultiSolutionStream();
+
+    for (var i = 0; i < TWO_SOLUTIONS_TEXT.length(); i++) {
+      stream.append(TWO_SOLUTIONS_TEXT.substring(i, i + 1));
+    }
+
+    assertTwoSolutions(stream.result());
+  }
+
+  @Test
+  void shouldCaptureContentOfCompleteSection() {
+    var parser = new SectionStreamParser();
+
+    var events = parser.append("SOLUTION_TITLE:My awesome solution===SECTION_END===");
+
+    assertEquals(
+        List.of(
+            new SectionStarted(0, SolutionSection.SOLUTION_TITLE),
+            new SectionAppended(0, SolutionSection.SOLUTION_TITLE, 0, "My awesome solution"),
+            new SectionCompleted(0, SolutionSection.SOLUTION_TITLE)),
+        events);
+  }
+
+  @Test
+  void shouldCaptureContentOfPartialSection() {
+    var stream = new MultiSolutionStream();
+
+    stream.append("SOLUTION_TITLE:My awesome solution");
+
+    assertEquals(
+        "My awesome solution", stream.result().getSolution(0).orElseThrow().getSolutionTitle());
+  }
+
+  @Test
+  void shouldHoldBackPotentialSectionEndUntilDecided() {
+    var stream = new MultiSolutionStream();
+
+    stream.append("SOLUTION_TITLE:\nTitle\n===SECT");
+    assertEquals("Title", stream.result().getSolution(0).orElseThrow().getSolutionTitle());
+
+    stream.append("ION_END===");
+    assertEquals("Title", stream.result().getSolution(0).orElseThrow().getSolutionTitle());
+  }
+
+  @Test
+  void shouldEmitHeldBackTextWhenItTurnsOutNotToBeAMarker() {
+    var stream = new MultiSolutionStream();
+
+    stream.append("SOLUTION_CODE:\nx ==");
+    assertEquals("x", stream.result().getSolution(0).orElseThrow().getSolutionCode());
+
+    stream.append(" y");
+    assertEquals("x == y", stream.result().getSolution(0).orElseThrow().getSolutionCode());
+  }
+
+  @Test
+  void shouldEmitHeldBackTextOnFinish() {
+    var stream = new MultiSolutionStream();
+
+    stream.append("SOLUTION_CODE:\nreturn a ==");
+    assertTrue(hasAppendedText(stream.finish()));
+
+    assertEquals("return a ==", stream.result().getSolution(0).orElseThrow().getSolutionCode());
+  }
+
+  @Test
+  void shouldNotReportUnchangedContent() {
+    var stream = new MultiSolutionStream();
+
+    assertTrue(hasAppendedText(stream.append("PROBLEM_STATEMENT:\nProblem")));
+    assertFalse(hasAppendedText(stream.append("  \n")));
+    assertFalse(hasAppendedText(stream.append("===SECTION_END===")));
+    assertEquals("Problem", stream.result().getSharedProblemStatement().orElseThrow());
+  }
+
+  @Test
+  void shouldKeepText() {
+    var parser = new SectionStreamParser();
+
+    parser.append("abc");
+    parser.append("def");
+
+    assertEquals("abcdef", parser.text().toString());
+  }
+
+  @Test
+  void shouldEmitEventsInStreamOrder() {
+    var parser = new SectionStreamParser();
+
+    var events = parser.append("PROBLEM_STATEMENT:\nP ===SECTION_END===\nSOLUTION_TITLE: T\n");
+
+    assertEquals(
+        List.of(
+            new SectionStarted(
+                SectionEvent.SHARED_SOLUTION_INDEX, SolutionSection.PROBLEM_STATEMENT),
+            new SectionAppended(
+                SectionEvent.SHARED_SOLUTION_INDEX, SolutionSection.PROBLEM_STATEMENT, 0, "P"),
+            new SectionCompleted(
+                SectionEvent.SHARED_SOLUTION_INDEX, SolutionSection.PROBLEM_STATEMENT),
+            new SectionStarted(0, SolutionSection.SOLUTION_TITLE),
+            new SectionAppended(0, SolutionSection.SOLUTION_TITLE, 0, "T")),
+        events);
+  }
+
+  @Test
+  void shouldOnlyEmitNewTextWithOffset() {
+    var parser = new SectionStreamParser();
+
+    parser.append("SOLUTION_CODE:\nint a;");
+    var events = parser.append("\nint b;");
+
+    assertEquals(
+        List.of(new SectionAppended(0, SolutionSection.SOLUTION_CODE, 6, "\nint b;")), events);
+  }
+
+  @Test
+  void shouldCompleteSectionsOfPreviousSolutionOnNextTitle() {
+    var parser = new SectionStreamParser();
+
+    parser.append("SOLUTION_TITLE: A\nSOLUTION_CODE: x\n");
+    var events = parser.append("SOLUTION_TITLE: B");
+
+    assertEquals(
+        List.of(
+            new SectionCompleted(0, SolutionSection.SOLUTION_TITLE),
+            new SectionCompleted(0, SolutionSection.SOLUTION_CODE),
+            new SectionStarted(1, SolutionSection.SOLUTION_TITLE),
+            new SectionAppended(1, SolutionSection.SOLUTION_TITLE, 0, "B")),
+        events);
+  }
+
+  @Test
+  void shouldKeepSolutionIndexOfContentStreamedBeforeFirstTitle() {
+    var stream = new MultiSolutionStream();
+
+    stream.append("SOLUTION_DESCRIPTION: Sort first\n");
+    var events = stream.append("SOLUTION_TITLE: Two Pointers");
+
+    // The view keeps the description, as the title refers to the same solution
+    assertEquals(
+        List.of(
+            new SectionCompleted(0, SolutionSection.SOLUTION_DESCRIPTION),
+            new SectionStarted(0, SolutionSection.SOLUTION_TITLE),
+            new SectionAppended(0, SolutionSection.SOLUTION_TITLE, 0, "Two Pointers")),
+        events);
+    assertEquals(
+        "Sort first", stream.result().getSolution(0).orElseThrow().getSolutionDescription());
+  }
+
+  @Test
+  void shouldNotEmitEventsForWhitespace() {
+    var parser = new SectionStreamParser();
+
+    parser.append("SOLUTION_CODE: x");
+
+    assertEquals(List.of(), parser.append(" \n\t"));
+  }
+}
@@ -27,130 +27,4 @@ class SolutionSectionTest {
         SolutionSection.SPACE_COMPLEXITY.name() + ":",
         SolutionSection.SPACE_COMPLEXITY.headerPrefix());
   }
-
-  @Test
-  void shouldReturnValidCompletePattern() {
-    var pattern = SolutionSection.SOLUTION_TITLE.completePattern();
-
-    assertNotNull(pattern);
-    assertTrue(
-        pattern
-            .matcher(
-                SolutionSection.SOLUTION_TITLE.headerPrefix()
-                    + "Some content"
-                    + SolutionSection.SECTION_END)
-            .matches());
-    assertFalse(
-        pattern.matcher(SolutionSection.SOLUTION_TITLE.headerPrefix() + "Some content").matches());
-  }
-
-  @Test
-  void shouldReturnValidPartialPattern() {
-    var pattern = SolutionSection.SOLUTION_TITLE.partialPattern();
-
-    assertNotNull(pattern);
-    assertTrue(
-        pattern
-            .matcher(
-                SolutionSection.SOLUTION_TITLE.headerPrefix()
-                    + "Some content"
-                    + SolutionSection.SECTION_END)
-            .find());
-    assertTrue(
-        pattern.matcher(SolutionSection.SOLUTION_TITLE.headerPrefix() + "Some content").find());
-  }
-
-  @Test
-  void shouldDetectSolutionContentWhenPresent() {
-    var textWithSolution =
-        "Some text " + SolutionSection.SOLUTION_TITLE.headerPrefix() + " My solution title";
-
-    assertTrue(SolutionSection.containsSolutionContent(textWithSolution));
-  }
-
-  @Test
-  void shouldDetectSolutionContentForMultipleSections() {
-    var textWithSolution =
-        SolutionSection.SOLUTION_DESCRIPTION.headerPrefix()
-            + " Description here "
-            + SolutionSection.EDGE_CASES.headerPrefix()
-            + " Some edge cases";
-
-    assertTrue(SolutionSection.containsSolutionContent(textWithSolution));
-  }
-
-  @Test
-  void shouldNotDetectSolutionContentWhenOnlyProblemStatementPresent() {
-    var textWithoutSolution =
-        "Some text " + SolutionSection.PROBLEM_STATEMENT.headerPrefix() + " Problem description";
-
-    assertFalse(SolutionSection.containsSolutionContent(textWithoutSolution));
-  }
-
-  @Test
-  void shouldNotDetectSolutionContentWhenNotPresent() {
-    var textWithoutSolution = "Some random text without any solution sections";
-
-    assertFalse(SolutionSection.containsSolutionContent(textWithoutSolution));
-  }
-
-  @Test
-  void shouldReturnFalseForNullText() {
-    assertFalse(SolutionSection.containsSolutionContent(null));
-  }
-
-  @Test
-  void shouldReturnFalseForEmptyText() {
-    assertFalse(SolutionSection.containsSolutionContent(""));
-  }
-
-  @Test
-  void shouldHaveSolutionBoundaryPattern() {
-    var pattern = SolutionSection.SOLUTION_BOUNDARY_PATTERN_INSTANCE;
-
-    assertNotNull(pattern);
-    assertTrue(pattern.matcher(SolutionSection.SOLUTION_TITLE.headerPrefix()).find());
-  }
-
-  @Test
-  void shouldMatchCompletePatternWithSectionEnd() {
-    var text =
-        SolutionSection.SOLUTION_TITLE.headerPrefix()
-            + "My awesome solution"
-            + SolutionSection.SECTION_END;
-    var pattern = SolutionSection.SOLUTION_TITLE.completePattern();
-
-    assertTrue(pattern.matcher(text).matches());
-  }
-
-  @Test
-  void shouldCaptureContentFromCompletePattern() {
-    var text =
-        SolutionSection.SOLUTION_TITLE.headerPrefix()
-            + "My awesome solution"
-            + SolutionSection.SECTION_END;
-    var pattern = SolutionSection.SOLUTION_TITLE.completePattern();
-    var matcher = pattern.matcher(text);
-
-    assertTrue(matcher.matches());
-    assertEquals("My awesome solution", matcher.group(1));
-  }
-
-  @Test
-  void shouldMatchPartialPatternWithoutSectionEnd() {
-    var text = SolutionSection.SOLUTION_TITLE.headerPrefix() + "My awesome solution";
-    var pattern = SolutionSection.SOLUTION_TITLE.partialPattern();
-
-    assertTrue(pattern.matcher(text).find());
-  }
-
-  @Test
-  void shouldCaptureContentFromPartialPattern() {
-    var text = SolutionSection.SOLUTION_TITLE.headerPrefix() + "My awesome solution";
-    var pattern = SolutionSection.SOLUTION_TITLE.partialPattern();
-    var matcher = pattern.matcher(text);
-
-    assertTrue(matcher.find());
-    assertEquals("My awesome solution", matcher.group(1));
-  }
 }
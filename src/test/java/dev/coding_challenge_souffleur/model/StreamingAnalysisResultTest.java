@@ -21,12 +21,12 @@ class StreamingAnalysisResultTest {
     void shouldBeCompleteWhenAllRequiredSectionsPresent() {
       var result = new StreamingAnalysisResult();
 
-      result.setSection(SolutionSection.PROBLEM_STATEMENT, "Problem");
-      result.setSection(SolutionSection.SOLUTION_DESCRIPTION, "Description");
-      result.setSection(SolutionSection.EDGE_CASES, "Edge cases");
-      result.setSection(SolutionSection.SOLUTION_CODE, "Code");
-      result.setSection(SolutionSection.TIME_COMPLEXITY, "O(n)");
-      result.setSection(SolutionSection.SPACE_COMPLEXITY, "O(1)");
+      result = result.withSection(SolutionSection.PROBLEM_STATEMENT, "Problem");
+      result = result.withSection(SolutionSection.SOLUTION_DESCRIPTION, "Description");
+      result = result.withSection(SolutionSection.EDGE_CASES, "Edge cases");
+      result = result.withSection(SolutionSection.SOLUTION_CODE, "Code");
+      result = result.withSection(SolutionSection.TIME_COMPLEXITY, "O(n)");
+      result = result.withSection(SolutionSection.SPACE_COMPLEXITY, "O(1)");
 
       assertTrue(result.isComplete());
     }
@@ -35,11 +35,11 @@ class StreamingAnalysisResultTest {
     void shouldBeIncompleteWhenMissingSolutionDescription() {
       var result = new StreamingAnalysisResult();
 
-      result.setSection(SolutionSection.PROBLEM_STATEMENT, "Problem");
-      result.setSection(SolutionSection.EDGE_CASES, "Edge cases");
-      result.setSection(SolutionSection.SOLUTION_CODE, "Code");
-      result.setSection(SolutionSection.TIME_COMPLEXITY, "O(n)");
-      result.setSection(SolutionSection.SPACE_COMPLEXITY, "O(1)");
+      result = result.withSection(SolutionSection.PROBLEM_STATEMENT, "Problem");
+      result = result.withSection(SolutionSection.EDGE_CASES, "Edge cases");
+      result = result.withSection(SolutionSection.SOLUTION_CODE, "Code");
+      result = result.withSection(SolutionSection.TIME_COMPLEXITY, "O(n)");
+      result = result.withSection(SolutionSection.SPACE_COMPLEXITY, "O(1)");
 
       assertFalse(result.isComplete());
     }
@@ -48,12 +48,12 @@ class StreamingAnalysisResultTest {
     void shouldCompleteWithSolutionTitleOptional() {
       var result = new StreamingAnalysisResult();
 
-      result.setSection(SolutionSection.PROBLEM_STATEMENT, "Problem");
-      result.setSection(SolutionSection.SOLUTION_DESCRIPTION, "Description");
-      result.setSection(SolutionSection.EDGE_CASES, "Edge cases");
-      result.setSection(SolutionSection.SOLUTION_CODE, "Code");
-      result.setSection(SolutionSection.TIME_COMPLEXITY, "O(n)");
-      result.setSection(SolutionSection.SPACE_COMPLEXITY, "O(1)");
+      result = result.withSection(SolutionSection.PROBLEM_STATEMENT, "Problem");
+      result = result.withSection(SolutionSection.SOLUTION_DESCRIPTION, "Description");
+      result = result.withSection(SolutionSection.EDGE_CASES, "Edge cases");
+      result = result.withSection(SolutionSection.SOLUTION_CODE, "Code");
+      result = result.withSection(SolutionSection.TIME_COMPLEXITY, "O(n)");
+      result = result.withSection(SolutionSection.SPACE_COMPLEXITY, "O(1)");
 
       assertTrue(result.isComplete());
       assertNull(result.getSolutionTitle());
@@ -67,7 +67,7 @@ class StreamingAnalysisResultTest {
     void shouldSetAndGetProblemStatement() {
       var result = new StreamingAnalysisResult();
 
-      result.setSection(SolutionSection.PROBLEM_STATEMENT, "Test problem");
+      result = result.withSection(SolutionSection.PROBLEM_STATEMENT, "Test problem");
 
       assertEquals("Test problem", result.getProblemStatement());
     }
@@ -76,7 +76,7 @@ class StreamingAnalysisResultTest {
     void shouldSetAndGetSolutionTitle() {
       var result = new StreamingAnalysisResult();
 
-      result.setSection(SolutionSection.SOLUTION_TITLE, "Test title");
+      result = result.withSection(SolutionSection.SOLUTION_TITLE, "Test title");
 
       assertEquals("Test title", result.getSolutionTitle());
     }
@@ -85,7 +85,7 @@ class StreamingAnalysisResultTest {
     void shouldSetAndGetSolutionDescription() {
       var result = new StreamingAnalysisResult();
 
-      result.setSection(SolutionSection.SOLUTION_DESCRIPTION, "Test description");
+      result = result.withSection(SolutionSection.SOLUTION_DESCRIPTION, "Test description");
 
       assertEquals("Test description", result.getSolutionDescription());
     }
@@ -94,7 +94,7 @@ class StreamingAnalysisResultTest {
     void shouldSetAndGetEdgeCases() {
       var result = new StreamingAnalysisResult();
 
-      result.setSection(SolutionSection.EDGE_CASES, "Test edge cases");
+      result = result.withSection(SolutionSection.EDGE_CASES, "Test edge cases");
 
       assertEquals("Test edge cases", result.getEdgeCases());
     }
@@ -103,7 +103,7 @@ class StreamingAnalysisResultTest {
     void shouldSetAndGetSolutionCode() {
       var result = new StreamingAnalysisResult();
 
-      result.setSection(SolutionSection.SOLUTION_CODE, "Test code");
+      result = result.withSection(SolutionSection.SOLUTION_CODE, "Test code");
 
       assertEquals("Test code", result.getSolutionCode());
     }
@@ -112,7 +112,7 @@ class StreamingAnalysisResultTest {
     void shouldSetAndGetTimeComplexity() {
       var result = new StreamingAnalysisResult();
 
-      result.setSection(SolutionSection.TIME_COMPLEXITY, "O(n)");
+      result = result.withSection(SolutionSection.TIME_COMPLEXITY, "O(n)");
 
       assertEquals("O(n)", result.getTimeComplexity());
     }
@@ -121,7 +121,7 @@ class StreamingAnalysisResultTest {
     void shouldSetAndGetSpaceComplexity() {
       var result = new StreamingAnalysisResult();
 
-      result.setSection(SolutionSection.SPACE_COMPLEXITY, "O(1)");
+      result = result.withSection(SolutionSection.SPACE_COMPLEXITY, "O(1)");
 
       assertEquals("O(1)", result.getSpaceComplexity());
     }
@@ -130,7 +130,7 @@ class StreamingAnalysisResultTest {
     void shouldGetValueForSection() {
       var result = new StreamingAnalysisResult();
 
-      result.setSection(SolutionSection.SOLUTION_TITLE, "Test title");
+      result = result.withSection(SolutionSection.SOLUTION_TITLE, "Test title");
 
       assertEquals("Test title", result.getValueForSection(SolutionSection.SOLUTION_TITLE));
     }
@@ -148,13 +148,46 @@ class StreamingAnalysisResultTest {
     void shouldOverwriteExistingSection() {
       var result = new StreamingAnalysisResult();
 
-      result.setSection(SolutionSection.PROBLEM_STATEMENT, "First value");
-      result.setSection(SolutionSection.PROBLEM_STATEMENT, "Second value");
+      result = result.withSection(SolutionSection.PROBLEM_STATEMENT, "First value");
+      result = result.withSection(SolutionSection.PROBLEM_STATEMENT, "Second value");
 
       assertEquals("Second value", result.getProblemStatement());
     }
   }
 
+  @Nested
+  class Immutability {
+
+    @Test
+    void shouldNotModifyPreviousSnapshot() {
+      var original = new StreamingAnalysisResult();
+
+      var updated = original.withSection(SolutionSection.SOLUTION_CODE, "Code");
+
+      assertNull(original.getSolutionCode());
+      assertEquals("Code", updated.getSolutionCode());
+    }
+
+    @Test
+    void shouldShareUnchangedSections() {
+      var description = "Description";
+      var original =
+          new StreamingAnalysisResult()
+              .withSection(SolutionSection.SOLUTION_DESCRIPTION, description);
+
+      var updated = original.withSection(SolutionSection.SOLUTION_CODE, "Code");
+
+      assertSame(description, updated.getSolutionDescription());
+    }
+
+    @Test
+    void shouldReturnSameSnapshotForEqualContent() {
+      var original = new StreamingAnalysisResult().withSection(SolutionSection.EDGE_CASES, "None");
+
+      assertSame(original, original.withSection(SolutionSection.EDGE_CASES, "None"));
+    }
+  }
+
   @Nested
   class Validation {
 
@@ -165,7 +198,7 @@ class StreamingAnalysisResultTest {
       var exception =
           assertThrows(
               IllegalArgumentException.class,
-              () -> result.setSection(SolutionSection.PROBLEM_STATEMENT, null));
+              () -> result.withSection(SolutionSection.PROBLEM_STATEMENT, null));
 
       assertEquals(
           "Value cannot be null when setting section PROBLEM_STATEMENT", exception.getMessage());
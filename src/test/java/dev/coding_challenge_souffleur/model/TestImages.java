@@ -0,0 +1,31 @@
+package dev.coding_challenge_souffleur.model;
+
+import java.util.Random;
+import javafx.scene.image.WritableImage;
+
+/** Images shared by the tests of screenshot processing and analysis. */
+final class TestImages {
+
+  private TestImages() {}
+
+  /**
+   * Creates an image of random opaque pixels. It compresses poorly as PNG, and images of other
+   * seeds hash differently.
+   *
+   * @param width the width of the image
+   * @param height the height of the image
+   * @param seed the seed of the pixels
+   * @return the image
+   */
+  static WritableImage createNoiseImage(final int width, final int height, final long seed) {
+    var random = new Random(seed);
+    var image = new WritableImage(width, height);
+    var pixelWriter = image.getPixelWriter();
+    for (var y = 0; y < height; y++) {
+      for (var x = 0; x < width; x++) {
+        pixelWriter.setArgb(x, y, 0xFF000000 | random.nextInt());
+      }
+    }
+    return image;
+  }
+}
@@ -0,0 +1,148 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TextDeltaHandOffTest {
+
+  private static final long TIMEOUT_MILLIS = 5000;
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private CompletableFuture<Void> run(final Runnable task) {
+    return CompletableFuture.runAsync(task, executor);
+  }
+
+  @Test
+  void offer_ShouldPassDeltasInOrder() {
+    // Given
+    var chunks = new ArrayList<String>();
+    var handOff = new TextDeltaHandOff(16, this::run, chunks::add);
+
+    // When
+    handOff.offer("a");
+    handOff.offer("b");
+    handOff.offer("c");
+    handOff.close().join();
+
+    // Then
+    assertEquals("abc", String.join("", chunks));
+    assertEquals(0, handOff.getMergedDeltas());
+  }
+
+  @Test
+  void offer_ShouldMergeDeltasInsteadOfBlockingWhenFull() throws InterruptedException {
+    // Given a consumer blocked on the first chunk
+    var chunks = new ArrayList<String>();
+    var consuming = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var handOff =
+        new TextDeltaHandOff(
+            2,
+            this::run,
+            chunk -> {
+              consuming.countDown();
+              try {
+                release.await();
+              } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              chunks.add(chunk);
+            });
+    handOff.offer("first ");
+    assertTrue(consuming.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+    // When more deltas arrive than the queue holds
+    for (var i = 0; i < 10; i++) {
+      handOff.offer(i + " ");
+    }
+    release.countDown();
+    handOff.close().join();
+
+    // Then the text is unchanged, in fewer chunks
+    assertEquals("first 0 1 2 3 4 5 6 7 8 9 ", String.join("", chunks));
+    assertEquals(List.of("first ", "0 ", "1 2 3 4 5 6 7 8 9 "), chunks);
+    assertEquals(8, handOff.getMergedDeltas());
+  }
+
+  @Test
+  void offer_ShouldNotConsumeConcurrently() {
+    // Given
+    var running = new AtomicInteger();
+    var maxRunning = new AtomicInteger();
+    var handOff =
+        new TextDeltaHandOff(
+            4,
+            this::run,
+            chunk -> {
+              maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+              Thread.yield();
+              running.decrementAndGet();
+            });
+
+    // When
+    for (var i = 0; i < 1000; i++) {
+      handOff.offer("x");
+    }
+    handOff.close().join();
+
+    // Then
+    assertEquals(1, maxRunning.get());
+  }
+
+  @Test
+  void close_ShouldFailAfterFailureOfConsumer() {
+    // Given
+    var handOff =
+        new TextDeltaHandOff(
+            4,
+            this::run,
+            chunk -> {
+              throw new IllegalStateException("parser failed");
+            });
+
+    // When
+    handOff.offer("a");
+    var drained = handOff.close();
+
+    // Then
+    var error = assertThrows(CompletionException.class, drained::join);
+    assertInstanceOf(IllegalStateException.class, error.getCause());
+    assertThrows(IllegalStateException.class, () -> handOff.offer("b"));
+  }
+
+  @Test
+  void close_ShouldFailIfConsumingTaskIsNotRun() {
+    // Given a runner shut down before it runs the task
+    var handOff =
+        new TextDeltaHandOff(
+            4,
+            task -> CompletableFuture.failedFuture(new RejectedExecutionException("shut down")),
+            chunk -> {});
+
+    // When
+    handOff.offer("a");
+    var drained = handOff.close();
+
+    // Then
+    var error = assertThrows(CompletionException.class, drained::join);
+    assertInstanceOf(RejectedExecutionException.class, error.getCause());
+  }
+}
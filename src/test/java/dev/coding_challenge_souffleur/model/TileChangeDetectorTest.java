@@ -0,0 +1,125 @@
+package dev.coding_challenge_souffleur.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import javafx.scene.image.WritableImage;
+import org.junit.jupiter.api.Test;
+
+class TileChangeDetectorTest {
+
+  private static final int WIDTH = 320;
+  private static final int HEIGHT = 160;
+
+  /** Creates a white frame, 10 by 5 tiles by default. */
+  private static WritableImage createFrame(final int width, final int height) {
+    var frame = new WritableImage(width, height);
+    var pixelWriter = frame.getPixelWriter();
+    for (var y = 0; y < height; y++) {
+      for (var x = 0; x < width; x++) {
+        pixelWriter.setArgb(x, y, 0xFFFFFFFF);
+      }
+    }
+    return frame;
+  }
+
+  /** Changes one pixel in each of the first tiles of the frame. */
+  private static void changeTiles(final WritableImage frame, final int tiles, final int argb) {
+    var columns = WIDTH / TileChangeDetector.TILE_SIZE;
+    for (var tile = 0; tile < tiles; tile++) {
+      var x = tile % columns * TileChangeDetector.TILE_SIZE + 5;
+      var y = tile / columns * TileChangeDetector.TILE_SIZE + 5;
+      frame.getPixelWriter().setArgb(x, y, argb);
+    }
+  }
+
+  @Test
+  void hasChanged_ShouldAcceptFirstFrame() {
+    // Given
+    var detector = new TileChangeDetector(0.1);
+
+    // Then
+    assertTrue(detector.hasChanged(createFrame(WIDTH, HEIGHT)));
+  }
+
+  @Test
+  void hasChanged_ShouldRejectUnchangedFrame() {
+    // Given
+    var detector = new TileChangeDetector(0.1);
+    var frame = createFrame(WIDTH, HEIGHT);
+    detector.hasChanged(frame);
+
+    // Then
+    assertFalse(detector.hasChanged(frame));
+    assertFalse(detector.hasChanged(createFrame(WIDTH, HEIGHT)));
+  }
+
+  @Test
+  void hasChanged_ShouldCountChangedTiles() {
+    // Given
+    var detector = new TileChangeDetector(0.1);
+    var frame = createFrame(WIDTH, HEIGHT);
+    detector.hasChanged(frame);
+
+    // When
+    changeTiles(frame, 4, 0xFF000000);
+
+    // Then 4 of 50 tiles are below the threshold of 5
+    assertFalse(detector.hasChanged(frame));
+
+    // When
+    changeTiles(frame, 5, 0xFF000000);
+
+    // Then
+    assertTrue(detector.hasChanged(frame));
+    assertFalse(detector.hasChanged(frame));
+  }
+
+  @Test
+  void hasChanged_ShouldDetectSlowChangesSinceLastChangedFrame() {
+    // Given
+    var detector = new TileChangeDetector(0.1);
+    var frame = createFrame(WIDTH, HEIGHT);
+    detector.hasChanged(frame);
+
+    // When 3 tiles change per frame
+    changeTiles(frame, 3, 0xFF000000);
+    var afterThreeTiles = detector.hasChanged(frame);
+    changeTiles(frame, 6, 0xFF000000);
+    var afterSixTiles = detector.hasChanged(frame);
+
+    // Then
+    assertFalse(afterThreeTiles);
+    assertTrue(afterSixTiles);
+  }
+
+  @Test
+  void hasChanged_ShouldAcceptResizedFrame() {
+    // Given
+    var detector = new TileChangeDetector(0.1);
+    detector.hasChanged(createFrame(WIDTH, HEIGHT));
+
+    // Then
+    assertTrue(detector.hasChanged(createFrame(WIDTH + 1, HEIGHT)));
+    assertFalse(detector.hasChanged(createFrame(WIDTH + 1, HEIGHT)));
+  }
+
+  @Test
+  void hasChanged_ShouldHashPartialTilesAtEdges() {
+    // Given 11 by 6 tiles, the last column and row being partial
+    var detector = new TileChangeDetector(0.01);
+    var frame = createFrame(WIDTH + 7, HEIGHT + 3);
+    detector.hasChanged(frame);
+
+    // When
+    frame.getPixelWriter().setArgb(WIDTH + 6, HEIGHT + 2, 0xFF000000);
+
+    // Then
+    assertTrue(detector.hasChanged(frame));
+  }
+
+  @Test
+  void constructor_ShouldRejectInvalidFraction() {
+    assertThrows(IllegalArgumentException.class, () -> new TileChangeDetector(0.0));
+    assertThrows(IllegalArgumentException.class, () -> new TileChangeDetector(1.5));
+  }
+}
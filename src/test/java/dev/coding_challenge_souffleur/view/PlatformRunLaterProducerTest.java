@@ -34,5 +34,6 @@ class PlatformRunLaterProducerTest {
 
     assertNotNull(first);
     assertNotNull(second);
+    assertSame(first, second);
   }
 }
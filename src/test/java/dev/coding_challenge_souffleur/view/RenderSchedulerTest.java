@@ -0,0 +1,92 @@
+package dev.coding_challenge_souffleur.view;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RenderSchedulerTest {
+
+  private final List<Runnable> runLaterQueue = new ArrayList<>();
+  private final List<String> applied = new ArrayList<>();
+
+  private RenderScheduler renderScheduler;
+
+  @BeforeEach
+  void setUp() {
+    // Frames are triggered manually, the queued timer start is never run
+    renderScheduler = new RenderScheduler(runLaterQueue::add);
+  }
+
+  @Test
+  void shouldApplyOnlyLatestUpdatePerTarget() {
+    renderScheduler.coalesce("status", () -> applied.add("status 1"));
+    renderScheduler.coalesce("status", () -> applied.add("status 2"));
+    renderScheduler.coalesce("tabs", () -> applied.add("tabs"));
+
+    assertTrue(renderScheduler.applyPendingUpdates());
+
+    assertEquals(List.of("status 2", "tabs"), applied);
+    assertEquals(3, renderScheduler.getReceivedUpdateCount());
+    assertEquals(2, renderScheduler.getAppliedUpdateCount());
+  }
+
+  @Test
+  void shouldApplyTargetsInOrderOfTheirLatestUpdate() {
+    renderScheduler.coalesce("status", () -> applied.add("status 1"));
+    renderScheduler.coalesce("tabs", () -> applied.add("tabs"));
+    renderScheduler.coalesce("status", () -> applied.add("status 2"));
+
+    renderScheduler.applyPendingUpdates();
+
+    assertEquals(List.of("tabs", "status 2"), applied);
+  }
+
+  @Test
+  void shouldRequestFramesOnlyOnceWhileUpdatesArePending() {
+    renderScheduler.coalesce("status", () -> applied.add("status"));
+    renderScheduler.coalesce("tabs", () -> applied.add("tabs"));
+
+    assertEquals(1, runLaterQueue.size());
+  }
+
+  @Test
+  void shouldReportNothingAppliedWithoutPendingUpdates() {
+    assertFalse(renderScheduler.applyPendingUpdates());
+
+    renderScheduler.coalesce("status", () -> applied.add("status"));
+    renderScheduler.applyPendingUpdates();
+
+    assertFalse(renderScheduler.applyPendingUpdates());
+    assertEquals(List.of("status"), applied);
+  }
+
+  @Test
+  void shouldContinueAfterFailingUpdate() {
+    renderScheduler.coalesce(
+        "failing",
+        () -> {
+          throw new IllegalStateException("Test failure");
+        });
+    renderScheduler.coalesce("status", () -> applied.add("status"));
+
+    renderScheduler.applyPendingUpdates();
+
+    assertEquals(List.of("status"), applied);
+    assertEquals(2, renderScheduler.getAppliedUpdateCount());
+  }
+
+  @Test
+  void shouldNotCoalesceAcceptedRunnables() {
+    Runnable first = () -> applied.add("first");
+    Runnable second = () -> applied.add("second");
+
+    renderScheduler.accept(first);
+    renderScheduler.accept(second);
+
+    assertEquals(List.of(first, second), runLaterQueue);
+    assertEquals(0, renderScheduler.getReceivedUpdateCount());
+  }
+}
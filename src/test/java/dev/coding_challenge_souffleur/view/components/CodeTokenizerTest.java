@@ -0,0 +1,218 @@
+package dev.coding_challenge_souffleur.view.components;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import dev.coding_challenge_souffleur.model.CodingLanguage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class CodeTokenizerTest {
+
+  private static CodeTokenizer tokenizer(final CodingLanguage language, final String text) {
+    var tokenizer = new CodeTokenizer(LanguageSyntax.of(language));
+    tokenizer.setText(text);
+    tokenizer.tokenize(() -> false);
+    return tokenizer;
+  }
+
+  // Lists the styled tokens from the given line as "style:text"
+  private static List<String> tokens(
+      final CodeTokenizer tokenizer, final String text, final int fromLine) {
+    var tokens = new ArrayList<String>();
+    var position = tokenizer.lineStart(fromLine);
+    for (final var span : tokenizer.styleSpans(fromLine)) {
+      if (!span.getStyle().isEmpty()) {
+        var token = text.substring(position, position + span.getLength());
+        tokens.add(span.getStyle().iterator().next() + ":" + token);
+      }
+      position += span.getLength();
+    }
+    return tokens;
+  }
+
+  private static List<String> tokens(final CodingLanguage language, final String text) {
+    return tokens(tokenizer(language, text), text, 0);
+  }
+
+  @Test
+  void shouldTokenizeJava() {
+    var code = "public int sum(int[] a) { // total\n  return a[0] + 42; /* x */ }\n";
+
+    assertEquals(
+        List.of(
+            "keyword:public",
+            "keyword:int",
+            "keyword:int",
+            "comment:// total",
+            "keyword:return",
+            "number:0",
+            "number:42",
+            "comment:/* x */"),
+        tokens(CodingLanguage.JAVA, code));
+  }
+
+  @Test
+  void shouldTokenizePython() {
+    var code = "def f(x):\n    return 'a' if x else None  # done\n";
+
+    assertEquals(
+        List.of(
+            "keyword:def",
+            "keyword:return",
+            "string:'a'",
+            "keyword:if",
+            "keyword:else",
+            "keyword:None",
+            "comment:# done"),
+        tokens(CodingLanguage.PYTHON, code));
+  }
+
+  @Test
+  void shouldTokenizeCSharp() {
+    assertEquals(
+        List.of("keyword:foreach", "keyword:var", "keyword:in", "string:\"a\\\"b\""),
+        tokens(CodingLanguage.CSHARP, "foreach (var s in \"a\\\"b\")"));
+  }
+
+  @Test
+  void shouldTokenizeJavaScript() {
+    assertEquals(
+        List.of("keyword:const", "string:`a", "string:b`", "number:1.5"),
+        tokens(CodingLanguage.JAVASCRIPT, "const s = `a\nb`, n = 1.5;"));
+  }
+
+  @Test
+  void shouldTokenizeGo() {
+    assertEquals(
+        List.of("keyword:func", "keyword:return", "string:'x'", "comment:// nil"),
+        tokens(CodingLanguage.GOLANG, "func f() rune { return 'x' } // nil"));
+  }
+
+  @ParameterizedTest
+  @EnumSource(CodingLanguage.class)
+  void shouldSupportEveryLanguage(final CodingLanguage language) {
+    var tokenizer = tokenizer(language, "if x1 == 10 {\n}");
+
+    assertEquals(2, tokenizer.lineCount());
+    assertEquals(List.of("keyword:if", "number:10"), tokens(tokenizer, "if x1 == 10 {\n}", 0));
+  }
+
+  @Test
+  void shouldNotStyleDigitsWithinIdentifiers() {
+    assertEquals(List.of(), tokens(CodingLanguage.JAVA, "value2 = x10;"));
+  }
+
+  @Test
+  void shouldContinueBlockCommentOnFollowingLines() {
+    var code = "/* a\nint b\n*/ int c;";
+
+    assertEquals(
+        List.of("comment:/* a", "comment:int b", "comment:*/", "keyword:int"),
+        tokens(CodingLanguage.JAVA, code));
+  }
+
+  @Test
+  void shouldContinueTextBlockOnFollowingLines() {
+    var code = "var s = \"\"\"\n  int\n  \"\"\";";
+
+    assertEquals(
+        List.of("keyword:var", "string:\"\"\"", "string:  int", "string:  \"\"\""),
+        tokens(CodingLanguage.JAVA, code));
+  }
+
+  @Test
+  void shouldEndUnterminatedStringWithLine() {
+    assertEquals(
+        List.of("string:\"open", "keyword:int"), tokens(CodingLanguage.JAVA, "\"open\nint"));
+  }
+
+  @Test
+  void shouldOnlyTokenizeLinesAfterLastStableLine() {
+    var first = "int a;\nint b;\nre";
+    var tokenizer = tokenizer(CodingLanguage.JAVA, first);
+    assertEquals(3, tokenizer.lineCount());
+
+    // The last line was incomplete, so it is tokenized again
+    var grown = first + "turn b;\n}";
+    assertEquals(2, tokenizer.setText(grown));
+    tokenizer.tokenize(() -> false);
+
+    assertEquals(4, tokenizer.lineCount());
+    assertEquals(first.length() - 2, tokenizer.lineStart(2));
+    assertEquals(List.of("keyword:return"), tokens(tokenizer, grown, 2));
+  }
+
+  @Test
+  void shouldTokenizeAgainFromChangedLine() {
+    var tokenizer = tokenizer(CodingLanguage.JAVA, "int a;\nint b;\nint c;");
+
+    var changed = "int a;\nchar b;\nint c;";
+    assertEquals(1, tokenizer.setText(changed));
+    tokenizer.tokenize(() -> false);
+
+    assertEquals(List.of("keyword:char", "keyword:int"), tokens(tokenizer, changed, 1));
+  }
+
+  @Test
+  void shouldReplaceTextFromPosition() {
+    var tokenizer = tokenizer(CodingLanguage.JAVA, "int a;\nint b;\nint c;");
+
+    // Only the text from the middle of the second line on is passed
+    assertEquals(1, tokenizer.replaceFrom(11, "x;\nchar c;"));
+    tokenizer.tokenize(() -> false);
+
+    var replaced = "int a;\nint x;\nchar c;";
+    assertEquals(replaced, tokenizer.text().toString());
+    assertEquals(List.of("keyword:char"), tokens(tokenizer, replaced, 2));
+  }
+
+  @Test
+  void shouldUpdateFollowingLinesWhenCommentOpens() {
+    var tokenizer = tokenizer(CodingLanguage.JAVA, "int a;\nint b;");
+
+    var changed = "/* int a;\nint b;";
+    assertEquals(0, tokenizer.setText(changed));
+    tokenizer.tokenize(() -> false);
+
+    assertEquals(List.of("comment:/* int a;", "comment:int b;"), tokens(tokenizer, changed, 0));
+  }
+
+  @Test
+  void shouldKeepLinesWhenTextIsUnchanged() {
+    var text = "int a;\nint b;";
+    var tokenizer = tokenizer(CodingLanguage.JAVA, text);
+
+    assertEquals(2, tokenizer.setText(text));
+  }
+
+  @Test
+  void shouldKeepTokenizedLinesWhenCancelled() {
+    var text = "int a;\nint b;\nint c;";
+    var tokenizer = new CodeTokenizer(LanguageSyntax.of(CodingLanguage.JAVA));
+    tokenizer.setText(text);
+
+    var checks = new int[1];
+    assertThrows(CancellationException.class, () -> tokenizer.tokenize(() -> ++checks[0] > 2));
+    assertEquals(2, tokenizer.lineCount());
+
+    tokenizer.tokenize(() -> false);
+    assertEquals(3, tokenizer.lineCount());
+    assertEquals(List.of("keyword:int", "keyword:int", "keyword:int"), tokens(tokenizer, text, 0));
+  }
+
+  @Test
+  void shouldFindLineOfPosition() {
+    var tokenizer = tokenizer(CodingLanguage.JAVA, "a\nbc\n\nd");
+
+    assertEquals(0, tokenizer.lineAt(0));
+    assertEquals(0, tokenizer.lineAt(1));
+    assertEquals(1, tokenizer.lineAt(2));
+    assertEquals(2, tokenizer.lineAt(5));
+    assertEquals(3, tokenizer.lineAt(6));
+    assertEquals(3, tokenizer.lineAt(100));
+  }
+}
@@ -0,0 +1,83 @@
+package dev.coding_challenge_souffleur.view.components;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import dev.coding_challenge_souffleur.model.SectionEvent;
+import dev.coding_challenge_souffleur.model.SectionEvent.SectionAppended;
+import dev.coding_challenge_souffleur.model.SectionEvent.SectionCompleted;
+import dev.coding_challenge_souffleur.model.SectionEvent.SectionStarted;
+import dev.coding_challenge_souffleur.model.SolutionSection;
+import java.util.List;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import org.fxmisc.richtext.CodeArea;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.util.WaitForAsyncUtils;
+
+@ExtendWith(ApplicationExtension.class)
+@Isolated
+class MultiSolutionTabPaneTest {
+
+  // Events of "SOLUTION_DESCRIPTION: Sort first" followed by "SOLUTION_TITLE: Two Pointers"
+  private static final List<SectionEvent> UNTITLED_CONTENT =
+      List.of(
+          new SectionStarted(0, SolutionSection.SOLUTION_DESCRIPTION),
+          new SectionAppended(0, SolutionSection.SOLUTION_DESCRIPTION, 0, "Sort first"));
+  private static final List<SectionEvent> TITLE =
+      List.of(
+          new SectionCompleted(0, SolutionSection.SOLUTION_DESCRIPTION),
+          new SectionStarted(0, SolutionSection.SOLUTION_TITLE),
+          new SectionAppended(0, SolutionSection.SOLUTION_TITLE, 0, "Two Pointers"));
+
+  private MultiSolutionTabPane tabPane;
+
+  @Start
+  void start(final Stage stage) {
+    tabPane = new MultiSolutionTabPane();
+    stage.setScene(new Scene(tabPane, 400, 300));
+    stage.show();
+  }
+
+  private String descriptionOfTab(final int index) {
+    var tabContent = (SolutionTabContent) tabPane.getTabs().get(index).getContent();
+    var display = ((Parent) tabContent.getContent()).lookup("#solutionDescriptionFlow");
+    var codeArea = ((VirtualizedTextDisplay) display).getChildren().getFirst();
+    return assertInstanceOf(CodeArea.class, codeArea).getText();
+  }
+
+  @Test
+  void testKeepsContentStreamedBeforeSolutionTitle() {
+    Platform.runLater(
+        () -> {
+          tabPane.applySectionEvents(UNTITLED_CONTENT);
+          tabPane.applySectionEvents(TITLE);
+        });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertEquals(1, tabPane.getTabs().size());
+    assertEquals("(1) Two Pointers", tabPane.getTabs().getFirst().getText());
+    assertEquals("Sort first", descriptionOfTab(0));
+  }
+
+  @Test
+  void testClearSolutionsRemovesTabsOfPreviousAnalysis() {
+    Platform.runLater(
+        () -> {
+          tabPane.applySectionEvents(UNTITLED_CONTENT);
+          tabPane.clearSolutions();
+          tabPane.applySectionEvents(TITLE);
+        });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertEquals(1, tabPane.getTabs().size());
+    assertEquals("(1) Two Pointers", tabPane.getTabs().getFirst().getText());
+    assertEquals("", descriptionOfTab(0));
+  }
+}
@@ -0,0 +1,110 @@
+package dev.coding_challenge_souffleur.view.components;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coding_challenge_souffleur.model.CodingLanguage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import org.fxmisc.richtext.CodeArea;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.util.WaitForAsyncUtils;
+
+@ExtendWith(ApplicationExtension.class)
+class SyntaxHighlighterTest {
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final AtomicInteger appliedSpans = new AtomicInteger();
+  private CodeArea codeArea;
+  private SyntaxHighlighter highlighter;
+
+  @Start
+  void start(final Stage stage) {
+    codeArea = new CodeArea();
+    codeArea.setUseInitialStyleForInsertion(true);
+    highlighter =
+        new SyntaxHighlighter(
+            codeArea,
+            executor,
+            update -> {
+              appliedSpans.incrementAndGet();
+              Platform.runLater(update);
+            });
+    stage.setScene(new Scene(codeArea, 400, 300));
+    stage.show();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private void replaceAndHighlight(final String text) {
+    Platform.runLater(
+        () -> {
+          codeArea.replaceText(text);
+          highlighter.highlight(CodingLanguage.JAVA, 0, text);
+        });
+  }
+
+  private void awaitKeywordAt(final int position) throws TimeoutException {
+    WaitForAsyncUtils.waitFor(
+        5, TimeUnit.SECONDS, () -> codeArea.getStyleOfChar(position).contains("keyword"));
+  }
+
+  @Test
+  void shouldApplyStyleSpansInBackground() throws TimeoutException {
+    replaceAndHighlight("int a = 1;");
+
+    awaitKeywordAt(0);
+    assertTrue(codeArea.getStyleOfChar(4).isEmpty());
+    assertTrue(codeArea.getStyleOfChar(8).contains("number"));
+  }
+
+  @Test
+  void shouldCancelStaleJobs() throws TimeoutException, InterruptedException {
+    var release = new CountDownLatch(1);
+    executor.execute(
+        () -> {
+          try {
+            release.await();
+          } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+
+    replaceAndHighlight("int a;");
+    replaceAndHighlight("int a;\nlong b;");
+    WaitForAsyncUtils.waitForFxEvents();
+    release.countDown();
+
+    awaitKeywordAt(7);
+    assertTrue(codeArea.getStyleOfChar(0).contains("keyword"));
+    assertEquals(1, appliedSpans.get());
+  }
+
+  @Test
+  void shouldRestyleReplacedTextOfUnchangedCode() throws TimeoutException {
+    replaceAndHighlight("int a;\nint b;");
+    awaitKeywordAt(7);
+
+    // Replacing the text with equal code drops its styles, although the tokens did not change
+    replaceAndHighlight("int a;\nint b;");
+
+    WaitForAsyncUtils.waitFor(5, TimeUnit.SECONDS, () -> appliedSpans.get() == 2);
+    WaitForAsyncUtils.waitForFxEvents();
+    assertTrue(codeArea.getStyleOfChar(0).contains("keyword"));
+    assertTrue(codeArea.getStyleOfChar(7).contains("keyword"));
+  }
+}
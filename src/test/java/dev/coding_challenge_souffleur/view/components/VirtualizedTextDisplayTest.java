@@ -6,6 +6,8 @@ import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import dev.coding_challenge_souffleur.model.CodingLanguage;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import javafx.application.Platform;
 import javafx.scene.Scene;
@@ -129,6 +131,77 @@ class VirtualizedTextDisplayTest {
     assertTrue(codeArea.getText().isEmpty());
   }
 
+  @Test
+  void testAppendFormattedContent() {
+    Platform.runLater(
+        () -> {
+          display.appendFormattedContent(0, "Streamed");
+          display.appendFormattedContent(8, " text");
+        });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertEquals("Streamed text", getCodeArea().getText());
+  }
+
+  @Test
+  void testAppendFormattedCodeContentReplacesTailAfterOffset() {
+    Platform.runLater(
+        () -> {
+          display.setFormattedContent("Loading...");
+          display.appendFormattedCodeContent(0, "int x;");
+          display.appendFormattedCodeContent(4, "y;");
+        });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    var codeArea = getCodeArea();
+    assertEquals("int y;", codeArea.getText());
+    assertTrue(codeArea.getStyleClass().contains("code-text"));
+  }
+
+  @Test
+  void testSetFormattedContentPatchesChangedTail() {
+    Platform.runLater(
+        () -> {
+          display.setFormattedCodeContent("int a = 1;");
+          display.setFormattedCodeContent("int a = 1;\nint b = 2;");
+          display.setFormattedCodeContent("int a = 1;\nint c;");
+        });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertEquals("int a = 1;\nint c;", getCodeArea().getText());
+  }
+
+  @Test
+  void testSetFormattedContentAfterAppend() {
+    Platform.runLater(
+        () -> {
+          display.appendFormattedContent(0, "Streamed");
+          display.setFormattedContent("Replaced");
+          display.appendFormattedContent(8, " again");
+        });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertEquals("Replaced again", getCodeArea().getText());
+  }
+
+  @Test
+  void testHighlightsCodeOfCodingLanguage() throws TimeoutException {
+    Platform.runLater(
+        () -> {
+          display.setCodingLanguage(CodingLanguage.PYTHON);
+          display.appendFormattedCodeContent(0, "def f():\n");
+          display.appendFormattedCodeContent(9, "    return None");
+        });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    var codeArea = getCodeArea();
+    WaitForAsyncUtils.waitFor(
+        5, TimeUnit.SECONDS, () -> codeArea.getStyleOfChar(13).contains("keyword"));
+    assertTrue(codeArea.getStyleOfChar(0).contains("keyword"));
+    assertTrue(codeArea.getStyleOfChar(20).contains("keyword"));
+    assertTrue(codeArea.getStyleOfChar(4).isEmpty());
+  }
+
   private CodeArea getCodeArea() {
     var node = display.getChildren().getFirst();
     assertNotNull(node, "VirtualizedTextDisplay should have a child node");
@@ -49,6 +49,13 @@ class KeyCommandTest {
     verify(mockViewController).executeMultiSolutionAnalysis();
   }
 
+  @Test
+  void shouldExecuteRunFreshAnalysisCommand() {
+    when(mockDependencies.viewController()).thenReturn(mockViewController);
+    KeyCommand.RUN_FRESH_ANALYSIS.execute(mockDependencies);
+    verify(mockViewController).executeFreshMultiSolutionAnalysis();
+  }
+
   @Test
   void shouldExecuteRunMockAnalysisCommand() {
     when(mockDependencies.viewController()).thenReturn(mockViewController);